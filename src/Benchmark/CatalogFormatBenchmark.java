@@ -0,0 +1,69 @@
+package Benchmark;
+
+import WestminsterShoppingCenter.BinaryCatalogFile;
+import WestminsterShoppingCenter.Product;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A benchmark that compares the Java-serialized catalog file with the binary catalog format.
+ * For catalogs of 10^3 to 10^6 products it prints the file size and the time to load every product from each format.
+ */
+public class CatalogFormatBenchmark {
+    private static final int[] CATALOG_SIZES = {1_000, 10_000, 100_000, 1_000_000};
+    private static final int TIMED_LOADS = 5;
+
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        System.out.printf("%-10s %-16s %-16s %-18s %-18s%n", "Products", "Serialized (B)", "Binary (B)", "Serialized (ms)", "Binary (ms)");
+        for (int size : CATALOG_SIZES) {
+            List<Product> products = new ArrayList<>(Arrays.asList(CatalogStoreBenchmark.createProducts(size)));
+            Path serializedPath = Files.createTempFile("catalog", ".ser");
+            Path binaryPath = Files.createTempFile("catalog", ".bin");
+            try {
+                try (ObjectOutputStream outputStream = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(serializedPath)))) {
+                    outputStream.writeObject(products);
+                }
+                BinaryCatalogFile.write(products, binaryPath);
+
+                double serializedTime = averageLoadTime(serializedPath, false, size);
+                double binaryTime = averageLoadTime(binaryPath, true, size);
+                System.out.printf("%-10d %-16d %-16d %-18.2f %-18.2f%n", size,
+                        Files.size(serializedPath), Files.size(binaryPath), serializedTime, binaryTime);
+            } finally {
+                Files.deleteIfExists(serializedPath);
+                Files.deleteIfExists(binaryPath);
+            }
+        }
+    }
+
+    /**
+     * Returns the average time in milliseconds to load every product of a file, after an equal number of warm-up loads.
+     */
+    private static double averageLoadTime(Path path, boolean isBinary, int expectedSize) throws IOException, ClassNotFoundException {
+        long totalTime = 0;
+        for (int i = 0; i < TIMED_LOADS * 2; i++) {
+            long start = System.nanoTime();
+            List<?> products;
+            if (isBinary) {
+                products = BinaryCatalogFile.readAll(path);
+            } else {
+                try (ObjectInputStream inputStream = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                    products = (List<?>) inputStream.readObject();
+                }
+            }
+            long time = System.nanoTime() - start;
+            if (products.size() != expectedSize) {
+                throw new IllegalStateException("Loaded " + products.size() + " products, expected " + expectedSize);
+            }
+            if (i >= TIMED_LOADS) {
+                totalTime += time;
+            }
+        }
+        return totalTime / 1_000_000.0 / TIMED_LOADS;
+    }
+}
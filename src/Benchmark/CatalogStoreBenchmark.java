@@ -0,0 +1,102 @@
+package Benchmark;
+
+import WestminsterShoppingCenter.CatalogStore;
+import WestminsterShoppingCenter.Clothing;
+import WestminsterShoppingCenter.Electronics;
+import WestminsterShoppingCenter.Product;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A benchmark that measures the add, lookup and delete latency of the CatalogStore as the catalog grows.
+ * It fills a store with 10^3 to 10^6 products and prints the average cost of each operation in nanoseconds.
+ * The lookup latency should stay flat as the catalog size increases. Every change publishes a copy of the catalog
+ * (see CatalogStore), so deletes and adds grow with the catalog, and the store is filled with a single batch.
+ */
+public class CatalogStoreBenchmark {
+    private static final int[] CATALOG_SIZES = {1_000, 10_000, 100_000, 1_000_000};
+    private static final int OPERATIONS = 200_000; // Number of timed lookups per catalog size
+    private static final int CHANGES = 200; // Number of timed delete/add pairs per catalog size
+    private static final int WARMUP_ROUNDS = 2;
+
+    public static void main(String[] args) {
+        System.out.println("Warming up...");
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (int size : CATALOG_SIZES) {
+                runRound(size, false);
+            }
+        }
+
+        System.out.printf("%-12s %-14s %-14s %-14s %-14s%n", "Products", "Fill (ns/op)", "Lookup (ns/op)", "Delete (ns/op)", "Add (ns/op)");
+        for (int size : CATALOG_SIZES) {
+            runRound(size, true);
+        }
+    }
+
+    /**
+     * Fills a new store with the passed number of products and times fill, lookup, delete and add operations.
+     * The results are printed when report is true.
+     */
+    private static void runRound(int size, boolean report) {
+        Product[] products = createProducts(size);
+        CatalogStore store = new CatalogStore(size);
+
+        long fillStart = System.nanoTime();
+        store.addAll(Arrays.asList(products));
+        long fillTime = System.nanoTime() - fillStart;
+
+        Random random = new Random(42);
+        int[] picks = new int[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            picks[i] = random.nextInt(size);
+        }
+
+        long found = 0;
+        long lookupStart = System.nanoTime();
+        for (int pick : picks) {
+            if (store.get(products[pick].getProductID()) != null) {
+                found++;
+            }
+        }
+        long lookupTime = System.nanoTime() - lookupStart;
+
+        // Each deleted product is added back straight away so the catalog size stays the same
+        long deleteTime = 0;
+        long addTime = 0;
+        for (int i = 0; i < CHANGES; i++) {
+            Product product = products[picks[i]];
+            long deleteStart = System.nanoTime();
+            store.remove(product.getProductID());
+            long addStart = System.nanoTime();
+            store.add(product);
+            long addEnd = System.nanoTime();
+            deleteTime += addStart - deleteStart;
+            addTime += addEnd - addStart;
+        }
+
+        if (report) {
+            System.out.printf("%-12d %-14.1f %-14.1f %-14.1f %-14.1f%n", size,
+                    (double) fillTime / size, (double) lookupTime / OPERATIONS,
+                    (double) deleteTime / CHANGES, (double) addTime / CHANGES);
+        }
+        if (found != OPERATIONS || store.size() != size) {
+            throw new IllegalStateException("Catalog store lost products during the benchmark");
+        }
+    }
+
+    /**
+     * Creates the passed number of products, alternating between electronics and clothing items.
+     */
+    public static Product[] createProducts(int count) {
+        Product[] products = new Product[count];
+        for (int i = 0; i < count; i++) {
+            if (i % 2 == 0) {
+                products[i] = new Electronics("E" + i, "Electronic " + i, 10 + i % 50, 100 + i % 900, "Brand" + i % 40, 1 + i % 3);
+            } else {
+                products[i] = new Clothing("C" + i, "Clothing " + i, 10 + i % 50, 10 + i % 90, "M", "Colour" + i % 12);
+            }
+        }
+        return products;
+    }
+}
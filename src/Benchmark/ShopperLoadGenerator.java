@@ -0,0 +1,532 @@
+package Benchmark;
+
+import WestminsterShoppingCenter.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A workload generator that simulates many shoppers using the shopping center at the same time.
+ * Each shopper runs on its own virtual thread against the shopping manager, its inventory and a shopping cart priced
+ * with the standard promotions, the same core classes the GUI and the server use, without Swing.
+ * A shopper repeatedly picks an operation by weight: browsing a page of a category, looking up a product, adding items
+ * to the cart, pricing the cart with its discounts, checking out or abandoning the cart.
+ * Which products are looked up and added follows a Zipf distribution, so a few products are much more popular than the
+ * rest and run out of stock, as in a sale.
+ *
+ * The throughput and the 50th, 99th and 99.9th percentile latencies of each operation are printed, followed by checks
+ * that the run kept the stock consistent: stock and reservations never go negative, no more items are reserved than are
+ * in stock, every reservation is released, the items left plus the items sold equal the starting stock, the journal
+ * replays to the same stock levels, and the order log holds every order placed.
+ * The process exits with status 1 if a check fails.
+ *
+ * The run is configured with name=value arguments, for example:
+ *   java Benchmark.ShopperLoadGenerator users=256 seconds=10 skew=1.2 mix=browse:30,lookup:30,add:25,quote:5,checkout:8,abandon:2
+ */
+public class ShopperLoadGenerator {
+    private static final int PAGE_SIZE = 20; // Products in a page of a category
+    private static final int MAX_CART_LINES = 10; // A shopper with this many products in the cart checks out instead of adding more
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    private final int users;
+    private final int warmupSeconds; // Operations in the warm-up are checked but their latencies are not recorded
+    private final int seconds;
+    private final int catalogSize;
+    private final int initialStock; // Items in stock of every product at the start
+    private final double skew; // Exponent of the Zipf distribution of product popularity, 0 for uniform
+    private final int[] mixWeights; // Weight of each operation, indexed by ordinal
+    private final long thinkMillis; // Pause of a shopper between operations
+
+    private double[] popularityCdf; // Cumulative probability of picking each product index
+    private WestminsterShoppingManager manager;
+    private AtomicLongArray soldItems; // Items sold of each product index
+    private final LongAdder orders = new LongAdder();
+    private final LongAdder abandonedCarts = new LongAdder();
+    private final LongAdder stockOuts = new LongAdder(); // Items a shopper could not add because they were all reserved or sold
+    private final LongAdder revenueInPence = new LongAdder();
+    private final LongAdder discountInPence = new LongAdder();
+    private final Queue<String> errors = new ConcurrentLinkedQueue<>();
+    private volatile boolean running;
+
+    /**
+     * The operations a shopper performs.
+     */
+    private enum Operation {
+        BROWSE, // Reads a page of the products of a category
+        LOOKUP, // Looks up a product by ID
+        ADD, // Reserves items of a product and adds them to the cart
+        QUOTE, // Prices the cart with its discounts
+        CHECKOUT, // Sells the items in the cart
+        ABANDON // Releases the items in the cart
+    }
+
+    /**
+     * A constructor to initialize the load generator from name=value arguments; missing arguments take their defaults.
+     */
+    public ShopperLoadGenerator(Map<String, String> options) {
+        users = Integer.parseInt(options.getOrDefault("users", "128"));
+        warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        seconds = Integer.parseInt(options.getOrDefault("seconds", "10"));
+        catalogSize = Integer.parseInt(options.getOrDefault("products", "10000"));
+        initialStock = Integer.parseInt(options.getOrDefault("stock", "500"));
+        skew = Double.parseDouble(options.getOrDefault("skew", "1.0"));
+        thinkMillis = Long.parseLong(options.getOrDefault("think", "0"));
+        mixWeights = parseMix(options.getOrDefault("mix", "browse:30,lookup:30,add:25,quote:5,checkout:8,abandon:2"));
+        if (users <= 0 || seconds <= 0 || warmupSeconds < 0 || catalogSize <= 0 || initialStock < 0 || skew < 0 || thinkMillis < 0) {
+            throw new IllegalArgumentException("Invalid load generator options: " + options);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected name=value but got: " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        boolean passed = new ShopperLoadGenerator(options).run();
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs the shoppers against a new catalog in a temporary file, prints the results and returns true if every check passed.
+     */
+    public boolean run() throws Exception {
+        Path dataFile = Files.createTempFile("load", ".txt");
+        Files.delete(dataFile);
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // Hides the manager's messages
+        try {
+            manager = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+            Product[] products = CatalogStoreBenchmark.createProducts(catalogSize);
+            for (Product product : products) {
+                product.setNumOfItemsAvailable(initialStock);
+            }
+            manager.addProducts(Arrays.asList(products));
+            popularityCdf = zipfCdf(catalogSize, skew);
+            soldItems = new AtomicLongArray(catalogSize);
+
+            Map<Operation, long[]> latencies = runShoppers();
+            List<String> checks = checkConsistency(products, dataFile);
+            printReport(console, latencies, checks);
+            return errors.isEmpty() && checks.stream().allMatch(check -> check.startsWith("PASS"));
+        } finally {
+            System.setOut(console);
+            Files.deleteIfExists(dataFile);
+            Files.deleteIfExists(Paths.get(dataFile + CatalogJournal.FILE_SUFFIX));
+            Files.deleteIfExists(Paths.get(dataFile + OrderLog.FILE_SUFFIX));
+        }
+    }
+
+    /**
+     * Runs every shopper until the warm-up and the measurement are over, while a monitor thread samples the stock of
+     * every product for negative numbers. Returns the latencies recorded in the measurement of each operation.
+     */
+    private Map<Operation, long[]> runShoppers() throws InterruptedException {
+        long measureStart = System.nanoTime() + warmupSeconds * 1_000_000_000L;
+        long endTime = measureStart + seconds * 1_000_000_000L;
+        List<LatencyRecorder[]> shopperLatencies = Collections.synchronizedList(new ArrayList<>());
+        running = true;
+        Thread monitor = Thread.ofPlatform().daemon().name("stock-monitor").start(this::monitorStock);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < users; i++) {
+                executor.submit(() -> {
+                    shopperLatencies.add(shop(measureStart, endTime));
+                    return null;
+                });
+            }
+        }
+        running = false;
+        monitor.join();
+
+        Map<Operation, long[]> latencies = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            List<long[]> operationLatencies = new ArrayList<>();
+            for (LatencyRecorder[] recorders : shopperLatencies) {
+                operationLatencies.add(recorders[operation.ordinal()].toArray());
+            }
+            latencies.put(operation, merge(operationLatencies));
+        }
+        return latencies;
+    }
+
+    /**
+     * The loop of one shopper. Any cart still open at the end is abandoned, so all its items are released.
+     */
+    private LatencyRecorder[] shop(long measureStart, long endTime) throws InterruptedException {
+        LatencyRecorder[] recorders = new LatencyRecorder[Operation.values().length];
+        for (int i = 0; i < recorders.length; i++) {
+            recorders[i] = new LatencyRecorder();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ShoppingCart cart = newCart(true);
+        try {
+            long start;
+            while ((start = System.nanoTime()) < endTime) {
+                Operation operation = pickOperation(random, cart);
+                cart = perform(operation, cart, random);
+                long end = System.nanoTime();
+                if (start >= measureStart) {
+                    recorders[operation.ordinal()].record(end - start);
+                }
+                if (thinkMillis > 0) {
+                    Thread.sleep(thinkMillis);
+                }
+            }
+        } catch (RuntimeException exception) {
+            reportError("Shopper failed: " + exception);
+        } finally {
+            releaseCart(cart);
+        }
+        return recorders;
+    }
+
+    /**
+     * Performs an operation and returns the cart the shopper carries on with, which is a new one after checking out or abandoning.
+     */
+    private ShoppingCart perform(Operation operation, ShoppingCart cart, ThreadLocalRandom random) {
+        switch (operation) {
+            case BROWSE -> {
+                List<Product> view = manager.getProductView(random.nextBoolean() ? "Electronics" : "Clothing");
+                int offset = random.nextInt(Math.max(1, view.size() - PAGE_SIZE));
+                for (Product product : view.subList(offset, Math.min(view.size(), offset + PAGE_SIZE))) {
+                    int stock = product.getNumOfItemsAvailable(); // Read first, as stock only falls together with the reservations
+                    if (product.getReservedItems() > stock) {
+                        reportError("More items reserved than in stock of " + product.getProductID());
+                    }
+                }
+            }
+            case LOOKUP -> {
+                if (manager.getProductById(productID(pickProduct(random))) == null) {
+                    reportError("A product was not found by its ID");
+                }
+            }
+            case ADD -> {
+                Product product = manager.getProductById(productID(pickProduct(random)));
+                int quantity = 1 + random.nextInt(2);
+                if (manager.getInventory().reserve(product.getProductID(), quantity)) {
+                    cart.addItem(product, quantity);
+                } else {
+                    stockOuts.add(quantity);
+                }
+            }
+            case QUOTE -> {
+                long discount = cart.getTotalDiscountInPence();
+                long total = cart.calculateFinalCostInPence();
+                if (discount < 0 || discount > cart.getSubtotalInPence() || total != cart.getSubtotalInPence() - discount) {
+                    reportError("Inconsistent quote: subtotal " + cart.getSubtotalInPence() + ", discount " + discount + ", total " + total);
+                }
+            }
+            case CHECKOUT -> {
+                return checkout(cart);
+            }
+            case ABANDON -> {
+                releaseCart(cart);
+                abandonedCarts.increment();
+                return newCart(cart.isFirstPurchase());
+            }
+        }
+        return cart;
+    }
+
+    /**
+     * Places an order for the items of a cart with the order processor, waiting for the order to be written to disk.
+     * Every item was reserved when it was added, so none of them can be unavailable.
+     */
+    private ShoppingCart checkout(ShoppingCart cart) {
+        try {
+            Order order = manager.getOrderProcessor().placeOrder(cart, null);
+            if (!order.getUnavailableProductIDs().isEmpty()) {
+                reportError("Reserved items could not be sold: " + order.getUnavailableProductIDs());
+            }
+            for (OrderLine line : order.getLines()) {
+                soldItems.addAndGet(productIndex(line.getProductID()), line.getQuantity());
+            }
+            orders.increment();
+            revenueInPence.add(order.getTotalInPence());
+            discountInPence.add(order.getDiscountInPence());
+        } catch (IOException | RuntimeException exception) {
+            reportError("Checkout failed: " + exception);
+        }
+        return newCart(false);
+    }
+
+    private void releaseCart(ShoppingCart cart) {
+        for (CartLine line : cart.getLines()) {
+            manager.getInventory().release(line.getProduct().getProductID(), line.getQuantity());
+        }
+    }
+
+    private static ShoppingCart newCart(boolean firstPurchase) {
+        ShoppingCart cart = new ShoppingCart();
+        cart.setPricingPlan(PricingPlan.STANDARD_PROMOTIONS);
+        cart.setFirstPurchase(firstPurchase);
+        return cart;
+    }
+
+    /**
+     * Picks an operation by weight. An empty cart is not checked out or abandoned, and a full one is checked out.
+     */
+    private Operation pickOperation(ThreadLocalRandom random, ShoppingCart cart) {
+        if (cart.getLineCount() >= MAX_CART_LINES) {
+            return Operation.CHECKOUT;
+        }
+        int totalWeight = 0;
+        for (int weight : mixWeights) {
+            totalWeight += weight;
+        }
+        int pick = random.nextInt(totalWeight);
+        for (Operation operation : Operation.values()) {
+            pick -= mixWeights[operation.ordinal()];
+            if (pick < 0) {
+                boolean needsItems = operation == Operation.CHECKOUT || operation == Operation.ABANDON;
+                return needsItems && cart.getLineCount() == 0 ? Operation.ADD : operation;
+            }
+        }
+        throw new IllegalStateException("Operation weights changed");
+    }
+
+    /**
+     * Picks a product index following the Zipf distribution, so index 0 is the most popular product.
+     */
+    private int pickProduct(ThreadLocalRandom random) {
+        int index = Arrays.binarySearch(popularityCdf, random.nextDouble());
+        return Math.min(catalogSize - 1, index >= 0 ? index : -index - 1);
+    }
+
+    /**
+     * Checks every product for negative stock or reservations, or more items reserved than in stock, every millisecond
+     * until the shoppers finish.
+     */
+    private void monitorStock() {
+        while (running) {
+            for (int i = 0; i < catalogSize; i++) {
+                Product product = manager.getProductById(productID(i));
+                int stock = product.getNumOfItemsAvailable();
+                int reserved = product.getReservedItems();
+                if (stock < 0 || reserved < 0 || reserved > stock) {
+                    reportError("Inconsistent stock of " + product.getProductID() + ": " + stock + " available, " + reserved + " reserved");
+                }
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException exception) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Checks the stock after every shopper has finished, in memory, as replayed from the journal and against the order log.
+     * Returns one line per check, starting with PASS or FAIL.
+     */
+    private List<String> checkConsistency(Product[] products, Path dataFile) throws IOException {
+        int negative = 0;
+        int reserved = 0;
+        int unbalanced = 0;
+        long totalSold = 0;
+        for (int i = 0; i < catalogSize; i++) {
+            Product product = products[i];
+            if (product.getNumOfItemsAvailable() < 0) {
+                negative++;
+            }
+            if (product.getReservedItems() != 0) {
+                reserved++;
+            }
+            if (product.getNumOfItemsAvailable() + soldItems.get(i) != initialStock) {
+                unbalanced++;
+            }
+            totalSold += soldItems.get(i);
+        }
+
+        int mismatched = 0;
+        WestminsterShoppingManager replayed = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+        for (Product product : products) {
+            Product persisted = replayed.getProductById(product.getProductID());
+            if (persisted == null || persisted.getNumOfItemsAvailable() != product.getNumOfItemsAvailable()) {
+                mismatched++;
+            }
+        }
+
+        OrderProcessor orderProcessor = manager.getOrderProcessor();
+        orderProcessor.close();
+        long[] loggedItems = new long[catalogSize];
+        List<Order> loggedOrders = orderProcessor.getOrderLog().readOrders();
+        for (Order order : loggedOrders) {
+            for (OrderLine line : order.getLines()) {
+                loggedItems[productIndex(line.getProductID())] += line.getQuantity();
+            }
+        }
+        int unlogged = 0;
+        for (int i = 0; i < catalogSize; i++) {
+            if (loggedItems[i] != soldItems.get(i)) {
+                unlogged++;
+            }
+        }
+
+        List<String> checks = new ArrayList<>();
+        checks.add(result(errors.isEmpty(), "No errors during the run (" + errors.size() + " errors)"));
+        checks.add(result(negative == 0, "No negative stock (" + negative + " products)"));
+        checks.add(result(reserved == 0, "Every reservation released (" + reserved + " products still reserved)"));
+        checks.add(result(unbalanced == 0, "Stock left + items sold = starting stock (" + unbalanced + " products off, "
+                + totalSold + " items sold)"));
+        checks.add(result(mismatched == 0, "Journal replays to the same stock (" + mismatched + " products differ)"));
+        checks.add(result(loggedOrders.size() == orders.sum() && unlogged == 0, "Order log holds every order and item sold ("
+                + loggedOrders.size() + " orders logged, " + unlogged + " products off)"));
+        return checks;
+    }
+
+    private static String result(boolean passed, String description) {
+        return (passed ? "PASS " : "FAIL ") + description;
+    }
+
+    private void printReport(PrintStream console, Map<Operation, long[]> latencies, List<String> checks) {
+        console.printf("%d shoppers, %d products with %d items each, skew %.2f, %d s measured after %d s warm-up%n",
+                users, catalogSize, initialStock, skew, seconds, warmupSeconds);
+        console.printf("%-10s %-12s %-12s %-10s %-10s %-10s%n", "Operation", "Count", "Ops/s", "p50 (us)", "p99 (us)", "p99.9 (us)");
+        long totalCount = 0;
+        for (Operation operation : Operation.values()) {
+            long[] operationLatencies = latencies.get(operation);
+            totalCount += operationLatencies.length;
+            console.printf("%-10s %-12d %-12.0f %-10.1f %-10.1f %-10.1f%n", operation, operationLatencies.length,
+                    operationLatencies.length / (double) seconds, percentile(operationLatencies, 50),
+                    percentile(operationLatencies, 99), percentile(operationLatencies, 99.9));
+        }
+        console.printf("%-10s %-12d %-12.0f%n", "TOTAL", totalCount, totalCount / (double) seconds);
+        console.printf("Orders: %d, abandoned carts: %d, stock-outs: %d items, revenue: %s, discounts: %s%n",
+                orders.sum(), abandonedCarts.sum(), stockOuts.sum(),
+                Money.format(revenueInPence.sum()), Money.format(discountInPence.sum()));
+        OrderProcessor orderProcessor = manager.getOrderProcessor();
+        console.printf("Order log: %d orders group-committed in %d writes to disk (%.1f orders per write)%n",
+                orderProcessor.getPlacedOrderCount(), orderProcessor.getCommitCount(),
+                orderProcessor.getPlacedOrderCount() / (double) Math.max(1, orderProcessor.getCommitCount()));
+        for (String check : checks) {
+            console.println(check);
+        }
+        for (String error : errors) {
+            console.println("  " + error);
+        }
+    }
+
+    private void reportError(String error) {
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    /**
+     * Parses the operation weights, such as browse:30,lookup:30; operations that are not listed get a weight of 0.
+     */
+    private static int[] parseMix(String mix) {
+        int[] weights = new int[Operation.values().length];
+        int totalWeight = 0;
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight but got: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight: " + entry);
+            }
+            weights[Operation.valueOf(parts[0].trim().toUpperCase()).ordinal()] = weight;
+            totalWeight += weight;
+        }
+        if (totalWeight == 0) {
+            throw new IllegalArgumentException("The operation mix has no weight: " + mix);
+        }
+        return weights;
+    }
+
+    /**
+     * Returns the cumulative probabilities of a Zipf distribution over the passed number of ranks:
+     * the probability of rank k is proportional to 1 / (k + 1)^skew.
+     */
+    private static double[] zipfCdf(int size, double skew) {
+        double[] cdf = new double[size];
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += 1 / Math.pow(i + 1, skew);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    // Product IDs of CatalogStoreBenchmark.createProducts are E or C followed by the index
+    private static String productID(int index) {
+        return (index % 2 == 0 ? "E" : "C") + index;
+    }
+
+    private static int productIndex(String productID) {
+        return Integer.parseInt(productID.substring(1));
+    }
+
+    private static long[] merge(List<long[]> arrays) {
+        int total = 0;
+        for (long[] array : arrays) {
+            total += array.length;
+        }
+        long[] merged = new long[total];
+        int position = 0;
+        for (long[] array : arrays) {
+            System.arraycopy(array, 0, merged, position, array.length);
+            position += array.length;
+        }
+        Arrays.sort(merged);
+        return merged;
+    }
+
+    /**
+     * Returns the latency in microseconds below which the passed percentage of the sorted latencies fall.
+     */
+    private static double percentile(long[] sortedLatencies, double percent) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(percent / 100 * sortedLatencies.length) - 1);
+        return sortedLatencies[Math.max(0, index)] / 1_000.0;
+    }
+
+    /**
+     * Records the latencies of one operation of one shopper, without boxing them.
+     */
+    private static class LatencyRecorder {
+        private long[] latencies = new long[256];
+        private int count;
+
+        void record(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(latencies, count);
+        }
+    }
+}
+
+//REFERENCES
+
+/* Zipf distribution
+ * https://en.wikipedia.org/wiki/Zipf%27s_law
+ */
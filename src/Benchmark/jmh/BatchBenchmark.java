@@ -0,0 +1,89 @@
+package Benchmark.jmh;
+
+import WestminsterShoppingCenter.Clothing;
+import WestminsterShoppingCenter.Product;
+import WestminsterShoppingCenter.WestminsterShoppingManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks comparing the batch operations of WestminsterShoppingManager with the same changes made one product
+ * at a time, on a catalog of 10^4 products.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchBenchmark {
+    private static final int CATALOG_SIZE = 10_000;
+
+    @Param({"100", "10000"})
+    public int batchSize;
+
+    private Path dataFile;
+    private WestminsterShoppingManager manager;
+    private List<Product> newProducts;
+    private List<String> newProductIDs;
+    private Map<String, Integer> stockLevels;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkSupport.silenceConsole();
+        Product[] products = BenchmarkSupport.createProducts(CATALOG_SIZE);
+        dataFile = BenchmarkSupport.createDataFile();
+        manager = BenchmarkSupport.createManager(products, dataFile);
+
+        newProducts = new ArrayList<>(batchSize);
+        newProductIDs = new ArrayList<>(batchSize);
+        stockLevels = new HashMap<>();
+        for (int i = 0; i < batchSize; i++) {
+            newProducts.add(new Clothing("batch" + i, "Batch Shirt " + i, 10, 19.99, "M", "Red"));
+            newProductIDs.add("batch" + i);
+            stockLevels.put(products[i % CATALOG_SIZE].getProductID(), 20 + i % 7);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkSupport.restoreConsole();
+        BenchmarkSupport.deleteDataFile(dataFile);
+    }
+
+    /**
+     * Adds the products one at a time and deletes them again one at a time.
+     */
+    @Benchmark
+    public int addAndDeleteOneByOne() {
+        for (Product product : newProducts) {
+            manager.addProduct(product);
+        }
+        for (String productID : newProductIDs) {
+            manager.deleteProduct(productID);
+        }
+        return manager.getProductCount();
+    }
+
+    /**
+     * Adds the products in one batch and deletes them again in one batch.
+     */
+    @Benchmark
+    public int addAndDeleteBatch() {
+        manager.addProducts(newProducts);
+        manager.deleteProducts(newProductIDs);
+        return manager.getProductCount();
+    }
+
+    /**
+     * Sets the number of items available of many products in one batch.
+     */
+    @Benchmark
+    public int updateStockBatch() {
+        return manager.updateStock(stockLevels);
+    }
+}
@@ -0,0 +1,21 @@
+package Benchmark.jmh;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmark suite.
+ * Usage: BenchmarkRunner [regular expression of the benchmarks to run]
+ * Without an argument every benchmark in this package is run. The GUI benchmarks (CartBenchmark.addProductToCart
+ * and ProductTableBenchmark) need a display; exclude them on a headless machine with, for example,
+ * "Catalog|Persistence|CartBenchmark.calculateTotalCost".
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : BenchmarkRunner.class.getPackageName() + ".*");
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,94 @@
+package Benchmark.jmh;
+
+import Benchmark.CatalogStoreBenchmark;
+import Test.TempDataFiles;
+import WestminsterShoppingCenter.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Helper methods shared by the JMH benchmarks.
+ */
+final class BenchmarkSupport {
+    private static final PrintStream ORIGINAL_OUT = System.out;
+    private static final InputStream ORIGINAL_IN = System.in;
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Creates the passed number of products, alternating between electronics and clothing items.
+     */
+    static Product[] createProducts(int count) {
+        return CatalogStoreBenchmark.createProducts(count);
+    }
+
+    /**
+     * Writes the passed products to a new temporary data file and returns a manager, without a GUI, that has loaded them.
+     */
+    static WestminsterShoppingManager createManager(Product[] products, Path dataFile) throws IOException {
+        BinaryCatalogFile.write(Arrays.asList(products), dataFile);
+        return new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+    }
+
+    /**
+     * Creates a temporary data file name. The file itself is not created.
+     */
+    static Path createDataFile() throws IOException {
+        return TempDataFiles.create("benchmark");
+    }
+
+    /**
+     * Deletes a data file together with every file kept beside it, which are all named after it.
+     */
+    static void deleteDataFile(Path dataFile) throws IOException {
+        TempDataFiles.deleteAll(dataFile);
+    }
+
+    /**
+     * Discards everything printed to the console, so the manager's messages do not distort the measurements.
+     * It also answers "yes" to every confirmation the manager asks for, such as when deleting a product.
+     */
+    static void silenceConsole() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        System.setIn(new RepeatingInputStream("yes\n"));
+    }
+
+    /**
+     * Restores the console streams replaced by silenceConsole.
+     */
+    static void restoreConsole() {
+        System.setOut(ORIGINAL_OUT);
+        System.setIn(ORIGINAL_IN);
+    }
+
+    /**
+     * An input stream that repeats the same line forever.
+     */
+    private static class RepeatingInputStream extends InputStream {
+        private final byte[] line;
+        private int position;
+
+        RepeatingInputStream(String line) {
+            this.line = line.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int read() {
+            byte value = line[position];
+            position = (position + 1) % line.length;
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            for (int i = 0; i < length; i++) {
+                buffer[offset + i] = (byte) read();
+            }
+            return length;
+        }
+    }
+}
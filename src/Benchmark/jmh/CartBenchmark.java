@@ -0,0 +1,73 @@
+package Benchmark.jmh;
+
+import GUI.UserShoppingCart;
+import WestminsterShoppingCenter.Product;
+import WestminsterShoppingCenter.ShoppingCart;
+import WestminsterShoppingCenter.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the shopping cart hot paths.
+ * The UserShoppingCart benchmark creates a Swing window, so it needs a display (it fails with a HeadlessException without one).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartBenchmark {
+    @Param({"10", "100", "1000"})
+    public int cartLines;
+
+    private Product[] products;
+    private ShoppingCart shoppingCart;
+    private UserShoppingCart userShoppingCart;
+    private int nextProduct;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        products = BenchmarkSupport.createProducts(cartLines);
+        shoppingCart = new ShoppingCart();
+        for (Product product : products) {
+            shoppingCart.addItem(product);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpUserShoppingCart() {
+        if (userShoppingCart != null) {
+            userShoppingCart.dispose();
+        }
+        userShoppingCart = new UserShoppingCart((User) null);
+        nextProduct = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (userShoppingCart != null) {
+            userShoppingCart.dispose();
+        }
+    }
+
+    /**
+     * Calculates the total cost of a cart holding one of each product.
+     */
+    @Benchmark
+    public double calculateTotalCost() {
+        return shoppingCart.calculateTotalCost();
+    }
+
+    /**
+     * Adds the next product to the Swing cart, which updates the total and re-calculates the discounts.
+     * The cart keeps growing up to the number of cart lines and then adds to the existing lines.
+     */
+    @Benchmark
+    public void addProductToCart() {
+        Product product = products[nextProduct];
+        nextProduct = (nextProduct + 1) % products.length;
+        userShoppingCart.addProductToCart(product, 1);
+    }
+}
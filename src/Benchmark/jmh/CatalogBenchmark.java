@@ -0,0 +1,107 @@
+package Benchmark.jmh;
+
+import WestminsterShoppingCenter.Electronics;
+import WestminsterShoppingCenter.Product;
+import WestminsterShoppingCenter.WestminsterShoppingManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the catalog operations of WestminsterShoppingManager, for catalogs of 10^3 to 10^6 products.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int catalogSize;
+
+    private Path dataFile;
+    private WestminsterShoppingManager manager;
+    private String[] productIDs;
+    private Product newProduct;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkSupport.silenceConsole();
+        Product[] products = BenchmarkSupport.createProducts(catalogSize);
+        productIDs = new String[catalogSize];
+        for (int i = 0; i < catalogSize; i++) {
+            productIDs[i] = products[i].getProductID();
+        }
+        dataFile = BenchmarkSupport.createDataFile();
+        manager = BenchmarkSupport.createManager(products, dataFile);
+        newProduct = new Electronics("benchmark1", "Benchmark Phone", 10, 199.99, "Sony", 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkSupport.restoreConsole();
+        BenchmarkSupport.deleteDataFile(dataFile);
+    }
+
+    /**
+     * Looks up a random product by its ID.
+     */
+    @Benchmark
+    public Product getProductById() {
+        return manager.getProductById(productIDs[ThreadLocalRandom.current().nextInt(catalogSize)]);
+    }
+
+    /**
+     * Looks up a product ID that is not in the catalog.
+     */
+    @Benchmark
+    public Product getMissingProductById() {
+        return manager.getProductById("missing");
+    }
+
+    /**
+     * Adds a product and deletes it again, including the journal writes of both.
+     */
+    @Benchmark
+    public int addAndDeleteProduct() {
+        manager.addProduct(newProduct);
+        manager.deleteProduct(newProduct.getProductID());
+        return manager.getProductCount();
+    }
+
+    /**
+     * Lists the whole catalog in product ID order after a change, reading the sorted view copied from the version before it.
+     */
+    @Benchmark
+    public int listSortedAfterChange() {
+        manager.addProduct(newProduct);
+        manager.deleteProduct(newProduct.getProductID());
+        return manager.getSortedProductView(null).size();
+    }
+
+    /**
+     * Lists the whole catalog in product ID order after a change by copying and sorting it, for comparison.
+     */
+    @Benchmark
+    public int copyAndSortAfterChange() {
+        manager.addProduct(newProduct);
+        manager.deleteProduct(newProduct.getProductID());
+        List<Product> products = manager.getProductList();
+        products.sort(Comparator.comparing(Product::getProductID));
+        return products.size();
+    }
+
+    /**
+     * Returns the page of 100 products that follows a random product ID.
+     */
+    @Benchmark
+    public List<Product> pageAfterProductID() {
+        return manager.getProductsAfter(productIDs[ThreadLocalRandom.current().nextInt(catalogSize)], null, null, 100);
+    }
+}
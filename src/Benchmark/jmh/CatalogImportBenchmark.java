@@ -0,0 +1,105 @@
+package Benchmark.jmh;
+
+import WestminsterShoppingCenter.CatalogImporter;
+import WestminsterShoppingCenter.CatalogStore;
+import WestminsterShoppingCenter.WestminsterShoppingManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks that import a generated file of a million products into an empty catalog, as CSV and as JSON lines,
+ * and report the rows imported per second with one parsing thread and with every available processor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(CatalogImportBenchmark.ROWS) // Reported as rows per second
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class CatalogImportBenchmark {
+    static final int ROWS = 1_000_000;
+
+    @Param({"CSV", "JSON_LINES"})
+    public CatalogImporter.FileFormat format;
+
+    @Param({"1", "0"}) // 0 is every available processor
+    public int threads;
+
+    private Path importFile;
+    private Path dataFile;
+    private WestminsterShoppingManager manager;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkSupport.silenceConsole();
+        importFile = createImportFile(format);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkSupport.restoreConsole();
+        Files.deleteIfExists(importFile);
+    }
+
+    /**
+     * Creates a new, empty catalog stored in a temporary file for the next import.
+     */
+    @Setup(Level.Invocation)
+    public void createManager() throws IOException {
+        dataFile = BenchmarkSupport.createDataFile();
+        manager = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteManager() throws IOException {
+        BenchmarkSupport.deleteDataFile(dataFile);
+    }
+
+    /**
+     * Imports the whole file into the empty catalog.
+     */
+    @Benchmark
+    public CatalogImporter.ImportResult importFile() throws IOException {
+        CatalogImporter importer = threads == 0 ? new CatalogImporter(manager) : new CatalogImporter(manager, threads);
+        CatalogImporter.ImportResult result = importer.importFile(importFile, format);
+        if (result.getImportedCount() != ROWS) {
+            throw new IllegalStateException("Imported " + result.getImportedCount() + " products, expected " + ROWS);
+        }
+        return result;
+    }
+
+    /**
+     * Writes a file with a million products, half electronics and half clothing.
+     */
+    private static Path createImportFile(CatalogImporter.FileFormat format) throws IOException {
+        boolean csv = format == CatalogImporter.FileFormat.CSV;
+        Path importFile = Files.createTempFile("import", csv ? ".csv" : ".jsonl");
+        try (BufferedWriter writer = Files.newBufferedWriter(importFile)) {
+            if (csv) {
+                writer.write("category,productID,productName,numOfItemsAvailable,price,detail1,detail2\n");
+            }
+            for (int i = 0; i < ROWS; i++) {
+                boolean electronics = i % 2 == 0;
+                String id = (electronics ? "E" : "C") + i;
+                String price = (i % 1000) + "." + (i % 100);
+                if (csv) {
+                    writer.write(electronics
+                            ? "Electronics," + id + ",Product " + i + "," + (i % 50) + "," + price + ",Brand" + i % 40 + "," + (12 + i % 24) + "\n"
+                            : "Clothing," + id + ",\"Product, " + i + "\"," + (i % 50) + "," + price + ",M,Colour" + i % 12 + "\n");
+                } else {
+                    writer.write("{\"category\":\"" + (electronics ? "Electronics" : "Clothing") + "\",\"productID\":\"" + id
+                            + "\",\"productName\":\"Product " + i + "\",\"numOfItemsAvailable\":" + (i % 50) + ",\"price\":" + price
+                            + (electronics ? ",\"brand\":\"Brand" + i % 40 + "\",\"warrantyPeriod\":" + (12 + i % 24)
+                                           : ",\"size\":\"M\",\"color\":\"Colour" + i % 12 + "\"") + "}\n");
+                }
+            }
+        }
+        return importFile;
+    }
+}
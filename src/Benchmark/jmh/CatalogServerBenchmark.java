@@ -0,0 +1,129 @@
+package Benchmark.jmh;
+
+import Server.CatalogServer;
+import WestminsterShoppingCenter.CatalogStore;
+import WestminsterShoppingCenter.Product;
+import WestminsterShoppingCenter.WestminsterShoppingManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * JMH benchmarks of the throughput and latency of the catalog server on localhost, with every benchmark thread a client
+ * that sends requests as fast as the server answers them. The sample time mode reports the 50th, 99th and 99.9th
+ * percentile latency of each request.
+ * The clients run in the same process as the server, so they share its processors. Run it with -t 16, 64 and 256 to see
+ * how the server copes with more concurrent clients.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2) // Long enough for the JIT to compile the server before any measurement
+@Measurement(iterations = 5, time = 1)
+@Threads(64)
+@Fork(1)
+public class CatalogServerBenchmark {
+    private static final int CATALOG_SIZE = 10_000;
+    private static final int PAGE_SIZE = 20;
+    private static final Pattern CART_ID = Pattern.compile("\"cartID\":\"([^\"]+)\"");
+
+    private Path dataFile;
+    private CatalogServer server;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkSupport.silenceConsole();
+        dataFile = BenchmarkSupport.createDataFile();
+        WestminsterShoppingManager manager = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+        Product[] products = BenchmarkSupport.createProducts(CATALOG_SIZE);
+        manager.addProducts(Arrays.asList(products));
+        Map<String, Integer> stockLevels = new HashMap<>();
+        for (Product product : products) {
+            stockLevels.put(product.getProductID(), Integer.MAX_VALUE / 2); // Enough stock that no checkout runs out
+        }
+        manager.updateStock(stockLevels);
+
+        server = new CatalogServer(manager, 0);
+        server.start();
+        baseUrl = "http://localhost:" + server.getPort();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        client.close();
+        server.stop(0);
+        BenchmarkSupport.restoreConsole();
+        BenchmarkSupport.deleteDataFile(dataFile);
+    }
+
+    /**
+     * Looks up a random product: GET /products/{productID}.
+     */
+    @Benchmark
+    public String lookup() throws IOException, InterruptedException {
+        return send("GET", baseUrl + "/products/" + productID(ThreadLocalRandom.current().nextInt(CATALOG_SIZE)));
+    }
+
+    /**
+     * Lists a page of a random category at a random offset: GET /products?category=...&limit=20.
+     */
+    @Benchmark
+    public String list() throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return send("GET", baseUrl + "/products?category=" + (random.nextBoolean() ? "Electronics" : "Clothing")
+                + "&offset=" + random.nextInt(CATALOG_SIZE / 2 - PAGE_SIZE) + "&limit=" + PAGE_SIZE);
+    }
+
+    /**
+     * Creates a cart, adds three random products, quotes it and checks it out; six requests in all.
+     */
+    @Benchmark
+    public String cart() throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Matcher matcher = CART_ID.matcher(send("POST", baseUrl + "/carts"));
+        if (!matcher.find()) {
+            throw new IOException("No cart ID in the response");
+        }
+        String cartUrl = baseUrl + "/carts/" + matcher.group(1);
+        for (int i = 0; i < 3; i++) {
+            send("POST", cartUrl + "/items?productID=" + productID(random.nextInt(CATALOG_SIZE)));
+        }
+        send("GET", cartUrl);
+        return send("POST", cartUrl + "/checkout");
+    }
+
+    /**
+     * Sends a request without a body and returns the body of the response, throwing an IOException if it is not a success.
+     */
+    private String send(String method, String url) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).method(method, HttpRequest.BodyPublishers.noBody()).build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IOException(method + " " + url + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private static String productID(int index) {
+        return (index % 2 == 0 ? "E" : "C") + index;
+    }
+}
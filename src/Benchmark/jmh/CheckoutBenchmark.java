@@ -0,0 +1,80 @@
+package Benchmark.jmh;
+
+import WestminsterShoppingCenter.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the throughput and the latency of checkouts under contention.
+ * Every benchmark thread is a shopper that reserves one to three items of a random product, puts them in a cart and
+ * checks it out with an order processor, which only returns once the stock levels and the order are forced to disk.
+ * It is run with group commit, where one force makes a whole batch of orders durable, and with a force for every order,
+ * which is what checking out would cost without batching. The sample time mode reports the 50th, 99th and 99.9th
+ * percentile latency of a checkout, and the average number of orders per write to disk is printed at the end of each run.
+ * Run it with -t 1, 8, 64 and 256 to see how group commit scales with the number of shoppers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Threads(64)
+@Fork(1)
+public class CheckoutBenchmark {
+    private static final int CATALOG_SIZE = 10_000;
+    private static final int INITIAL_STOCK = 10_000_000; // Enough that no product runs out
+
+    @Param({"1024", "1"}) // OrderProcessor.DEFAULT_MAX_BATCH_SIZE, and a force for every order
+    public int maxBatchSize;
+
+    private Path dataFile;
+    private WestminsterShoppingManager manager;
+    private OrderProcessor orderProcessor;
+    private String[] productIDs;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkSupport.silenceConsole();
+        dataFile = BenchmarkSupport.createDataFile();
+        Product[] products = BenchmarkSupport.createProducts(CATALOG_SIZE);
+        productIDs = new String[CATALOG_SIZE];
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            products[i].setNumOfItemsAvailable(INITIAL_STOCK);
+            productIDs[i] = products[i].getProductID();
+        }
+        manager = BenchmarkSupport.createManager(products, dataFile);
+        orderProcessor = new OrderProcessor(manager, new OrderLog(dataFile.toString()), maxBatchSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        long orders = orderProcessor.getPlacedOrderCount();
+        long commits = orderProcessor.getCommitCount();
+        orderProcessor.close();
+        BenchmarkSupport.restoreConsole();
+        BenchmarkSupport.deleteDataFile(dataFile);
+        System.out.printf("Orders per write: %.1f%n", orders / (double) Math.max(1, commits));
+    }
+
+    /**
+     * Reserves one to three items of a random product and checks them out. Reserving and filling the cart is timed too,
+     * but takes microseconds next to the forces of a checkout.
+     */
+    @Benchmark
+    public Order checkout() throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String productID = productIDs[random.nextInt(productIDs.length)];
+        int quantity = 1 + random.nextInt(3);
+        if (!manager.getInventory().reserve(productID, quantity)) {
+            throw new IllegalStateException("Out of stock: " + productID);
+        }
+        Product product = manager.getProductById(productID); // The loaded product, which holds the reservation
+        ShoppingCart cart = new ShoppingCart();
+        cart.addItem(product, quantity);
+        return orderProcessor.placeOrder(cart, null);
+    }
+}
@@ -0,0 +1,86 @@
+package Benchmark.jmh;
+
+import WestminsterShoppingCenter.CatalogStore;
+import WestminsterShoppingCenter.Electronics;
+import WestminsterShoppingCenter.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the read throughput of CatalogStore while the catalog changes, run on as many threads as there are cores.
+ * Lookups and pages are served from the snapshot the store publishes on every change, without its lock, while a writer
+ * thread changes the catalog twice a second. Run it with -t 1, 2, 4 and so on to see how the throughput scales with the
+ * number of readers; it can only grow up to the number of cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(1)
+public class ConcurrentReadBenchmark {
+    private static final int WRITE_INTERVAL_MILLIS = 500;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"100000", "1000000"})
+    public int catalogSize;
+
+    private CatalogStore store;
+    private String[] productIDs;
+    private Thread writer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Product[] products = BenchmarkSupport.createProducts(catalogSize);
+        productIDs = new String[catalogSize];
+        for (int i = 0; i < catalogSize; i++) {
+            productIDs[i] = products[i].getProductID();
+        }
+        store = new CatalogStore();
+        store.addAll(Arrays.asList(products));
+        writer = new Thread(this::changeCatalog, "catalog-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        writer.interrupt();
+        writer.join();
+    }
+
+    /**
+     * Looks up a random product by its ID.
+     */
+    @Benchmark
+    public Product getProductById() {
+        return store.get(productIDs[ThreadLocalRandom.current().nextInt(catalogSize)]);
+    }
+
+    /**
+     * Returns the page of products that follows a random product ID.
+     */
+    @Benchmark
+    public List<Product> pageAfterProductID() {
+        return store.getRange(productIDs[ThreadLocalRandom.current().nextInt(catalogSize)], false, null, null, PAGE_SIZE);
+    }
+
+    /**
+     * Adds a new product to the catalog every WRITE_INTERVAL_MILLIS until the writer thread is interrupted.
+     */
+    private void changeCatalog() {
+        try {
+            for (int write = 0; ; write++) {
+                Thread.sleep(WRITE_INTERVAL_MILLIS);
+                store.put(new Electronics("new" + write, "New " + write, 5, 99.99, "Sony", 2));
+            }
+        }
+        catch (InterruptedException exception) { // Stopped by tearDown
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package Benchmark.jmh;
+
+import WestminsterShoppingCenter.CatalogFileFormat;
+import WestminsterShoppingCenter.WestminsterShoppingManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for saving and loading the whole catalog in each file format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int catalogSize;
+
+    @Param({"SERIALIZED", "BINARY"})
+    public CatalogFileFormat fileFormat;
+
+    private Path dataFile;
+    private WestminsterShoppingManager manager;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkSupport.silenceConsole();
+        dataFile = BenchmarkSupport.createDataFile();
+        manager = BenchmarkSupport.createManager(BenchmarkSupport.createProducts(catalogSize), dataFile);
+        manager.setFileFormat(fileFormat);
+        manager.saveProducts(dataFile.toString()); // Re-writes the data file in the benchmarked format
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkSupport.restoreConsole();
+        BenchmarkSupport.deleteDataFile(dataFile);
+    }
+
+    /**
+     * Saves the whole catalog to the data file.
+     */
+    @Benchmark
+    public void saveProducts() {
+        manager.saveProducts(dataFile.toString());
+    }
+
+    /**
+     * Loads the whole catalog from the data file.
+     */
+    @Benchmark
+    public int loadProducts() {
+        manager.loadProducts(dataFile.toString());
+        return manager.getProductCount();
+    }
+}
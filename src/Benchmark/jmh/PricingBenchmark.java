@@ -0,0 +1,92 @@
+package Benchmark.jmh;
+
+import WestminsterShoppingCenter.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the quote latency of the promotion rule engine, for carts with hundreds of lines priced under
+ * hundreds of active promotions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+    private static final int BRANDS = 40; // Number of brands used by the generated products
+
+    @Param({"100", "500"})
+    public int cartLines;
+
+    @Param({"100", "500"})
+    public int activeRules;
+
+    private Product[] products;
+    private PricingPlan plan;
+    private ShoppingCart cart;
+    private int nextProduct;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        products = BenchmarkSupport.createProducts(cartLines);
+        plan = PricingPlan.compile(createRules(activeRules, products));
+        cart = new ShoppingCart();
+        cart.setPricingPlan(plan);
+        for (Product product : products) {
+            cart.addItem(product, 2);
+        }
+    }
+
+    /**
+     * Adds an item to a line of the cart and takes it out again, re-quoting the cart after each change.
+     */
+    @Benchmark
+    public long updateQuote() {
+        Product product = products[nextProduct];
+        nextProduct = (nextProduct + 1) % products.length;
+        cart.addItem(product, 1);
+        cart.removeItem(product, 1);
+        return cart.calculateFinalCostInPence();
+    }
+
+    /**
+     * Quotes the whole cart from scratch under the pricing plan, for comparison with the incremental update.
+     */
+    @Benchmark
+    public long fullQuote() {
+        cart.setPricingPlan(plan);
+        return cart.calculateFinalCostInPence();
+    }
+
+    /**
+     * Compiles the pricing plan, which is done once when the promotions change.
+     */
+    @Benchmark
+    public PricingPlan compilePlan() {
+        return PricingPlan.compile(createRules(activeRules, products));
+    }
+
+    /**
+     * Creates a mix of category, brand, buy-N, tiered and whole-cart promotions.
+     * The percentages are small so hundreds of promotions together do not take the cart total down to zero.
+     */
+    private static List<PromotionRule> createRules(int count, Product[] products) {
+        List<PromotionRule> rules = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            switch (i % 5) {
+                case 0 -> rules.add(PromotionRule.categoryDiscount("Category " + i, i % 2 == 0 ? "Electronics" : "Clothing", 3 + i % 5, 0.1 + i % 10 / 100.0));
+                case 1 -> rules.add(PromotionRule.brandDiscount("Brand " + i, "Brand" + i % BRANDS, 0.1 + i % 10 / 100.0));
+                case 2 -> rules.add(PromotionRule.buyNGetFree("Buy N " + i, PromotionRule.ScopeType.PRODUCT,
+                        products[i % products.length].getProductID(), 2, 1));
+                case 3 -> rules.add(PromotionRule.tieredSpend("Tiered " + i, new double[]{100, 1_000, 10_000}, new double[]{0.1, 0.2, 0.3}));
+                default -> rules.add(PromotionRule.sameCategory("Same category " + i, 3 + i % 5, 0.1, "Electronics", "Clothing"));
+            }
+        }
+        return rules;
+    }
+}
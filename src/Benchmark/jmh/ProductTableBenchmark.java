@@ -0,0 +1,52 @@
+package Benchmark.jmh;
+
+import GUI.UserShoppingCenter;
+import WestminsterShoppingCenter.WestminsterShoppingManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for filling the product table of the UserShoppingCenter GUI with the whole catalog.
+ * It creates a Swing window, so it needs a display (it fails with a HeadlessException without one).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductTableBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int catalogSize;
+
+    private Path dataFile;
+    private WestminsterShoppingManager manager;
+    private UserShoppingCenter shoppingCenter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkSupport.silenceConsole();
+        dataFile = BenchmarkSupport.createDataFile();
+        manager = BenchmarkSupport.createManager(BenchmarkSupport.createProducts(catalogSize), dataFile);
+        shoppingCenter = new UserShoppingCenter();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        shoppingCenter.dispose();
+        BenchmarkSupport.restoreConsole();
+        BenchmarkSupport.deleteDataFile(dataFile);
+    }
+
+    /**
+     * Displays all products in the product table (setManager calls displayAllProducts).
+     */
+    @Benchmark
+    public int displayAllProducts() {
+        shoppingCenter.setManager(manager);
+        return shoppingCenter.getProductTableModel().getRowCount();
+    }
+}
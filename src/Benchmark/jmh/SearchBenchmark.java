@@ -0,0 +1,159 @@
+package Benchmark.jmh;
+
+import GUI.ProductTableModel;
+import WestminsterShoppingCenter.CatalogStore;
+import WestminsterShoppingCenter.Clothing;
+import WestminsterShoppingCenter.Electronics;
+import WestminsterShoppingCenter.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of product search on a catalog of a million products.
+ * The products get names, brands, sizes and colors picked from word lists, so that words are shared between many
+ * products as in a real catalog. It measures the time to build the search index, the cost of keeping it up to date as
+ * products are removed and added, and the latency of each kind of query, returning at most as many matches as the
+ * product table shows; the sample time mode reports the 50th and 99th percentiles.
+ * Queries should stay well below a millisecond.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+    private static final int CATALOG_SIZE = 1_000_000;
+
+    private static final String[] ADJECTIVES = {"Smart", "Wireless", "Portable", "Classic", "Slim", "Vintage", "Premium",
+            "Compact", "Ultra", "Organic", "Casual", "Formal", "Sport", "Waterproof", "Digital", "Retro"};
+    private static final String[] ELECTRONICS = {"Phone", "Watch", "Speaker", "Headphones", "Laptop", "Tablet", "Camera",
+            "Charger", "Keyboard", "Monitor", "Router", "Drone", "Console", "Projector", "Earbuds", "Microphone"};
+    private static final String[] CLOTHING = {"Shirt", "Jeans", "Jacket", "Dress", "Skirt", "Sweater", "Hoodie", "Coat",
+            "Shorts", "Blazer", "Scarf", "Trousers", "Cardigan", "Vest", "Socks", "Gloves"};
+    private static final String[] BRANDS = {"Sony", "Samsung", "Apple", "Anker", "Bose", "Canon", "Dell", "Lenovo",
+            "Philips", "Panasonic", "Xiaomi", "Garmin", "Logitech", "Asus", "Acer", "Huawei"};
+    private static final String[] COLORS = {"Red", "Blue", "Green", "Black", "White", "Navy", "Olive", "Maroon",
+            "Beige", "Grey", "Pink", "Purple", "Teal", "Mustard", "Charcoal", "Ivory"};
+    private static final String[] SIZES = {"XS", "S", "M", "L", "XL", "XXL"};
+
+    /**
+     * The kinds of query that are timed, each with the queries of that kind.
+     */
+    public enum QueryKind {
+        ONE_LETTER("s", "p", "c", "w", "m", "r", "b", "g"),
+        THREE_LETTERS("sma", "pho", "jac", "sam", "nav", "wir", "hea", "swe"),
+        WORD("phone", "jacket", "samsung", "maroon", "projector", "hoodie", "garmin", "teal"),
+        TWO_WORDS("red sh", "wireless ear", "sony cam", "navy blaz", "slim lap", "black je", "ultra mon", "olive sc"),
+        MODEL("x123456", "x99", "x5000", "x77777", "x31415", "x27182", "x16180", "x42"),
+        NO_MATCH("zebra", "phone zebra", "qqq", "smart zz", "xylophone", "red qq", "x0000000", "zz");
+
+        private final String[] queries;
+
+        QueryKind(String... queries) {
+            this.queries = queries;
+        }
+    }
+
+    private Product[] products;
+    private CatalogStore store; // Indexed for search in setUp
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        products = createProducts(CATALOG_SIZE);
+        store = createStore(products);
+        store.search("warm", null, 1); // The first search builds the index
+    }
+
+    /**
+     * JMH benchmark state of the kind of query that is timed.
+     */
+    @State(Scope.Benchmark)
+    public static class Queries {
+        @Param
+        public QueryKind queryKind;
+    }
+
+    /**
+     * Runs a random query of the benchmarked kind.
+     */
+    @Benchmark
+    public List<Product> search(Queries kind) {
+        String[] queries = kind.queryKind.queries;
+        return store.search(queries[ThreadLocalRandom.current().nextInt(queries.length)], null, ProductTableModel.SEARCH_RESULT_LIMIT);
+    }
+
+    /**
+     * Removes a random product from the indexed catalog and adds it back, updating the search index both times.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public boolean removeAndAdd() {
+        Product product = products[ThreadLocalRandom.current().nextInt(products.length)];
+        store.remove(product.getProductID());
+        return store.add(product);
+    }
+
+    /**
+     * JMH benchmark state of a catalog whose search index is not built yet, filled again before every invocation.
+     */
+    @State(Scope.Thread)
+    public static class UnindexedStore {
+        private Product[] products;
+        private CatalogStore store;
+
+        @Setup(Level.Trial)
+        public void createProducts() {
+            products = SearchBenchmark.createProducts(CATALOG_SIZE);
+        }
+
+        @Setup(Level.Invocation)
+        public void fillStore() {
+            store = createStore(products);
+        }
+    }
+
+    /**
+     * Builds the search index of the whole catalog, which the first search does.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Product> buildIndex(UnindexedStore unindexedStore) {
+        return unindexedStore.store.search("warm", null, 1);
+    }
+
+    /**
+     * Returns a store holding the passed products.
+     */
+    private static CatalogStore createStore(Product[] products) {
+        CatalogStore store = new CatalogStore();
+        store.addAll(Arrays.asList(products));
+        return store;
+    }
+
+    /**
+     * Creates the passed number of products with names such as "Wireless Speaker X123" and brands, sizes and colors
+     * from the word lists.
+     */
+    static Product[] createProducts(int count) {
+        Random random = new Random(7);
+        Product[] products = new Product[count];
+        for (int i = 0; i < count; i++) {
+            String adjective = ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+            if (i % 2 == 0) {
+                String name = adjective + " " + ELECTRONICS[random.nextInt(ELECTRONICS.length)] + " X" + i;
+                products[i] = new Electronics("E" + i, name, 10, 100, BRANDS[random.nextInt(BRANDS.length)], 1);
+            } else {
+                String name = adjective + " " + CLOTHING[random.nextInt(CLOTHING.length)] + " X" + i;
+                products[i] = new Clothing("C" + i, name, 10, 20, SIZES[random.nextInt(SIZES.length)], COLORS[random.nextInt(COLORS.length)]);
+            }
+        }
+        return products;
+    }
+}
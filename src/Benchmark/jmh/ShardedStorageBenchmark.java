@@ -0,0 +1,93 @@
+package Benchmark.jmh;
+
+import WestminsterShoppingCenter.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks that compare a catalog saved to a single data file with the same catalog partitioned into shards by product ID.
+ * For each layout it measures the time to take a snapshot of the whole catalog and to load it again, which both run one task per
+ * shard on the common fork-join pool, and the time of a stock update in snapshot mode, which only re-writes the shard holding
+ * the product. The shards can only be loaded and saved faster with more cores than there are shards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShardedStorageBenchmark {
+    private static final int CATALOG_SIZE = 500_000;
+
+    @Param({"0", "1", "2", "4", "8", "16"}) // 0 is the single data file
+    public int shardCount;
+
+    private Path dataFile;
+    private String[] productIDs;
+    private WestminsterShoppingManager manager; // Records changes in the journal
+    private WestminsterShoppingManager snapshotManager; // Saves every change
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkSupport.silenceConsole();
+        dataFile = BenchmarkSupport.createDataFile();
+        Product[] products = BenchmarkSupport.createProducts(CATALOG_SIZE);
+        productIDs = new String[CATALOG_SIZE];
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            productIDs[i] = products[i].getProductID();
+        }
+        manager = newManager(PersistenceMode.JOURNAL);
+        manager.setFileFormat(CatalogFileFormat.BINARY);
+        manager.addProducts(Arrays.asList(products));
+        manager.takeSnapshot();
+        snapshotManager = newManager(PersistenceMode.SNAPSHOT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkSupport.restoreConsole();
+        BenchmarkSupport.deleteDataFile(dataFile);
+    }
+
+    /**
+     * Saves the whole catalog and retires its journal.
+     */
+    @Benchmark
+    public boolean takeSnapshot() {
+        return manager.takeSnapshot();
+    }
+
+    /**
+     * Loads the whole catalog into a new manager.
+     */
+    @Benchmark
+    public int load() {
+        return newManager(PersistenceMode.JOURNAL).getProductCount();
+    }
+
+    /**
+     * Sets the number of items available of a random product in snapshot mode, which saves the file or shard holding it.
+     */
+    @Benchmark
+    public int updateStockInSnapshotMode() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return snapshotManager.updateStock(Map.of(productIDs[random.nextInt(productIDs.length)], random.nextInt(100)));
+    }
+
+    /**
+     * Returns a manager of the data file, saved to the benchmarked number of shards, or to the single data file for 0.
+     */
+    private WestminsterShoppingManager newManager(PersistenceMode persistenceMode) {
+        if (shardCount == 0) {
+            return new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY, persistenceMode);
+        }
+        return new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY, persistenceMode,
+                ShardingScheme.PRODUCT_ID, shardCount);
+    }
+}
@@ -0,0 +1,84 @@
+package Benchmark.jmh;
+
+import WestminsterShoppingCenter.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks that show how background snapshots bound the time it takes to load the catalog.
+ * A catalog of products in the binary format is saved, then the stock of random products is changed many times, one journal
+ * record per change, as a long-running shop would: once with no snapshots, so every record is replayed on start-up, and
+ * once with a snapshot scheduler running in the background.
+ * The sample time mode reports the percentiles and the longest latency of a change, which shows whether writers were held up
+ * by the snapshots. The size of the journal left to replay and the time to load the catalog again are printed at the end of each run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotBenchmark {
+    private static final int CATALOG_SIZE = 200_000;
+    private static final long CHECK_INTERVAL_MILLIS = 200;
+
+    @Param({"false", "true"})
+    public boolean withScheduler;
+
+    private Path dataFile;
+    private String[] productIDs;
+    private WestminsterShoppingManager manager;
+    private SnapshotScheduler scheduler;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkSupport.silenceConsole();
+        dataFile = BenchmarkSupport.createDataFile();
+        Product[] products = BenchmarkSupport.createProducts(CATALOG_SIZE);
+        productIDs = new String[CATALOG_SIZE];
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            productIDs[i] = products[i].getProductID();
+        }
+        manager = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+        manager.setFileFormat(CatalogFileFormat.BINARY);
+        manager.addProducts(Arrays.asList(products));
+        manager.takeSnapshot();
+
+        scheduler = new SnapshotScheduler(manager, CHECK_INTERVAL_MILLIS,
+                SnapshotScheduler.DEFAULT_MAX_JOURNAL_RATIO, SnapshotScheduler.DEFAULT_MIN_JOURNAL_BYTES);
+        if (withScheduler) {
+            scheduler.start();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        scheduler.close();
+        long journalSize = manager.getJournalSize();
+        long loadStart = System.nanoTime();
+        WestminsterShoppingManager restarted = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+        long loadTime = System.nanoTime() - loadStart;
+        BenchmarkSupport.restoreConsole();
+        BenchmarkSupport.deleteDataFile(dataFile);
+        if (restarted.getProductCount() != CATALOG_SIZE) {
+            throw new IllegalStateException("Loaded " + restarted.getProductCount() + " products");
+        }
+        System.out.printf("Snapshots taken: %d, journal left to replay: %.1f MB, load: %d ms%n",
+                manager.getSnapshotCount() - 1, journalSize / 1_000_000.0, loadTime / 1_000_000);
+    }
+
+    /**
+     * Sets the number of items available of a random product, which appends one record to the journal.
+     */
+    @Benchmark
+    public int updateStock() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return manager.updateStock(Map.of(productIDs[random.nextInt(productIDs.length)], random.nextInt(100)));
+    }
+}
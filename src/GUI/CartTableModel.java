@@ -0,0 +1,71 @@
+package GUI;
+
+import WestminsterShoppingCenter.CartLine;
+import WestminsterShoppingCenter.Money;
+import WestminsterShoppingCenter.ShoppingCart;
+
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * The CartTableModel class is the table model of the shopping cart table in the UserShoppingCart GUI.
+ * It is a view of a ShoppingCart: each cell is read from a cart line, so the table never holds a copy of the cart.
+ */
+public class CartTableModel extends AbstractTableModel {
+    private static final String[] COLUMN_NAMES = {"Product", "Quantity", "Price", "Category"}; // Column names for the shopping cart table
+
+    private final ShoppingCart cart;
+
+    /**
+     * A constructor to initialize the table model as a view of the passed shopping cart.
+     */
+    public CartTableModel(ShoppingCart cart) {
+        this.cart = cart;
+    }
+
+    /**
+     * Shows a line that has just been added to the cart.
+     */
+    public void lineAdded(CartLine line) {
+        fireTableRowsInserted(line.getIndex(), line.getIndex());
+    }
+
+    /**
+     * Repaints a line whose quantity has changed.
+     */
+    public void lineUpdated(CartLine line) {
+        fireTableRowsUpdated(line.getIndex(), line.getIndex());
+    }
+
+    @Override
+    public int getRowCount() {
+        return cart.getLineCount();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        CartLine line = cart.getLine(row);
+        return switch (column) {
+            case 0 -> line.getProduct().getProductName();
+            case 1 -> line.getQuantity();
+            case 2 -> Money.format(line.getLineTotalInPence());
+            case 3 -> line.getProduct().getCategory();
+            default -> throw new IndexOutOfBoundsException("Column " + column + " does not exist.");
+        };
+    }
+}
+
+//REFERENCES
+
+/* GUI
+ * AbstractTableModel - https://docs.oracle.com/javase/8/docs/api/javax/swing/table/AbstractTableModel.html
+ */
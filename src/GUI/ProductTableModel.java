@@ -0,0 +1,195 @@
+package GUI;
+
+import WestminsterShoppingCenter.Money;
+import WestminsterShoppingCenter.Product;
+import WestminsterShoppingCenter.WestminsterShoppingManager;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ProductTableModel class is the table model of the product table in the UserShoppingCenter GUI.
+ * Instead of copying every product into a row of its own, it reads each cell directly from a read-only view of the
+ * manager's catalog, so the table only does work for the rows that are actually drawn on screen.
+ * The selected category is a view of the catalog rather than a copy of it, so switching category does not copy the catalog.
+ * Which rows are low on stock is kept in a bitset, which is filled in row by row as the rows are first painted, so
+ * showing a category only checks the stock of the rows on screen, and the cell renderer checks the bitset for every
+ * painted cell at no cost. When the stock of some products changes, only their rows are checked again and repainted.
+ * While a search query is entered, the table shows the products of the selected category that match it instead.
+ */
+public class ProductTableModel extends AbstractTableModel {
+    public static final int LOW_STOCK_THRESHOLD = 3; // Products with fewer items available than this are low on stock
+    public static final int SEARCH_RESULT_LIMIT = 200; // Most products shown for a search query
+
+    private static final String[] COLUMN_NAMES = {"Product ID", "Name", "Category", "Price(£)", "Info"}; // Column names of the table
+
+    private WestminsterShoppingManager manager;
+    private String category; // The category shown in the table, or null to show all products
+    private String searchQuery = ""; // Only products matching the query are shown, unless it is blank
+    private boolean sortedByProductID; // True if the products are shown in the order of their IDs rather than the order they were added
+    private List<Product> products = List.of(); // The products shown in the table, in display order
+    private final BitSet lowStockRows = new BitSet(); // A set bit marks a row whose product is low on stock
+    private final BitSet checkedRows = new BitSet(); // A set bit marks a row whose bit in lowStockRows is up to date
+    private Map<String, Integer> rowsByProductID; // The row of each product shown, or null until the stock first changes after a refresh
+
+    /**
+     * Sets the WestminsterShoppingManager whose products are shown in the table.
+     */
+    public void setManager(WestminsterShoppingManager manager) {
+        this.manager = manager;
+        refresh();
+    }
+
+    /**
+     * Shows only the products of the specified category, or all products if the category is null.
+     */
+    public void setCategory(String category) {
+        this.category = category;
+        sortedByProductID = false;
+        refresh();
+    }
+
+    /**
+     * Returns the category shown in the table, or null if all products are shown.
+     */
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * Shows only the products that match the search query, or every product of the category if the query is blank.
+     */
+    public void setSearchQuery(String searchQuery) {
+        this.searchQuery = searchQuery == null ? "" : searchQuery;
+        refresh();
+    }
+
+    /**
+     * Returns the search query, which is blank if the table is not filtered by it.
+     */
+    public String getSearchQuery() {
+        return searchQuery;
+    }
+
+    /**
+     * Shows the latest version of the catalog in the selected category, filtered by the search query.
+     */
+    public void refresh() {
+        if (manager == null) {
+            products = List.of();
+        } else if (searchQuery.isBlank()) {
+            products = sortedByProductID ? manager.getSortedProductView(category) : manager.getProductView(category);
+        } else {
+            products = manager.searchProducts(searchQuery, category, SEARCH_RESULT_LIMIT);
+            if (sortedByProductID) { // At most SEARCH_RESULT_LIMIT products to sort
+                List<Product> sortedProducts = new ArrayList<>(products);
+                sortedProducts.sort(Comparator.comparing(Product::getProductID));
+                products = sortedProducts;
+            }
+        }
+        checkedRows.clear(); // Only the rows painted from now on are checked
+        rowsByProductID = null;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Sorts the products shown in the table by Product ID alphabetically.
+     * The catalog is shown from a view in ID order that the manager keeps, so nothing is sorted; the order is kept
+     * as the catalog changes, until another category is selected.
+     */
+    public void sortByProductID() {
+        sortedByProductID = true;
+        refresh();
+    }
+
+    /**
+     * Returns true if the products are shown in the alphabetical order of their IDs.
+     */
+    public boolean isSortedByProductID() {
+        return sortedByProductID;
+    }
+
+    /**
+     * Updates which rows are low on stock after the number of items available of the passed products has changed,
+     * and repaints only their rows. The rows themselves are unchanged, so the selection in the table is kept.
+     * The rows of the products are looked up by product ID; the lookup is built by the first stock change after a refresh.
+     */
+    public void refreshStockLevels(Collection<Product> changedProducts) {
+        if (rowsByProductID == null) {
+            rowsByProductID = new HashMap<>((int) (products.size() / 0.75) + 1);
+            for (int row = 0; row < products.size(); row++) {
+                rowsByProductID.put(products.get(row).getProductID(), row);
+            }
+        }
+        for (Product product : changedProducts) {
+            Integer row = rowsByProductID.get(product.getProductID());
+            if (row != null) {
+                checkedRows.clear(row);
+                fireTableRowsUpdated(row, row);
+            }
+        }
+    }
+
+    /**
+     * Returns true if the product shown in the specified row is low on stock.
+     * The stock of the row is only checked the first time the row is asked for since it last changed.
+     */
+    public boolean isLowStock(int row) {
+        if (!checkedRows.get(row)) {
+            lowStockRows.set(row, products.get(row).getNumOfItemsAvailable() < LOW_STOCK_THRESHOLD);
+            checkedRows.set(row);
+        }
+        return lowStockRows.get(row);
+    }
+
+    /**
+     * Returns the product shown in the specified row.
+     */
+    public Product getProductAt(int row) {
+        return products.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return products.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Product product = products.get(row);
+        return switch (column) {
+            case 0 -> product.getProductID();
+            case 1 -> product.getProductName();
+            case 2 -> product.getCategory();
+            case 3 -> Money.formatAmount(product.getPriceInPence());
+            case 4 -> product.getProductInfo();
+            default -> throw new IndexOutOfBoundsException("Column " + column + " does not exist.");
+        };
+    }
+}
+
+//REFERENCES
+
+/* Java BitSet
+ * BitSet - https://docs.oracle.com/javase/8/docs/api/java/util/BitSet.html
+ */
+
+/* GUI
+ * AbstractTableModel - https://docs.oracle.com/javase/8/docs/api/javax/swing/table/AbstractTableModel.html
+ */
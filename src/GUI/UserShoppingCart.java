@@ -1,30 +1,32 @@
 package GUI;
 
+import WestminsterShoppingCenter.CartLine;
+import WestminsterShoppingCenter.Money;
+import WestminsterShoppingCenter.PriceQuote;
+import WestminsterShoppingCenter.PricingPlan;
+import WestminsterShoppingCenter.Product;
+import WestminsterShoppingCenter.ShoppingCart;
 import WestminsterShoppingCenter.User;
+import WestminsterShoppingCenter.UsernameRegistry;
 import WestminsterShoppingCenter.WestminsterShoppingManager;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.io.*;
-import java.util.HashSet;
-import java.util.Set;
+import java.awt.event.ActionListener;
 
 /**
  * This class represents the GUI of the user's shopping cart.
  * It manages the display of the shopping cart, added details table, product quantities and discounts.
+ * The cart itself is a ShoppingCart, which keeps its totals up to date; this class only displays it.
  */
 public class UserShoppingCart extends JFrame {
-    private DefaultTableModel cartTableModel;
+    private final ShoppingCart cart = new ShoppingCart();
+    private CartTableModel cartTableModel;
     private static JTable shoppingTable;
     private JTextArea discountTextArea;
-    private Set<String> existingUsernames; // Set only allows unique values
-    private boolean validForFirstTimeDiscount;
-    private boolean validForCategoryDiscount;
-
-    private static final String EXISTING_USERNAMES_FILE = "existing_usernames.txt"; // File to store usernames
-    private int electronicCount;
-    private int clothingCount;
+    private JButton checkoutButton;
+    private String username; // Shopper the orders are placed for, or null if not known
+    private final UsernameRegistry usernameRegistry = UsernameRegistry.getInstance(); // Usernames of every shopper, shared by all carts
 
     /**
      * A constructor for creating a UserShoppingCart associated with a WestminsterShoppingManager.
@@ -37,7 +39,6 @@ public class UserShoppingCart extends JFrame {
      * A constructor for creating a UserShoppingCart associated with a User.
      */
     public UserShoppingCart(User user) {
-        this.existingUsernames = loadExistingUsernames();
         initialize();
     }
 
@@ -46,6 +47,8 @@ public class UserShoppingCart extends JFrame {
      * The GUI consists of two panels: one for displaying the shopping cart table and another for showing totals and discounts.
      */
     private void initialize() {
+        cart.setPricingPlan(PricingPlan.STANDARD_PROMOTIONS);
+
         setTitle("Shopping Cart");
         setSize(800, 600);
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
@@ -55,17 +58,9 @@ public class UserShoppingCart extends JFrame {
         JPanel p1 = new JPanel();
         p1.setLayout(new BorderLayout());
 
-        String[] columnNames = {"Product", "Quantity", "Price", "Category"}; // Column names for the shopping cart table
-        Object[][] data = {}; // // Initializing an empty data array for the table
-
-        cartTableModel = new DefaultTableModel(data, columnNames) { // Creating a DefaultTableModel for the shopping cart table
-            @Override
-            public boolean isCellEditable(int row, int column) { // To allow cells in the table to be edited
-                return false;
-            }
-        };
+        cartTableModel = new CartTableModel(cart); // Creating a view of the shopping cart for the table
 
-        JTable shoppingTable = new JTable(cartTableModel); // Creating the JTable using the DefaultTableModel
+        JTable shoppingTable = new JTable(cartTableModel); // Creating the JTable using the CartTableModel
 
         JScrollPane scrollPane = new JScrollPane(shoppingTable); // Create a JScrollPane to enable scrolling in the shopping cart table
         p1.add(scrollPane, BorderLayout.CENTER);
@@ -77,6 +72,9 @@ public class UserShoppingCart extends JFrame {
         discountTextArea = new JTextArea(); // Create a JTextArea for displaying discount information
         p2.add(discountTextArea, BorderLayout.CENTER);
 
+        checkoutButton = new JButton("Checkout");
+        p2.add(checkoutButton, BorderLayout.SOUTH);
+
         // Add both panels to the main frame
         add(p1);
         add(p2);
@@ -87,215 +85,110 @@ public class UserShoppingCart extends JFrame {
     }
 
     /**
-     * Adds a product to the shopping cart with the specified details.
-     * If the product already exists in the cart, it updates the quantity and price.
-     * Else, it adds a new row to the cart.
+     * Adds the passed number of items of a product to the shopping cart.
+     * If the product already exists in the cart, its line is updated; else, a new line is added to the cart.
      * It updates the total price and checks for category discounts.
      */
-    public void addProductToCart(String productName, int quantity, double price, String category) {
-            boolean productExists = false;
-            int existingRow = -1;
-
-            // Check if the product already exists in the cart
-            for (int i = 0; i < cartTableModel.getRowCount(); i++) {
-                String rowProductName = cartTableModel.getValueAt(i, 0).toString();
-                if (productName.equals(rowProductName)) {
-                    productExists = true;
-                    existingRow = i;
-                    break;
-                }
-            }
-
-            if (productExists) {
-                // If the product exists, update quantity and price
-                int currentQuantity = (int) cartTableModel.getValueAt(existingRow, 1);
-                double currentPrice = parseDoubleValue(cartTableModel.getValueAt(existingRow, 2));
-
-                cartTableModel.setValueAt(currentQuantity + 1, existingRow, 1);
-                cartTableModel.setValueAt(currentPrice + price, existingRow, 2);
-            } else {
-                // If the product doesn't exist, add a new row
-                Object[] rowData = {productName, 1, price, category};
-                cartTableModel.addRow(rowData);
-            }
-
-            updateTotal(); // Updates the total price
-
-
-            // Check for category discounts
-            for (int i = 0; i < cartTableModel.getRowCount(); i++) {
-                String rowCategory = cartTableModel.getValueAt(i, 3).toString();
-
-                if ("electronics".equalsIgnoreCase(rowCategory)) {
-                    electronicCount++;
-                } else if ("clothing".equalsIgnoreCase(rowCategory)) {
-                    clothingCount++;
-                }
-            }
+    public void addProductToCart(Product product, int quantity) {
+        CartLine line = cart.addItem(product, quantity);
+        if (line.getQuantity() == quantity) {
+            cartTableModel.lineAdded(line);
+        } else {
+            cartTableModel.lineUpdated(line);
+        }
 
-            // Set the flag for category discount based on the count
-            if (electronicCount >= 3 || clothingCount >= 3) {
-                validForCategoryDiscount = true;
-            }
-            else {
-            validForCategoryDiscount = false;
-            }
+        updateTotal(); // Updates the total price and the discounts
     }
 
     /**
-     * Updates the total price in the discountTextArea based on the contents of the cartTableModel.
+     * Updates the total price in the discountTextArea from the subtotal kept by the cart.
      */
     private void updateTotal() {
-        int rows = cartTableModel.getRowCount();
-        double total = 0;
-
-        // Iterates through the rows of the cartTableModel
-        for (int i = 0; i < rows; i++) {
-            // Converts to appropriate types if needed
-            double price = parseDoubleValue(cartTableModel.getValueAt(i, 2));
-            int quantity = parseIntValue(cartTableModel.getValueAt(i, 1));
-
-            total += price * quantity; // Calculate the total price
-        }
-
-        discountTextArea.setText(calculateDiscounts(total)); // Update the discountTextArea with the calculated discounts
+        discountTextArea.setText(formatDiscounts()); // Update the discountTextArea with the discounts kept by the cart
     }
 
-    /* Helper methods to safely convert Object to double and int */
-
     /**
-     * Converts an Object value to a double, or 0 if the conversion fails.
+     * Prices the cart with the promotions of the passed plan instead of the standard promotions, or without promotions if the plan is null.
      */
-    private double parseDoubleValue(Object value) {
-        try {
-            return Double.parseDouble(value.toString());
-        } catch (NumberFormatException exception) {
-            return 0; // Handle the exception
-        }
+    public void setPricingPlan(PricingPlan plan) {
+        cart.setPricingPlan(plan);
+        updateTotal();
     }
 
     /**
-     * Converts an Object value to an int, or 0 if the conversion fails.
+     * Adds a listener that is called when the "Checkout" button is clicked.
+     * The shopping center places the order, as it holds the reservations of the items in the cart.
      */
-    private int parseIntValue(Object value) {
-        try {
-            return Integer.parseInt(value.toString());
-        } catch (NumberFormatException exception) {
-            return 0; // Handle the exception
-        }
+    public void addCheckoutListener(ActionListener listener) {
+        checkoutButton.addActionListener(listener);
     }
 
     /**
-     * Calculates discounts based on the total price.
-     * Two types of discounts are given.
-     * 1: First time users receive a 10% discount
-     * 2: If 3 products of the same category are selected a 20% discount is given
-     * A formatted string representing the total, first purchase discount, category discount, and final price after applying discounts.
+     * Enables or disables the "Checkout" button, which is disabled while an order for the cart is being placed.
      */
-    private String calculateDiscounts(double total) {
-        // Initialize discount variables
-        double firstPurchaseDiscount = 0;
-        double categoryDiscount = 0;
-
-        if (validForFirstTimeDiscount){ // Applies first-time purchase discount if valid
-            firstPurchaseDiscount = total * 0.1;
-        }
-
-        if (validForCategoryDiscount) { // Applies category discount if valid
-            categoryDiscount = total * 0.2;
-        }
-
-        double finalPrice = total - firstPurchaseDiscount - categoryDiscount; // Calculates the final price after applying discounts
-
-        // Format and return the result
-        return String.format("Total: £%.2f\nFirst Purchase Discount: £%.2f\nThree items in the same Category Discount: £%.2f\nFinal Price: £%.2f",
-                total, firstPurchaseDiscount, categoryDiscount, finalPrice);
+    public void setCheckoutEnabled(boolean enabled) {
+        checkoutButton.setEnabled(enabled);
     }
 
     /**
-     * Adds a new username to the existing usernames set and saves the updated set to a file.
+     * Empties the shopping cart once its items have been ordered.
+     * The shopper has now made a purchase, so the first purchase discount no longer applies.
      */
-    public void addUsername(String username) {
-        existingUsernames.add(username);
-        // Save the updated usernames to the file
-        saveExistingUsernames();
+    public void clearCart() {
+        cart.clear();
+        cart.setFirstPurchase(false);
+        cartTableModel.fireTableDataChanged();
+        updateTotal();
     }
 
     /**
-     * Creates the file for storing existing usernames.
-     * This method is called when the file does not exist.
+     * Returns the username of the shopper, or null if not known.
      */
-    private void createExistingUsernamesFile() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(EXISTING_USERNAMES_FILE))) {
-            // An empty file is created
-        } catch (IOException exception) {
-            exception.printStackTrace(); // Prints this throwable
-        }
+    public String getUsername() {
+        return username;
     }
 
     /**
-     * This method saves the updated set of existing usernames to the file.
-     * It checks if each username is already in the file before writing.
-     * Updates the boolean flag validForFirstTimeDiscount is a new username is added.
+     * Returns the ShoppingCart displayed by this window.
      */
-    private void saveExistingUsernames() {
-        try (BufferedReader reader = new BufferedReader(new FileReader(EXISTING_USERNAMES_FILE));
-             BufferedWriter writer = new BufferedWriter(new FileWriter(EXISTING_USERNAMES_FILE, true))) {
-
-            Set<String> existingUsernamesInFile = new HashSet<>();
-            String line;
-
-            // Read existing usernames from the file
-            while ((line = reader.readLine()) != null) {
-                existingUsernamesInFile.add(line.trim());
-            }
+    public ShoppingCart getCart() {
+        return cart;
+    }
 
-            boolean isNewUsernameAdded = false;
-            // Add new usernames that are not already in the file
-            for (String username : existingUsernames) {
-                if (!existingUsernamesInFile.contains(username)) {
-                    writer.write(username);
-                    writer.newLine();
-                    isNewUsernameAdded = true;
+    /**
+     * Formats the total, the discount of every promotion that applies to the cart, and the final price after discounts.
+     * The discounts are worked out by the cart as its lines change, so nothing is recalculated here.
+     */
+    private String formatDiscounts() {
+        StringBuilder text = new StringBuilder("Total: ");
+        Money.appendTo(text, cart.getSubtotalInPence(), true).append('\n');
+        PriceQuote quote = cart.getQuote();
+        if (quote != null) {
+            for (int rule = 0; rule < quote.getPlan().getRuleCount(); rule++) {
+                if (quote.getDiscountInPence(rule) != 0) { // Only the promotions that apply are listed
+                    text.append(quote.getPlan().getRule(rule).getName()).append(": ");
+                    Money.appendTo(text, quote.getDiscountInPence(rule), true).append('\n');
                 }
-                validForFirstTimeDiscount = isNewUsernameAdded;
             }
-        } catch (IOException exception) {
-            exception.printStackTrace();
-            // Handle the exception appropriately
         }
+        text.append("Final Price: ");
+        Money.appendTo(text, cart.calculateFinalCostInPence(), true);
+        return text.toString();
     }
 
     /**
-     * This method loads existing usernames from a file and returns them as a set.
-     * If the file is not found, it creates the file and returns an empty set.
+     * Adds a username to the username registry.
+     * The shopper is valid for the first purchase discount if the username was not registered before.
      */
-    private Set<String> loadExistingUsernames() {
-        try (BufferedReader reader = new BufferedReader(new FileReader(EXISTING_USERNAMES_FILE))) {
-            Set<String> usernames = new HashSet<>();
-            String line;
-
-            while ((line = reader.readLine()) != null) { // Read usernames from the file
-                usernames.add(line);
-            }
-            return usernames;
-        } catch (IOException exception) {
-            // Handle file reading exception
-            createExistingUsernamesFile(); // Create the file if it doesn't exist
-            return new HashSet<>(); // Return an empty set if there's an issue
-        }
+    public void addUsername(String username) {
+        this.username = username;
+        cart.setFirstPurchase(usernameRegistry.register(username));
+        updateTotal();
     }
-
 }
 
 // REFERENCES
 
-/* Java ExceptionHandling
- * NumberFormatException - https://docs.oracle.com/javase/8/docs/api/java/lang/NumberFormatException.html
- */
-
 /* GUI
- * printStackTrace() - https://docs.oracle.com/javase/8/docs/api/java/lang/Throwable.html#printStackTrace--
+ * AbstractTableModel - https://docs.oracle.com/javase/8/docs/api/javax/swing/table/AbstractTableModel.html
  */
-
-
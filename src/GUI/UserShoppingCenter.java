@@ -1,18 +1,29 @@
 package GUI;
 
+import WestminsterShoppingCenter.CatalogEvent;
+import WestminsterShoppingCenter.CatalogListener;
+import WestminsterShoppingCenter.LatencyHistogram;
+import WestminsterShoppingCenter.Metrics;
+import WestminsterShoppingCenter.Money;
+import WestminsterShoppingCenter.Order;
 import WestminsterShoppingCenter.Product;
+import WestminsterShoppingCenter.ShoppingCart;
 import WestminsterShoppingCenter.User;
 import WestminsterShoppingCenter.WestminsterShoppingManager;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.util.*;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 /**
  * The UserShoppingCenter class represents the main GUI for Westminster Shopping Center system.
@@ -21,14 +32,19 @@ import java.util.List;
 public class UserShoppingCenter extends JFrame {
     private JPanel p1, p2, p3;
     private JComboBox<String> categoryComboBox; // A drop-down menu
+    private JTextField searchField; // Filters the product table as the user types
     private JTable productTable;
-    private DefaultTableModel productTableModel;
+    private ProductTableModel productTableModel;
     private JTextArea productDetailsTextArea;
     private JButton addToCartButton, shoppingCartButton;
     private WestminsterShoppingManager manager;
     private User currentUser;
     private UserShoppingCart shoppingCart;
     private List<String> existingUsernames;
+    private final Map<String, Integer> reservedQuantities = new HashMap<>(); // Items reserved for this shopper, by product ID
+    private boolean checkingOut; // True while an order for the cart is being placed
+    private final CatalogListener catalogListener = this::catalogChanged; // Kept so the same listener can be unsubscribed
+    private static final LatencyHistogram TABLE_REFRESH_LATENCY = Metrics.getInstance().histogram(Metrics.TABLE_REFRESH);
 
     /**
      * A constructor for the UserShoppingCenter.
@@ -53,6 +69,23 @@ public class UserShoppingCenter extends JFrame {
             }
         });
 
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent event) {
+                searchProducts();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent event) {
+                searchProducts();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent event) {
+                searchProducts();
+            }
+        });
+
         productTable.getSelectionModel().addListSelectionListener(event -> {
             if (!event.getValueIsAdjusting()) {
                 productSelection();
@@ -73,6 +106,25 @@ public class UserShoppingCenter extends JFrame {
             }
         });
 
+        shoppingCart.addCheckoutListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent event) {
+                checkoutHandler();
+            }
+        });
+
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent event) {
+                if (!checkingOut) { // Otherwise the order being placed sells, releases or puts back the reserved items
+                    releaseReservations();
+                }
+                if (manager != null) {
+                    manager.getEventBus().unsubscribe(catalogListener);
+                }
+            }
+        });
+
         // Set frame properties
         setTitle("Westminster Shopping Center");
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
@@ -89,11 +141,16 @@ public class UserShoppingCenter extends JFrame {
 
     /**
      * Sets the WestminsterShoppingManager for the UserShoppingCenter.
+     * The GUI subscribes to the manager's changes to the catalog, which are delivered in batches on the event dispatch thread.
      */
     public void setManager(WestminsterShoppingManager manager) {
+        if (this.manager != null) {
+            this.manager.getEventBus().unsubscribe(catalogListener);
+        }
         this.manager = manager;
-        displayAllProducts(); // Display all products in the user interface
-
+        manager.getEventBus().subscribe(catalogListener, SwingUtilities::invokeLater); // Subscribed first, so no change is missed
+        productTableModel.setManager(manager);
+        categorySelection(); // Display the products of the selected category in the user interface
     }
 
     /**
@@ -106,17 +163,20 @@ public class UserShoppingCenter extends JFrame {
         p1.setLayout(new FlowLayout());
         JLabel selectCategoryLabel = new JLabel("Select product category");
         categoryComboBox = new JComboBox<>(new String[]{"All", "Electronics", "Clothing"});
+        JLabel searchLabel = new JLabel("Search");
+        searchField = new JTextField(15);
         shoppingCartButton = new JButton("Shopping Cart");
         p1.add(selectCategoryLabel);
         p1.add(categoryComboBox);
+        p1.add(searchLabel);
+        p1.add(searchField);
         p1.add(shoppingCartButton);
 
         // Panel 2
         p2 = new JPanel();
         p2.setLayout(new BorderLayout());
 
-        String[] columnNames = {"Product ID", "Name", "Category", "Price(£)", "Info"}; // Column names of the table
-        productTableModel = new DefaultTableModel(columnNames, 0);
+        productTableModel = new ProductTableModel(); // Reads the cells directly from the manager's catalog
         productTable = new JTable(productTableModel);
         productTable.setDefaultRenderer(Object.class, new CustomCellRenderer());
 
@@ -149,24 +209,24 @@ public class UserShoppingCenter extends JFrame {
     }
 
     /**
-     * Adds a product to the product table with all necessary product details.
-     */
-    public void addProductToTable(String productID, String productName, String category, double price, String productInfo) {
-        Object[] rowData = {productID, productName, category, price, productInfo}; // Creates an array containing the product details
-        productTableModel.addRow(rowData); // Add the product details to the product table as a new row
-    }
-
-    /**
-     * Removes a product with the specified product ID from the product table.
+     * Updates the product table after a batch of changes to the manager's catalog, on the event dispatch thread.
+     * However many changes are in the batch, the table is refreshed once: fully if any product was added, deleted
+     * or reloaded, otherwise only the low stock highlighting.
      */
-    public void removeProductFromTable(String productID) {
-        DefaultTableModel model = (DefaultTableModel) productTable.getModel();
-        for (int i = 0; i < model.getRowCount(); i++) {  // Iterates through each row to check if the current product ID matches the specified product ID
-            if (model.getValueAt(i, 0).equals(productID)) {
-                model.removeRow(i);
-                break;
-            }
+    private void catalogChanged(List<CatalogEvent> events) {
+        long start = TABLE_REFRESH_LATENCY.start();
+        boolean changesProducts = false;
+        Set<Product> stockChangedProducts = new HashSet<>();
+        for (CatalogEvent event : events) {
+            changesProducts |= event.changesProducts();
+            stockChangedProducts.addAll(event.getProducts());
         }
+        if (changesProducts) {
+            productTableModel.refresh(); // Also updates the low stock highlighting
+        } else {
+            productTableModel.refreshStockLevels(stockChangedProducts); // Only stock levels changed, so the rows and the selection are kept
+        }
+        TABLE_REFRESH_LATENCY.stop(start);
     }
 
     /**
@@ -186,41 +246,36 @@ public class UserShoppingCenter extends JFrame {
         }
     }
 
+    /**
+     * Handles a change to the text of the search field.
+     * Displays the products of the selected category that have a word starting with each word typed, such as "red sh" for a red shirt.
+     */
+    private void searchProducts() {
+        productTableModel.setSearchQuery(searchField.getText());
+    }
+
     /**
      * Displays all the products in the product table.
-     * It clears the existing rows in the table and adds each product from the manager's product list.
+     * The table model switches to a view of the whole catalog, without copying the products into the table.
      */
     private void displayAllProducts() {
-        productTableModel.setRowCount(0); // Clearing the table
-        for (Product product : manager.getProductList()) {
-            addProductToTable(product.getProductID(), product.getProductName(), product.getCategory(), product.getPrice(), product.getProductInfo());
-        }
+        productTableModel.setCategory(null);
     }
 
     /**
      * Displays all the electronic products in the product table.
-     * It clears the existing rows in the table and adds each electronic product from the manager's product list.
+     * The table model switches to a view of the manager's electronics index.
      */
     private void displayElectronicsProducts() {
-        productTableModel.setRowCount(0); // Clearing the table
-        for (Product product : manager.getProductList()) {
-            if ("Electronics".equals(product.getCategory())) {
-                addProductToTable(product.getProductID(), product.getProductName(), product.getCategory(), product.getPrice(), product.getProductInfo());
-            }
-        }
+        productTableModel.setCategory("Electronics");
     }
 
     /**
      * Displays all the clothing products in the product table.
-     * It clears the existing rows in the table and adds each clothing product from the manager's product list.
+     * The table model switches to a view of the manager's clothing index.
      */
     private void displayClothingProducts() {
-        productTableModel.setRowCount(0); // Clearing the table
-        for (Product product : manager.getProductList()) {
-            if ("Clothing".equals(product.getCategory())) {
-                addProductToTable(product.getProductID(), product.getProductName(), product.getCategory(), product.getPrice(), product.getProductInfo());
-            }
-        }
+        productTableModel.setCategory("Clothing");
     }
 
     /**
@@ -252,38 +307,129 @@ public class UserShoppingCenter extends JFrame {
 
     /**
      * Handles the event of when the "Add to Shopping Cart" button is clicked.
-     * It retrieves information of the selected product and adds it to the shopping cart.
-     * Displays a message if there are not enough items available for the selected product.
+     * It retrieves information of the selected product, reserves the items in the inventory and adds them to the shopping cart.
+     * Displays a message if there are not enough unreserved items available for the selected product.
      */
     private void addToCartHandler() {
+        if (checkingOut) {
+            return;
+        }
         int selectedRow = productTable.getSelectedRow();  // Get the index of the selected row in the product table
 
         if (selectedRow != -1) { // Check if a valid row is selected
 
-            // Retrieve information of the selected product from the table
-            String productID = productTable.getValueAt(selectedRow, 0).toString();
-            String productName = productTable.getValueAt(selectedRow, 1).toString();
-            double price = Double.parseDouble(productTable.getValueAt(selectedRow, 3).toString());
-            String category = productTable.getValueAt(selectedRow, 2).toString();
+            // Retrieve the selected product from the table model
+            Product product = productTableModel.getProductAt(productTable.convertRowIndexToModel(selectedRow));
+            String productID = product.getProductID();
             int quantity = 1;
 
-            // Get the available items for the selected product
-            int availableItems = manager.getProductById(productID).getNumOfItemsAvailable();
-
-            // Add product to the shopping cart
-            if (availableItems >= quantity) {
+            // Reserve the items for this shopper, so other shoppers cannot buy the same items
+            if (manager.getInventory().reserve(productID, quantity)) {
+                reservedQuantities.merge(productID, quantity, Integer::sum);
 
                 // Add product to the shopping cart
-                shoppingCart.addProductToCart(productName, quantity, price, category);
+                shoppingCart.addProductToCart(product, quantity);
                 shoppingCart.setVisible(true);
 
             } else {
                 // Display a message indicating that there are not enough items available
-                JOptionPane.showMessageDialog(this, "Not enough items available for product: " + productName);
+                JOptionPane.showMessageDialog(this, "Not enough items available for product: " + product.getProductName());
             }
         }
     }
 
+    /**
+     * Handles the event of when the "Checkout" button of the shopping cart is clicked.
+     * It places an order for the items in the cart, which are already reserved for this shopper, and empties the cart.
+     * Placing the order waits for it to be written to disk, so it is done by a SwingWorker rather than on the event dispatch
+     * thread, which keeps the window responsive; checkouts of other shoppers are written with it.
+     * Nothing can be added to the cart until the order is placed or refused.
+     * Items that are no longer available are left out of the order, and the shopper is told which ones.
+     */
+    private void checkoutHandler() {
+        if (manager == null || shoppingCart.getCart().getLineCount() == 0) {
+            JOptionPane.showMessageDialog(shoppingCart, "Your shopping cart is empty.");
+            return;
+        }
+        setCheckingOut(true);
+        WestminsterShoppingManager orderManager = manager;
+        ShoppingCart cart = shoppingCart.getCart();
+        String username = shoppingCart.getUsername();
+        new SwingWorker<Order, Void>() {
+            @Override
+            protected Order doInBackground() throws IOException {
+                return orderManager.getOrderProcessor().placeOrder(cart, username);
+            }
+
+            @Override
+            protected void done() {
+                String message;
+                try {
+                    Order order = get();
+                    StringBuilder text = new StringBuilder("Order ").append(order.getOrderID()).append(" placed for ")
+                            .append(order.getItemCount()).append(" item(s). Final Price: ");
+                    Money.appendTo(text, order.getTotalInPence(), true);
+                    if (!order.getUnavailableProductIDs().isEmpty()) {
+                        text.append("\nNo longer available: ").append(String.join(", ", order.getUnavailableProductIDs()));
+                    }
+                    message = text.toString();
+                } catch (ExecutionException exception) {
+                    message = checkoutErrorMessage(exception.getCause());
+                } catch (InterruptedException exception) { // Not expected, as done() is only called once the order is finished
+                    Thread.currentThread().interrupt();
+                    message = "The order could not be placed: " + exception.getMessage();
+                }
+                // Whether the order was placed or not, the reserved items have been sold, released or put back in stock
+                reservedQuantities.clear();
+                shoppingCart.clearCart();
+                setCheckingOut(false);
+                JOptionPane.showMessageDialog(shoppingCart, message);
+            }
+        }.execute();
+    }
+
+    /**
+     * Returns the message shown to the shopper for an order that could not be placed because of the passed error.
+     */
+    private static String checkoutErrorMessage(Throwable error) {
+        if (error instanceof IllegalStateException) {
+            return error.getMessage();
+        }
+        if (error instanceof IOException) {
+            return "The order could not be placed: " + error.getMessage();
+        }
+        if (error instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (error instanceof Error fatalError) {
+            throw fatalError;
+        }
+        throw new IllegalStateException(error);
+    }
+
+    /**
+     * Disables adding to the cart and checking out while an order is being placed, and enables them again once it is finished.
+     * The cart is read and changed by the order processor until then, so it must not change under it.
+     */
+    private void setCheckingOut(boolean checkingOut) {
+        this.checkingOut = checkingOut;
+        addToCartButton.setEnabled(!checkingOut);
+        shoppingCart.setCheckoutEnabled(!checkingOut);
+    }
+
+    /**
+     * Releases every item reserved for this shopper, making them available to other shoppers again.
+     * This method is called when the window is closed.
+     */
+    private void releaseReservations() {
+        if (manager != null) {
+            for (Map.Entry<String, Integer> reservation : reservedQuantities.entrySet()) {
+                manager.getInventory().release(reservation.getKey(), reservation.getValue());
+            }
+        }
+        reservedQuantities.clear();
+    }
+
     /**
      * Opens the UserShoppingCart window, making it visible to the user.
      * This method is called when the "Shopping Cart" button is clicked.
@@ -302,10 +448,7 @@ public class UserShoppingCenter extends JFrame {
             Component rendererComponent = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
 
             if (manager != null) { // Check if a product manager is set
-                String productId = table.getValueAt(row, 0).toString();
-                Product product = manager.getProductById(productId);
-
-                if (product != null && product.getNumOfItemsAvailable() < 3) { // Highlight cells with low availability in red
+                if (productTableModel.isLowStock(table.convertRowIndexToModel(row))) { // Highlight cells with low availability in red
                     rendererComponent.setBackground(Color.RED);
                 } else {
                     rendererComponent.setBackground(Color.GRAY);
@@ -319,35 +462,13 @@ public class UserShoppingCenter extends JFrame {
      * Sorts the products displayed in the table by Product ID alphabetically.
      */
     private void sortProductsByProductID() {
-        // Get the current table model
-        DefaultTableModel model = (DefaultTableModel) productTable.getModel();
-
-        // Get the data from the table model
-        List<Object[]> data = new ArrayList<>();
-        for (int i = 0; i < model.getRowCount(); i++) {
-            Object[] rowData = new Object[model.getColumnCount()];
-            for (int j = 0; j < model.getColumnCount(); j++) {
-                rowData[j] = model.getValueAt(i, j);
-            }
-            data.add(rowData);
-        }
-
-        // Sort the data by Product ID in ascending order
-        data.sort(Comparator.comparing(o -> (String) o[0]));
-
-        // Clear the table model
-        model.setRowCount(0);
-
-        // Add the sorted data back to the table model
-        for (Object[] rowData : data) {
-            model.addRow(rowData);
-        }
+        productTableModel.sortByProductID(); // Sorts the products in the table model in ascending order of Product ID
     }
 
     /**
-     * Returns the DefaultTableModel that is associated with the product table.
+     * Returns the ProductTableModel that is associated with the product table.
      */
-    public DefaultTableModel getProductTableModel() {
+    public ProductTableModel getProductTableModel() {
         return productTableModel;
     }
 
@@ -366,6 +487,8 @@ public class UserShoppingCenter extends JFrame {
  */
 
 /* GUI
+ * SwingWorker - https://docs.oracle.com/javase/8/docs/api/javax/swing/SwingWorker.html
  * CustomCellRenderer,TableCellRenderer - https://docs.oracle.com/javase%2F7%2Fdocs%2Fapi%2F%2F/javax/swing/table/TableCellRenderer.html
+ * DocumentListener - https://docs.oracle.com/javase/8/docs/api/javax/swing/event/DocumentListener.html
  */
 
@@ -0,0 +1,660 @@
+package Server;
+
+import WestminsterShoppingCenter.*;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A class that serves the product catalog and shopping carts of a WestminsterShoppingManager over HTTP, without a GUI.
+ * It uses the JDK's built-in HttpServer, and every request is handled on its own virtual thread, so a request that
+ * waits, such as for the journal to be written, does not hold up the others.
+ * Responses are JSON. The server handles these requests:
+ *   GET    /products?category=&offset=&limit=    Lists the products, optionally of one category, a page at a time
+ *   GET    /products?sort=id&category=&from=&to=&after=&limit=   Lists the products in ID order, from an ID, or after the last ID of the previous page
+ *   GET    /products/{productID}                 Returns a product
+ *   POST   /carts?username=                      Creates a cart, with the first purchase discount for a new username
+ *   GET    /carts/{cartID}                       Returns the lines, discounts and total of a cart
+ *   DELETE /carts/{cartID}                       Abandons a cart, releasing the items reserved for it
+ *   POST   /carts/{cartID}/items?productID=&quantity=    Reserves items and adds them to a cart
+ *   DELETE /carts/{cartID}/items/{productID}?quantity=   Takes items out of a cart and releases them
+ *   POST   /carts/{cartID}/checkout              Sells the items of a cart, places an order for them and closes the cart
+ *   GET    /metrics                              Returns the text report of the system's metrics
+ * A cart that is not used for longer than the idle timeout is abandoned by a background sweep, which releases its items,
+ * and no more carts are created while the maximum number of carts are open, so clients that never check out cannot
+ * hold stock or grow the server without bound.
+ */
+public class CatalogServer {
+    public static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int BACKLOG = 1024; // Connections waiting to be accepted
+    public static final int DEFAULT_MAX_OPEN_CARTS = 100_000;
+    public static final long DEFAULT_CART_IDLE_TIMEOUT_MILLIS = 30 * 60_000; // 30 minutes
+    private static final LatencyHistogram REQUEST_LATENCY = Metrics.getInstance().histogram(Metrics.SERVER_REQUEST);
+
+    static {
+        // The JDK's HttpServer reads its settings once, when it is first used, so they are set before any server is created.
+        // Without TCP_NODELAY, the body written after the response headers waits for the client's delayed ACK (about 40 ms).
+        setPropertyIfAbsent("sun.net.httpserver.nodelay", "true");
+        // Keeps a kept-alive connection for every concurrent client rather than the default of 200, so pooled connections are not closed under load.
+        setPropertyIfAbsent("sun.net.httpserver.maxIdleConnections", String.valueOf(BACKLOG));
+    }
+
+    private final WestminsterShoppingManager manager;
+    private final PricingPlan pricingPlan;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, ServerCart> carts = new ConcurrentHashMap<>(); // Open carts by cart ID
+    private final AtomicInteger openCartCount = new AtomicInteger(); // Counted separately, as the size of the map is not exact while it changes
+    private final int maxOpenCarts;
+    private final long cartIdleTimeoutNanos;
+    private final ScheduledExecutorService cartSweeper;
+
+    /**
+     * A constructor to initialize a server for the passed manager on the passed port, pricing carts with the standard promotions.
+     * Port 0 picks a free port.
+     */
+    public CatalogServer(WestminsterShoppingManager manager, int port) throws IOException {
+        this(manager, port, PricingPlan.STANDARD_PROMOTIONS);
+    }
+
+    /**
+     * A constructor to initialize a server for the passed manager on the passed port, pricing carts with the passed plan,
+     * with the default limits on open carts.
+     */
+    public CatalogServer(WestminsterShoppingManager manager, int port, PricingPlan pricingPlan) throws IOException {
+        this(manager, port, pricingPlan, DEFAULT_MAX_OPEN_CARTS, DEFAULT_CART_IDLE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * A constructor to initialize a server for the passed manager on the passed port, pricing carts with the passed plan.
+     * At most maxOpenCarts carts can be open at once, and a cart that is not used for cartIdleTimeoutMillis is abandoned.
+     */
+    public CatalogServer(WestminsterShoppingManager manager, int port, PricingPlan pricingPlan, int maxOpenCarts,
+                         long cartIdleTimeoutMillis) throws IOException {
+        if (maxOpenCarts <= 0 || cartIdleTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Invalid cart limits: " + maxOpenCarts + " carts, idle for "
+                    + cartIdleTimeoutMillis + " ms");
+        }
+        this.manager = manager;
+        this.pricingPlan = pricingPlan;
+        this.maxOpenCarts = maxOpenCarts;
+        this.cartIdleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(cartIdleTimeoutMillis);
+        this.cartSweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/products", exchange -> handle(exchange, this::routeProducts));
+        server.createContext("/carts", exchange -> handle(exchange, this::routeCarts));
+        server.createContext("/metrics", this::handleMetrics);
+    }
+
+    /**
+     * Starts accepting requests, and sweeping idle carts every half of the idle timeout.
+     * A cart is therefore abandoned between one and one and a half idle timeouts after it was last used.
+     */
+    public void start() {
+        server.start();
+        long sweepIntervalNanos = Math.max(cartIdleTimeoutNanos / 2, 1);
+        cartSweeper.scheduleWithFixedDelay(this::abandonIdleCarts, sweepIntervalNanos, sweepIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops the server, waiting at most the passed number of seconds for requests in progress to finish.
+     * The items reserved for carts that were not checked out are released.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.close();
+        cartSweeper.shutdownNow();
+        for (String cartID : new ArrayList<>(carts.keySet())) {
+            ServerCart cart = removeCart(cartID);
+            if (cart != null) {
+                cart.abandon();
+            }
+        }
+    }
+
+    /**
+     * Returns the port the server listens on.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns the number of open carts.
+     */
+    public int getOpenCartCount() {
+        return openCartCount.get();
+    }
+
+    /**
+     * Abandons every cart that has not been used for the idle timeout, releasing the items reserved for it.
+     * A cart in use by a request is skipped rather than waited for, as it is not idle.
+     */
+    private void abandonIdleCarts() {
+        try {
+            long now = System.nanoTime();
+            for (Map.Entry<String, ServerCart> entry : carts.entrySet()) {
+                ServerCart cart = entry.getValue();
+                if (now - cart.lastUsedNanos > cartIdleTimeoutNanos && cart.lock.tryLock()) {
+                    try {
+                        // Checked again with the lock held, as a request may have used the cart since
+                        if (now - cart.lastUsedNanos > cartIdleTimeoutNanos && carts.remove(entry.getKey(), cart)) {
+                            openCartCount.decrementAndGet();
+                            cart.abandon();
+                        }
+                    } finally {
+                        cart.lock.unlock();
+                    }
+                }
+            }
+        } catch (RuntimeException exception) { // A scheduled task that throws is never run again
+            System.out.println("Error abandoning idle carts: " + exception);
+        }
+    }
+
+    /**
+     * Handles a request with the passed route and sends its response, or an error response if the request failed.
+     */
+    private void handle(HttpExchange exchange, Route route) throws IOException {
+        long start = REQUEST_LATENCY.start();
+        int status;
+        String body;
+        try {
+            Response response = route.handle(exchange.getRequestMethod(), pathSegments(exchange), queryParameters(exchange));
+            status = response.status;
+            body = response.json.toString();
+        } catch (RequestException exception) {
+            status = exception.status;
+            body = new JsonWriter().beginObject().name("error").value(exception.getMessage()).endObject().toString();
+        } catch (RuntimeException exception) {
+            status = 500;
+            body = new JsonWriter().beginObject().name("error").value("Internal error: " + exception).endObject().toString();
+        }
+
+        send(exchange, status, "application/json; charset=utf-8", body);
+        REQUEST_LATENCY.stop(start);
+    }
+
+    /**
+     * Handles the requests under /metrics, which are answered with the report of the metrics as plain text.
+     */
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            send(exchange, 405, "text/plain; charset=utf-8", "Method not allowed: " + exchange.getRequestMethod());
+        } else {
+            send(exchange, 200, "text/plain; charset=utf-8", Metrics.getInstance().getReport());
+        }
+    }
+
+    /**
+     * Sends a response with the passed status, content type and body.
+     */
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * Handles the requests under /products.
+     */
+    private Response routeProducts(String method, List<String> path, Map<String, String> query) throws RequestException {
+        requireMethod(method, "GET");
+        if (path.size() == 1) {
+            return listProducts(query);
+        } else if (path.size() == 2) {
+            return Response.ok(writeProduct(new JsonWriter(), findProduct(path.get(1))));
+        }
+        throw new RequestException(404, "Not found");
+    }
+
+    /**
+     * Handles the requests under /carts.
+     */
+    private Response routeCarts(String method, List<String> path, Map<String, String> query) throws RequestException {
+        if (path.size() == 1) {
+            requireMethod(method, "POST");
+            return createCart(query.get("username"));
+        }
+        String cartID = path.get(1);
+        if (path.size() == 2) {
+            if (method.equals("DELETE")) {
+                return abandonCart(cartID);
+            }
+            requireMethod(method, "GET");
+            ServerCart cart = findCart(cartID);
+            cart.lock.lock();
+            try {
+                return Response.ok(writeCart(new JsonWriter(), cartID, cart.cart));
+            } finally {
+                cart.lock.unlock();
+            }
+        }
+        if (path.get(2).equals("items") && path.size() == 3) {
+            requireMethod(method, "POST");
+            return addItem(cartID, requireParameter(query, "productID"), parseQuantity(query.get("quantity"), 1));
+        }
+        if (path.get(2).equals("items") && path.size() == 4) {
+            requireMethod(method, "DELETE");
+            return removeItem(cartID, path.get(3), query.get("quantity"));
+        }
+        if (path.get(2).equals("checkout") && path.size() == 3) {
+            requireMethod(method, "POST");
+            return checkout(cartID);
+        }
+        throw new RequestException(404, "Not found");
+    }
+
+    /**
+     * Lists a page of the products, optionally of one category.
+     */
+    private Response listProducts(Map<String, String> query) throws RequestException {
+        if ("id".equals(query.get("sort"))) {
+            return listProductsByID(query);
+        }
+        List<Product> products = manager.getProductView(query.get("category")); // A shared view, not a copy
+        int offset = parseInt(query.get("offset"), 0);
+        int limit = Math.min(parseInt(query.get("limit"), DEFAULT_PAGE_SIZE), MAX_PAGE_SIZE);
+        if (offset < 0 || limit < 0) {
+            throw new RequestException(400, "The offset and limit must not be negative");
+        }
+
+        JsonWriter json = new JsonWriter().beginObject()
+                .name("total").value(products.size())
+                .name("offset").value(offset)
+                .name("products").beginArray();
+        int end = (int) Math.min((long) offset + limit, products.size());
+        for (int i = offset; i < end; i++) {
+            writeProduct(json, products.get(i));
+        }
+        return Response.ok(json.endArray().endObject());
+    }
+
+    /**
+     * Lists a page of the products in the order of their IDs, optionally of one category and within a range of IDs.
+     * The page starts after the ID in the after parameter, or at the ID in the from parameter, and the response has
+     * the ID to pass as after for the next page, or null if it is the last page.
+     */
+    private Response listProductsByID(Map<String, String> query) throws RequestException {
+        int limit = Math.min(parseInt(query.get("limit"), DEFAULT_PAGE_SIZE), MAX_PAGE_SIZE);
+        if (limit < 0) {
+            throw new RequestException(400, "The limit must not be negative");
+        }
+        String category = query.get("category");
+        String toID = query.get("to");
+        List<Product> products = query.containsKey("after")
+                ? manager.getProductsAfter(query.get("after"), toID, category, limit)
+                : manager.getProductsInRange(query.get("from"), toID, category, limit);
+
+        JsonWriter json = new JsonWriter().beginObject().name("products").beginArray();
+        for (Product product : products) {
+            writeProduct(json, product);
+        }
+        json.endArray().name("next").value(products.size() == limit && limit > 0 ? products.get(limit - 1).getProductID() : null);
+        return Response.ok(json.endObject());
+    }
+
+    /**
+     * Creates an empty cart. If a username is passed, the cart gets the first purchase discount if the username is new.
+     * Responds with 503 if the maximum number of carts are already open.
+     */
+    private Response createCart(String username) throws RequestException {
+        if (openCartCount.incrementAndGet() > maxOpenCarts) {
+            openCartCount.decrementAndGet();
+            throw new RequestException(503, "Too many open carts");
+        }
+        ShoppingCart cart = new ShoppingCart();
+        cart.setPricingPlan(pricingPlan);
+        if (username != null && !username.isBlank()) {
+            cart.setFirstPurchase(UsernameRegistry.getInstance().register(username));
+        }
+        String cartID = UUID.randomUUID().toString();
+        carts.put(cartID, new ServerCart(cart, username));
+        return new Response(201, writeCart(new JsonWriter(), cartID, cart));
+    }
+
+    /**
+     * Reserves items of a product and adds them to a cart.
+     */
+    private Response addItem(String cartID, String productID, int quantity) throws RequestException {
+        ServerCart cart = findCart(cartID);
+        Product product = findProduct(productID);
+        cart.lock.lock();
+        try {
+            cart.requireOpen();
+            if (!manager.getInventory().reserve(productID, quantity)) {
+                throw new RequestException(409, "Not enough items available for product: " + productID);
+            }
+            cart.cart.addItem(product, quantity);
+            return Response.ok(writeCart(new JsonWriter(), cartID, cart.cart));
+        } finally {
+            cart.lock.unlock();
+        }
+    }
+
+    /**
+     * Takes items of a product out of a cart, all of them if no quantity is passed, and releases them.
+     */
+    private Response removeItem(String cartID, String productID, String quantity) throws RequestException {
+        ServerCart cart = findCart(cartID);
+        cart.lock.lock();
+        try {
+            cart.requireOpen();
+            CartLine line = cart.cart.getLine(productID);
+            if (line == null) {
+                throw new RequestException(404, "Product not in the cart: " + productID);
+            }
+            int removedCount = cart.cart.removeItem(line.getProduct(), parseQuantity(quantity, line.getQuantity()));
+            manager.getInventory().release(productID, removedCount);
+            return Response.ok(writeCart(new JsonWriter(), cartID, cart.cart));
+        } finally {
+            cart.lock.unlock();
+        }
+    }
+
+    /**
+     * Sells the items of a cart, places an order for them with the manager's order processor and closes the cart.
+     * The response is sent once the order is on disk; concurrent checkouts are group-committed, so they share each write to disk.
+     * A product deleted from the catalog since it was added to the cart cannot be sold; it is left out of the order
+     * and listed as unavailable.
+     */
+    private Response checkout(String cartID) throws RequestException {
+        ServerCart cart = findCart(cartID);
+        cart.lock.lock();
+        try {
+            cart.requireOpen();
+            if (cart.cart.getLineCount() == 0) {
+                throw new RequestException(400, "The cart is empty");
+            }
+            cart.closed = true;
+            removeCart(cartID);
+
+            Order order;
+            try {
+                order = manager.getOrderProcessor().placeOrder(cart.cart, cart.username);
+            } catch (IllegalStateException exception) {
+                throw new RequestException(409, exception.getMessage());
+            } catch (IOException exception) {
+                throw new RequestException(500, exception.getMessage());
+            }
+            JsonWriter json = new JsonWriter().beginObject().name("unavailable").beginArray();
+            for (String productID : order.getUnavailableProductIDs()) {
+                json.value(productID);
+            }
+            json.endArray().name("order");
+            writeCart(json, cartID, cart.cart);
+            return Response.ok(json.name("orderID").value(order.getOrderID()).endObject());
+        } finally {
+            cart.lock.unlock();
+        }
+    }
+
+    /**
+     * Closes a cart without buying it, releasing the items reserved for it.
+     */
+    private Response abandonCart(String cartID) throws RequestException {
+        ServerCart cart = removeCart(cartID);
+        if (cart == null) {
+            throw new RequestException(404, "Cart not found: " + cartID);
+        }
+        cart.abandon();
+        return Response.ok(new JsonWriter().beginObject().name("cartID").value(cartID).endObject());
+    }
+
+    private Product findProduct(String productID) throws RequestException {
+        Product product = manager.getProductById(productID);
+        if (product == null) {
+            throw new RequestException(404, "Product not found: " + productID);
+        }
+        return product;
+    }
+
+    /**
+     * Returns the open cart with the passed ID, which is marked as used so it is not abandoned as idle.
+     */
+    private ServerCart findCart(String cartID) throws RequestException {
+        ServerCart cart = carts.get(cartID);
+        if (cart == null) {
+            throw new RequestException(404, "Cart not found: " + cartID);
+        }
+        cart.lastUsedNanos = System.nanoTime();
+        return cart;
+    }
+
+    /**
+     * Removes the cart with the passed ID from the open carts. Returns the cart, or null if it was not open.
+     */
+    private ServerCart removeCart(String cartID) {
+        ServerCart cart = carts.remove(cartID);
+        if (cart != null) {
+            openCartCount.decrementAndGet();
+        }
+        return cart;
+    }
+
+    /**
+     * Writes a product as a JSON object.
+     */
+    private static JsonWriter writeProduct(JsonWriter json, Product product) {
+        return json.beginObject()
+                .name("productID").value(product.getProductID())
+                .name("productName").value(product.getProductName())
+                .name("category").value(product.getCategory())
+                .name("numOfItemsAvailable").value(product.getNumOfItemsAvailable())
+                .name("price").money(product.getPriceInPence())
+                .name("info").value(product.getProductInfo())
+                .endObject();
+    }
+
+    /**
+     * Writes the lines, discounts and total of a cart as a JSON object.
+     */
+    private static JsonWriter writeCart(JsonWriter json, String cartID, ShoppingCart cart) {
+        json.beginObject().name("cartID").value(cartID).name("lines").beginArray();
+        for (CartLine line : cart.getLines()) {
+            json.beginObject()
+                    .name("productID").value(line.getProduct().getProductID())
+                    .name("productName").value(line.getProduct().getProductName())
+                    .name("quantity").value(line.getQuantity())
+                    .name("unitPrice").money(line.getUnitPriceInPence())
+                    .name("lineTotal").money(line.getLineTotalInPence())
+                    .endObject();
+        }
+        json.endArray().name("subtotal").money(cart.getSubtotalInPence()).name("discounts").beginArray();
+        PriceQuote quote = cart.getQuote();
+        if (quote != null) {
+            for (int rule = 0; rule < quote.getPlan().getRuleCount(); rule++) {
+                if (quote.getDiscountInPence(rule) != 0) { // Only the promotions that apply are listed
+                    json.beginObject()
+                            .name("name").value(quote.getPlan().getRule(rule).getName())
+                            .name("amount").money(quote.getDiscountInPence(rule))
+                            .endObject();
+                }
+            }
+        }
+        return json.endArray().name("total").money(cart.calculateFinalCostInPence()).endObject();
+    }
+
+    private static void setPropertyIfAbsent(String name, String value) {
+        if (System.getProperty(name) == null) {
+            System.setProperty(name, value);
+        }
+    }
+
+    /**
+     * Splits the path of a request into its segments, such as ["carts", "{cartID}", "items"].
+     */
+    private static List<String> pathSegments(HttpExchange exchange) {
+        List<String> segments = new ArrayList<>(4);
+        for (String segment : exchange.getRequestURI().getPath().split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Returns the decoded parameters of the query string of a request.
+     */
+    private static Map<String, String> queryParameters(HttpExchange exchange) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, String> parameters = new HashMap<>();
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                parameters.put(URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    private static void requireMethod(String method, String expectedMethod) throws RequestException {
+        if (!method.equals(expectedMethod)) {
+            throw new RequestException(405, "Method not allowed: " + method);
+        }
+    }
+
+    private static String requireParameter(Map<String, String> query, String name) throws RequestException {
+        String value = query.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new RequestException(400, "Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static int parseInt(String value, int defaultValue) throws RequestException {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException exception) {
+            throw new RequestException(400, "Not a whole number: " + value);
+        }
+    }
+
+    private static int parseQuantity(String value, int defaultValue) throws RequestException {
+        int quantity = parseInt(value, defaultValue);
+        if (quantity <= 0) {
+            throw new RequestException(400, "Quantity must be positive: " + quantity);
+        }
+        return quantity;
+    }
+
+    /**
+     * A handler for the requests under one context of the server.
+     */
+    private interface Route {
+        Response handle(String method, List<String> path, Map<String, String> query) throws RequestException;
+    }
+
+    /**
+     * The status and JSON body of a successful response.
+     */
+    private static class Response {
+        final int status;
+        final JsonWriter json;
+
+        Response(int status, JsonWriter json) {
+            this.status = status;
+            this.json = json;
+        }
+
+        static Response ok(JsonWriter json) {
+            return new Response(200, json);
+        }
+    }
+
+    /**
+     * An exception for a request that cannot be handled, with the HTTP status to respond with.
+     */
+    private static class RequestException extends Exception {
+        final int status;
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * An open cart of the server.
+     * A ReentrantLock, rather than synchronized, guards the cart, so a virtual thread waiting for it does not hold on
+     * to its carrier thread.
+     */
+    private class ServerCart {
+        final ShoppingCart cart;
+        final String username; // Written to the order when the cart is checked out; may be null
+        final ReentrantLock lock = new ReentrantLock();
+        boolean closed; // True once the cart has been checked out or abandoned
+        volatile long lastUsedNanos = System.nanoTime(); // When a request last found the cart
+
+        ServerCart(ShoppingCart cart, String username) {
+            this.cart = cart;
+            this.username = username;
+        }
+
+        void requireOpen() throws RequestException {
+            if (closed) {
+                throw new RequestException(404, "Cart is closed");
+            }
+        }
+
+        /**
+         * Closes the cart and releases every item reserved for it.
+         */
+        void abandon() {
+            lock.lock();
+            try {
+                if (!closed) {
+                    closed = true;
+                    for (CartLine line : cart.getLines()) {
+                        manager.getInventory().release(line.getProduct().getProductID(), line.getQuantity());
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
+
+//REFERENCES
+
+/* Java HTTP Server
+ * HttpServer - https://docs.oracle.com/en/java/javase/21/docs/api/jdk.httpserver/com/sun/net/httpserver/HttpServer.html
+ */
+
+/* Java Concurrency
+ * Virtual Threads - https://openjdk.org/jeps/444
+ * ReentrantLock - https://docs.oracle.com/en/java/javase/21/docs/api/java.base/java/util/concurrent/locks/ReentrantLock.html
+ * ScheduledExecutorService.scheduleWithFixedDelay - https://docs.oracle.com/en/java/javase/21/docs/api/java.base/java/util/concurrent/ScheduledExecutorService.html
+ */
@@ -0,0 +1,121 @@
+package Server;
+
+import WestminsterShoppingCenter.Money;
+
+/**
+ * A class that writes JSON text for the responses of the catalog server.
+ * Values are appended straight to a StringBuilder, and commas between the members of an object or array are added
+ * automatically.
+ */
+class JsonWriter {
+    private final StringBuilder json = new StringBuilder(256);
+    private boolean needsComma; // True after a value, when the next member needs a comma before it
+
+    JsonWriter beginObject() {
+        separate();
+        json.append('{');
+        needsComma = false;
+        return this;
+    }
+
+    JsonWriter endObject() {
+        json.append('}');
+        needsComma = true;
+        return this;
+    }
+
+    JsonWriter beginArray() {
+        separate();
+        json.append('[');
+        needsComma = false;
+        return this;
+    }
+
+    JsonWriter endArray() {
+        json.append(']');
+        needsComma = true;
+        return this;
+    }
+
+    /**
+     * Writes the name of the next member of an object.
+     */
+    JsonWriter name(String name) {
+        separate();
+        appendString(name);
+        json.append(':');
+        needsComma = false;
+        return this;
+    }
+
+    JsonWriter value(String value) {
+        separate();
+        if (value == null) {
+            json.append("null");
+        } else {
+            appendString(value);
+        }
+        needsComma = true;
+        return this;
+    }
+
+    JsonWriter value(long value) {
+        separate();
+        json.append(value);
+        needsComma = true;
+        return this;
+    }
+
+    /**
+     * Writes an amount in pence as a number of pounds with two decimal places, such as 1234.50.
+     */
+    JsonWriter money(long pence) {
+        separate();
+        Money.appendTo(json, pence, false);
+        needsComma = true;
+        return this;
+    }
+
+    // The JSON text written so far
+    @Override
+    public String toString() {
+        return json.toString();
+    }
+
+    private void separate() {
+        if (needsComma) {
+            json.append(',');
+        }
+    }
+
+    /**
+     * Appends a string in quotes, escaping the characters JSON does not allow in a string.
+     */
+    private void appendString(String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+}
+
+//REFERENCES
+
+/* JSON
+ * RFC 8259 - https://datatracker.ietf.org/doc/html/rfc8259
+ */
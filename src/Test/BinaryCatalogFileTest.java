@@ -0,0 +1,143 @@
+package Test;
+
+import WestminsterShoppingCenter.*;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * This class contains JUnit tests for the binary catalog format: exact prices in pence, and corrupt or truncated files,
+ * which must fail with an IOException.
+ */
+public class BinaryCatalogFileTest {
+    private static final int RECORDS_OFFSET_POSITION = 16; // Position of the offset of the records in the header
+    private static final int RECORD_SIZE = 29;
+    private static final int NAME_FIELD = 5; // Offsets of fields inside a record
+    private static final int DETAIL2_FIELD = 25;
+
+    private Path dataFile;
+
+    /**
+     * The Setup method to write a catalog of one electronics and one clothing product to a temporary file before each test case.
+     */
+    @Before
+    public void setUp() throws IOException {
+        dataFile = TempDataFiles.create("binary");
+        writeCatalog();
+    }
+
+    /**
+     * The Cleanup method to delete the temporary files after each test case.
+     */
+    @After
+    public void tearDown() throws IOException {
+        TempDataFiles.deleteAll(dataFile);
+    }
+
+    /**
+     * Test case for reading the catalog back: every field is read, and the prices are exactly the pence written.
+     */
+    @Test
+    public void testPricesAreSavedInPence() throws IOException {
+        List<Product> products = BinaryCatalogFile.readAll(dataFile);
+        assertEquals(123_456_789_012L, products.get(0).getPriceInPence());
+        assertEquals(1999, products.get(1).getPriceInPence());
+        assertEquals("Sony", ((Electronics) products.get(0)).getBrand());
+        assertEquals(2, ((Electronics) products.get(0)).getWarrantyPeriod());
+        assertEquals("Red", ((Clothing) products.get(1)).getColor());
+    }
+
+    /**
+     * Test case for corrupt files: string positions and lengths outside the string table, and a truncated file,
+     * are reported with an IOException.
+     */
+    @Test
+    public void testCorruptFilesThrowIOException() throws IOException {
+        long recordsOffset = readRecordsOffset();
+        assertReadFails(recordsOffset + NAME_FIELD, 1_000_000); // The name of the first product is past the string table
+        writeCatalog();
+        assertReadFails(recordsOffset + NAME_FIELD, -1);
+        writeCatalog();
+        patchInt(36, 0xFFFFFFFF);
+        assertReadFails(32, 0xFFFFFFFF); // The varint length of the first string runs on for more than 5 bytes
+        writeCatalog();
+
+        patchInt(recordsOffset + RECORD_SIZE + DETAIL2_FIELD, 1_000_000); // The color of the shirt
+        BinaryCatalogFile catalogFile = BinaryCatalogFile.open(dataFile);
+        assertEquals("Phone", catalogFile.readProductHeader(0).getProductName());
+        try {
+            catalogFile.readProductHeader(1);
+            fail("A lazily read product was loaded with details outside the string table");
+        } catch (IOException exception) {
+            // Expected: the details are checked with the header, not when they are first shown
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(dataFile.toFile(), "rw")) {
+            file.setLength(file.length() - 1);
+        }
+        try {
+            BinaryCatalogFile.open(dataFile);
+            fail("A truncated file was opened");
+        } catch (IOException exception) {
+            assertTrue(exception.getMessage().contains("truncated"));
+        }
+    }
+
+    /**
+     * Test case for a loaded file: the products read from it lazily still decode their details once the file is replaced.
+     */
+    @Test
+    public void testLoadedFileCanBeReplaced() throws IOException {
+        BinaryCatalogFile catalogFile = BinaryCatalogFile.load(dataFile);
+        Electronics phone = (Electronics) catalogFile.readProductHeader(0);
+        BinaryCatalogFile.write(List.of(new Clothing("C002", "Hat", 1, 5, "S", "Blue")), dataFile);
+        Files.delete(dataFile);
+        assertEquals("Sony", phone.getBrand());
+        assertEquals(2, phone.getWarrantyPeriod());
+    }
+
+    /**
+     * Writes the passed int at the passed position of the file and asserts that reading every product then fails.
+     */
+    private void assertReadFails(long position, int value) throws IOException {
+        patchInt(position, value);
+        try {
+            BinaryCatalogFile.readAll(dataFile);
+            fail("A corrupt file was read");
+        } catch (IOException exception) {
+            // Expected
+        }
+    }
+
+    /**
+     * Writes the catalog of the test cases to the data file, replacing whatever was written to it.
+     */
+    private void writeCatalog() throws IOException {
+        Product phone = new Electronics("E001", "Phone", 5, 0, "Sony", 2);
+        phone.setPriceInPence(123_456_789_012L); // More pence than a double in pounds holds exactly after conversion
+        BinaryCatalogFile.write(List.of(phone, new Clothing("C001", "Shirt", 10, 19.99, "M", "Red")), dataFile);
+    }
+
+    private void patchInt(long position, int value) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(dataFile.toFile(), "rw")) {
+            file.seek(position);
+            file.writeInt(value);
+        }
+    }
+
+    private long readRecordsOffset() throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(dataFile.toFile(), "r")) {
+            file.seek(RECORDS_OFFSET_POSITION);
+            return file.readLong();
+        }
+    }
+}
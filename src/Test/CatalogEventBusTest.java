@@ -0,0 +1,111 @@
+package Test;
+
+import WestminsterShoppingCenter.*;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+/**
+ * This class contains JUnit tests for the CatalogEventBus class, which tells subscribers about changes to the catalog.
+ */
+public class CatalogEventBusTest {
+    private Path dataFile;
+    private WestminsterShoppingManager manager;
+    private final Queue<Runnable> scheduledTasks = new ArrayDeque<>(); // Tasks of an executor that only runs them when asked
+    private final Executor manualExecutor = scheduledTasks::add;
+
+    /**
+     * The Setup method to create a manager with an empty catalog in a temporary file before each test case.
+     */
+    @Before
+    public void setUp() throws IOException {
+        dataFile = TempDataFiles.create("events");
+        manager = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+    }
+
+    /**
+     * The Cleanup method to delete the temporary files after each test case.
+     */
+    @After
+    public void tearDown() throws IOException {
+        TempDataFiles.deleteAll(dataFile);
+    }
+
+    /**
+     * Test case for a listener that receives each change straight away.
+     */
+    @Test
+    public void testSynchronousDelivery() {
+        List<CatalogEvent> received = new ArrayList<>();
+        manager.getEventBus().subscribe(received::addAll);
+
+        Clothing shirt = new Clothing("C001", "Shirt", 2, 19.99, "M", "Red");
+        manager.addProduct(shirt);
+        manager.getInventory().reserve("C001", 1);
+        manager.getInventory().commit("C001", 1);
+        manager.updateStock(Map.of("C001", 10));
+
+        assertEquals(3, received.size());
+        assertEquals(CatalogEvent.Type.PRODUCTS_ADDED, received.get(0).getType());
+        assertEquals(List.of(shirt), received.get(0).getProducts());
+        assertEquals(CatalogEvent.Type.STOCK_CHANGED, received.get(1).getType()); // Assert that a sale is published
+        assertFalse(received.get(2).changesProducts());
+    }
+
+    /**
+     * Test case for a listener whose events are delivered by an executor: a burst of changes arrives as one batch.
+     */
+    @Test
+    public void testCoalescedDelivery() {
+        List<List<CatalogEvent>> batches = new ArrayList<>();
+        manager.getEventBus().subscribe(batches::add, manualExecutor);
+
+        for (int i = 0; i < 100; i++) {
+            manager.addProduct(new Electronics("E" + i, "Phone " + i, 5, 299.99, "Sony", 2));
+        }
+        manager.deleteProducts(List.of("E0", "E1"));
+        assertTrue(batches.isEmpty()); // Assert that nothing is delivered on the publishing thread
+        assertEquals(1, scheduledTasks.size()); // Assert that a single delivery was scheduled for the whole burst
+
+        scheduledTasks.poll().run();
+        assertEquals(1, batches.size());
+        assertEquals(101, batches.get(0).size());
+        assertEquals("E99", batches.get(0).get(99).getProducts().get(0).getProductID()); // Assert that the events are in order
+        assertEquals(CatalogEvent.Type.PRODUCTS_DELETED, batches.get(0).get(100).getType());
+
+        manager.addProduct(new Electronics("E100", "Phone 100", 5, 299.99, "Sony", 2));
+        assertEquals(1, scheduledTasks.size()); // Assert that a change after the delivery schedules another one
+        scheduledTasks.poll().run();
+        assertEquals(2, batches.size());
+    }
+
+    /**
+     * Test case for unsubscribing a listener, including from events already queued for it.
+     */
+    @Test
+    public void testUnsubscribe() {
+        List<List<CatalogEvent>> batches = new ArrayList<>();
+        CatalogListener listener = batches::add;
+        manager.getEventBus().subscribe(listener, manualExecutor);
+        manager.addProduct(new Clothing("C001", "Shirt", 2, 19.99, "M", "Red"));
+
+        manager.getEventBus().unsubscribe(listener);
+        assertFalse(manager.getEventBus().hasSubscribers());
+        scheduledTasks.poll().run();
+        manager.addProduct(new Clothing("C002", "Skirt", 2, 24.99, "S", "Blue"));
+        assertTrue(batches.isEmpty());
+        assertTrue(scheduledTasks.isEmpty());
+    }
+}
@@ -0,0 +1,124 @@
+package Test;
+
+import WestminsterShoppingCenter.*;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class contains JUnit tests for the CatalogImporter class, which imports products in bulk from CSV and JSON-lines files.
+ */
+public class CatalogImporterTest {
+    private Path dataFile;
+    private Path importFile;
+    private WestminsterShoppingManager manager;
+
+    /**
+     * The Setup method to create a manager with one product in a temporary file before each test case.
+     */
+    @Before
+    public void setUp() throws IOException {
+        dataFile = TempDataFiles.create("import");
+        manager = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+        manager.addProduct(new Electronics("E001", "Laptop", 5, 899.99, "Dell", 12));
+    }
+
+    /**
+     * The Cleanup method to delete the temporary files after each test case.
+     */
+    @After
+    public void tearDown() throws IOException {
+        TempDataFiles.deleteAll(dataFile);
+        if (importFile != null) {
+            Files.deleteIfExists(importFile);
+        }
+    }
+
+    /**
+     * Test case for importing a CSV file with a header, quoted fields, invalid rows and duplicate IDs.
+     */
+    @Test
+    public void testImportCsv() throws IOException {
+        importFile = Files.createTempFile("products", ".csv");
+        Files.write(importFile, List.of(
+                "category,productID,productName,numOfItemsAvailable,price,detail1,detail2",
+                "Electronics,E002,\"Phone, \"\"Pro\"\"\",10,499.50,Samsung,24",
+                "Clothing,C001,T-Shirt,20,15.99,M,Blue",
+                "",
+                "Clothing,C002,Jeans,abc,39.99,L,Black", // Invalid stock
+                "Furniture,F001,Chair,1,10.00,Oak,Brown", // Unknown category
+                "Electronics,E001,Laptop,3,899.99,Dell,12", // Already in the catalog
+                "Clothing,C001,T-Shirt,4,15.99,S,Red")); // Earlier in the file
+
+        CatalogImporter.ImportResult result = new CatalogImporter(manager, 2).importFile(importFile.toString());
+
+        assertEquals(6, result.getRowCount());
+        assertEquals(2, result.getImportedCount());
+        assertEquals(2, result.getInvalidCount());
+        assertEquals(2, result.getDuplicateCount());
+        assertEquals(4, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).startsWith("Line 5:")); // Assert that errors report the line of the file
+        assertEquals(3, manager.getProductCount());
+
+        Product phone = manager.getProductById("E002");
+        assertEquals("Phone, \"Pro\"", phone.getProductName()); // Assert that the quotes were unescaped
+        assertEquals(49_950, phone.getPriceInPence());
+        assertEquals("Samsung", ((Electronics) phone).getBrand());
+        assertEquals(20, manager.getProductById("C001").getNumOfItemsAvailable()); // Assert that the first row wins
+        assertEquals("Blue", ((Clothing) manager.getProductById("C001")).getColor());
+    }
+
+    /**
+     * Test case for importing a JSON-lines file.
+     */
+    @Test
+    public void testImportJsonLines() throws IOException {
+        importFile = Files.createTempFile("products", ".jsonl");
+        Files.write(importFile, List.of(
+                "{\"category\":\"Clothing\",\"productID\":\"C010\",\"productName\":\"Scarf \\u00e9\",\"numOfItemsAvailable\":7,\"price\":12.5,\"size\":\"S\",\"color\":\"Red\"}",
+                "{ \"category\" : \"Electronics\", \"productID\" : \"E010\", \"productName\" : \"TV\", \"numOfItemsAvailable\" : 2, \"price\" : 1299, \"brand\" : \"LG\", \"warrantyPeriod\" : 36 }",
+                "{\"category\":\"Electronics\",\"productID\":\"E011\",\"productName\":\"Radio\"}", // Missing fields
+                "{\"category\":\"Clothing\",\"productID\":\"C011\""));  // Malformed
+
+        CatalogImporter.ImportResult result = new CatalogImporter(manager).importFile(importFile.toString());
+
+        assertEquals(4, result.getRowCount());
+        assertEquals(2, result.getImportedCount());
+        assertEquals(2, result.getInvalidCount());
+        assertEquals("Scarf \u00e9", manager.getProductById("C010").getProductName());
+        assertEquals(36, ((Electronics) manager.getProductById("E010")).getWarrantyPeriod());
+    }
+
+    /**
+     * Test case for an import larger than one chunk, which is recorded in the journal and survives a restart.
+     */
+    @Test
+    public void testImportIsPersisted() throws IOException {
+        int rows = CatalogImporter.CHUNK_SIZE * 2 + 100;
+        List<String> lines = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            lines.add(i % 2 == 0
+                    ? "Electronics,E" + (10_000 + i) + ",Product " + i + ",5,19.99,Brand" + i % 7 + ",12"
+                    : "Clothing,C" + (10_000 + i) + ",Product " + i + ",5,9.99,M,Green");
+        }
+        importFile = Files.createTempFile("products", ".csv");
+        Files.write(importFile, lines);
+
+        CatalogImporter.ImportResult result = new CatalogImporter(manager, 4).importFile(importFile.toString());
+        assertEquals(rows, result.getImportedCount());
+        assertEquals(rows + 1, manager.getProductCount());
+
+        WestminsterShoppingManager restartedManager = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+        assertEquals(rows + 1, restartedManager.getProductCount()); // Assert that the batch was replayed from the journal
+        assertEquals("Product " + (rows - 1), restartedManager.getProductById("C" + (10_000 + rows - 1)).getProductName());
+    }
+}
@@ -0,0 +1,160 @@
+package Test;
+
+import Server.CatalogServer;
+import WestminsterShoppingCenter.*;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class contains JUnit tests for the CatalogServer class, which serves the catalog and shopping carts over HTTP.
+ */
+public class CatalogServerTest {
+    private static final Pattern CART_ID = Pattern.compile("\"cartID\":\"([^\"]+)\"");
+
+    private Path dataFile;
+    private WestminsterShoppingManager manager;
+    private CatalogServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    /**
+     * The Setup method to start a server on a free port for a catalog of three products before each test case.
+     */
+    @Before
+    public void setUp() throws IOException {
+        dataFile = TempDataFiles.create("server");
+        manager = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+        manager.addProduct(new Electronics("E001", "Phone", 5, 299.99, "Sony", 2));
+        manager.addProduct(new Clothing("C001", "Shirt", 2, 20.00, "M", "Red"));
+        manager.addProduct(new Clothing("C002", "Skirt \"Mini\"", 10, 15.00, "S", "Blue"));
+        server = new CatalogServer(manager, 0, PricingPlan.STANDARD_PROMOTIONS);
+        server.start();
+    }
+
+    /**
+     * The Cleanup method to stop the server and delete the temporary files after each test case.
+     */
+    @After
+    public void tearDown() throws IOException {
+        server.stop(0);
+        TempDataFiles.deleteAll(dataFile);
+    }
+
+    /**
+     * Test case for listing, filtering and looking up products.
+     */
+    @Test
+    public void testProducts() throws Exception {
+        HttpResponse<String> response = send("GET", "/products?category=Clothing&offset=1&limit=5");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().startsWith("{\"total\":2,\"offset\":1,\"products\":[{\"productID\":\"C002\""));
+        assertTrue(response.body().contains("\"productName\":\"Skirt \\\"Mini\\\"\"")); // Assert that quotes are escaped
+
+        response = send("GET", "/products/E001");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"price\":299.99"));
+
+        response = send("GET", "/products?sort=id&limit=2");
+        assertTrue(response.body().startsWith("{\"products\":[{\"productID\":\"C001\""));
+        assertTrue(response.body().endsWith("\"next\":\"C002\"}"));
+        response = send("GET", "/products?sort=id&after=C002&limit=2");
+        assertTrue(response.body().startsWith("{\"products\":[{\"productID\":\"E001\""));
+        assertTrue(response.body().endsWith("\"next\":null}")); // Assert that the last page has no next ID
+
+        assertEquals(404, send("GET", "/products/missing").statusCode());
+        assertEquals(405, send("POST", "/products").statusCode());
+        assertEquals(400, send("GET", "/products?limit=abc").statusCode());
+    }
+
+    /**
+     * Test case for filling a cart, with the items reserved in the inventory, and checking it out.
+     */
+    @Test
+    public void testCartAndCheckout() throws Exception {
+        HttpResponse<String> response = send("POST", "/carts");
+        assertEquals(201, response.statusCode());
+        String cartID = cartID(response);
+
+        assertEquals(200, send("POST", "/carts/" + cartID + "/items?productID=C001&quantity=2").statusCode());
+        assertEquals(409, send("POST", "/carts/" + cartID + "/items?productID=C001").statusCode()); // Assert that stock cannot be oversold
+        response = send("POST", "/carts/" + cartID + "/items?productID=C002");
+        assertTrue(response.body().contains("\"name\":\"Three items in the same Category Discount\",\"amount\":11.00"));
+        assertTrue(response.body().endsWith("\"total\":44.00}")); // Assert that the cart is quoted with the promotions
+        assertEquals(0, manager.getInventory().getUnreservedItems("C001"));
+
+        response = send("DELETE", "/carts/" + cartID + "/items/C002");
+        assertTrue(response.body().endsWith("\"total\":40.00}"));
+        assertEquals(10, manager.getInventory().getUnreservedItems("C002")); // Assert that removed items are released
+
+        response = send("POST", "/carts/" + cartID + "/checkout");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().startsWith("{\"unavailable\":[],\"order\":"));
+        assertEquals(0, manager.getProductById("C001").getNumOfItemsAvailable()); // Assert that the items were sold
+        assertEquals(404, send("GET", "/carts/" + cartID).statusCode()); // Assert that the cart is closed
+        assertEquals(0, server.getOpenCartCount());
+    }
+
+    /**
+     * Test case for abandoning a cart, which releases its reserved items.
+     */
+    @Test
+    public void testAbandonCart() throws Exception {
+        String cartID = cartID(send("POST", "/carts"));
+        send("POST", "/carts/" + cartID + "/items?productID=E001&quantity=3");
+        assertEquals(2, manager.getInventory().getUnreservedItems("E001"));
+
+        assertEquals(200, send("DELETE", "/carts/" + cartID).statusCode());
+        assertEquals(5, manager.getInventory().getUnreservedItems("E001"));
+        assertEquals(5, manager.getProductById("E001").getNumOfItemsAvailable()); // Assert that nothing was sold
+        assertEquals(404, send("POST", "/carts/" + cartID + "/checkout").statusCode());
+    }
+
+    /**
+     * Test case for the limits on open carts: no more carts are created than the maximum, and an idle cart is abandoned,
+     * releasing its reserved items.
+     */
+    @Test
+    public void testIdleCartsExpire() throws Exception {
+        server.stop(0);
+        server = new CatalogServer(manager, 0, PricingPlan.STANDARD_PROMOTIONS, 2, 200);
+        server.start();
+        String cartID = cartID(send("POST", "/carts"));
+        send("POST", "/carts/" + cartID + "/items?productID=E001&quantity=3");
+        send("POST", "/carts");
+        assertEquals(503, send("POST", "/carts").statusCode()); // Assert that the number of open carts is capped
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (server.getOpenCartCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, server.getOpenCartCount());
+        assertEquals(5, manager.getInventory().getUnreservedItems("E001")); // Assert that the expired cart's items were released
+        assertEquals(404, send("GET", "/carts/" + cartID).statusCode());
+        assertEquals(201, send("POST", "/carts").statusCode());
+    }
+
+    private HttpResponse<String> send(String method, String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String cartID(HttpResponse<String> response) {
+        Matcher matcher = CART_ID.matcher(response.body());
+        assertTrue(matcher.find());
+        return matcher.group(1);
+    }
+}
@@ -0,0 +1,219 @@
+package Test;
+
+import WestminsterShoppingCenter.*;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class contains JUnit tests for listing the CatalogStore in product ID order, by range and a page at a time,
+ * and for reading it from immutable snapshots.
+ */
+public class CatalogStoreTest {
+    private CatalogStore store;
+
+    /**
+     * The Setup method to fill a store with products that are not added in ID order before each test case.
+     */
+    @Before
+    public void setUp() {
+        store = new CatalogStore();
+        store.add(new Electronics("phone3", "Phone 3", 5, 299.99, "Sony", 2));
+        store.add(new Clothing("shirt1", "Shirt", 5, 19.99, "M", "Red"));
+        store.add(new Electronics("phone1", "Phone 1", 5, 199.99, "Sony", 2));
+        store.add(new Electronics("phone10", "Phone 10", 5, 999.99, "Sony", 2));
+        store.add(new Electronics("phone9", "Phone 9", 5, 899.99, "Sony", 2));
+    }
+
+    /**
+     * Test case for the sorted view, which keeps its order as products are added and deleted.
+     */
+    @Test
+    public void testSortedView() {
+        assertEquals(List.of("phone1", "phone10", "phone3", "phone9", "shirt1"), productIDs(store.sortedView(null)));
+        assertEquals(List.of("shirt1"), productIDs(store.sortedView("Clothing")));
+        assertSame(store.sortedView(null), store.sortedView(null)); // Assert that the view is shared until the catalog changes
+
+        store.add(new Electronics("phone2", "Phone 2", 5, 249.99, "Sony", 2));
+        store.remove("phone10");
+        assertEquals(List.of("phone1", "phone2", "phone3", "phone9", "shirt1"), productIDs(store.sortedView(null)));
+        assertEquals(List.of("phone3", "shirt1", "phone1", "phone9", "phone2"), productIDs(store.view(null))); // Assert that the added order is kept too
+    }
+
+    /**
+     * Test case for ranges of IDs and for paging through the catalog by the last ID of each page.
+     */
+    @Test
+    public void testRangeAndPaging() {
+        assertEquals(List.of("phone1", "phone10", "phone3", "phone9"), productIDs(store.getRange("phone1", true, "phone9", null, 10)));
+        assertEquals(List.of("phone10", "phone3"), productIDs(store.getRange("phone1", false, "phone9", null, 2)));
+        assertEquals(List.of("shirt1"), productIDs(store.getRange("phone", true, null, "Clothing", 10)));
+        assertTrue(store.getRange("phone9", true, "phone1", null, 10).isEmpty()); // Assert that a reversed range is empty
+
+        List<Product> page = store.getRange(null, false, null, null, 2);
+        assertEquals(List.of("phone1", "phone10"), productIDs(page));
+        page = store.getRange(page.get(1).getProductID(), false, null, null, 2);
+        assertEquals(List.of("phone3", "phone9"), productIDs(page));
+        page = store.getRange(page.get(1).getProductID(), false, null, null, 2);
+        assertEquals(List.of("shirt1"), productIDs(page));
+    }
+
+    /**
+     * Test case for a snapshot, which keeps its version of the catalog while the catalog changes, but sees changes to the stock.
+     */
+    @Test
+    public void testSnapshotIsImmutable() {
+        CatalogSnapshot snapshot = store.snapshot();
+        assertSame(snapshot, store.snapshot()); // Assert that the snapshot is shared until the catalog changes
+        assertEquals(store.getVersion(), snapshot.getVersion());
+
+        store.remove("phone3");
+        store.add(new Clothing("shirt2", "Shirt 2", 5, 24.99, "L", "Blue"));
+        store.updateStock(Map.of("phone1", 42));
+        assertEquals(5, snapshot.size());
+        assertNotNull(snapshot.get("phone3"));
+        assertNull(snapshot.get("shirt2"));
+        assertEquals(List.of("shirt1"), productIDs(snapshot.getSortedProducts("Clothing")));
+        assertEquals(List.of("phone10", "phone3"), productIDs(snapshot.getRange("phone1", false, "phone9", null, 2)));
+        assertEquals(42, snapshot.get("phone1").getNumOfItemsAvailable());
+        assertEquals(snapshot.getVersion() + 2, store.snapshot().getVersion());
+        assertEquals(List.of("shirt1", "shirt2"), productIDs(store.snapshot().getSortedProducts("Clothing")));
+        try {
+            snapshot.getProducts(null).clear();
+            fail("A snapshot should not be modifiable");
+        } catch (UnsupportedOperationException exception) {
+            assertEquals(5, snapshot.size());
+        }
+    }
+
+    /**
+     * Test case for lookups and ranges, which are read from the snapshot of the current version,
+     * and never from the snapshot of an earlier version.
+     */
+    @Test
+    public void testReadsAfterChanges() {
+        for (int read = 0; read < 10; read++) { // More reads than products, so the last ones use the snapshot
+            assertNotNull(store.get("phone9"));
+            assertEquals(List.of("phone9", "shirt1"), productIDs(store.getRange("phone9", true, null, null, 10)));
+        }
+        store.remove("phone9");
+        assertNull(store.get("phone9"));
+        assertEquals(List.of("shirt1"), productIDs(store.getRange("phone9", true, null, null, 10)));
+        store.add(new Electronics("phone9", "Phone 9", 5, 899.99, "Sony", 2));
+        assertNotNull(store.get("phone9"));
+        assertEquals(5, store.values().size());
+        assertEquals(5, store.size());
+    }
+
+    /**
+     * Test case for readers of the store while products are added and removed: every snapshot read is consistent.
+     */
+    @Test
+    public void testConcurrentReaders() throws InterruptedException {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int reader = 0; reader < 4; reader++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int read = 0; read < 2_000; read++) {
+                        CatalogSnapshot snapshot = store.snapshot();
+                        List<Product> sortedProducts = snapshot.getSortedProducts(null);
+                        assertEquals(snapshot.size(), sortedProducts.size());
+                        for (Product product : snapshot.getProducts(null)) {
+                            assertSame(product, snapshot.get(product.getProductID()));
+                        }
+                        assertNotNull(store.get("shirt1"));
+                        store.getRange("phone", true, null, "Electronics", 5);
+                    }
+                } catch (Throwable throwable) {
+                    failure.compareAndSet(null, throwable);
+                }
+            });
+            readers.add(thread);
+            thread.start();
+        }
+        for (int change = 0; change < 2_000; change++) {
+            store.add(new Electronics("tv" + change, "TV", 5, 499.99, "Sony", 2));
+            if (change % 2 == 0) {
+                store.remove("tv" + (change / 2));
+            }
+        }
+        for (Thread thread : readers) {
+            thread.join();
+        }
+        assertNull(failure.get());
+        assertEquals(5 + 1_000, store.size());
+    }
+
+    /**
+     * Test case for many changes, one at a time and in batches: every version lists the products in the order they were added,
+     * with replaced products in their place and removed products added again at the end.
+     */
+    @Test
+    public void testManyChanges() {
+        Map<String, Product> expected = new LinkedHashMap<>();
+        for (Product product : store.values()) {
+            expected.put(product.getProductID(), product);
+        }
+        Random random = new Random(42);
+        for (int change = 0; change < 3_000; change++) {
+            String productID = "item" + random.nextInt(400);
+            int action = random.nextInt(3);
+            if (action == 0) {
+                assertSame(expected.remove(productID), store.remove(productID));
+            } else {
+                Product product = action == 1 ? new Electronics(productID, "TV", 5, 499.99, "Sony", 2)
+                        : new Clothing(productID, "Shirt", 5, 19.99, "M", "Red"); // Replaced in its place with another category
+                expected.put(productID, product);
+                assertTrue(store.put(product));
+            }
+            if (change % 97 == 0) {
+                assertEquals(new ArrayList<>(expected.values()), store.values());
+                assertEquals(filter(expected.values(), "Clothing"), store.getByCategory("Clothing"));
+                List<Product> sorted = new ArrayList<>(expected.values());
+                sorted.sort(Comparator.comparing(Product::getProductID));
+                assertEquals(sorted, store.sortedView(null));
+                assertEquals(filter(sorted, "Electronics"), store.sortedView("Electronics"));
+                assertEquals(sorted.subList(0, Math.min(20, sorted.size())), store.getRange(null, true, null, null, 20));
+            }
+            assertSame(expected.get(productID), store.get(productID));
+        }
+        List<Product> batch = new ArrayList<>();
+        for (int item = 0; item < 600; item += 2) {
+            Product product = new Clothing("item" + item, "Shirt", 5, 19.99, "L", "Blue");
+            batch.add(product);
+            expected.put(product.getProductID(), product);
+        }
+        assertEquals(batch.size(), store.putAll(batch));
+        assertEquals(new ArrayList<>(expected.values()), store.values());
+        List<String> batchIDs = new ArrayList<>();
+        for (int item = 0; item < 600; item += 3) {
+            batchIDs.add("item" + item);
+            expected.remove("item" + item);
+        }
+        store.removeAll(batchIDs);
+        assertEquals(new ArrayList<>(expected.values()), store.values());
+        assertNull(store.get("item0"));
+        assertSame(expected.get("item2"), store.get("item2"));
+        assertEquals(expected.size(), store.size());
+    }
+
+    private static List<Product> filter(Collection<Product> products, String category) {
+        return products.stream().filter(product -> category == null || category.equals(product.getCategory())).toList();
+    }
+
+    private static List<String> productIDs(List<Product> products) {
+        return products.stream().map(Product::getProductID).toList();
+    }
+}
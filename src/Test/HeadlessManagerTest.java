@@ -0,0 +1,193 @@
+package Test;
+
+import GUI.ProductTableModel;
+import WestminsterShoppingCenter.BinaryCatalogFile;
+import WestminsterShoppingCenter.CatalogStore;
+import WestminsterShoppingCenter.Clothing;
+import WestminsterShoppingCenter.Electronics;
+import WestminsterShoppingCenter.PersistenceMode;
+import WestminsterShoppingCenter.WestminsterShoppingManager;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class contains JUnit tests for the WestminsterShoppingManager class that need no GUI, so they also run on a headless machine.
+ * Every test case works on managers of its own, which save the catalog to a temporary data file.
+ */
+public class HeadlessManagerTest {
+    private final PrintStream originalOut = System.out; // Original System.out to restore console output after testing
+    private final InputStream originalIn = System.in; // Original System.in to restore console input after testing
+
+    private Path dataFile;
+
+    /**
+     * The Setup method to pick a temporary data file and hide the manager's messages before each test case.
+     */
+    @Before
+    public void setUp() throws IOException {
+        dataFile = TempDataFiles.create("manager");
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    /**
+     * The Cleanup method to restore the console and delete the temporary files after each test case.
+     */
+    @After
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        System.setIn(originalIn);
+        TempDataFiles.deleteAll(dataFile);
+    }
+
+    /**
+     * Test case for restoring products that were only recorded in the journal.
+     */
+    @Test
+    public void testJournalReplay() {
+        WestminsterShoppingManager journalManager = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+        journalManager.addProduct(new Clothing("journal1", "Journal Shirt", 10, 19.99, "M", "Red"));
+        journalManager.addProduct(new Electronics("journal2", "Journal Phone", 5, 299.99, "Sony", 2));
+
+        WestminsterShoppingManager restartedManager = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+        assertEquals(2, restartedManager.getProductCount()); // Assert that both additions were replayed from the journal
+        assertEquals("Journal Phone", restartedManager.getProductById("journal2").getProductName());
+    }
+
+    /**
+     * Test case for deleting a product that is deleted by someone else while the manager confirms the deletion:
+     * the manager is told, and the deletion is neither recorded nor published again.
+     */
+    @Test
+    public void testDeleteProductAlreadyDeleted() {
+        WestminsterShoppingManager deleteManager = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+        deleteManager.addProduct(new Clothing("delete1", "Delete Shirt", 10, 19.99, "M", "Red"));
+        long[] journalSize = new long[1]; // The size of the journal once the other deletion is recorded
+        System.setIn(new ByteArrayInputStream("yes\n".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] buffer, int offset, int length) {
+                if (deleteManager.getProductById("delete1") != null) { // Deleted before the answer is read
+                    deleteManager.deleteProducts(List.of("delete1"));
+                    journalSize[0] = deleteManager.getJournalSize();
+                }
+                return super.read(buffer, offset, length);
+            }
+        });
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outContent));
+        deleteManager.deleteProduct("delete1");
+
+        assertTrue(outContent.toString().contains("Product with ID delete1 was already deleted."));
+        assertFalse(outContent.toString().contains("Product with ID delete1 deleted."));
+        assertEquals(journalSize[0], deleteManager.getJournalSize()); // Assert that the deletion was not recorded twice
+    }
+
+    /**
+     * Test case for lazily loading a binary catalog file, with product details decoded on first access.
+     */
+    @Test
+    public void testLazyLoading() throws IOException {
+        BinaryCatalogFile.write(Arrays.asList(
+                new Electronics("lazy1", "Lazy Phone", 5, 299.99, "Sony", 2),
+                new Clothing("lazy2", "Lazy Shirt", 10, 19.99, "L", "Blue")), dataFile);
+
+        WestminsterShoppingManager lazyManager = new WestminsterShoppingManager(dataFile.toString(),
+                CatalogStore.UNLIMITED_CAPACITY, PersistenceMode.JOURNAL, true);
+
+        Electronics phone = (Electronics) lazyManager.getProductById("lazy1"); // Waits for the product to stream in if needed
+        assertEquals("Sony", phone.getBrand()); // Assert that the brand is decoded from the file on first access
+        assertEquals(2, phone.getWarrantyPeriod());
+        assertEquals("L, Blue", lazyManager.getProductById("lazy2").getProductInfo());
+
+        lazyManager.getLoadFuture().join();
+        assertEquals(2, lazyManager.getProductCount()); // Assert that every product was loaded
+    }
+
+    /**
+     * Test case for the product table model reading its rows from a shared view of the catalog, filtered by category.
+     */
+    @Test
+    public void testProductTableModelView() {
+        WestminsterShoppingManager viewManager = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+        viewManager.addProduct(new Electronics("view2", "View Phone", 5, 299.99, "Sony", 2));
+        viewManager.addProduct(new Clothing("view1", "View Shirt", 10, 19.99, "M", "Red"));
+
+        ProductTableModel model = new ProductTableModel();
+        model.setManager(viewManager);
+        assertEquals(2, model.getRowCount()); // Assert that all products are shown
+        assertEquals("View Phone", model.getValueAt(0, 1));
+        assertSame(viewManager.getProductView(null), viewManager.getProductView(null)); // Assert that the view is not copied again while the catalog is unchanged
+
+        model.setCategory("Clothing");
+        assertEquals(1, model.getRowCount()); // Assert that only the clothing products are shown
+        assertEquals("view1", model.getValueAt(0, 0));
+
+        model.setCategory(null);
+        model.sortByProductID();
+        assertEquals("view1", model.getProductAt(0).getProductID()); // Assert that the rows are sorted by product ID
+
+        viewManager.addProduct(new Clothing("view3", "View Jacket", 3, 49.99, "L", "Blue"));
+        model.refresh();
+        assertEquals(3, model.getRowCount()); // Assert that a refresh shows the new product
+        assertFalse(model.isLowStock(2));
+
+        viewManager.getInventory().reserve("view3", 1);
+        viewManager.getInventory().commit("view3", 1);
+        model.refreshStockLevels(List.of(viewManager.getProductById("view3")));
+        assertTrue(model.isLowStock(2)); // Assert that selling an item marks the product as low on stock
+    }
+
+    /**
+     * Test case for adding, deleting and restocking products in batches, each recorded as a single journal record.
+     */
+    @Test
+    public void testBatchOperations() {
+        WestminsterShoppingManager batchManager = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+        batchManager.addProduct(new Clothing("batch1", "Batch Shirt", 10, 19.99, "M", "Red"));
+
+        int addedCount = batchManager.addProducts(Arrays.asList(
+                new Clothing("batch1", "Duplicate Shirt", 1, 9.99, "S", "Blue"),
+                new Clothing("batch2", "Batch Jeans", 4, 39.99, "L", "Black"),
+                new Electronics("batch3", "Batch Phone", 5, 299.99, "Sony", 2)));
+        assertEquals(2, addedCount); // Assert that the product with a taken ID was skipped
+        assertEquals("Batch Shirt", batchManager.getProductById("batch1").getProductName());
+
+        assertEquals(2, batchManager.updateStock(Map.of("batch1", 3, "batch3", 50, "missing", 1)));
+        try {
+            batchManager.updateStock(Map.of("batch1", 7, "batch2", -1));
+            fail("A negative number of items available should be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertEquals(3, batchManager.getProductById("batch1").getNumOfItemsAvailable()); // Assert that an invalid batch changes nothing
+        }
+
+        assertEquals(1, batchManager.deleteProducts(Arrays.asList("batch2", "missing")));
+        assertEquals(2, batchManager.getProductCount());
+
+        WestminsterShoppingManager restartedManager = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+        assertEquals(2, restartedManager.getProductCount()); // Assert that every batch was replayed from the journal
+        assertNull(restartedManager.getProductById("batch2"));
+        assertEquals(3, restartedManager.getProductById("batch1").getNumOfItemsAvailable());
+        assertEquals(50, restartedManager.getProductById("batch3").getNumOfItemsAvailable());
+    }
+}
+
+// REFERENCES
+
+/* Java Testing
+* JUnit - https://www.oracle.com/technical-resources/articles/adf/essentials-part5.html , https://www.geeksforgeeks.org/junit-5-how-to-write-parameterized-tests/?ref=header_search
+*/
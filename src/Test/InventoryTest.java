@@ -0,0 +1,190 @@
+package Test;
+
+import WestminsterShoppingCenter.CatalogStore;
+import WestminsterShoppingCenter.Electronics;
+import WestminsterShoppingCenter.Inventory;
+import WestminsterShoppingCenter.Product;
+import WestminsterShoppingCenter.WestminsterShoppingManager;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class contains JUnit stress tests for the Inventory class, with many shoppers reserving the same product at once.
+ */
+public class InventoryTest {
+    private static final int SHOPPERS = 32; // Number of concurrent shopper threads
+    private static final int ATTEMPTS_PER_SHOPPER = 2_000;
+
+    private Path dataFile;
+    private WestminsterShoppingManager manager;
+    private Inventory inventory;
+
+    /**
+     * The Setup method to create a manager with an empty catalog in a temporary file before each test case.
+     */
+    @Before
+    public void setUp() throws IOException {
+        dataFile = TempDataFiles.create("inventory");
+        manager = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+        inventory = manager.getInventory();
+    }
+
+    /**
+     * The Cleanup method to delete the temporary files after each test case.
+     */
+    @After
+    public void tearDown() throws IOException {
+        TempDataFiles.deleteAll(dataFile);
+    }
+
+    /**
+     * Test case for many shoppers reserving one item at a time: exactly the items in stock are reserved, and no more.
+     */
+    @Test
+    public void testConcurrentReservationsNeverOversell() throws Exception {
+        manager.addProduct(new Electronics("phone1", "Stress Phone", 1_000, 199.99, "Sony", 2));
+        AtomicInteger reservedCount = new AtomicInteger();
+
+        runShoppers(() -> {
+            for (int i = 0; i < ATTEMPTS_PER_SHOPPER; i++) {
+                if (inventory.reserve("phone1", 1)) {
+                    reservedCount.incrementAndGet();
+                }
+            }
+        });
+
+        Product product = manager.getProductById("phone1");
+        assertEquals(1_000, reservedCount.get()); // Assert that every item was reserved exactly once
+        assertEquals(1_000, product.getReservedItems());
+        assertEquals(0, product.getUnreservedItems());
+        assertFalse(inventory.reserve("phone1", 1)); // Assert that nothing more can be reserved
+    }
+
+    /**
+     * Test case for shoppers reserving, releasing and buying items at once: the stock matches the items sold and never goes negative.
+     */
+    @Test
+    public void testReserveReleaseAndCommitUnderContention() throws Exception {
+        manager.addProduct(new Electronics("phone2", "Stress Phone", 500, 199.99, "Sony", 2));
+        AtomicInteger soldCount = new AtomicInteger();
+        AtomicInteger negativeStockSeen = new AtomicInteger();
+        AtomicInteger overReservedSeen = new AtomicInteger();
+
+        runShoppers(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < ATTEMPTS_PER_SHOPPER; i++) {
+                int quantity = 1 + random.nextInt(3);
+                if (inventory.reserve("phone2", quantity)) {
+                    if (random.nextBoolean()) {
+                        assertTrue(inventory.commit("phone2", quantity)); // A reserved item can always be sold
+                        soldCount.addAndGet(quantity);
+                    } else {
+                        inventory.release("phone2", quantity);
+                    }
+                }
+                Product product = manager.getProductById("phone2");
+                int stock = product.getNumOfItemsAvailable(); // Read first, as stock only falls together with the reservations
+                if (stock < 0) {
+                    negativeStockSeen.incrementAndGet();
+                }
+                if (product.getReservedItems() > stock) {
+                    overReservedSeen.incrementAndGet();
+                }
+            }
+        });
+
+        Product product = manager.getProductById("phone2");
+        assertEquals(0, negativeStockSeen.get()); // Assert that the stock never went negative
+        assertEquals(0, overReservedSeen.get()); // Assert that more items than were in stock were never reserved
+        assertTrue(soldCount.get() <= 500); // Assert that no more items were sold than were in stock
+        assertEquals(500 - soldCount.get(), product.getNumOfItemsAvailable());
+        assertEquals(0, product.getReservedItems()); // Assert that every reservation was either sold or released
+
+        // Assert that the final stock is restored from the journal
+        WestminsterShoppingManager restartedManager = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+        assertEquals(500 - soldCount.get(), restartedManager.getProductById("phone2").getNumOfItemsAvailable());
+    }
+
+    /**
+     * Test case for setting the stock of a product with items reserved: the reservations are kept, and once items are sold
+     * no more items can be reserved than are left in stock.
+     */
+    @Test
+    public void testStockChangesKeepReservations() {
+        manager.addProduct(new Electronics("phone3", "Phone", 10, 199.99, "Sony", 2));
+        Product product = manager.getProductById("phone3");
+        assertTrue(inventory.reserve("phone3", 5));
+        product.setNumOfItemsAvailable(8);
+        assertEquals(5, product.getReservedItems());
+        assertEquals(3, inventory.getUnreservedItems("phone3"));
+
+        assertTrue(inventory.commit("phone3", 5));
+        assertEquals(3, product.getNumOfItemsAvailable());
+        assertEquals(0, product.getReservedItems());
+        assertFalse(inventory.reserve("phone3", 5)); // Assert that the sold items cannot be reserved again
+        assertTrue(inventory.reserve("phone3", 3));
+        assertEquals(0, inventory.getUnreservedItems("phone3"));
+    }
+
+    /**
+     * Test case for selling or releasing items that are not reserved: the sale is refused, the release throws,
+     * and the stock and the reservations are left as they were.
+     */
+    @Test
+    public void testCommitAndReleaseNeedReservations() {
+        manager.addProduct(new Electronics("phone4", "Phone", 10, 199.99, "Sony", 2));
+        Product product = manager.getProductById("phone4");
+        assertFalse(inventory.commit("phone4", 1)); // Assert that items in stock cannot be sold without a reservation
+        assertTrue(inventory.reserve("phone4", 2));
+        assertFalse(inventory.commit("phone4", 3)); // Assert that no more items can be sold than are reserved
+        try {
+            inventory.release("phone4", 3);
+            fail("More items were released than are reserved");
+        } catch (IllegalStateException exception) {
+            // Expected
+        }
+        assertEquals(10, product.getNumOfItemsAvailable());
+        assertEquals(2, product.getReservedItems());
+
+        inventory.release("phone4", 2);
+        try {
+            inventory.release("phone4", 2);
+            fail("The same items were released twice");
+        } catch (IllegalStateException exception) {
+            // Expected
+        }
+        assertEquals(0, product.getReservedItems());
+    }
+
+    /**
+     * Runs the passed task on every shopper thread at the same time and waits for all of them to finish.
+     */
+    private void runShoppers(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(SHOPPERS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < SHOPPERS; i++) {
+            results.add(executor.submit(() -> {
+                startSignal.await();
+                task.run();
+                return null;
+            }));
+        }
+        startSignal.countDown();
+        for (Future<?> result : results) {
+            result.get(); // Rethrows any assertion failure from a shopper thread
+        }
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,128 @@
+package Test;
+
+import WestminsterShoppingCenter.*;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This class contains JUnit tests for the metrics of the system: latency histograms, the registry and its reports.
+ */
+public class MetricsTest {
+
+    /**
+     * Test case for the percentiles of a histogram, which must be within the 12.5% width of a bucket of the exact values.
+     */
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        assertEquals(0, histogram.getPercentileNanos(50)); // Assert that an empty histogram has no latency
+
+        for (long nanos = 1; nanos <= 100_000; nanos++) {
+            histogram.record(nanos * 1_000);
+        }
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(50_000_000, histogram.getPercentileNanos(50), 50_000_000 * 0.125);
+        assertEquals(99_000_000, histogram.getPercentileNanos(99), 99_000_000 * 0.125);
+        assertEquals(100_000.0, histogram.getMaxMicros(), 0);
+        assertEquals(50_000.5, histogram.getMeanMicros(), 0.001);
+        assertTrue(histogram.getPercentileNanos(100) <= 100_000_000); // Assert that no percentile is above the longest latency
+    }
+
+    /**
+     * Test case for a sampled histogram, which counts every call but only times some of them.
+     */
+    @Test
+    public void testSampling() {
+        LatencyHistogram histogram = new LatencyHistogram("sampled", 16);
+        int timedCalls = 0;
+        for (int i = 0; i < 16_000; i++) {
+            long start = histogram.start();
+            if (start != Long.MIN_VALUE) {
+                timedCalls++;
+            }
+            histogram.stop(start);
+        }
+        assertEquals(16_000, histogram.getCount());
+        assertTrue("Timed " + timedCalls + " calls", timedCalls > 500 && timedCalls < 1_500); // About one call in 16
+
+        try {
+            new LatencyHistogram("invalid", 10);
+            fail("A sample rate that is not a power of two was accepted");
+        } catch (IllegalArgumentException exception) {
+            // Expected
+        }
+    }
+
+    /**
+     * Test case for the operations of a manager and a cart being recorded, and for the report and the MBeans.
+     */
+    @Test
+    public void testManagerMetricsAndMBeans() throws Exception {
+        Metrics metrics = Metrics.getInstance();
+        Path dataFile = TempDataFiles.create("metrics");
+        try {
+            long addedBefore = metrics.histogram(Metrics.ADD_PRODUCT).getCount();
+            long missesBefore = metrics.counter(Metrics.GET_PRODUCT_MISSES).sum();
+            long savedBytesBefore = metrics.counter(Metrics.SAVED_BYTES).sum();
+
+            WestminsterShoppingManager manager = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+            manager.addProduct(new Clothing("C001", "Shirt", 10, 19.99, "M", "Red"));
+            manager.addProduct(new Electronics("E001", "Phone", 5, 299.99, "Sony", 2));
+            assertNull(manager.getProductById("X001"));
+            assertTrue(manager.takeSnapshot());
+            ShoppingCart cart = new ShoppingCart();
+            cart.addItem(manager.getProductById("C001"), 2);
+
+            assertEquals(addedBefore + 2, metrics.histogram(Metrics.ADD_PRODUCT).getCount());
+            assertEquals(missesBefore + 1, metrics.counter(Metrics.GET_PRODUCT_MISSES).sum());
+            assertEquals(savedBytesBefore + Files.size(dataFile), metrics.counter(Metrics.SAVED_BYTES).sum());
+            assertTrue(metrics.histogram(Metrics.CART_ADD).getCount() > 0);
+
+            metrics.gauge("test.products", manager::getProductCount);
+            String report = metrics.getReport();
+            assertTrue(report.contains(Metrics.ADD_PRODUCT));
+            assertTrue(report.contains("test.products"));
+
+            metrics.registerMBeans();
+            metrics.registerMBeans(); // Assert that registering twice is ignored
+            MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName histogramName = new ObjectName(Metrics.JMX_DOMAIN + ":type=Latency,name=" + Metrics.ADD_PRODUCT);
+            assertEquals(metrics.histogram(Metrics.ADD_PRODUCT).getCount(), mbeanServer.getAttribute(histogramName, "Count"));
+            ObjectName managerName = new ObjectName(Metrics.JMX_DOMAIN + ":type=ShoppingManager,name=test");
+            mbeanServer.registerMBean(manager, managerName);
+            try {
+                assertEquals(2, mbeanServer.getAttribute(managerName, "ProductCount"));
+                assertEquals(true, mbeanServer.invoke(managerName, "takeSnapshot", null, null));
+            } finally {
+                mbeanServer.unregisterMBean(managerName);
+            }
+        } finally {
+            TempDataFiles.deleteAll(dataFile);
+        }
+    }
+
+    /**
+     * Test case for the reporter writing the report to a file.
+     */
+    @Test
+    public void testReporter() throws IOException {
+        Path reportFile = Files.createTempFile("metrics", ".metrics");
+        try {
+            MetricsReporter reporter = new MetricsReporter(Metrics.getInstance(), reportFile.toString(), 60_000);
+            reporter.report();
+            assertTrue(Files.readString(reportFile).contains("Latency (us)"));
+            reporter.close();
+        } finally {
+            Files.deleteIfExists(reportFile);
+        }
+    }
+}
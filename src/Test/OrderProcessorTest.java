@@ -0,0 +1,240 @@
+package Test;
+
+import WestminsterShoppingCenter.*;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class contains JUnit tests for the OrderProcessor class, which checks out shopping carts and writes the orders to the order log.
+ */
+public class OrderProcessorTest {
+    private static final int SHOPPERS = 32; // Number of concurrent shopper threads
+    private static final int ORDERS_PER_SHOPPER = 50;
+
+    private Path dataFile;
+    private WestminsterShoppingManager manager;
+
+    /**
+     * The Setup method to create a manager with a catalog of two products in a temporary file before each test case.
+     */
+    @Before
+    public void setUp() throws IOException {
+        dataFile = TempDataFiles.create("orders");
+        manager = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+        manager.addProduct(new Electronics("E001", "Phone", 5, 299.99, "Sony", 2));
+        manager.addProduct(new Clothing("C001", "Shirt", 10_000, 20.00, "M", "Red"));
+    }
+
+    /**
+     * The Cleanup method to close the order processor and delete the temporary files after each test case.
+     */
+    @After
+    public void tearDown() throws IOException {
+        manager.getOrderProcessor().close();
+        TempDataFiles.deleteAll(dataFile);
+    }
+
+    /**
+     * Test case for placing an order: the stock is sold, the order is logged and the new stock survives a restart.
+     */
+    @Test
+    public void testPlaceOrder() throws IOException {
+        ShoppingCart cart = reservedCart("E001", 2);
+        cart.setPricingPlan(PricingPlan.STANDARD_PROMOTIONS);
+        Order order = manager.getOrderProcessor().placeOrder(cart, "alice");
+
+        assertEquals(1, order.getOrderID());
+        assertEquals("alice", order.getUsername());
+        assertEquals(2, order.getItemCount());
+        assertEquals(59998, order.getTotalInPence());
+        assertEquals(3, manager.getProductById("E001").getNumOfItemsAvailable());
+        assertEquals(0, manager.getProductById("E001").getReservedItems());
+
+        List<Order> loggedOrders = manager.getOrderProcessor().getOrderLog().readOrders();
+        assertEquals(1, loggedOrders.size());
+        assertEquals("E001", loggedOrders.get(0).getLines().get(0).getProductID());
+        assertEquals(order.getTotalInPence(), loggedOrders.get(0).getTotalInPence());
+
+        manager.getOrderProcessor().close();
+        WestminsterShoppingManager restarted = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+        assertEquals(3, restarted.getProductById("E001").getNumOfItemsAvailable()); // Assert that the sale was journaled
+        Order nextOrder = restarted.getOrderProcessor().placeOrder(reservedCart(restarted, "E001", 1), null);
+        assertEquals(2, nextOrder.getOrderID()); // Assert that the orders carry on being numbered from the log
+        restarted.getOrderProcessor().close();
+    }
+
+    /**
+     * Test case for checking out a cart holding a product that was deleted since it was added.
+     */
+    @Test
+    public void testUnavailableItems() throws IOException {
+        ShoppingCart cart = reservedCart("E001", 1);
+        assertTrue(manager.getInventory().reserve("C001", 3));
+        cart.addItem(manager.getProductById("C001"), 3);
+        manager.deleteProducts(List.of("E001"));
+
+        Order order = manager.getOrderProcessor().placeOrder(cart, null);
+        assertEquals(List.of("E001"), order.getUnavailableProductIDs());
+        assertEquals(1, order.getLines().size());
+        assertEquals(1, cart.getLineCount()); // Assert that the unavailable line was taken out of the cart
+        assertEquals(9_997, manager.getProductById("C001").getNumOfItemsAvailable());
+
+        try {
+            manager.getOrderProcessor().placeOrder(new ShoppingCart(), null);
+            fail("An empty cart was checked out");
+        } catch (IllegalArgumentException exception) {
+            // Expected
+        }
+
+        Product shirt = manager.getProductById("C001");
+        cart = reservedCart("C001", 2);
+        shirt.setNumOfItemsAvailable(1); // Fewer items than were reserved are left
+        try {
+            manager.getOrderProcessor().placeOrder(cart, null);
+            fail("Items that are not in stock were sold");
+        } catch (IllegalStateException exception) {
+            // Expected
+        }
+        assertEquals(1, shirt.getNumOfItemsAvailable());
+        assertEquals(0, shirt.getReservedItems()); // Assert that the reservation was released
+    }
+
+    /**
+     * Test case for many shoppers checking out at once: every order is placed exactly once and many share a write to disk.
+     */
+    @Test
+    public void testConcurrentCheckoutsAreGroupCommitted() throws Exception {
+        OrderProcessor orderProcessor = manager.getOrderProcessor();
+        List<Future<List<Long>>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(SHOPPERS)) {
+            for (int shopper = 0; shopper < SHOPPERS; shopper++) {
+                results.add(executor.submit(() -> {
+                    List<Long> orderIDs = new ArrayList<>();
+                    for (int i = 0; i < ORDERS_PER_SHOPPER; i++) {
+                        orderIDs.add(orderProcessor.placeOrder(reservedCart("C001", 1), null).getOrderID());
+                    }
+                    return orderIDs;
+                }));
+            }
+        }
+
+        Set<Long> orderIDs = new HashSet<>();
+        for (Future<List<Long>> result : results) {
+            orderIDs.addAll(result.get());
+        }
+        int orderCount = SHOPPERS * ORDERS_PER_SHOPPER;
+        assertEquals(orderCount, orderIDs.size()); // Assert that no order ID was given out twice
+        assertEquals(orderCount, orderProcessor.getPlacedOrderCount());
+        assertTrue(orderProcessor.getCommitCount() < orderCount); // Assert that orders shared a write to disk
+        assertEquals(10_000 - orderCount, manager.getProductById("C001").getNumOfItemsAvailable());
+        assertEquals(orderCount, orderProcessor.getOrderLog().readOrders().size());
+    }
+
+    /**
+     * Test case for an order log whose last record was torn by a crash: the valid orders are kept and the torn record is cut off.
+     */
+    @Test
+    public void testTornRecordIsDiscarded() throws IOException {
+        OrderProcessor orderProcessor = manager.getOrderProcessor();
+        orderProcessor.placeOrder(reservedCart("C001", 1), null);
+        orderProcessor.placeOrder(reservedCart("C001", 1), null);
+        orderProcessor.close();
+
+        Path logPath = orderProcessor.getOrderLog().getLogPath();
+        long validLength = Files.size(logPath);
+        try (OutputStream output = Files.newOutputStream(logPath, StandardOpenOption.APPEND)) {
+            output.write(new byte[] {0, 0, 0, 40, 1, 2, 3}); // The start of a record that was never finished
+        }
+
+        OrderLog orderLog = new OrderLog(dataFile.toString());
+        assertEquals(2, orderLog.readOrders().size());
+        assertEquals(validLength, Files.size(logPath));
+    }
+
+    /**
+     * Test case for an order log that fails with an unexpected error: the items are put back in stock, the shopper is told,
+     * and the writer thread carries on placing the next orders.
+     */
+    @Test
+    public void testUnexpectedErrorDoesNotStopTheWriter() throws IOException {
+        OrderLog failingLog = new OrderLog(dataFile.toString()) {
+            private boolean failed;
+
+            @Override
+            public synchronized void append(List<Order> orders) throws IOException {
+                if (!failed) {
+                    failed = true;
+                    throw new IllegalStateException("Disk controller fault");
+                }
+                super.append(orders);
+            }
+        };
+        OrderProcessor orderProcessor = new OrderProcessor(manager, failingLog, OrderProcessor.DEFAULT_MAX_BATCH_SIZE);
+        try {
+            orderProcessor.placeOrder(reservedCart("E001", 2), null);
+            fail("An order was placed although it was not written");
+        } catch (IllegalStateException exception) {
+            assertEquals("Disk controller fault", exception.getMessage());
+        }
+        assertEquals(5, manager.getProductById("E001").getNumOfItemsAvailable()); // Assert that the items were put back in stock
+
+        Order order = orderProcessor.placeOrder(reservedCart("E001", 1), null);
+        assertEquals(4, manager.getProductById("E001").getNumOfItemsAvailable());
+        assertEquals(List.of(order.getOrderID()), failingLog.readOrders().stream().map(Order::getOrderID).toList());
+        orderProcessor.close();
+    }
+
+    /**
+     * Test case for a catalog in snapshot mode whose data file cannot be saved: the checkout fails rather than reporting
+     * an order whose stock levels were never written.
+     */
+    @Test
+    public void testSnapshotModeSaveErrorFailsTheOrder() throws IOException {
+        manager.getOrderProcessor().close();
+        manager = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY, PersistenceMode.SNAPSHOT);
+        Path tempPath = Paths.get(dataFile + ".tmp");
+        Files.createDirectory(tempPath); // The data file is saved through this path, so every save fails
+        try {
+            manager.getOrderProcessor().placeOrder(reservedCart("E001", 2), null);
+            fail("An order was placed although its stock levels were not saved");
+        } catch (IOException exception) {
+            // Expected
+        } finally {
+            Files.delete(tempPath);
+        }
+        assertEquals(5, manager.getProductById("E001").getNumOfItemsAvailable());
+        assertTrue(manager.getOrderProcessor().getOrderLog().readOrders().isEmpty());
+    }
+
+    private ShoppingCart reservedCart(String productID, int quantity) {
+        return reservedCart(manager, productID, quantity);
+    }
+
+    /**
+     * Returns a cart holding the passed number of items of a product, reserved in the inventory of the passed manager.
+     */
+    private static ShoppingCart reservedCart(WestminsterShoppingManager manager, String productID, int quantity) {
+        assertTrue(manager.getInventory().reserve(productID, quantity));
+        ShoppingCart cart = new ShoppingCart();
+        cart.addItem(manager.getProductById(productID), quantity);
+        return cart;
+    }
+}
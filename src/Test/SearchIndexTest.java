@@ -0,0 +1,77 @@
+package Test;
+
+import WestminsterShoppingCenter.*;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * This class contains JUnit tests for the SearchIndex class, which finds products by the words of their name, brand, size and color.
+ */
+public class SearchIndexTest {
+    private SearchIndex searchIndex;
+
+    /**
+     * The Setup method to index a few electronics and clothing products before each test case.
+     */
+    @Before
+    public void setUp() {
+        searchIndex = new SearchIndex();
+        searchIndex.add(new Electronics("E001", "Smart Phone", 5, 299.99, "Sony", 2));
+        searchIndex.add(new Electronics("E002", "Smart Watch", 5, 199.99, "Samsung", 1));
+        searchIndex.add(new Clothing("C001", "T-Shirt", 5, 19.99, "M", "Red"));
+        searchIndex.add(new Clothing("C002", "Shirt", 5, 29.99, "XL", "Dark red"));
+    }
+
+    /**
+     * Test case for prefix queries as they are typed, across the name, brand, size and color.
+     */
+    @Test
+    public void testPrefixSearch() {
+        assertEquals(List.of("E001", "E002"), productIDs(searchIndex.search("sma", null, 10)));
+        assertEquals(List.of("E002"), productIDs(searchIndex.search("SAMS", null, 10))); // Assert that the brand is searched, ignoring case
+        assertEquals(List.of("C001", "C002"), productIDs(searchIndex.search("re", null, 10))); // Assert that the color is searched
+        assertEquals(List.of("C002"), productIDs(searchIndex.search("xl", null, 10))); // Assert that the size is searched
+        assertEquals(List.of("C001"), productIDs(searchIndex.search("t-sh", null, 10))); // Assert that the query is split into words
+        assertTrue(searchIndex.search("laptop", null, 10).isEmpty());
+        assertTrue(searchIndex.search("  ", null, 10).isEmpty());
+    }
+
+    /**
+     * Test case for queries of several words, which must all match, with a category filter and a result limit.
+     */
+    @Test
+    public void testMultiWordSearch() {
+        assertEquals(List.of("C002"), productIDs(searchIndex.search("dark sh", null, 10)));
+        assertEquals(List.of("E001"), productIDs(searchIndex.search("smart sony", null, 10)));
+        assertTrue(searchIndex.search("smart red", null, 10).isEmpty());
+        assertEquals(List.of("C001", "C002"), productIDs(searchIndex.search("s", "Clothing", 10)));
+        assertEquals(1, searchIndex.search("s", null, 1).size());
+    }
+
+    /**
+     * Test case for the search index of a catalog store, which is updated as products are added, replaced and deleted.
+     */
+    @Test
+    public void testCatalogSearchIsIncremental() {
+        CatalogStore store = new CatalogStore();
+        store.add(new Electronics("E001", "Smart Phone", 5, 299.99, "Sony", 2));
+        assertEquals(1, store.search("phone", null, 10).size()); // The first search builds the index
+
+        store.add(new Electronics("E002", "Phone Charger", 5, 9.99, "Anker", 1));
+        assertEquals(List.of("E001", "E002"), productIDs(store.search("phone", null, 10)));
+        store.remove("E001");
+        assertEquals(List.of("E002"), productIDs(store.search("phone", null, 10)));
+        store.put(new Electronics("E002", "Cable", 5, 4.99, "Anker", 1)); // Replacing a product re-indexes it
+        assertTrue(store.search("phone", null, 10).isEmpty());
+        assertEquals(1, store.search("cab", null, 10).size());
+    }
+
+    private static List<String> productIDs(List<Product> products) {
+        return products.stream().map(Product::getProductID).toList();
+    }
+}
@@ -0,0 +1,138 @@
+package Test;
+
+import WestminsterShoppingCenter.*;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class contains JUnit tests for saving the catalog to shards, which are loaded and saved in parallel.
+ */
+public class ShardedStorageTest {
+    private static final int PRODUCTS = 100;
+    private static final int SHARDS = 4;
+
+    private Path dataFile;
+
+    /**
+     * The Setup method to pick a temporary data file before each test case.
+     */
+    @Before
+    public void setUp() throws IOException {
+        dataFile = TempDataFiles.create("shards");
+    }
+
+    /**
+     * The Cleanup method to delete the temporary files of every layout after each test case.
+     */
+    @After
+    public void tearDown() throws IOException {
+        TempDataFiles.deleteAll(dataFile);
+    }
+
+    /**
+     * Test case for a sharded catalog: each change is only journaled in the shard of its product, and a restart loads
+     * every shard with its journal replayed.
+     */
+    @Test
+    public void testChangesAreJournaledPerShard() {
+        WestminsterShoppingManager manager = newManager(ShardingScheme.PRODUCT_ID, SHARDS);
+        manager.addProducts(createProducts());
+        assertEquals(SHARDS, manager.getShardCount());
+        assertTrue(manager.takeSnapshot());
+        assertEquals(0, manager.getJournalSize());
+
+        CatalogShards shards = new CatalogShards(dataFile.toString(), ShardingScheme.PRODUCT_ID, SHARDS);
+        Product changedProduct = manager.getProductById("C7");
+        manager.updateStock(Map.of("C7", 3));
+        for (int shard = 0; shard < SHARDS; shard++) {
+            boolean journaled = Files.exists(shards.getJournal(shard).getJournalPath());
+            assertEquals(shard == shards.shardOf(changedProduct), journaled); // Assert that only the shard of the product was touched
+        }
+        manager.deleteProducts(List.of("C8", "C9"));
+        manager.addProduct(new Electronics("E001", "Phone", 5, 299.99, "Sony", 2));
+
+        WestminsterShoppingManager restarted = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+        assertEquals(SHARDS, restarted.getShardCount()); // Assert that the layout was read from the manifest
+        assertEquals(PRODUCTS - 1, restarted.getProductCount());
+        assertEquals(3, restarted.getProductById("C7").getNumOfItemsAvailable());
+        assertNull(restarted.getProductById("C8"));
+        assertNotNull(restarted.getProductById("E001"));
+    }
+
+    /**
+     * Test case for moving a catalog saved to a single data file to shards, and then to another layout of shards:
+     * nothing is lost and the files of the old layout are deleted.
+     */
+    @Test
+    public void testMoveToShards() {
+        WestminsterShoppingManager manager = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+        manager.addProducts(createProducts());
+        manager.takeSnapshot();
+        manager.updateStock(Map.of("C1", 42)); // Only in the journal of the single data file
+
+        WestminsterShoppingManager sharded = newManager(ShardingScheme.PRODUCT_ID, SHARDS);
+        assertEquals(PRODUCTS, sharded.getProductCount());
+        assertEquals(42, sharded.getProductById("C1").getNumOfItemsAvailable());
+        assertFalse(Files.exists(dataFile));
+        assertFalse(Files.exists(Paths.get(dataFile + CatalogJournal.FILE_SUFFIX)));
+
+        WestminsterShoppingManager byCategory = newManager(ShardingScheme.CATEGORY, 2);
+        assertEquals(PRODUCTS, byCategory.getProductCount());
+        CatalogShards oldShards = new CatalogShards(dataFile.toString(), ShardingScheme.PRODUCT_ID, SHARDS);
+        for (int shard = 0; shard < SHARDS; shard++) {
+            assertFalse(Files.exists(Paths.get(oldShards.getShardFileName(shard))));
+        }
+        assertEquals(42, new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY)
+                .getProductById("C1").getNumOfItemsAvailable());
+    }
+
+    /**
+     * Test case for a sharded catalog in snapshot mode, where a change only re-writes the shard holding the product.
+     */
+    @Test
+    public void testSnapshotModeSavesOnlyChangedShard() throws IOException {
+        WestminsterShoppingManager manager = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY,
+                PersistenceMode.SNAPSHOT, ShardingScheme.PRODUCT_ID, SHARDS);
+        manager.addProducts(createProducts());
+        CatalogShards shards = new CatalogShards(dataFile.toString(), ShardingScheme.PRODUCT_ID, SHARDS);
+        Product product = manager.getProductById("C5");
+        int otherShard = (shards.shardOf(product) + 1) % SHARDS;
+        Path otherShardPath = Paths.get(shards.getShardFileName(otherShard));
+        Files.delete(otherShardPath);
+
+        manager.updateStock(Map.of("C5", 7));
+        assertFalse(Files.exists(otherShardPath)); // Assert that the other shards were not written again
+        manager.takeSnapshot();
+        assertTrue(Files.exists(otherShardPath));
+
+        WestminsterShoppingManager restarted = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY,
+                PersistenceMode.SNAPSHOT);
+        assertEquals(PRODUCTS, restarted.getProductCount());
+        assertEquals(7, restarted.getProductById("C5").getNumOfItemsAvailable());
+    }
+
+    private WestminsterShoppingManager newManager(ShardingScheme scheme, int shardCount) {
+        return new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY, PersistenceMode.JOURNAL, scheme, shardCount);
+    }
+
+    private static List<Product> createProducts() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(i % 2 == 0 ? new Clothing("C" + i, "Shirt " + i, 10, 19.99, "M", "Red")
+                    : new Electronics("C" + i, "Phone " + i, 10, 299.99, "Sony", 2));
+        }
+        return products;
+    }
+}
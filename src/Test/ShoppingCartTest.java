@@ -0,0 +1,135 @@
+package Test;
+
+import WestminsterShoppingCenter.Clothing;
+import WestminsterShoppingCenter.Electronics;
+import WestminsterShoppingCenter.Money;
+import WestminsterShoppingCenter.PricingPlan;
+import WestminsterShoppingCenter.PromotionRule;
+import WestminsterShoppingCenter.ShoppingCart;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * This class contains JUnit tests for the ShoppingCart class, which keeps the cart totals up to date as items are added and removed.
+ */
+public class ShoppingCartTest {
+    private ShoppingCart cart;
+    private Electronics phone;
+    private Clothing shirt;
+    private Clothing dress;
+
+    /**
+     * The Setup method to create an empty cart and some products before each test case.
+     */
+    @Before
+    public void setUp() {
+        cart = new ShoppingCart();
+        phone = new Electronics("phone1", "Cart Phone", 10, 200.0, "Sony", 2);
+        shirt = new Clothing("shirt1", "Cart Shirt", 10, 20.0, "M", "Red");
+        dress = new Clothing("dress1", "Cart Dress", 10, 50.0, "S", "Black");
+    }
+
+    /**
+     * Test case for adding items: one line per product, with the subtotal and category counts kept up to date.
+     */
+    @Test
+    public void testAddItem() {
+        cart.addItem(phone);
+        cart.addItem(shirt, 2);
+        cart.addItem(phone);
+
+        assertEquals(2, cart.getLineCount()); // Assert that the phone has a single line
+        assertEquals(2, cart.getLine("phone1").getQuantity());
+        assertEquals(44000, cart.getSubtotalInPence());
+        assertEquals(4, cart.getItemCount());
+        assertEquals(2, cart.getCategoryCount("Electronics"));
+        assertEquals(2, cart.getCategoryCount("Clothing"));
+    }
+
+    /**
+     * Test case for removing items: an emptied line is removed and the last line takes its place.
+     */
+    @Test
+    public void testRemoveItem() {
+        cart.addItem(phone);
+        cart.addItem(shirt, 2);
+        cart.addItem(dress);
+
+        assertEquals(1, cart.removeItem(shirt, 1));
+        assertEquals(1, cart.getLine("shirt1").getQuantity());
+        assertEquals(1, cart.removeItem(phone, 5)); // Assert that no more items are removed than are in the cart
+
+        assertNull(cart.getLine("phone1")); // Assert that the emptied line is removed
+        assertEquals(2, cart.getLineCount());
+        assertSame(dress, cart.getLine(0).getProduct()); // Assert that the last line moved into the gap
+        assertEquals(0, cart.getLine("dress1").getIndex());
+        assertEquals(7000, cart.getSubtotalInPence());
+        assertEquals(0, cart.getCategoryCount("Electronics"));
+        assertEquals(0, cart.removeItem(phone, 1)); // Assert that removing a product not in the cart does nothing
+    }
+
+    /**
+     * Test case for the standard promotions: 10% off a first purchase and 20% off for three items in the same category.
+     */
+    @Test
+    public void testStandardPromotions() {
+        cart.setPricingPlan(PricingPlan.compile(List.of(
+                PromotionRule.firstPurchase("First Purchase Discount", 10),
+                PromotionRule.sameCategory("Three items in the same Category Discount", 3, 20, "Electronics", "Clothing"))));
+        cart.addItem(shirt, 2);
+        assertEquals(0, cart.getTotalDiscountInPence()); // Assert that no promotion applies yet
+
+        cart.addItem(dress);
+        assertEquals(1800, cart.getTotalDiscountInPence()); // Assert that three clothing items give 20% off 90.00
+        cart.setFirstPurchase(true);
+        assertEquals(2700, cart.getTotalDiscountInPence()); // Assert that a first purchase adds 10% off
+        assertEquals(6300, cart.calculateFinalCostInPence());
+
+        cart.removeItem(dress);
+        assertEquals(400, cart.getTotalDiscountInPence()); // Assert that the category discount is withdrawn
+    }
+
+    /**
+     * Test case for category, brand, buy-N and tiered promotions evaluated as the cart changes.
+     */
+    @Test
+    public void testPromotionRules() {
+        cart.addItem(phone, 3); // Added before the plan, so the plan must price the existing line
+        cart.setPricingPlan(PricingPlan.compile(List.of(
+                PromotionRule.brandDiscount("Sony 5% off", "Sony", 5),
+                PromotionRule.buyNGetFree("Shirts 3 for 2", PromotionRule.ScopeType.PRODUCT, "shirt1", 2, 1),
+                PromotionRule.categoryDiscount("Clothing 10% off four or more", "Clothing", 4, 10),
+                PromotionRule.tieredSpend("Spend and save", new double[]{500, 1000}, new double[]{1, 2}))));
+        assertEquals(3000 + 600, cart.getTotalDiscountInPence()); // Assert 5% off 600.00 of Sony and 1% off spending over 500.00
+
+        cart.addItem(shirt, 3);
+        assertEquals(3000 + 2000 + 660, cart.getTotalDiscountInPence()); // Assert that one shirt in three is free
+
+        cart.addItem(dress);
+        assertEquals(3000 + 2000 + 1100 + 710, cart.getTotalDiscountInPence()); // Assert that four clothing items give 10% off 110.00
+
+        cart.removeItem(phone, 3);
+        assertEquals(2000 + 1100, cart.getTotalDiscountInPence()); // Assert that the Sony and spending discounts are withdrawn
+        assertEquals(7900, cart.calculateFinalCostInPence());
+    }
+
+    /**
+     * Test case for exact totals in pence, where adding prices as doubles would drift.
+     */
+    @Test
+    public void testExactTotals() {
+        Clothing sock = new Clothing("sock1", "Cart Sock", 1_000, 0.10, "M", "White");
+        for (int i = 0; i < 1_000; i++) {
+            cart.addItem(sock);
+        }
+        assertEquals(10_000, cart.getSubtotalInPence()); // Assert that 1000 items at £0.10 are exactly £100.00
+        assertEquals("£100.00", Money.format(cart.getSubtotalInPence()));
+        assertEquals("-£0.05", Money.format(-5));
+        assertEquals(3, Money.applyRate(25, Money.toBasisPoints(10))); // Assert that 10% of 25p rounds to 3p
+    }
+}
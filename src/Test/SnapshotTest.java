@@ -0,0 +1,154 @@
+package Test;
+
+import WestminsterShoppingCenter.*;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class contains JUnit tests for taking snapshots of the catalog, which retire the journal records they supersede.
+ */
+public class SnapshotTest {
+    private static final int PRODUCTS = 200;
+    private static final int WRITERS = 4; // Threads changing the stock while snapshots are taken
+
+    private Path dataFile;
+
+    /**
+     * The Setup method to pick a temporary data file before each test case.
+     */
+    @Before
+    public void setUp() throws IOException {
+        dataFile = TempDataFiles.create("snapshot");
+    }
+
+    /**
+     * The Cleanup method to delete the temporary files after each test case.
+     */
+    @After
+    public void tearDown() throws IOException {
+        TempDataFiles.deleteAll(dataFile);
+    }
+
+    /**
+     * Test case for a snapshot emptying the journal, with the changes made after it replayed on top of it.
+     */
+    @Test
+    public void testSnapshotRetiresJournal() {
+        WestminsterShoppingManager manager = newManager();
+        manager.addProduct(new Clothing("C001", "Shirt", 10, 19.99, "M", "Red"));
+        manager.addProduct(new Electronics("E001", "Phone", 5, 299.99, "Sony", 2));
+        assertTrue(manager.getJournalSize() > 0);
+
+        assertTrue(manager.takeSnapshot());
+        assertEquals(0, manager.getJournalSize()); // Assert that the snapshot retired every journal record
+        assertEquals(1, manager.getSnapshotCount());
+
+        manager.updateStock(Map.of("C001", 3));
+        manager.deleteProducts(List.of("E001"));
+        WestminsterShoppingManager restarted = newManager();
+        assertEquals(1, restarted.getProductCount());
+        assertEquals(3, restarted.getProductById("C001").getNumOfItemsAvailable());
+    }
+
+    /**
+     * Test case for records rotated out by a snapshot that never reached the disk: they are replayed before the journal,
+     * and kept until a later snapshot succeeds.
+     */
+    @Test
+    public void testRotatedRecordsAreReplayedUntilRetired() throws IOException {
+        WestminsterShoppingManager manager = newManager();
+        manager.addProduct(new Clothing("C001", "Shirt", 10, 19.99, "M", "Red"));
+        new CatalogJournal(dataFile.toString()).rotate(); // As if the manager crashed while writing a snapshot
+
+        WestminsterShoppingManager restarted = newManager();
+        assertEquals(1, restarted.getProductCount()); // Assert that the rotated record was replayed
+        restarted.updateStock(Map.of("C001", 4));
+        new CatalogJournal(dataFile.toString()).rotate(); // A second failed snapshot adds the fresh records to the rotated ones
+
+        restarted = newManager();
+        assertEquals(4, restarted.getProductById("C001").getNumOfItemsAvailable()); // Assert that the records were replayed in order
+        assertTrue(restarted.takeSnapshot());
+        assertFalse(Files.exists(Paths.get(dataFile + CatalogJournal.FILE_SUFFIX + CatalogJournal.ROTATED_SUFFIX)));
+        assertEquals(4, newManager().getProductById("C001").getNumOfItemsAvailable());
+    }
+
+    /**
+     * Test case for snapshots taken while other threads keep changing the stock: after a restart, the catalog is the same
+     * as the catalog in memory, so no change made while a snapshot was being written was lost.
+     */
+    @Test
+    public void testSnapshotsDuringWrites() throws Exception {
+        WestminsterShoppingManager manager = newManager();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(new Clothing("C" + i, "Shirt " + i, 100, 19.99, "M", "Red"));
+        }
+        manager.addProducts(products);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Future<?>> writers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(WRITERS)) {
+            for (int writer = 0; writer < WRITERS; writer++) {
+                writers.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (running.get()) {
+                        manager.updateStock(Map.of("C" + random.nextInt(PRODUCTS), random.nextInt(1000)));
+                    }
+                }));
+            }
+            for (int snapshot = 0; snapshot < 20; snapshot++) {
+                assertTrue(manager.takeSnapshot());
+            }
+            running.set(false);
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+
+        WestminsterShoppingManager restarted = newManager();
+        for (Product product : manager.getProductList()) {
+            assertEquals(product.getNumOfItemsAvailable(), restarted.getProductById(product.getProductID()).getNumOfItemsAvailable());
+        }
+    }
+
+    /**
+     * Test case for the scheduler taking a snapshot only once the journal is large compared with the data file.
+     */
+    @Test
+    public void testSchedulerSnapshotsLargeJournal() {
+        WestminsterShoppingManager manager = newManager();
+        SnapshotScheduler scheduler = new SnapshotScheduler(manager, 1_000, 0.5, 0);
+        manager.addProduct(new Clothing("C001", "Shirt", 10, 19.99, "M", "Red"));
+        assertTrue(scheduler.snapshotIfDue()); // Assert that a journal is due when there is no data file yet
+
+        manager.updateStock(Map.of("C001", 3));
+        assertFalse(scheduler.snapshotIfDue()); // Assert that one small record is not worth a snapshot
+        for (int i = 0; i < 100; i++) {
+            manager.updateStock(Map.of("C001", i));
+        }
+        assertTrue(scheduler.snapshotIfDue());
+        assertEquals(2, manager.getSnapshotCount());
+        scheduler.close();
+    }
+
+    private WestminsterShoppingManager newManager() {
+        return new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+    }
+}
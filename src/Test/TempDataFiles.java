@@ -0,0 +1,39 @@
+package Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * A class that picks temporary data files for the test cases, and deletes a data file with every file kept beside it.
+ * The files kept beside a data file, such as its journal, rotated journal, order log, shard manifest, shards and
+ * temporary save file, are all named after it, so they are found by the name of the data file.
+ */
+public class TempDataFiles {
+    private TempDataFiles() {
+    }
+
+    /**
+     * Returns the path of a new temporary data file whose name starts with the passed prefix. The file does not exist yet.
+     */
+    public static Path create(String prefix) throws IOException {
+        Path dataFile = Files.createTempFile(prefix, ".txt");
+        Files.delete(dataFile);
+        return dataFile;
+    }
+
+    /**
+     * Deletes the passed data file and every file in its directory whose name starts with the name of the data file.
+     */
+    public static void deleteAll(Path dataFile) throws IOException {
+        String dataFileName = dataFile.getFileName().toString();
+        try (Stream<Path> files = Files.list(dataFile.toAbsolutePath().getParent())) {
+            for (Path file : files.toList()) {
+                if (file.getFileName().toString().startsWith(dataFileName)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package Test;
+
+import WestminsterShoppingCenter.UsernameRegistry;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * This class contains JUnit tests for the UsernameRegistry class, which detects the first visit of a shopper.
+ */
+public class UsernameRegistryTest {
+    private Path usernamesFile;
+
+    /**
+     * The Setup method to create a usernames file with one registered shopper before each test case.
+     */
+    @Before
+    public void setUp() throws IOException {
+        usernamesFile = Files.createTempFile("usernames", ".txt");
+        Files.write(usernamesFile, List.of("alice", ""));
+    }
+
+    /**
+     * The Cleanup method to delete the usernames file after each test case.
+     */
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(usernamesFile);
+    }
+
+    /**
+     * Test case for registering new and returning shoppers.
+     */
+    @Test
+    public void testRegister() throws IOException {
+        UsernameRegistry registry = new UsernameRegistry(usernamesFile.toString());
+        assertFalse(registry.register("alice")); // Assert that a shopper in the file is not new
+        assertTrue(registry.register("bob")); // Assert that a new shopper is detected
+        assertFalse(registry.register("bob")); // Assert that the shopper is only new once
+        assertFalse(registry.register(" ")); // Assert that an empty username is not registered
+        registry.close();
+
+        assertEquals(List.of("alice", "", "bob"), Files.readAllLines(usernamesFile)); // Assert that only the new username was appended
+        UsernameRegistry reopenedRegistry = new UsernameRegistry(usernamesFile.toString());
+        assertTrue(reopenedRegistry.contains("bob")); // Assert that the registration survives a restart
+        assertEquals(2, reopenedRegistry.size());
+    }
+
+    /**
+     * Test case for the registry growing well beyond the number of usernames it was loaded with.
+     */
+    @Test
+    public void testRegisterManyShoppers() throws IOException {
+        UsernameRegistry registry = new UsernameRegistry(usernamesFile.toString());
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(registry.register("shopper" + i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(registry.contains("shopper" + i)); // Assert that no shopper is lost as the hash index grows
+        }
+        assertFalse(registry.contains("shopper10000"));
+        assertEquals(10_001, registry.size());
+        registry.close();
+    }
+}
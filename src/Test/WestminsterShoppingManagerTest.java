@@ -1,18 +1,24 @@
 package Test;
 
+import WestminsterShoppingCenter.CatalogStore;
 import WestminsterShoppingCenter.WestminsterShoppingManager;
 import WestminsterShoppingCenter.Clothing;
 
 import static org.junit.Assert.*;
 
 import GUI.UserShoppingCenter;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.jupiter.api.AfterEach;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * This class contains JUnit tests for the WestminsterShoppingManager class to test its options in the console menu.
@@ -22,15 +28,28 @@ public class WestminsterShoppingManagerTest {
     private final PrintStream originalOut = System.out; // Original System.out to restore console output after testing
 
     private WestminsterShoppingManager manager;
+    private Path dataFile;
 
     /**
      * The Setup method to initialize necessary objects before each test case.
+     * The manager works on a temporary copy of the default data file, so the changes the test cases make are not saved to it.
      */
     @Before
-    public void setUp() {
+    public void setUp() throws IOException {
         System.setOut(new PrintStream(outContent));
+        dataFile = TempDataFiles.create("manager");
+        Files.copy(Paths.get(WestminsterShoppingManager.DEFAULT_DATA_FILE), dataFile);
         UserShoppingCenter shoppingCenter = new UserShoppingCenter();
-        manager = new WestminsterShoppingManager(shoppingCenter);
+        manager = new WestminsterShoppingManager(dataFile.toString(), CatalogStore.UNLIMITED_CAPACITY);
+        shoppingCenter.setManager(manager);
+    }
+
+    /**
+     * Deletes the temporary data file and the files kept beside it after each test case.
+     */
+    @After
+    public void deleteDataFile() throws IOException {
+        TempDataFiles.deleteAll(dataFile);
     }
 
     /**
@@ -114,6 +133,19 @@ public class WestminsterShoppingManagerTest {
 
         assertTrue(outContent.toString().contains("Products saved to file: TestProductData.txt")); // Assert that the save confirmation message is printed to the console
     }
+
+    /**
+     * Test case for looking up products through the catalog index by ID and by category.
+     */
+    @Test
+    public void testGetProductByIdAndCategory() {
+        Clothing clothingItem = new Clothing("index1", "Index Shirt", 10, 19.99, "M", "Green");
+        manager.addProduct(clothingItem);
+
+        assertSame(clothingItem, manager.getProductById("index1")); // Assert that the added product is found by its ID
+        assertTrue(manager.getProductsByCategory("Clothing").contains(clothingItem)); // Assert that it is in the clothing index
+        assertFalse(manager.getProductsByCategory("Electronics").contains(clothingItem)); // Assert that it is not in the electronics index
+    }
 }
 
 // REFERENCES
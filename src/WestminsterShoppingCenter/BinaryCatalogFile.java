@@ -0,0 +1,409 @@
+package WestminsterShoppingCenter;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * A class representing a catalog saved in the compact, versioned binary catalog format.
+ * Unlike a serialized ArrayList, the file carries no class descriptors and is read without reflection.
+ *
+ * The file is laid out as follows (all numbers are big-endian):
+ * - Header (32 bytes): magic "WSCB", version, reserved, product count, string count, offset of the records, offset of the string table.
+ * - String table: every distinct string in the catalog, stored once as a varint byte length followed by its UTF-8 bytes.
+ * - Records: one fixed-width 29 byte record per product.
+ *
+ * A record holds the type byte, the string table positions of the product ID and name, the number of items available,
+ * the price in pence, and two category-specific fields: the brand string and warranty period for electronics,
+ * or the size and color strings for clothing.
+ * Because every record has the same width and refers to its strings by position,
+ * any product or string can be read straight from the memory-mapped file without reading what comes before it.
+ * Every offset, position and length read from the file is checked against the bounds of its section, so a corrupt or
+ * truncated file is reported with an IOException rather than read outside the file.
+ */
+public class BinaryCatalogFile {
+    public static final int MAGIC = 0x57534342; // "WSCB"
+    public static final short VERSION = 1;
+
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 29;
+
+    // Offsets of the fields inside a record
+    private static final int TYPE_OFFSET = 0;
+    private static final int ID_OFFSET = 1;
+    private static final int NAME_OFFSET = 5;
+    private static final int STOCK_OFFSET = 9;
+    private static final int PRICE_OFFSET = 13;
+    private static final int DETAIL1_OFFSET = 21;
+    private static final int DETAIL2_OFFSET = 25;
+    private static final int MAX_VARINT_BYTES = 5; // An int length takes at most 5 bytes of 7 bits
+
+    private final ByteBuffer buffer; // The whole file, mapped or read into memory
+    private final Path path;
+    private final int productCount;
+    private final int stringCount;
+    private final int recordsOffset;
+    private final int stringsOffset;
+
+    /**
+     * A constructor to initialize a binary catalog file from the passed contents of the file, whose header it checks.
+     */
+    private BinaryCatalogFile(Path path, ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        this.path = path;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a binary catalog file: " + path);
+        }
+        short version = buffer.getShort(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary catalog version " + version + " in file: " + path);
+        }
+        productCount = buffer.getInt(8);
+        stringCount = buffer.getInt(12);
+        long records = buffer.getLong(16);
+        long strings = buffer.getLong(24);
+        // The string table lies between the header and the records, which run to the end of the file
+        if (productCount < 0 || stringCount < 0 || strings < HEADER_SIZE || records < strings || records > buffer.capacity()) {
+            throw new IOException("Invalid binary catalog header in file: " + path);
+        }
+        recordsOffset = (int) records;
+        stringsOffset = (int) strings;
+        if (recordsOffset + (long) productCount * RECORD_SIZE > buffer.capacity()) {
+            throw new IOException("Binary catalog file is truncated: " + path);
+        }
+    }
+
+    /**
+     * Opens the passed binary catalog file through a memory-mapped FileChannel.
+     * The mapping stays open until the returned object is garbage collected, and a mapped file cannot be replaced on
+     * every platform, so products that keep reading from the file should be read from a loaded file instead.
+     */
+    public static BinaryCatalogFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Binary catalog file is too large to map: " + path);
+            }
+            // The mapping stays valid after the channel is closed
+            return new BinaryCatalogFile(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads the whole of the passed binary catalog file into memory with one sequential read, and closes the file.
+     * Unlike open, no mapping of the file is kept, so the file can be replaced while its products are still decoded from memory.
+     */
+    public static BinaryCatalogFile load(Path path) throws IOException {
+        return new BinaryCatalogFile(path, ByteBuffer.wrap(Files.readAllBytes(path)));
+    }
+
+    /**
+     * Returns true if the passed file starts with the magic number of the binary catalog format.
+     */
+    public static boolean isBinaryCatalog(Path path) {
+        try (DataInputStream input = new DataInputStream(Files.newInputStream(path))) {
+            return input.readInt() == MAGIC;
+        } catch (IOException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads every product of the passed binary catalog file.
+     * The file is loaded rather than mapped, so it can be replaced as soon as this method returns, even though the
+     * products decode their details from the file's contents later.
+     */
+    public static List<Product> readAll(Path path) throws IOException {
+        return load(path).readAll();
+    }
+
+    /**
+     * Writes the passed products to a file in the binary catalog format.
+     */
+    public static void write(Collection<Product> products, Path path) throws IOException {
+        // Builds the string table, storing every distinct string once
+        StringTable stringTable = new StringTable();
+        int[] references = new int[products.size() * 4];
+        int index = 0;
+        for (Product product : products) {
+            references[index++] = stringTable.positionOf(product.getProductID());
+            references[index++] = stringTable.positionOf(product.getProductName());
+            if (product instanceof Electronics electronics) {
+                references[index++] = stringTable.positionOf(electronics.getBrand());
+                references[index++] = electronics.getWarrantyPeriod();
+            } else {
+                Clothing clothing = (Clothing) product;
+                references[index++] = stringTable.positionOf(clothing.getSize());
+                references[index++] = stringTable.positionOf(clothing.getColor());
+            }
+        }
+
+        long stringsOffset = HEADER_SIZE;
+        long recordsOffset = stringsOffset + stringTable.size();
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            // Header
+            output.writeInt(MAGIC);
+            output.writeShort(VERSION);
+            output.writeShort(0);
+            output.writeInt(products.size());
+            output.writeInt(stringTable.count());
+            output.writeLong(recordsOffset);
+            output.writeLong(stringsOffset);
+
+            // String table
+            stringTable.writeTo(output);
+
+            // Records
+            index = 0;
+            for (Product product : products) {
+                output.writeByte(product instanceof Electronics ? ProductCodec.ELECTRONICS : ProductCodec.CLOTHING);
+                output.writeInt(references[index++]);
+                output.writeInt(references[index++]);
+                output.writeInt(product.getNumOfItemsAvailable());
+                output.writeLong(product.getPriceInPence());
+                output.writeInt(references[index++]);
+                output.writeInt(references[index++]);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of products in the file.
+     */
+    public int getProductCount() {
+        return productCount;
+    }
+
+    /**
+     * Returns the number of distinct strings in the file.
+     */
+    public int getStringCount() {
+        return stringCount;
+    }
+
+    /**
+     * Reads every product in the file.
+     */
+    public List<Product> readAll() throws IOException {
+        List<Product> products = new ArrayList<>(productCount);
+        for (int i = 0; i < productCount; i++) {
+            products.add(readProduct(i));
+        }
+        return products;
+    }
+
+    /**
+     * Reads the product with the passed record number.
+     */
+    public Product readProduct(int recordNumber) throws IOException {
+        int record = recordOffset(recordNumber);
+        byte type = readType(record);
+        String productID = readString(buffer.getInt(record + ID_OFFSET));
+        String productName = readString(buffer.getInt(record + NAME_OFFSET));
+        int numOfItemsAvailable = buffer.getInt(record + STOCK_OFFSET);
+        int detail1 = buffer.getInt(record + DETAIL1_OFFSET);
+        int detail2 = buffer.getInt(record + DETAIL2_OFFSET);
+
+        Product product;
+        if (type == ProductCodec.ELECTRONICS) {
+            product = new Electronics(productID, productName, numOfItemsAvailable, 0, readString(detail1), detail2);
+        } else {
+            product = new Clothing(productID, productName, numOfItemsAvailable, 0, readString(detail1), readString(detail2));
+        }
+        product.setPriceInPence(buffer.getLong(record + PRICE_OFFSET));
+        return product;
+    }
+
+    /**
+     * Reads only the header of the product with the passed record number: its ID, name, category, stock and price.
+     * The category-specific details are decoded from the file the first time they are accessed; their positions are
+     * checked now, so decoding them later cannot fail.
+     */
+    public Product readProductHeader(int recordNumber) throws IOException {
+        int record = recordOffset(recordNumber);
+        byte type = readType(record);
+        String productID = readString(buffer.getInt(record + ID_OFFSET));
+        String productName = readString(buffer.getInt(record + NAME_OFFSET));
+        int numOfItemsAvailable = buffer.getInt(record + STOCK_OFFSET);
+        locateString(buffer.getInt(record + DETAIL1_OFFSET));
+
+        LazyDetails lazyDetails = new LazyDetails(this, record);
+        Product product;
+        if (type == ProductCodec.ELECTRONICS) {
+            product = new Electronics(productID, productName, numOfItemsAvailable, 0, lazyDetails);
+        } else {
+            locateString(buffer.getInt(record + DETAIL2_OFFSET));
+            product = new Clothing(productID, productName, numOfItemsAvailable, 0, lazyDetails);
+        }
+        product.setPriceInPence(buffer.getLong(record + PRICE_OFFSET));
+        return product;
+    }
+
+    /**
+     * Reads the string stored at the passed position of the string table.
+     * Throws an IOException if the position or the length of the string is outside the string table.
+     */
+    public String readString(int position) throws IOException {
+        long location = locateString(position);
+        byte[] encodedString = new byte[(int) location];
+        buffer.get((int) (location >>> 32), encodedString);
+        return new String(encodedString, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns where the bytes of the string at the passed position of the string table are: their offset in the file in
+     * the high 32 bits, and their length in the low 32 bits.
+     * Throws an IOException if the position, the varint length or the bytes are outside the string table.
+     */
+    private long locateString(int position) throws IOException {
+        if (position < 0 || position >= recordsOffset - stringsOffset) {
+            throw new IOException("String position " + position + " is outside the string table of file: " + path);
+        }
+        int offset = stringsOffset + position;
+        int length = 0;
+        int shift = 0;
+        byte lengthByte;
+        do { // Decodes the varint length
+            if (shift == 7 * MAX_VARINT_BYTES || offset >= recordsOffset) {
+                throw new IOException("Invalid string length at position " + position + " of file: " + path);
+            }
+            lengthByte = buffer.get(offset++);
+            length |= (lengthByte & 0x7F) << shift;
+            shift += 7;
+        } while (lengthByte < 0);
+        if (length < 0 || length > recordsOffset - offset) {
+            throw new IOException("String at position " + position + " runs past the string table of file: " + path);
+        }
+        return ((long) offset << 32) | length;
+    }
+
+    /**
+     * Returns the offset in the file of the record with the passed number.
+     */
+    private int recordOffset(int recordNumber) {
+        if (recordNumber < 0 || recordNumber >= productCount) {
+            throw new IndexOutOfBoundsException("Record " + recordNumber + " does not exist; the file has " + productCount + " product(s).");
+        }
+        return recordsOffset + recordNumber * RECORD_SIZE;
+    }
+
+    /**
+     * Returns the type byte of the record at the passed offset, throwing an IOException if it is not a known type.
+     */
+    private byte readType(int record) throws IOException {
+        byte type = buffer.get(record + TYPE_OFFSET);
+        if (type != ProductCodec.ELECTRONICS && type != ProductCodec.CLOTHING) {
+            throw new IOException("Unknown product type " + type + " in file: " + path);
+        }
+        return type;
+    }
+
+    /**
+     * A class that refers to the category-specific fields of one record, so they can be decoded when first needed.
+     */
+    static final class LazyDetails {
+        private final BinaryCatalogFile file;
+        private final int record; // Offset of the record in the file
+
+        LazyDetails(BinaryCatalogFile file, int record) {
+            this.file = file;
+            this.record = record;
+        }
+
+        /**
+         * Returns the first category-specific field as a string: the brand or the size.
+         */
+        String readDetailString1() {
+            return readDetailString(DETAIL1_OFFSET);
+        }
+
+        /**
+         * Returns the second category-specific field as a string: the color.
+         */
+        String readDetailString2() {
+            return readDetailString(DETAIL2_OFFSET);
+        }
+
+        /**
+         * Returns the second category-specific field as a number: the warranty period.
+         */
+        int readDetailInt2() {
+            return file.buffer.getInt(record + DETAIL2_OFFSET);
+        }
+
+        /**
+         * Returns the string of the category-specific field at the passed offset of the record.
+         * Its position was checked when the header was read, so an error here means the file changed under the mapping.
+         */
+        private String readDetailString(int fieldOffset) {
+            try {
+                return file.readString(file.buffer.getInt(record + fieldOffset));
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+    }
+
+    /**
+     * A class that builds the string table of a binary catalog file while it is written.
+     */
+    private static class StringTable {
+        private final Map<String, Integer> positions = new HashMap<>();
+        private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+
+        /**
+         * Returns the position of the passed string in the table, adding the string if it is not in the table yet.
+         */
+        int positionOf(String string) {
+            String value = string == null ? "" : string;
+            Integer position = positions.get(value);
+            if (position == null) {
+                position = data.size();
+                positions.put(value, position);
+                byte[] encodedString = value.getBytes(StandardCharsets.UTF_8);
+                int length = encodedString.length;
+                while (length >= 0x80) { // Encodes the length as a varint
+                    data.write((length & 0x7F) | 0x80);
+                    length >>>= 7;
+                }
+                data.write(length);
+                data.write(encodedString, 0, encodedString.length);
+            }
+            return position;
+        }
+
+        /**
+         * Returns the number of distinct strings in the table.
+         */
+        int count() {
+            return positions.size();
+        }
+
+        /**
+         * Returns the size of the table in bytes.
+         */
+        int size() {
+            return data.size();
+        }
+
+        /**
+         * Writes the table to the output.
+         */
+        void writeTo(OutputStream output) throws IOException {
+            data.writeTo(output);
+        }
+    }
+}
+
+//REFERENCES
+
+/* Java NIO
+ * FileChannel.map - https://docs.oracle.com/javase/8/docs/api/java/nio/channels/FileChannel.html#map-java.nio.channels.FileChannel.MapMode-long-long-
+ * MappedByteBuffer - https://docs.oracle.com/javase/8/docs/api/java/nio/MappedByteBuffer.html
+ * Files.readAllBytes - https://docs.oracle.com/javase/8/docs/api/java/nio/file/Files.html#readAllBytes-java.nio.file.Path-
+ */
@@ -0,0 +1,63 @@
+package WestminsterShoppingCenter;
+
+/**
+ * A class representing one line of a shopping cart: a product and the number of its items in the cart.
+ * The unit price is the price of the product when it was first added, so the cart total does not change under the shopper.
+ */
+public class CartLine {
+    private final Product product;
+    private final long unitPriceInPence;
+    private int quantity;
+    int index; // Position of the line in the cart, kept up to date by the cart
+
+    /**
+     * A constructor to initialize a cart line for the passed product with no items.
+     */
+    CartLine(Product product, int index) {
+        this.product = product;
+        this.unitPriceInPence = product.getPriceInPence();
+        this.index = index;
+    }
+
+    /**
+     * Returns the product of the line.
+     */
+    public Product getProduct() {
+        return product;
+    }
+
+    /**
+     * Returns the price of one item of the product in pence.
+     */
+    public long getUnitPriceInPence() {
+        return unitPriceInPence;
+    }
+
+    /**
+     * Returns the number of items of the product in the cart.
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Returns the position of the line in the cart.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the price of all the items of the line in pence.
+     */
+    public long getLineTotalInPence() {
+        return unitPriceInPence * quantity;
+    }
+
+    /**
+     * Changes the number of items by the passed amount.
+     */
+    void addQuantity(int amount) {
+        quantity += amount;
+    }
+}
@@ -0,0 +1,60 @@
+package WestminsterShoppingCenter;
+
+import java.util.List;
+
+/**
+ * A class representing a change to the product catalog, published by the shopping manager after the change is made.
+ * An event holds the products that changed, or none if the whole catalog was reloaded.
+ */
+public class CatalogEvent {
+    /**
+     * The kinds of change to the catalog.
+     */
+    public enum Type {
+        PRODUCTS_ADDED, // Products were added to the catalog
+        PRODUCTS_DELETED, // Products were deleted from the catalog
+        STOCK_CHANGED, // The number of items available of products changed
+        CATALOG_RELOADED // The catalog was loaded from a file and may have changed in any way
+    }
+
+    private final Type type;
+    private final List<Product> products;
+
+    /**
+     * A constructor to initialize an event of the passed type for the passed products.
+     */
+    public CatalogEvent(Type type, List<Product> products) {
+        this.type = type;
+        this.products = List.copyOf(products);
+    }
+
+    /**
+     * Returns the kind of change.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the products that changed, or an empty list if the catalog was reloaded.
+     */
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    /**
+     * Returns true if the products in the catalog changed, rather than only their number of items available.
+     */
+    public boolean changesProducts() {
+        return type != Type.STOCK_CHANGED;
+    }
+
+    // A description of the event
+    @Override
+    public String toString() {
+        return "CatalogEvent{" +
+                "type=" + type +
+                ", products=" + products.size() +
+                '}';
+    }
+}
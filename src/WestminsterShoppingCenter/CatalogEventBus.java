@@ -0,0 +1,129 @@
+package WestminsterShoppingCenter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A class that delivers the changes to the product catalog to the subscribers, such as the GUI, that want to know about them.
+ * The shopping manager publishes an event after every change, without knowing who is subscribed, so it runs at the
+ * same speed with or without a GUI.
+ * A subscriber either receives each event straight away on the thread that made the change, or has its events
+ * delivered by an executor, such as the Swing event dispatch thread. In that case the events are queued and delivered
+ * in batches: every event published before the executor gets round to the subscriber is delivered in a single call,
+ * so a burst of changes costs one update of the subscriber rather than one per change.
+ */
+public class CatalogEventBus {
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Subscribes a listener that receives each event on the thread that published it.
+     */
+    public void subscribe(CatalogListener listener) {
+        subscriptions.add(new Subscription(listener, null));
+    }
+
+    /**
+     * Subscribes a listener whose events are delivered in batches by the passed executor.
+     */
+    public void subscribe(CatalogListener listener, Executor executor) {
+        subscriptions.add(new Subscription(listener, executor));
+    }
+
+    /**
+     * Unsubscribes a listener. Events already queued for it are not delivered.
+     */
+    public void unsubscribe(CatalogListener listener) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.listener == listener) {
+                subscription.cancelled = true;
+                subscriptions.remove(subscription);
+            }
+        }
+    }
+
+    /**
+     * Returns true if any listener is subscribed, so an event only needs to be created if someone will receive it.
+     */
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    /**
+     * Publishes an event to every subscriber.
+     */
+    public void publish(CatalogEvent event) {
+        for (Subscription subscription : subscriptions) {
+            subscription.publish(event);
+        }
+    }
+
+    /**
+     * A subscribed listener, with the events waiting to be delivered to it by its executor.
+     */
+    private static class Subscription {
+        private final CatalogListener listener;
+        private final Executor executor; // Null if events are delivered on the publishing thread
+        private final Queue<CatalogEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean deliveryScheduled = new AtomicBoolean();
+        private volatile boolean cancelled;
+
+        Subscription(CatalogListener listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        /**
+         * Delivers an event straight away, or queues it and schedules a delivery unless one is already scheduled.
+         */
+        void publish(CatalogEvent event) {
+            if (executor == null) {
+                notifyListener(List.of(event));
+                return;
+            }
+            pendingEvents.add(event);
+            if (deliveryScheduled.compareAndSet(false, true)) {
+                executor.execute(this::deliverPendingEvents);
+            }
+        }
+
+        /**
+         * Delivers every queued event in one call to the listener.
+         * The scheduled flag is cleared before the queue is emptied, so an event queued during the delivery
+         * schedules another delivery instead of being left behind.
+         */
+        private void deliverPendingEvents() {
+            deliveryScheduled.set(false);
+            List<CatalogEvent> events = new ArrayList<>();
+            CatalogEvent event;
+            while ((event = pendingEvents.poll()) != null) {
+                events.add(event);
+            }
+            if (!events.isEmpty() && !cancelled) {
+                notifyListener(events);
+            }
+        }
+
+        /**
+         * Passes events to the listener, so an error in one listener does not stop the change or the other listeners.
+         */
+        private void notifyListener(List<CatalogEvent> events) {
+            try {
+                listener.catalogChanged(events);
+            } catch (RuntimeException exception) {
+                System.out.println("Error notifying a catalog listener: " + exception);
+            }
+        }
+    }
+}
+
+//REFERENCES
+
+/* Java Concurrency
+ * CopyOnWriteArrayList - https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/CopyOnWriteArrayList.html
+ * ConcurrentLinkedQueue - https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/ConcurrentLinkedQueue.html
+ */
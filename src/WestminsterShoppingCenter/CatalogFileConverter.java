@@ -0,0 +1,80 @@
+package WestminsterShoppingCenter;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * A one-shot tool that converts a Java-serialized catalog file into the binary catalog format.
+ * Usage: CatalogFileConverter [input file] [output file]
+ * Both files default to Product_Data.txt. When the file is converted in place, the serialized file is kept as a ".bak" backup.
+ * After converting, it prints the size and load time of both files.
+ */
+public class CatalogFileConverter {
+    private static final int TIMED_LOADS = 20; // Number of loads the load time is averaged over
+
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        Path inputPath = Paths.get(args.length > 0 ? args[0] : WestminsterShoppingManager.DEFAULT_DATA_FILE);
+        Path outputPath = Paths.get(args.length > 1 ? args[1] : inputPath.toString());
+
+        if (BinaryCatalogFile.isBinaryCatalog(inputPath)) {
+            System.out.println(inputPath + " is already in the binary catalog format.");
+            return;
+        }
+
+        Path serializedPath = inputPath;
+        if (outputPath.equals(inputPath)) {
+            serializedPath = Paths.get(inputPath + ".bak");
+            Files.copy(inputPath, serializedPath, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Serialized catalog backed up to: " + serializedPath);
+        }
+
+        List<Product> products = readSerialized(serializedPath);
+        Path tempPath = Paths.get(outputPath + ".tmp");
+        BinaryCatalogFile.write(products, tempPath);
+        Files.move(tempPath, outputPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println(products.size() + " product(s) converted to the binary catalog format: " + outputPath);
+
+        // Measures both files
+        long serializedSize = Files.size(serializedPath);
+        long binarySize = Files.size(outputPath);
+        double serializedLoadTime = averageLoadTime(serializedPath, false);
+        double binaryLoadTime = averageLoadTime(outputPath, true);
+
+        System.out.printf("%-12s %12s %16s%n", "Format", "Size (bytes)", "Load time (ms)");
+        System.out.printf("%-12s %12d %16.3f%n", "Serialized", serializedSize, serializedLoadTime);
+        System.out.printf("%-12s %12d %16.3f%n", "Binary", binarySize, binaryLoadTime);
+    }
+
+    /**
+     * Reads the products of a Java-serialized catalog file.
+     */
+    @SuppressWarnings("unchecked")
+    static List<Product> readSerialized(Path path) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream inputStream = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            return (List<Product>) inputStream.readObject();
+        }
+    }
+
+    /**
+     * Returns the average time in milliseconds to load every product of a file, after a few untimed warm-up loads.
+     */
+    private static double averageLoadTime(Path path, boolean isBinary) throws IOException, ClassNotFoundException {
+        long totalTime = 0;
+        for (int i = 0; i < TIMED_LOADS * 2; i++) {
+            long start = System.nanoTime();
+            if (isBinary) {
+                BinaryCatalogFile.readAll(path);
+            } else {
+                readSerialized(path);
+            }
+            if (i >= TIMED_LOADS) { // The first half of the loads are warm-up
+                totalTime += System.nanoTime() - start;
+            }
+        }
+        return totalTime / 1_000_000.0 / TIMED_LOADS;
+    }
+}
@@ -0,0 +1,9 @@
+package WestminsterShoppingCenter;
+
+/**
+ * An enum representing the formats the catalog data file can be saved in.
+ */
+public enum CatalogFileFormat {
+    SERIALIZED, // A Java-serialized ArrayList of products
+    BINARY // The compact binary catalog format, read with one sequential read (see BinaryCatalogFile)
+}
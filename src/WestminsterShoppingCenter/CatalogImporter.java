@@ -0,0 +1,522 @@
+package WestminsterShoppingCenter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A class that imports products in bulk from a CSV or JSON-lines file into a WestminsterShoppingManager.
+ * The file is streamed in chunks of lines, which are parsed and validated on several threads at once while the next
+ * chunks are still being read. The parsed chunks are then checked for duplicate IDs, in file order, against each other
+ * and against the catalog, and every valid product is added to the manager in a single batch with a single persist.
+ *
+ * A CSV file has one product per line, with an optional header line:
+ *   category,productID,productName,numOfItemsAvailable,price,brand or size,warrantyPeriod or color
+ * A JSON-lines file (.jsonl, .ndjson or .json) has one object per line with the same field names, using
+ * "brand" and "warrantyPeriod" for electronics and "size" and "color" for clothing.
+ */
+public class CatalogImporter {
+    public static final int CHUNK_SIZE = 8192; // Number of lines parsed together by one thread
+    private static final int MAX_REPORTED_ERRORS = 20; // Only the first errors are kept, so a bad file cannot exhaust the memory
+
+    /**
+     * The formats of the files that can be imported.
+     */
+    public enum FileFormat {
+        CSV, JSON_LINES
+    }
+
+    private final WestminsterShoppingManager manager;
+    private final int parallelism;
+
+    /**
+     * A constructor to initialize an importer into the passed manager that parses on every available processor.
+     */
+    public CatalogImporter(WestminsterShoppingManager manager) {
+        this(manager, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * A constructor to initialize an importer into the passed manager that parses on the passed number of threads.
+     */
+    public CatalogImporter(WestminsterShoppingManager manager, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.manager = manager;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Imports the products in the passed file, working out its format from the file extension.
+     */
+    public ImportResult importFile(String fileName) throws IOException {
+        String lowerCaseName = fileName.toLowerCase(Locale.ROOT);
+        boolean jsonLines = lowerCaseName.endsWith(".jsonl") || lowerCaseName.endsWith(".ndjson") || lowerCaseName.endsWith(".json");
+        return importFile(Paths.get(fileName), jsonLines ? FileFormat.JSON_LINES : FileFormat.CSV);
+    }
+
+    /**
+     * Imports the products in the passed file of the passed format.
+     */
+    public ImportResult importFile(Path file, FileFormat format) throws IOException {
+        manager.getLoadFuture().join(); // Duplicates can only be checked against the whole catalog
+        long startTime = System.nanoTime();
+        ImportResult result = new ImportResult();
+        List<Product> acceptedProducts = new ArrayList<>();
+        Set<String> importedIDs = new HashSet<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "catalog-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Deque<Future<ParsedChunk>> pendingChunks = new ArrayDeque<>(); // Chunks being parsed, in file order
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<String> lines = new ArrayList<>(CHUNK_SIZE);
+            int lineNumber = 0;
+            int chunkStartLine = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && format == FileFormat.CSV && line.toLowerCase(Locale.ROOT).startsWith("category,")) {
+                    chunkStartLine = 2; // Skips the header line
+                    continue;
+                }
+                lines.add(line);
+                if (lines.size() == CHUNK_SIZE) {
+                    submitChunk(executor, pendingChunks, lines, chunkStartLine, format);
+                    lines = new ArrayList<>(CHUNK_SIZE);
+                    chunkStartLine = lineNumber + 1;
+                    // Keeps a bounded number of chunks in memory; the oldest is merged while the others are parsed
+                    while (pendingChunks.size() >= parallelism * 2) {
+                        mergeChunk(pendingChunks.removeFirst(), result, acceptedProducts, importedIDs);
+                    }
+                }
+            }
+            if (!lines.isEmpty()) {
+                submitChunk(executor, pendingChunks, lines, chunkStartLine, format);
+            }
+            while (!pendingChunks.isEmpty()) {
+                mergeChunk(pendingChunks.removeFirst(), result, acceptedProducts, importedIDs);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        result.parseNanos = System.nanoTime() - startTime;
+
+        long commitStart = System.nanoTime();
+        result.importedCount = manager.addProducts(acceptedProducts);
+        result.skippedCount += acceptedProducts.size() - result.importedCount; // Products that did not fit in the catalog
+        result.commitNanos = System.nanoTime() - commitStart;
+        return result;
+    }
+
+    /**
+     * Submits a chunk of lines to be parsed by the executor.
+     */
+    private static void submitChunk(ExecutorService executor, Deque<Future<ParsedChunk>> pendingChunks,
+                                    List<String> lines, int firstLineNumber, FileFormat format) {
+        pendingChunks.addLast(executor.submit(() -> parseChunk(lines, firstLineNumber, format)));
+    }
+
+    /**
+     * Waits for a chunk to be parsed and adds its products to the accepted products, unless their ID is already
+     * in the file or in the catalog.
+     */
+    private void mergeChunk(Future<ParsedChunk> pendingChunk, ImportResult result, List<Product> acceptedProducts,
+                            Set<String> importedIDs) throws IOException {
+        ParsedChunk chunk;
+        try {
+            chunk = pendingChunk.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", exception);
+        } catch (ExecutionException exception) {
+            throw new IOException("Error parsing the import file: " + exception.getCause(), exception.getCause());
+        }
+
+        result.rowCount += chunk.products.size() + chunk.errorCount;
+        result.invalidCount += chunk.errorCount;
+        for (String error : chunk.errors) {
+            result.addError(error);
+        }
+        for (int i = 0; i < chunk.products.size(); i++) {
+            Product product = chunk.products.get(i);
+            if (!importedIDs.add(product.getProductID())) {
+                result.duplicateCount++;
+                result.addError("Line " + chunk.lineNumbers[i] + ": product ID " + product.getProductID() + " appears earlier in the file.");
+            } else if (manager.getProductById(product.getProductID()) != null) {
+                result.duplicateCount++;
+                result.addError("Line " + chunk.lineNumbers[i] + ": product ID " + product.getProductID() + " already exists.");
+            } else {
+                acceptedProducts.add(product);
+            }
+        }
+    }
+
+    /**
+     * Parses and validates a chunk of lines. Blank lines are ignored.
+     */
+    static ParsedChunk parseChunk(List<String> lines, int firstLineNumber, FileFormat format) {
+        ParsedChunk chunk = new ParsedChunk(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                Product product = format == FileFormat.CSV ? parseCsvLine(line) : parseJsonLine(line);
+                chunk.lineNumbers[chunk.products.size()] = firstLineNumber + i;
+                chunk.products.add(product);
+            } catch (IllegalArgumentException exception) {
+                chunk.errorCount++;
+                if (chunk.errors.size() < MAX_REPORTED_ERRORS) {
+                    chunk.errors.add("Line " + (firstLineNumber + i) + ": " + exception.getMessage());
+                }
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Parses a CSV line into a product. Fields may be quoted with double quotes, with "" for a quote inside a field.
+     */
+    static Product parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>(7);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field.");
+        }
+        fields.add(field.toString().trim());
+        if (fields.size() != 7) {
+            throw new IllegalArgumentException("expected 7 fields but found " + fields.size() + ".");
+        }
+        return createProduct(fields.get(0), fields.get(1), fields.get(2), fields.get(3), fields.get(4), fields.get(5), fields.get(6));
+    }
+
+    /**
+     * Parses a JSON-lines object into a product.
+     */
+    static Product parseJsonLine(String line) {
+        Map<String, String> fields = JsonLineParser.parseObject(line);
+        String category = require(fields, "category");
+        boolean electronics = "electronics".equalsIgnoreCase(category);
+        return createProduct(category, require(fields, "productID"), require(fields, "productName"),
+                require(fields, "numOfItemsAvailable"), require(fields, "price"),
+                require(fields, electronics ? "brand" : "size"), require(fields, electronics ? "warrantyPeriod" : "color"));
+    }
+
+    /**
+     * Creates and validates a product from its fields as text.
+     */
+    private static Product createProduct(String category, String productID, String productName, String numOfItemsAvailable,
+                                         String price, String detail1, String detail2) {
+        if (productID.isEmpty()) {
+            throw new IllegalArgumentException("product ID is empty.");
+        }
+        if (productName.isEmpty()) {
+            throw new IllegalArgumentException("product name is empty.");
+        }
+        int stock = parseInt(numOfItemsAvailable, "number of items available");
+        double parsedPrice = parseDouble(price, "price");
+        if (stock < 0) {
+            throw new IllegalArgumentException("number of items available is negative.");
+        }
+        if (parsedPrice < 0 || Double.isInfinite(parsedPrice) || Double.isNaN(parsedPrice)) {
+            throw new IllegalArgumentException("price is not a valid amount.");
+        }
+
+        if ("electronics".equalsIgnoreCase(category)) {
+            int warrantyPeriod = parseInt(detail2, "warranty period");
+            if (warrantyPeriod < 0) {
+                throw new IllegalArgumentException("warranty period is negative.");
+            }
+            return new Electronics(productID, productName, stock, parsedPrice, detail1, warrantyPeriod);
+        } else if ("clothing".equalsIgnoreCase(category)) {
+            return new Clothing(productID, productName, stock, parsedPrice, detail1, detail2);
+        }
+        throw new IllegalArgumentException("unknown category \"" + category + "\".");
+    }
+
+    private static int parseInt(String value, String fieldName) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException(fieldName + " \"" + value + "\" is not a whole number.");
+        }
+    }
+
+    private static double parseDouble(String value, String fieldName) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException(fieldName + " \"" + value + "\" is not a number.");
+        }
+    }
+
+    private static String require(Map<String, String> fields, String fieldName) {
+        String value = fields.get(fieldName);
+        if (value == null) {
+            throw new IllegalArgumentException("field \"" + fieldName + "\" is missing.");
+        }
+        return value.trim();
+    }
+
+    /**
+     * A parser for the flat JSON objects of a JSON-lines file, which returns every value as text.
+     * Nested objects and arrays are not supported, since a product has none.
+     */
+    static final class JsonLineParser {
+        private final String text;
+        private int position;
+
+        private JsonLineParser(String text) {
+            this.text = text;
+        }
+
+        /**
+         * Parses a flat JSON object into a map from each key to its value as text. A null value is left out.
+         */
+        static Map<String, String> parseObject(String line) {
+            JsonLineParser parser = new JsonLineParser(line);
+            Map<String, String> fields = new HashMap<>();
+            parser.expect('{');
+            if (parser.peek() == '}') {
+                parser.position++;
+            } else {
+                do {
+                    String key = parser.readString();
+                    parser.expect(':');
+                    String value = parser.readValue();
+                    if (value != null) {
+                        fields.put(key, value);
+                    }
+                } while (parser.next() == ',');
+                parser.position--;
+                parser.expect('}');
+            }
+            if (parser.peek() != 0) {
+                throw new IllegalArgumentException("unexpected text after the JSON object.");
+            }
+            return fields;
+        }
+
+        // Returns the next character that is not whitespace without consuming it, or 0 at the end of the line
+        private char peek() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+            return position < text.length() ? text.charAt(position) : 0;
+        }
+
+        private char next() {
+            char c = peek();
+            position++;
+            return c;
+        }
+
+        private void expect(char expected) {
+            if (next() != expected) {
+                throw new IllegalArgumentException("malformed JSON, expected '" + expected + "' at column " + position + ".");
+            }
+        }
+
+        private String readValue() {
+            char c = peek();
+            if (c == '"') {
+                return readString();
+            }
+            int start = position;
+            while (position < text.length() && ",}".indexOf(text.charAt(position)) < 0 && !Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+            String literal = text.substring(start, position);
+            if (literal.isEmpty() || c == '{' || c == '[') {
+                throw new IllegalArgumentException("malformed JSON value at column " + (start + 1) + ".");
+            }
+            return literal.equals("null") ? null : literal;
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder builder = new StringBuilder();
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return builder.toString();
+                } else if (c != '\\') {
+                    builder.append(c);
+                } else if (position < text.length()) {
+                    char escaped = text.charAt(position++);
+                    switch (escaped) {
+                        case 'b' -> builder.append('\b');
+                        case 'f' -> builder.append('\f');
+                        case 'n' -> builder.append('\n');
+                        case 'r' -> builder.append('\r');
+                        case 't' -> builder.append('\t');
+                        case 'u' -> {
+                            if (position + 4 > text.length()) {
+                                throw new IllegalArgumentException("malformed JSON unicode escape.");
+                            }
+                            try {
+                                builder.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                            } catch (NumberFormatException exception) {
+                                throw new IllegalArgumentException("malformed JSON unicode escape.");
+                            }
+                            position += 4;
+                        }
+                        default -> builder.append(escaped); // \" \\ and \/
+                    }
+                }
+            }
+            throw new IllegalArgumentException("unterminated JSON string.");
+        }
+    }
+
+    /**
+     * The products parsed from a chunk of lines, with the line number of each product and the parse errors.
+     */
+    static class ParsedChunk {
+        final List<Product> products;
+        final int[] lineNumbers;
+        final List<String> errors = new ArrayList<>();
+        int errorCount;
+
+        ParsedChunk(int lineCount) {
+            this.products = new ArrayList<>(lineCount);
+            this.lineNumbers = new int[lineCount];
+        }
+    }
+
+    /**
+     * A class representing the outcome of an import.
+     */
+    public static class ImportResult {
+        private int rowCount;
+        private int importedCount;
+        private int invalidCount;
+        private int duplicateCount;
+        private int skippedCount;
+        private long parseNanos;
+        private long commitNanos;
+        private final List<String> errors = new ArrayList<>();
+
+        /**
+         * Returns the number of non-blank rows read from the file.
+         */
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * Returns the number of products added to the catalog.
+         */
+        public int getImportedCount() {
+            return importedCount;
+        }
+
+        /**
+         * Returns the number of rows that could not be parsed or were not valid.
+         */
+        public int getInvalidCount() {
+            return invalidCount;
+        }
+
+        /**
+         * Returns the number of rows whose product ID appears earlier in the file or is already in the catalog.
+         */
+        public int getDuplicateCount() {
+            return duplicateCount;
+        }
+
+        /**
+         * Returns the number of valid rows that were not added because the catalog is full.
+         */
+        public int getSkippedCount() {
+            return skippedCount;
+        }
+
+        /**
+         * Returns the first errors found, with their line numbers.
+         */
+        public List<String> getErrors() {
+            return Collections.unmodifiableList(errors);
+        }
+
+        /**
+         * Returns the time spent reading, parsing and validating the file, in milliseconds.
+         */
+        public long getParseMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(parseNanos);
+        }
+
+        /**
+         * Returns the time spent adding the products to the catalog and persisting them, in milliseconds.
+         */
+        public long getCommitMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(commitNanos);
+        }
+
+        /**
+         * Returns the number of rows imported per second, over the whole import.
+         */
+        public double getRowsPerSecond() {
+            long totalNanos = parseNanos + commitNanos;
+            return totalNanos == 0 ? 0 : rowCount * 1e9 / totalNanos;
+        }
+
+        /**
+         * Records an error, unless enough errors have been recorded already.
+         */
+        private void addError(String error) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+
+        // A summary of the import
+        @Override
+        public String toString() {
+            return String.format("Imported %d of %d row(s) in %d ms (%.0f rows/s): %d invalid, %d duplicate, %d skipped because the catalog is full.",
+                    importedCount, rowCount, getParseMillis() + getCommitMillis(), getRowsPerSecond(), invalidCount, duplicateCount, skippedCount);
+        }
+    }
+}
+
+//REFERENCES
+
+/* Java Concurrency
+ * ExecutorService - https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/ExecutorService.html
+ */
+
+/* File formats
+ * CSV - https://datatracker.ietf.org/doc/html/rfc4180
+ * JSON Lines - https://jsonlines.org/
+ */
@@ -0,0 +1,176 @@
+package WestminsterShoppingCenter;
+
+import java.util.*;
+
+/**
+ * A class that indexes the products of the Westminster Shopping Center catalog.
+ * It keeps a primary index keyed by product ID and secondary indexes keyed by category (Electronics/Clothing).
+ * Lookups by ID are O(1) and category views are O(k), where k is the number of products in that category.
+ * A search index of the words of the products is built the first time the catalog is searched, and kept up to date
+ * from then on, so a catalog that is never searched does not pay for it.
+ */
+public class CatalogIndex {
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+
+    private Map<String, Product> productsById; // Primary index, insertion ordered
+    private final Map<String, Map<String, Product>> productsByCategory; // Secondary indexes, insertion ordered
+    private SearchIndex searchIndex; // Words of the products, or null until the catalog is first searched
+
+    /**
+     * A constructor to initialize an empty catalog index.
+     */
+    public CatalogIndex() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * A constructor to initialize an empty catalog index sized for the expected number of products.
+     * Presizing avoids rehashing the primary index repeatedly while a large catalog is loaded.
+     */
+    public CatalogIndex(int expectedSize) {
+        this.productsById = new LinkedHashMap<>(tableSizeFor(expectedSize));
+        this.productsByCategory = new HashMap<>();
+    }
+
+    /**
+     * Adds a product to the primary index and to the secondary index of its category.
+     * If a product with the same ID is already indexed, it is replaced.
+     */
+    public void add(Product product) {
+        Product previous = productsById.put(product.getProductID(), product);
+        if (previous != null) {
+            removeFromCategory(previous);
+        }
+        productsByCategory.computeIfAbsent(product.getCategory(), category -> new LinkedHashMap<>())
+                .put(product.getProductID(), product);
+        if (searchIndex != null) {
+            searchIndex.add(product);
+        }
+    }
+
+    /**
+     * Removes the product with the specified product ID from all indexes.
+     * Returns the removed product, or null if no product with that ID is indexed.
+     */
+    public Product remove(String productID) {
+        Product removed = productsById.remove(productID);
+        if (removed != null) {
+            removeFromCategory(removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the product with the specified product ID, or null if not found.
+     */
+    public Product get(String productID) {
+        return productsById.get(productID);
+    }
+
+    /**
+     * Returns true if a product with the specified product ID is indexed.
+     */
+    public boolean contains(String productID) {
+        return productsById.containsKey(productID);
+    }
+
+    /**
+     * Returns a read-only view of the products in the specified category, in the order they were added.
+     * An empty collection is returned for an unknown category.
+     */
+    public Collection<Product> getByCategory(String category) {
+        Map<String, Product> categoryProducts = productsByCategory.get(category);
+        if (categoryProducts == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableCollection(categoryProducts.values());
+    }
+
+    /**
+     * Returns a read-only view of all indexed products, in the order they were added.
+     */
+    public Collection<Product> values() {
+        return Collections.unmodifiableCollection(productsById.values());
+    }
+
+    /**
+     * Returns the number of indexed products.
+     */
+    public int size() {
+        return productsById.size();
+    }
+
+    /**
+     * Removes every product from all indexes.
+     */
+    public void clear() {
+        productsById.clear();
+        productsByCategory.clear();
+        if (searchIndex != null) {
+            searchIndex.clear();
+        }
+    }
+
+    /**
+     * Clears the indexes and rebuilds them from the passed products.
+     */
+    public void rebuild(Collection<? extends Product> products) {
+        productsById = new LinkedHashMap<>(tableSizeFor(products.size()));
+        productsByCategory.clear();
+        if (searchIndex != null) {
+            searchIndex.clear();
+        }
+        for (Product product : products) {
+            add(product);
+        }
+    }
+
+    /**
+     * Returns up to the passed number of products of the specified category, or of all categories if the category is null,
+     * with a word starting with every word of the query, in the order they were added.
+     * The first search builds the search index from every indexed product.
+     */
+    public List<Product> search(String query, String category, int limit) {
+        if (searchIndex == null) {
+            searchIndex = new SearchIndex();
+            for (Product product : productsById.values()) {
+                searchIndex.add(product);
+            }
+        }
+        return searchIndex.search(query, category, limit);
+    }
+
+    /**
+     * Returns true if the search index has been built, so searching does not change the index.
+     */
+    public boolean isSearchIndexed() {
+        return searchIndex != null;
+    }
+
+    /**
+     * Removes a product from the secondary index of its category.
+     */
+    private void removeFromCategory(Product product) {
+        Map<String, Product> categoryProducts = productsByCategory.get(product.getCategory());
+        if (categoryProducts != null) {
+            categoryProducts.remove(product.getProductID());
+        }
+        if (searchIndex != null) {
+            searchIndex.remove(product);
+        }
+    }
+
+    /**
+     * Returns the initial hash table capacity that holds the expected number of products without rehashing.
+     */
+    private static int tableSizeFor(int expectedSize) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) Math.ceil(Math.max(expectedSize, 0) / 0.75) + 1);
+    }
+}
+
+//REFERENCES
+
+/* Java Collections
+ * HashMap - https://docs.oracle.com/javase/8/docs/api/java/util/HashMap.html
+ * LinkedHashMap - https://docs.oracle.com/javase/8/docs/api/java/util/LinkedHashMap.html
+ */
@@ -0,0 +1,424 @@
+package WestminsterShoppingCenter;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * A class representing the append-only write-ahead log (journal) of the product catalog.
+ * Every mutation of the catalog appends one small record to the journal instead of re-writing the whole catalog,
+ * so the cost of a write does not depend on the size of the catalog.
+ * The catalog is restored by loading the last snapshot and replaying the journal records written after it.
+ * Each record is framed by its length and a CRC32 checksum, so a record torn by a crash is detected and discarded.
+ * A batch of mutations is written as a single record, so after a crash either the whole batch is replayed or none of it.
+ *
+ * The journal is compacted by snapshots without stopping writers. A snapshot first rotates the journal: the records written
+ * so far are moved to a rotated file, and new records go to a fresh journal. The snapshot is then written while the catalog
+ * keeps changing, and once it is safely on disk the rotated records, which it supersedes, are retired.
+ * Every record holds the new state of a product rather than a change to it, so replaying the fresh journal on top of a
+ * snapshot that already contains some of its records gives the same catalog as replaying it on the exact state at rotation.
+ */
+public class CatalogJournal {
+    public static final String FILE_SUFFIX = ".log"; // The journal of "Product_Data.txt" is "Product_Data.txt.log"
+    public static final String ROTATED_SUFFIX = ".old"; // Records rotated out by a snapshot that is not yet on disk, "Product_Data.txt.log.old"
+
+    // Record types
+    private static final byte RECORD_ADD = 1;
+    private static final byte RECORD_DELETE = 2;
+    private static final byte RECORD_STOCK = 3;
+    private static final byte RECORD_BATCH = 4; // A count followed by that many add, delete or stock records
+
+    private static final int HEADER_SIZE = 8; // Length (int) and checksum (int) of a record
+
+    private final Path journalPath;
+    private final Path rotatedPath;
+    private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream(128);
+    private final DataOutputStream recordOutput = new DataOutputStream(recordBuffer);
+    private final CRC32 checksum = new CRC32();
+    private FileChannel channel; // Opened on the first append
+
+    /**
+     * A constructor to initialize the journal of the passed data file.
+     */
+    public CatalogJournal(String dataFileName) {
+        this.journalPath = Paths.get(dataFileName + FILE_SUFFIX);
+        this.rotatedPath = Paths.get(dataFileName + FILE_SUFFIX + ROTATED_SUFFIX);
+    }
+
+    /**
+     * Appends a record of a product being added to the catalog.
+     */
+    public synchronized void appendAdd(Product product) throws IOException {
+        recordBuffer.reset();
+        recordOutput.writeByte(RECORD_ADD);
+        ProductCodec.writeProduct(recordOutput, product);
+        writeRecord();
+    }
+
+    /**
+     * Appends a record of the product with the passed ID being deleted from the catalog.
+     */
+    public synchronized void appendDelete(String productID) throws IOException {
+        recordBuffer.reset();
+        recordOutput.writeByte(RECORD_DELETE);
+        recordOutput.writeUTF(productID);
+        writeRecord();
+    }
+
+    /**
+     * Appends a record of the number of items available of a product being changed.
+     * The record holds the new number rather than the change, so replaying it more than once is harmless.
+     * The number is read while the journal is locked, so the last record of a product always holds its latest stock,
+     * even when several threads change the stock at once.
+     */
+    public synchronized void appendStockUpdate(Product product) throws IOException {
+        recordBuffer.reset();
+        recordOutput.writeByte(RECORD_STOCK);
+        recordOutput.writeUTF(product.getProductID());
+        recordOutput.writeInt(product.getNumOfItemsAvailable());
+        writeRecord();
+    }
+
+    /**
+     * Appends a single record of all the passed products being added to the catalog.
+     */
+    public synchronized void appendAdds(Collection<? extends Product> products) throws IOException {
+        if (products.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream batchBuffer = new ByteArrayOutputStream(products.size() * 64); // Not kept, so a large batch does not pin its buffer
+        DataOutputStream batchOutput = startBatch(batchBuffer, products.size());
+        for (Product product : products) {
+            batchOutput.writeByte(RECORD_ADD);
+            ProductCodec.writeProduct(batchOutput, product);
+        }
+        writeRecord(batchBuffer.toByteArray());
+    }
+
+    /**
+     * Appends a single record of the products with all the passed IDs being deleted from the catalog.
+     */
+    public synchronized void appendDeletes(Collection<String> productIDs) throws IOException {
+        if (productIDs.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream batchBuffer = new ByteArrayOutputStream(productIDs.size() * 16);
+        DataOutputStream batchOutput = startBatch(batchBuffer, productIDs.size());
+        for (String productID : productIDs) {
+            batchOutput.writeByte(RECORD_DELETE);
+            batchOutput.writeUTF(productID);
+        }
+        writeRecord(batchBuffer.toByteArray());
+    }
+
+    /**
+     * Appends a single record of the number of items available of all the passed products being changed.
+     * As with appendStockUpdate, each number is read while the journal is locked.
+     */
+    public synchronized void appendStockUpdates(Collection<? extends Product> products) throws IOException {
+        if (products.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream batchBuffer = new ByteArrayOutputStream(products.size() * 20);
+        DataOutputStream batchOutput = startBatch(batchBuffer, products.size());
+        for (Product product : products) {
+            batchOutput.writeByte(RECORD_STOCK);
+            batchOutput.writeUTF(product.getProductID());
+            batchOutput.writeInt(product.getNumOfItemsAvailable());
+        }
+        writeRecord(batchBuffer.toByteArray());
+    }
+
+    /**
+     * Forces the records appended so far to disk, so they survive a crash of the machine and not just of the program.
+     * Appends are not forced on their own; a caller that needs a record to be durable, such as the order processor,
+     * forces the journal once after appending a whole batch.
+     */
+    public synchronized void sync() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Replays the records of the journal into the passed catalog store.
+     * Records rotated out by a snapshot that never reached the disk are replayed first, then the records written since.
+     * Replaying is idempotent: an added product replaces any product with the same ID and deleting a missing product does nothing.
+     * The records are read into a ReplayBatch first and made to the store as one batch, as the store copies the catalog
+     * for every change it makes.
+     * If the journal ends with an incomplete or corrupted record, the journal is cut back to the last valid record.
+     * Returns the number of records replayed.
+     */
+    public synchronized int replay(CatalogStore catalogStore) throws IOException {
+        closeChannel();
+        ReplayBatch batch = new ReplayBatch(catalogStore);
+        int replayedCount = replayFile(rotatedPath, batch) + replayFile(journalPath, batch);
+        batch.apply();
+        return replayedCount;
+    }
+
+    /**
+     * Moves the records written so far out of the journal, so that the records appended from now on can be told apart from them.
+     * This is the first step of a snapshot: the snapshot contains every rotated record, so they can be retired once it is on disk.
+     * If records rotated by an earlier snapshot were never retired, because that snapshot failed, the records written since are
+     * added to them, so they are all kept until a snapshot succeeds.
+     */
+    public synchronized void rotate() throws IOException {
+        if (channel != null) {
+            channel.force(false); // Keeps the records durable for a caller that appended them and has not synced yet
+        }
+        closeChannel();
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+        if (!Files.exists(rotatedPath)) {
+            Files.move(journalPath, rotatedPath, StandardCopyOption.ATOMIC_MOVE);
+            return;
+        }
+        try (FileChannel rotatedChannel = FileChannel.open(rotatedPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            try (FileChannel journalChannel = FileChannel.open(journalPath, StandardOpenOption.READ)) {
+                long position = 0;
+                long journalLength = journalChannel.size();
+                while (position < journalLength) {
+                    position += journalChannel.transferTo(position, journalLength - position, rotatedChannel);
+                }
+            }
+            rotatedChannel.force(false); // The records must be safe in the rotated file before they are deleted from the journal
+        }
+        Files.delete(journalPath);
+    }
+
+    /**
+     * Deletes the rotated records, once a snapshot containing all of them is on disk.
+     * Returns the number of bytes retired.
+     */
+    public synchronized long retireRotated() throws IOException {
+        if (!Files.exists(rotatedPath)) {
+            return 0;
+        }
+        long retiredLength = Files.size(rotatedPath);
+        Files.delete(rotatedPath);
+        return retiredLength;
+    }
+
+    /**
+     * Returns the size of the journal in bytes, including rotated records that are not retired yet.
+     * These are the bytes that are replayed on top of the data file when the catalog is loaded.
+     */
+    public synchronized long size() throws IOException {
+        return (Files.exists(journalPath) ? Files.size(journalPath) : 0) + (Files.exists(rotatedPath) ? Files.size(rotatedPath) : 0);
+    }
+
+    /**
+     * Returns the path of the journal file.
+     */
+    public Path getJournalPath() {
+        return journalPath;
+    }
+
+    /**
+     * Returns the path of the file the rotated records are kept in until they are retired.
+     */
+    public Path getRotatedPath() {
+        return rotatedPath;
+    }
+
+    /**
+     * Closes the journal file. It is reopened on the next append.
+     */
+    public synchronized void close() throws IOException {
+        closeChannel();
+    }
+
+    /**
+     * Replays the records of a journal file into the passed batch, cutting off an incomplete or corrupted record at its end.
+     * Returns the number of records replayed.
+     */
+    private int replayFile(Path path, ReplayBatch batch) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        int replayedCount = 0;
+        long validLength = 0;
+        long fileLength = Files.size(path);
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                byte[] record = readRecord(input, fileLength - validLength);
+                if (record == null) {
+                    break;
+                }
+                applyRecord(record, batch);
+                validLength += HEADER_SIZE + record.length;
+                replayedCount++;
+            }
+        }
+
+        if (validLength < fileLength) {
+            try (FileChannel truncateChannel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                truncateChannel.truncate(validLength); // Discards the torn record at the end of the journal
+            }
+            System.out.println("Discarded an incomplete record at the end of the journal: " + path);
+        }
+        return replayedCount;
+    }
+
+    /**
+     * Starts a batch record of the passed number of mutations in the passed buffer.
+     */
+    private static DataOutputStream startBatch(ByteArrayOutputStream batchBuffer, int count) throws IOException {
+        DataOutputStream batchOutput = new DataOutputStream(batchBuffer);
+        batchOutput.writeByte(RECORD_BATCH);
+        batchOutput.writeInt(count);
+        return batchOutput;
+    }
+
+    /**
+     * Frames the record in the record buffer with its length and checksum and appends it to the journal file.
+     */
+    private void writeRecord() throws IOException {
+        writeRecord(recordBuffer.toByteArray());
+    }
+
+    /**
+     * Frames the passed record payload with its length and checksum and appends it to the journal file.
+     */
+    private void writeRecord(byte[] payload) throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        checksum.reset();
+        checksum.update(payload);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        buffer.putInt(payload.length);
+        buffer.putInt((int) checksum.getValue());
+        buffer.put(payload);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Reads the payload of the next record, or returns null at the end of the journal or at a torn or corrupted record.
+     * The remaining length is the number of bytes left in the journal, which no valid record can be longer than.
+     */
+    private byte[] readRecord(DataInputStream input, long remainingLength) throws IOException {
+        try {
+            int length = input.readInt();
+            int expectedChecksum = input.readInt();
+            if (length < 0 || length > remainingLength - HEADER_SIZE) { // A longer length can only come from a corrupted header
+                return null;
+            }
+            byte[] payload = new byte[length];
+            input.readFully(payload);
+
+            checksum.reset();
+            checksum.update(payload);
+            return (int) checksum.getValue() == expectedChecksum ? payload : null;
+        } catch (EOFException exception) {
+            return null; // End of the journal, or a record that was only partly written
+        }
+    }
+
+    /**
+     * Applies the mutation in a record payload to the batch.
+     */
+    private void applyRecord(byte[] record, ReplayBatch batch) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(record));
+        byte type = input.readByte();
+        if (type == RECORD_BATCH) {
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                applyMutation(input.readByte(), input, batch);
+            }
+        } else {
+            applyMutation(type, input, batch);
+        }
+    }
+
+    /**
+     * Applies a single add, delete or stock mutation of the passed type, read from the input, to the batch.
+     */
+    private void applyMutation(byte type, DataInputStream input, ReplayBatch batch) throws IOException {
+        switch (type) {
+            case RECORD_ADD -> batch.add(ProductCodec.readProduct(input));
+            case RECORD_DELETE -> batch.delete(input.readUTF());
+            case RECORD_STOCK -> {
+                Product product = batch.get(input.readUTF());
+                int numOfItemsAvailable = input.readInt();
+                if (product != null) {
+                    product.setNumOfItemsAvailable(numOfItemsAvailable);
+                }
+            }
+            default -> throw new IOException("Unknown journal record type: " + type);
+        }
+    }
+
+    /**
+     * Closes the open journal file, if any.
+     */
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * A class that collects the changes replayed from a journal and makes them to the catalog store as one batch.
+     * Products deleted by the journal are removed before the products it added are put, so a product deleted and then
+     * added again ends up last, as if every record had been made to the store in turn.
+     */
+    private static class ReplayBatch {
+        private final CatalogStore catalogStore;
+        private final Set<String> deletedIDs = new LinkedHashSet<>();
+        private final Map<String, Product> addedProducts = new LinkedHashMap<>(); // In the order they were first added since any deletion
+
+        ReplayBatch(CatalogStore catalogStore) {
+            this.catalogStore = catalogStore;
+        }
+
+        void add(Product product) {
+            addedProducts.put(product.getProductID(), product);
+        }
+
+        void delete(String productID) {
+            addedProducts.remove(productID);
+            deletedIDs.add(productID);
+        }
+
+        /**
+         * Returns the product with the specified product ID as the journal has left it so far, or null if not found.
+         */
+        Product get(String productID) {
+            Product product = addedProducts.get(productID);
+            if (product != null || deletedIDs.contains(productID)) {
+                return product;
+            }
+            return catalogStore.get(productID);
+        }
+
+        void apply() {
+            catalogStore.removeAll(deletedIDs);
+            int loadedCount = catalogStore.putAll(addedProducts.values());
+            if (loadedCount < addedProducts.size()) {
+                System.out.println((addedProducts.size() - loadedCount) + " product(s) in the journal were not loaded because the catalog is full.");
+            }
+        }
+    }
+}
+
+//REFERENCES
+
+/* Java NIO
+ * FileChannel - https://docs.oracle.com/javase/8/docs/api/java/nio/channels/FileChannel.html
+ * CRC32 - https://docs.oracle.com/javase/8/docs/api/java/util/zip/CRC32.html
+ */
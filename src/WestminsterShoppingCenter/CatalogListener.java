@@ -0,0 +1,10 @@
+package WestminsterShoppingCenter;
+
+import java.util.List;
+
+/**
+ * An interface for the subscribers of the catalog event bus, which are told about changes to the product catalog.
+ */
+public interface CatalogListener {
+    void catalogChanged(List<CatalogEvent> events); // Receives one or more events, in the order the changes were made.
+}
@@ -0,0 +1,230 @@
+package WestminsterShoppingCenter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A class representing the layout of a catalog that is partitioned into shards, by category or by product ID.
+ * Each shard is saved to a data file of its own and has a journal of its own, so a change to a product only appends to,
+ * or in snapshot mode only re-writes, the shard holding the product, and the shards are loaded and saved in parallel
+ * on the common fork-join pool.
+ * The shards of "Product_Data.txt" partitioned by product ID into 8 shards are "Product_Data.txt.product_id-0of8" to
+ * "Product_Data.txt.product_id-7of8". The layout is recorded in the manifest "Product_Data.txt.shards", which is only written
+ * once every shard is on disk, so a catalog moving to a new layout is loaded from its old files until the move is complete.
+ */
+public class CatalogShards {
+    public static final String MANIFEST_SUFFIX = ".shards";
+    public static final int DEFAULT_SHARD_COUNT = Math.max(2, Runtime.getRuntime().availableProcessors()); // One shard per core
+
+    private final String dataFileName;
+    private final ShardingScheme scheme;
+    private final int shardCount;
+    private final CatalogJournal[] journals;
+    private final ReentrantLock[] locks; // Held while the data file of a shard is written
+
+    /**
+     * A constructor to initialize the layout of the passed number of shards of a data file, partitioned with the passed scheme.
+     */
+    public CatalogShards(String dataFileName, ShardingScheme scheme, int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        this.dataFileName = dataFileName;
+        this.scheme = scheme;
+        this.shardCount = shardCount;
+        this.journals = new CatalogJournal[shardCount];
+        this.locks = new ReentrantLock[shardCount];
+        for (int shard = 0; shard < shardCount; shard++) {
+            journals[shard] = new CatalogJournal(getShardFileName(shard));
+            locks[shard] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Returns the layout recorded in the manifest of the passed data file, or null if the catalog is not sharded.
+     */
+    public static CatalogShards readManifest(String dataFileName) throws IOException {
+        Path manifestPath = Paths.get(dataFileName + MANIFEST_SUFFIX);
+        if (!Files.exists(manifestPath)) {
+            return null;
+        }
+        String[] layout = Files.readString(manifestPath, StandardCharsets.UTF_8).trim().split(" ");
+        try {
+            return new CatalogShards(dataFileName, ShardingScheme.valueOf(layout[0]), Integer.parseInt(layout[1]));
+        } catch (RuntimeException exception) {
+            throw new IOException("Invalid shard manifest: " + manifestPath, exception);
+        }
+    }
+
+    /**
+     * Records the layout in the manifest of the data file, replacing any earlier layout.
+     * The manifest is written to a temporary file that is forced to disk and then moved over the manifest.
+     */
+    public void writeManifest() throws IOException {
+        Path manifestPath = Paths.get(dataFileName + MANIFEST_SUFFIX);
+        Path tempPath = Paths.get(dataFileName + MANIFEST_SUFFIX + ".tmp");
+        Files.writeString(tempPath, scheme.name() + " " + shardCount + System.lineSeparator(), StandardCharsets.UTF_8);
+        try (FileChannel tempChannel = FileChannel.open(tempPath, StandardOpenOption.WRITE)) {
+            tempChannel.force(true);
+        }
+        Files.move(tempPath, manifestPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Deletes the data file and the journal of every shard. The manifest is left, as a new layout may already have replaced it.
+     */
+    public void deleteFiles() throws IOException {
+        for (int shard = 0; shard < shardCount; shard++) {
+            journals[shard].close();
+            Files.deleteIfExists(Paths.get(getShardFileName(shard)));
+            Files.deleteIfExists(journals[shard].getJournalPath());
+            Files.deleteIfExists(journals[shard].getRotatedPath());
+        }
+    }
+
+    /**
+     * Returns true if the passed layout, which may be null, has the same scheme and number of shards.
+     */
+    public boolean hasSameLayout(CatalogShards other) {
+        return other != null && scheme == other.scheme && shardCount == other.shardCount;
+    }
+
+    /**
+     * Returns the shard the passed product is saved to.
+     */
+    public int shardOf(Product product) {
+        return scheme.shardOf(product, shardCount);
+    }
+
+    /**
+     * Returns the passed products split by shard: the list at each index holds the products saved to that shard.
+     */
+    public List<List<Product>> partition(Collection<? extends Product> products) {
+        List<List<Product>> partitions = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            partitions.add(new ArrayList<>(products.size() / shardCount + 1));
+        }
+        for (Product product : products) {
+            partitions.get(shardOf(product)).add(product);
+        }
+        return partitions;
+    }
+
+    /**
+     * Runs the passed task for every shard in parallel on the common fork-join pool, and returns the results in shard order.
+     * If a task fails, the error of the first shard that failed is thrown.
+     */
+    public <T> List<T> forEachShard(ShardTask<T> task) throws IOException {
+        List<Callable<T>> tasks = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int taskShard = shard;
+            tasks.add(() -> task.run(taskShard));
+        }
+        List<T> results = new ArrayList<>(shardCount);
+        try {
+            for (Future<T> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the shards of " + dataFileName);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (exception.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw (RuntimeException) exception.getCause();
+        }
+        return results;
+    }
+
+    /**
+     * Returns the total size in bytes of the data files of the shards saved so far.
+     */
+    public long dataSize() throws IOException {
+        long size = 0;
+        for (int shard = 0; shard < shardCount; shard++) {
+            Path shardPath = Paths.get(getShardFileName(shard));
+            size += Files.exists(shardPath) ? Files.size(shardPath) : 0;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the total size in bytes of the journals of the shards, including rotated records that are not retired yet.
+     */
+    public long journalSize() throws IOException {
+        long size = 0;
+        for (CatalogJournal journal : journals) {
+            size += journal.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the name of the data file of the specified shard.
+     */
+    public String getShardFileName(int shard) {
+        return dataFileName + "." + scheme.name().toLowerCase(Locale.ROOT) + "-" + shard + "of" + shardCount;
+    }
+
+    /**
+     * Returns the journal of the specified shard.
+     */
+    public CatalogJournal getJournal(int shard) {
+        return journals[shard];
+    }
+
+    /**
+     * Returns the lock held while the data file of the specified shard is written.
+     */
+    ReentrantLock getLock(int shard) {
+        return locks[shard];
+    }
+
+    /**
+     * Returns the scheme the products are partitioned with.
+     */
+    public ShardingScheme getScheme() {
+        return scheme;
+    }
+
+    /**
+     * Returns the number of shards.
+     */
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * A task run for one shard, such as loading or saving its data file.
+     */
+    public interface ShardTask<T> {
+        T run(int shard) throws IOException;
+    }
+}
+
+//REFERENCES
+
+/* Java Concurrency
+ * ForkJoinPool.commonPool - https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/ForkJoinPool.html#commonPool--
+ * ExecutorService.invokeAll - https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/ExecutorService.html#invokeAll-java.util.Collection-
+ */
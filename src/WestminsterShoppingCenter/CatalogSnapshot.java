@@ -0,0 +1,244 @@
+package WestminsterShoppingCenter;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A class representing one version of the product catalog, which never changes once it is built.
+ * The catalog store publishes a snapshot of every version as it changes the catalog, so any number of threads can read
+ * the same consistent catalog at once without ever taking the store's lock.
+ * A snapshot holds the products themselves, so changes to the number of items available are seen in every version.
+ * The lookup by product ID, the order of the IDs and the lists of each category are only built the first time they are used,
+ * since most readers need only one of them. The snapshot of a change to a single product copies its order of IDs from the
+ * last snapshot, if that was built, rather than sorting the catalog again.
+ */
+public class CatalogSnapshot {
+    private final long version;
+    private final Product[] productArray; // In the order they were added
+    private final List<Product> products; // Read-only view of the array
+    private final Map<String, List<Product>> productsByCategory = new ConcurrentHashMap<>(); // Filled as categories are read
+    private volatile Map<String, Product> productsByID; // Null until a product is first looked up
+    private volatile Product[] sortedArray; // In product ID order, or null until first used
+    private volatile List<Product> sortedProducts; // Read-only view of the sorted array
+    private final Map<String, List<Product>> sortedProductsByCategory = new ConcurrentHashMap<>();
+
+    /**
+     * A constructor to initialize the snapshot of the passed version of the catalog, holding the passed products in the order they were added.
+     */
+    CatalogSnapshot(long version, Collection<Product> products) {
+        this(version, products.toArray(new Product[0]), null);
+    }
+
+    private CatalogSnapshot(long version, Product[] productArray, Product[] sortedArray) {
+        this.version = version;
+        this.productArray = productArray;
+        this.products = Collections.unmodifiableList(Arrays.asList(productArray));
+        if (sortedArray != null) {
+            this.sortedArray = sortedArray;
+            this.sortedProducts = Collections.unmodifiableList(Arrays.asList(sortedArray));
+        }
+    }
+
+    /**
+     * Returns the snapshot of the next version, with the passed product added last, or in the place of the replaced
+     * product if it is not null.
+     * The products, and their order of IDs if this snapshot has sorted them, are copied from the arrays of this snapshot,
+     * which costs far less than reading them from the store's index again.
+     */
+    CatalogSnapshot with(Product product, Product replaced) {
+        int position = replaced == null ? -1 : positionOf(replaced);
+        Product[] nextArray = position < 0 ? Arrays.copyOf(productArray, productArray.length + 1) : productArray.clone();
+        nextArray[position < 0 ? productArray.length : position] = product;
+
+        Product[] sorted = sortedArray;
+        Product[] nextSorted = null;
+        if (sorted != null) {
+            int sortedPosition = firstIndexAfter(Arrays.asList(sorted), product.getProductID(), true);
+            if (replaced != null) {
+                nextSorted = sorted.clone();
+                nextSorted[sortedPosition] = product;
+            } else {
+                nextSorted = new Product[sorted.length + 1];
+                System.arraycopy(sorted, 0, nextSorted, 0, sortedPosition);
+                nextSorted[sortedPosition] = product;
+                System.arraycopy(sorted, sortedPosition, nextSorted, sortedPosition + 1, sorted.length - sortedPosition);
+            }
+        }
+        return new CatalogSnapshot(version + 1, nextArray, nextSorted);
+    }
+
+    /**
+     * Returns the snapshot of the next version, without the passed product, copied from the arrays of this snapshot.
+     */
+    CatalogSnapshot without(Product removed) {
+        Product[] nextArray = withoutPosition(productArray, positionOf(removed));
+        Product[] sorted = sortedArray;
+        Product[] nextSorted = null;
+        if (sorted != null) {
+            nextSorted = withoutPosition(sorted, firstIndexAfter(Arrays.asList(sorted), removed.getProductID(), true));
+        }
+        return new CatalogSnapshot(version + 1, nextArray, nextSorted);
+    }
+
+    /**
+     * Returns the version of the catalog the snapshot holds (see CatalogStore.getVersion).
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the number of products in the snapshot.
+     */
+    public int size() {
+        return products.size();
+    }
+
+    /**
+     * Returns the product with the specified product ID, or null if not found.
+     */
+    public Product get(String productID) {
+        Map<String, Product> byID = productsByID;
+        if (byID == null) {
+            byID = indexByID();
+        }
+        return byID.get(productID);
+    }
+
+    /**
+     * Returns a read-only list of the products in the specified category, or of all products if the category is null,
+     * in the order they were added.
+     */
+    public List<Product> getProducts(String category) {
+        if (category == null) {
+            return products;
+        }
+        return productsByCategory.computeIfAbsent(category, key -> filterByCategory(products, key));
+    }
+
+    /**
+     * Returns a read-only list of the products in the specified category, or of all products if the category is null,
+     * in the alphabetical order of their IDs.
+     */
+    public List<Product> getSortedProducts(String category) {
+        List<Product> sorted = sortedProducts;
+        if (sorted == null) {
+            sorted = sortByID();
+        }
+        if (category == null) {
+            return sorted;
+        }
+        List<Product> finalSorted = sorted;
+        return sortedProductsByCategory.computeIfAbsent(category, key -> filterByCategory(finalSorted, key));
+    }
+
+    /**
+     * Returns up to the passed number of products whose IDs are between fromID and toID, in the order of their IDs,
+     * with the same arguments as CatalogStore.getRange. The start of the range is found by a binary search.
+     */
+    public List<Product> getRange(String fromID, boolean fromInclusive, String toID, String category, int limit) {
+        List<Product> products = new ArrayList<>(Math.min(limit, 64));
+        if (fromID != null && toID != null && fromID.compareTo(toID) > 0) {
+            return products;
+        }
+        List<Product> sorted = getSortedProducts(null);
+        int index = fromID == null ? 0 : firstIndexAfter(sorted, fromID, fromInclusive);
+        for (; index < sorted.size() && products.size() < limit; index++) {
+            Product product = sorted.get(index);
+            if (toID != null && product.getProductID().compareTo(toID) > 0) {
+                break;
+            }
+            if (category == null || category.equals(product.getCategory())) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Builds the lookup by product ID, once, however many threads ask for it at the same time.
+     */
+    private synchronized Map<String, Product> indexByID() {
+        if (productsByID == null) {
+            Map<String, Product> byID = new HashMap<>((int) (products.size() / 0.75) + 1);
+            for (Product product : products) {
+                byID.put(product.getProductID(), product);
+            }
+            productsByID = byID;
+        }
+        return productsByID;
+    }
+
+    /**
+     * Sorts the products by product ID, once, however many threads ask for them at the same time.
+     */
+    private synchronized List<Product> sortByID() {
+        if (sortedProducts == null) {
+            Product[] sorted = productArray.clone();
+            Arrays.sort(sorted, Comparator.comparing(Product::getProductID));
+            sortedArray = sorted;
+            sortedProducts = Collections.unmodifiableList(Arrays.asList(sorted));
+        }
+        return sortedProducts;
+    }
+
+    /**
+     * Returns a read-only list of the passed products that are in the specified category, in the same order.
+     */
+    private static List<Product> filterByCategory(List<Product> products, String category) {
+        List<Product> categoryProducts = new ArrayList<>();
+        for (Product product : products) {
+            if (category.equals(product.getCategory())) {
+                categoryProducts.add(product);
+            }
+        }
+        return Collections.unmodifiableList(categoryProducts);
+    }
+
+    /**
+     * Returns the position of the passed product in the array, comparing references rather than IDs, or -1 if not found.
+     */
+    private int positionOf(Product product) {
+        for (int position = 0; position < productArray.length; position++) {
+            if (productArray[position] == product) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a copy of the passed array without the product at the passed position.
+     */
+    private static Product[] withoutPosition(Product[] array, int position) {
+        Product[] copy = new Product[array.length - 1];
+        System.arraycopy(array, 0, copy, 0, position);
+        System.arraycopy(array, position + 1, copy, position, copy.length - position);
+        return copy;
+    }
+
+    /**
+     * Returns the index of the first product in the sorted list whose ID comes after the passed ID, or is equal to it if inclusive.
+     */
+    private static int firstIndexAfter(List<Product> sorted, String productID, boolean inclusive) {
+        int low = 0;
+        int high = sorted.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = sorted.get(middle).getProductID().compareTo(productID);
+            if (comparison < 0 || (comparison == 0 && !inclusive)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
+
+//REFERENCES
+
+/* Java Concurrency
+ * volatile - https://docs.oracle.com/javase/specs/jls/se8/html/jls-17.html#jls-17.4.5
+ * ConcurrentHashMap.computeIfAbsent - https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/ConcurrentHashMap.html#computeIfAbsent-K-java.util.function.Function-
+ */
@@ -0,0 +1,361 @@
+package WestminsterShoppingCenter;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A class that stores the product catalog of the Westminster Shopping Center system.
+ * Products are held in a CatalogIndex, so adding, deleting and looking up a product costs the same
+ * no matter how large the catalog grows.
+ * The store has a configurable capacity, which is the maximum number of products it accepts.
+ * The store is thread-safe: every change holds the write lock of the store, and the methods that return products return
+ * a copy, so the catalog can be read while it is still being loaded in the background.
+ * Every change copies the catalog into an immutable CatalogSnapshot of the new version, under the write lock, and publishes
+ * it through a volatile field. Lookups, ranges and views are read from the current snapshot, so they never take the
+ * store's lock or wait for a writer. A change costs O(n) for the copy: a single product is copied from the array of the
+ * last snapshot, and a batch is copied once from the index, so large changes should be made as batches.
+ * The read-only views handed out for displaying the catalog are the lists of the snapshot, so showing the same catalog
+ * again does not copy it again.
+ * The products can also be listed in the order of their IDs, a range or a page at a time.
+ * Searches hold the read lock, as the search index is updated in place as the catalog changes: searches run alongside
+ * each other and only wait for the change being made to the index.
+ */
+public class CatalogStore {
+    public static final int UNLIMITED_CAPACITY = Integer.MAX_VALUE; // A capacity that never rejects a product
+
+    private final int capacity;
+    private final CatalogIndex catalogIndex; // Written while holding the write lock, and searched or read under the read lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile CatalogSnapshot snapshot; // The current version, published by every change
+
+    /**
+     * A constructor to initialize a catalog store without a capacity limit.
+     */
+    public CatalogStore() {
+        this(UNLIMITED_CAPACITY);
+    }
+
+    /**
+     * A constructor to initialize a catalog store that holds at most the passed number of products.
+     */
+    public CatalogStore(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Catalog capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.catalogIndex = new CatalogIndex();
+        this.snapshot = new CatalogSnapshot(0, List.of());
+    }
+
+    /**
+     * Adds a product to the store.
+     * Returns false if the store is full or a product with the same ID is already stored.
+     */
+    public boolean add(Product product) {
+        lock.writeLock().lock();
+        try {
+            if (indexFull() || catalogIndex.contains(product.getProductID())) {
+                return false;
+            }
+            catalogIndex.add(product);
+            snapshot = snapshot.with(product, null);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a product to the store, replacing any stored product with the same ID.
+     * Returns false if the product is new and the store is full.
+     */
+    public boolean put(Product product) {
+        lock.writeLock().lock();
+        try {
+            Product replacedProduct = catalogIndex.get(product.getProductID());
+            if (replacedProduct == null && indexFull()) {
+                return false;
+            }
+            catalogIndex.add(product);
+            snapshot = snapshot.with(product, replacedProduct);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the product with the specified product ID.
+     * Returns the removed product, or null if it was not stored.
+     */
+    public Product remove(String productID) {
+        lock.writeLock().lock();
+        try {
+            Product removedProduct = catalogIndex.remove(productID);
+            if (removedProduct != null) {
+                snapshot = snapshot.without(removedProduct);
+            }
+            return removedProduct;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the product with the specified product ID, or null if not found.
+     * The product is looked up in the current snapshot, without the lock.
+     */
+    public Product get(String productID) {
+        return snapshot.get(productID);
+    }
+
+    /**
+     * Adds all the passed products to the store as a single change.
+     * Products whose ID is already stored, or that are new once the store is full, are not added.
+     * Returns the products that were added.
+     */
+    public List<Product> addAll(Collection<? extends Product> products) {
+        lock.writeLock().lock();
+        try {
+            List<Product> addedProducts = new ArrayList<>(products.size());
+            for (Product product : products) {
+                if (indexFull()) {
+                    break;
+                }
+                if (!catalogIndex.contains(product.getProductID())) {
+                    catalogIndex.add(product);
+                    addedProducts.add(product);
+                }
+            }
+            if (!addedProducts.isEmpty()) {
+                publish();
+            }
+            return addedProducts;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the products with the passed product IDs as a single change.
+     * Returns the products that were removed; IDs that are not stored are ignored.
+     */
+    public List<Product> removeAll(Collection<String> productIDs) {
+        lock.writeLock().lock();
+        try {
+            List<Product> removedProducts = new ArrayList<>(productIDs.size());
+            for (String productID : productIDs) {
+                Product removedProduct = catalogIndex.remove(productID);
+                if (removedProduct != null) {
+                    removedProducts.add(removedProduct);
+                }
+            }
+            if (!removedProducts.isEmpty()) {
+                publish();
+            }
+            return removedProducts;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sets the number of items available of the products with the passed product IDs, while holding the read lock,
+     * so no product can be added or removed part way through.
+     * The stock levels do not change the version of the catalog, since the views hold the products themselves.
+     * Returns the products that were updated; IDs that are not stored are ignored.
+     */
+    public List<Product> updateStock(Map<String, Integer> stockLevels) {
+        lock.readLock().lock();
+        try {
+            List<Product> updatedProducts = new ArrayList<>(stockLevels.size());
+            for (Map.Entry<String, Integer> stockLevel : stockLevels.entrySet()) {
+                Product product = catalogIndex.get(stockLevel.getKey());
+                if (product != null) {
+                    product.setNumOfItemsAvailable(stockLevel.getValue());
+                    updatedProducts.add(product);
+                }
+            }
+            return updatedProducts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds all the passed products to the store, replacing any stored products with the same IDs.
+     * Products that are new once the store is full are not added.
+     * Returns the number of products that were added or replaced.
+     */
+    public int putAll(Collection<? extends Product> products) {
+        lock.writeLock().lock();
+        try {
+            int addedCount = 0;
+            for (Product product : products) {
+                if (catalogIndex.contains(product.getProductID()) || !indexFull()) {
+                    catalogIndex.add(product);
+                    addedCount++;
+                }
+            }
+            if (addedCount > 0) {
+                publish();
+            }
+            return addedCount;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of the products in the specified category, in the order they were added.
+     */
+    public List<Product> getByCategory(String category) {
+        return new ArrayList<>(snapshot.getProducts(category));
+    }
+
+    /**
+     * Returns a copy of all stored products, in the order they were added.
+     */
+    public List<Product> values() {
+        return new ArrayList<>(snapshot.getProducts(null));
+    }
+
+    /**
+     * Returns up to the passed number of products of the specified category, or of all categories if the category is null,
+     * with a word in their name, brand, size or color starting with every word of the query, in the order they were added.
+     * Searches hold the read lock, as the search index is updated in place as the catalog changes rather than built for
+     * every version; the first search builds the index under the write lock.
+     */
+    public List<Product> search(String query, String category, int limit) {
+        lock.readLock().lock();
+        try {
+            if (catalogIndex.isSearchIndexed()) {
+                return catalogIndex.search(query, category, limit);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            return catalogIndex.search(query, category, limit);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a read-only view of the products in the specified category, or of all products if the category is null,
+     * in the order they were added.
+     * The view is part of the snapshot of the catalog: it does not change when the catalog changes, but the same view
+     * is returned until the catalog changes, so asking for it again costs nothing.
+     */
+    public List<Product> view(String category) {
+        return snapshot().getProducts(category);
+    }
+
+    /**
+     * Returns a read-only view of the products in the specified category, or of all products if the category is null,
+     * in the alphabetical order of their IDs.
+     * Like the view method, the view is part of the snapshot and is shared until the catalog changes. The snapshot sorts
+     * its products the first time they are read in this order.
+     */
+    public List<Product> sortedView(String category) {
+        return snapshot.getSortedProducts(category);
+    }
+
+    /**
+     * Returns the immutable snapshot of the current version of the catalog.
+     * Every read of the snapshot sees the same catalog, however the catalog changes meanwhile, without holding the store's lock.
+     */
+    public CatalogSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Returns a copy of up to the passed number of products whose IDs are between fromID and toID, in the order of their IDs.
+     * A null fromID or toID leaves that end of the range open, and fromInclusive says whether a product with the ID
+     * fromID itself is included; toID is always included. Only products of the specified category are returned,
+     * or of all categories if the category is null.
+     * Finding the start of the range costs O(log n), so the catalog can be paged through by passing the last ID
+     * of one page as the exclusive fromID of the next, once the snapshot has sorted its products (see sortedView).
+     * The range is read from the current snapshot, without the lock.
+     */
+    public List<Product> getRange(String fromID, boolean fromInclusive, String toID, String category, int limit) {
+        return snapshot.getRange(fromID, fromInclusive, toID, category, limit);
+    }
+
+    /**
+     * Replaces the contents of the store with the passed products.
+     * Products beyond the capacity of the store are not loaded.
+     * Returns the number of products that were loaded.
+     */
+    public int replaceAll(Collection<? extends Product> products) {
+        lock.writeLock().lock();
+        try {
+            if (products.size() <= capacity) {
+                catalogIndex.rebuild(products);
+            } else {
+                catalogIndex.clear();
+                for (Product product : products) {
+                    if (indexFull()) {
+                        break;
+                    }
+                    catalogIndex.add(product);
+                }
+            }
+            publish();
+            return catalogIndex.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of stored products.
+     */
+    public int size() {
+        return snapshot.size();
+    }
+
+    /**
+     * Returns the maximum number of products the store accepts.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns true if the store has reached its capacity.
+     */
+    public boolean isFull() {
+        return snapshot.size() >= capacity;
+    }
+
+    /**
+     * Returns true if the store has no capacity limit.
+     */
+    public boolean isUnlimited() {
+        return capacity == UNLIMITED_CAPACITY;
+    }
+
+    /**
+     * Returns the version of the catalog, which is incremented every time a product is added, replaced or removed.
+     */
+    public long getVersion() {
+        return snapshot.getVersion();
+    }
+
+    /**
+     * Returns true if the index holds as many products as the store accepts, with the write lock held.
+     */
+    private boolean indexFull() {
+        return catalogIndex.size() >= capacity;
+    }
+
+    /**
+     * Publishes the snapshot of the next version of the catalog, copied from the index, with the write lock held.
+     */
+    private void publish() {
+        snapshot = new CatalogSnapshot(snapshot.getVersion() + 1, catalogIndex.values());
+    }
+}
@@ -1,13 +1,19 @@
 package WestminsterShoppingCenter;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
 /**
  * A class representing clothing products.
  * It extends the abstract class Product.
  * It includes additional attributes of clothing items such as size and color.
  */
 public class Clothing extends Product{
+    private static final long serialVersionUID = -3979613554708430362L; // Fixed so that saved catalogs stay readable as the class changes
+
     private String size;
     private String color;
+    private transient volatile BinaryCatalogFile.LazyDetails lazyDetails; // Set while the size and color are still only in the catalog file
 
     /**
      * Constructor to initialize a clothing object.
@@ -19,20 +25,32 @@ public class Clothing extends Product{
         this.color = color;
     }
 
+    /**
+     * Constructor to initialize a clothing object whose size and color are decoded from a catalog file on first access.
+     */
+    Clothing(String productID, String productName, int numOfItemsAvailable, double price, BinaryCatalogFile.LazyDetails lazyDetails) {
+        super(productID, productName, numOfItemsAvailable, price);
+        this.lazyDetails = lazyDetails;
+    }
+
     // Getter and setter methods to access and modify the additional attributes of a clothing object.
     public String getSize() {
+        resolveDetails();
         return size;
     }
 
     public void setSize(String size) {
+        resolveDetails();
         this.size = size;
     }
 
     public String getColor() {
+        resolveDetails();
         return color;
     }
 
     public void setColor(String color) {
+        resolveDetails();
         this.color = color;
     }
 
@@ -43,6 +61,7 @@ public class Clothing extends Product{
      */
     @Override
     public String getProductInfo() {
+        resolveDetails();
         return size + ", " + color;
     }
 
@@ -54,4 +73,28 @@ public class Clothing extends Product{
         //Additional attributes for clothing products
         return "Clothing";
     }
+
+    /**
+     * Decodes the size and color from the catalog file if they have not been decoded yet.
+     */
+    private void resolveDetails() {
+        if (lazyDetails != null) {
+            synchronized (this) {
+                BinaryCatalogFile.LazyDetails details = lazyDetails;
+                if (details != null) {
+                    size = details.readDetailString1();
+                    color = details.readDetailString2();
+                    lazyDetails = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes any lazily loaded details before the object is serialized.
+     */
+    private void writeObject(ObjectOutputStream outputStream) throws IOException {
+        resolveDetails();
+        outputStream.defaultWriteObject();
+    }
 }
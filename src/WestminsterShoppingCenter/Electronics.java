@@ -1,13 +1,19 @@
 package WestminsterShoppingCenter;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
 /**
  * A class representing electronic products.
  * It extends the abstract class Product.
  * It includes additional attributes of electronic items such as brand and warranty period.
  */
 public class Electronics extends Product{
+    private static final long serialVersionUID = 5078645578030439795L; // Fixed so that saved catalogs stay readable as the class changes
+
     private String brand;
     private int warrantyPeriod;
+    private transient volatile BinaryCatalogFile.LazyDetails lazyDetails; // Set while the brand and warranty period are still only in the catalog file
     /**
      * Constructor to initialize an electronic object.
      * The attributes are initialized through the parameters passed.
@@ -18,20 +24,32 @@ public class Electronics extends Product{
         this.warrantyPeriod = warrantyPeriod;
     }
 
+    /**
+     * Constructor to initialize an electronic object whose brand and warranty period are decoded from a catalog file on first access.
+     */
+    Electronics(String productID, String productName, int numOfItemsAvailable, double price, BinaryCatalogFile.LazyDetails lazyDetails) {
+        super(productID, productName, numOfItemsAvailable, price);
+        this.lazyDetails = lazyDetails;
+    }
+
     // Getter and setter methods to access and modify the additional attributes of an electronic object.
     public String getBrand() {
+        resolveDetails();
         return brand;
     }
 
     public void setBrand(String brand) {
+        resolveDetails();
         this.brand = brand;
     }
 
     public int getWarrantyPeriod() {
+        resolveDetails();
         return warrantyPeriod;
     }
 
     public void setWarrantyPeriod(int warrantyPeriod) {
+        resolveDetails();
         this.warrantyPeriod = warrantyPeriod;
     }
 
@@ -42,6 +60,7 @@ public class Electronics extends Product{
      */
     @Override
     public String getProductInfo() {
+        resolveDetails();
         return brand + ", " + warrantyPeriod;
     }
     /**
@@ -52,4 +71,28 @@ public class Electronics extends Product{
         //Additional attributes for electronic products
         return "Electronics";
     }
+
+    /**
+     * Decodes the brand and warranty period from the catalog file if they have not been decoded yet.
+     */
+    private void resolveDetails() {
+        if (lazyDetails != null) {
+            synchronized (this) {
+                BinaryCatalogFile.LazyDetails details = lazyDetails;
+                if (details != null) {
+                    brand = details.readDetailString1();
+                    warrantyPeriod = details.readDetailInt2();
+                    lazyDetails = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes any lazily loaded details before the object is serialized.
+     */
+    private void writeObject(ObjectOutputStream outputStream) throws IOException {
+        resolveDetails();
+        outputStream.defaultWriteObject();
+    }
 }
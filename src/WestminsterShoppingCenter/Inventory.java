@@ -0,0 +1,73 @@
+package WestminsterShoppingCenter;
+
+/**
+ * A class that manages the stock of the products in the Westminster Shopping Center system.
+ * Items are reserved when a shopper adds them to a cart, released if the shopper gives them up,
+ * and committed (taken out of stock) when they are sold.
+ * Every operation is a lock-free compare-and-set on the product's own counters, so many shoppers can
+ * reserve items of the same product at once without the product ever being oversold.
+ */
+public class Inventory {
+    private final WestminsterShoppingManager manager;
+
+    /**
+     * A constructor to initialize the inventory of the products managed by the passed shopping manager.
+     */
+    public Inventory(WestminsterShoppingManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Reserves the passed number of items of a product for a shopper.
+     * Returns false if the product does not exist or not enough unreserved items are in stock.
+     */
+    public boolean reserve(String productID, int quantity) {
+        checkQuantity(quantity);
+        Product product = manager.getProductById(productID);
+        return product != null && product.tryReserve(quantity);
+    }
+
+    /**
+     * Releases the passed number of reserved items of a product, making them available to other shoppers again.
+     * Throws an IllegalStateException if fewer items of the product than that are reserved.
+     */
+    public void release(String productID, int quantity) {
+        checkQuantity(quantity);
+        Product product = manager.getProductById(productID);
+        if (product != null) {
+            product.releaseReservation(quantity);
+        }
+    }
+
+    /**
+     * Sells the passed number of reserved items of a product, taking them out of stock.
+     * The new number of items available is persisted and shown by the shopping manager.
+     * Returns false if the product does not exist or has fewer items reserved or in stock than that.
+     */
+    public boolean commit(String productID, int quantity) {
+        checkQuantity(quantity);
+        Product product = manager.getProductById(productID);
+        if (product == null || !product.commitReservation(quantity)) {
+            return false;
+        }
+        manager.stockChanged(product);
+        return true;
+    }
+
+    /**
+     * Returns the number of items of a product that can still be reserved, or 0 if the product does not exist.
+     */
+    public int getUnreservedItems(String productID) {
+        Product product = manager.getProductById(productID);
+        return product == null ? 0 : product.getUnreservedItems();
+    }
+
+    /**
+     * Checks that a quantity is positive.
+     */
+    private static void checkQuantity(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package WestminsterShoppingCenter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A class that records the latency of an operation in a histogram with a fixed number of buckets, so recording a latency
+ * costs a couple of atomic increments and the memory used does not grow with the number of calls.
+ * The buckets are powers of two, each split into 8 sub-buckets, so a percentile is accurate to within 12.5%.
+ * An operation that is too fast and frequent to time on every call can be sampled: every call is counted, but only about
+ * one call in the sample rate is timed, which is enough for the percentiles.
+ *
+ * An operation is timed with:
+ *   long start = histogram.start();
+ *   ...
+ *   histogram.stop(start);
+ */
+public class LatencyHistogram implements LatencyHistogramMXBean {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS; // Enough for any positive long
+    private static final long NOT_SAMPLED = Long.MIN_VALUE; // Returned by start for a call that is counted but not timed
+
+    private final String name;
+    private final int sampleMask; // A call is timed if a random int has none of these bits set
+    private final LongAdder calls = new LongAdder();
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalNanos = new LongAdder(); // Of the timed calls
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * A constructor to initialize a histogram with the passed name that times every call.
+     */
+    public LatencyHistogram(String name) {
+        this(name, 1);
+    }
+
+    /**
+     * A constructor to initialize a histogram with the passed name that times about one call in the passed sample rate,
+     * which must be a power of two.
+     */
+    public LatencyHistogram(String name, int sampleRate) {
+        if (sampleRate <= 0 || Integer.bitCount(sampleRate) != 1) {
+            throw new IllegalArgumentException("Sample rate must be a power of two: " + sampleRate);
+        }
+        this.name = name;
+        this.sampleMask = sampleRate - 1;
+    }
+
+    /**
+     * Counts a call and returns its start time, to be passed to stop when the call returns.
+     */
+    public long start() {
+        calls.increment();
+        if (sampleMask != 0 && (ThreadLocalRandom.current().nextInt() & sampleMask) != 0) {
+            return NOT_SAMPLED;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the latency of a call started with start, unless the call was not sampled.
+     */
+    public void stop(long start) {
+        if (start != NOT_SAMPLED) {
+            recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Counts a call and records its latency, measured by the caller, in nanoseconds.
+     */
+    public void record(long nanos) {
+        calls.increment();
+        recordNanos(nanos);
+    }
+
+    /**
+     * Returns the name of the histogram.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of calls counted, whether they were timed or not.
+     */
+    @Override
+    public long getCount() {
+        return calls.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        long timedCount = timedCount();
+        return timedCount == 0 ? 0 : totalNanos.sum() / 1_000.0 / timedCount;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return getPercentileNanos(50) / 1_000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return getPercentileNanos(99) / 1_000.0;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return getPercentileNanos(99.9) / 1_000.0;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return maxNanos.get() / 1_000.0;
+    }
+
+    /**
+     * Returns the passed percentile of the timed latencies in nanoseconds, or 0 if no call was timed.
+     * The value is the middle of the bucket the percentile falls in, but never more than the longest latency recorded.
+     */
+    public long getPercentileNanos(double percentile) {
+        long timedCount = timedCount();
+        if (timedCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * timedCount));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += buckets.get(bucket);
+            if (seen >= rank) {
+                return Math.min(maxNanos.get(), bucketMiddle(bucket));
+            }
+        }
+        return maxNanos.get(); // Calls recorded while the buckets were being read
+    }
+
+    /**
+     * Adds a latency to its bucket.
+     */
+    private void recordNanos(long nanos) {
+        nanos = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketOf(nanos));
+        totalNanos.add(nanos);
+        if (nanos > maxNanos.get()) {
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    private long timedCount() {
+        long timedCount = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            timedCount += buckets.get(bucket);
+        }
+        return timedCount;
+    }
+
+    /**
+     * Returns the bucket of a latency: latencies below 8 ns have a bucket each, and every power of two above that is split
+     * into 8 buckets by the 3 bits after its highest bit.
+     */
+    private static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS;
+        int subBucket = (int) (nanos >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the latency in the middle of a bucket.
+     */
+    private static long bucketMiddle(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + ((1L << shift) >>> 1);
+    }
+}
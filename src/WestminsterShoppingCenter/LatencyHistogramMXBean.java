@@ -0,0 +1,18 @@
+package WestminsterShoppingCenter;
+
+/**
+ * The management interface of a latency histogram, through which JMX clients such as JConsole read it.
+ */
+public interface LatencyHistogramMXBean {
+    long getCount();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+}
@@ -1,8 +1,13 @@
 package WestminsterShoppingCenter;
 
 import GUI.UserShoppingCenter;
+import Server.CatalogServer;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
 import javax.swing.*;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.Scanner;
 
 /**
@@ -13,11 +18,18 @@ public class Main {
 
     public static void main(String[] args) {
 
-        // Initialize the UserShoppingCenter and WestminsterShoppingManager
-        UserShoppingCenter shoppingCenter = new UserShoppingCenter();
-        manager = new WestminsterShoppingManager(shoppingCenter);
-
-        shoppingCenter.setManager(manager); // Set the manager for the shopping center
+        // Initialize the WestminsterShoppingManager, which the GUI subscribes to once it is opened
+        // The catalog is loaded lazily, so the menu is shown while the products stream in
+        manager = new WestminsterShoppingManager(WestminsterShoppingManager.DEFAULT_DATA_FILE,
+                CatalogStore.UNLIMITED_CAPACITY, PersistenceMode.JOURNAL, true);
+        new SnapshotScheduler(manager).start(); // Snapshots the catalog in the background, so the journal replayed on start-up stays short
+        startMetrics();
+
+        // With "--server [port]", the catalog is served over HTTP instead of through the console and the GUI
+        if (args.length > 0 && args[0].equals("--server")) {
+            startServer(args.length > 1 ? Integer.parseInt(args[1]) : CatalogServer.DEFAULT_PORT);
+            return;
+        }
 
         Scanner scanner = new Scanner(System.in); // Initialize the scanner for user input
         int mainOption;
@@ -103,7 +115,8 @@ public class Main {
                 |         Press (2) -> Delete a Product               |
                 |         Press (3) -> Print Product List             |
                 |         Press (4) -> Save in File                   |
-                |         Press (5) -> Main Page                      |
+                |         Press (5) -> Import Products                |
+                |         Press (6) -> Main Page                      |
                 |                                                     |
                 =======================================================""");
 
@@ -120,11 +133,46 @@ public class Main {
                 case 1 -> addProductHandler(manager, scanner); // Add a new product
                 case 2 -> deleteProductHandler(manager, scanner); // Delete a product
                 case 3 -> manager.printProducts(); // Print product list
-                case 4 -> manager.saveProducts("Product_Data.txt"); // Save products in a file
-                case 5 -> System.out.println("Moving to the main menu."); // Return to the main menu
+                case 4 -> manager.saveProducts(manager.getDataFileName()); // Save products in a file
+                case 5 -> importProductsHandler(manager, scanner); // Import products from a CSV or JSON-lines file
+                case 6 -> System.out.println("Moving to the main menu."); // Return to the main menu
                 default -> System.out.println("Invalid option!");
             }
-        } while (managerOption != 5);
+        } while (managerOption != 6);
+    }
+
+    /**
+     * Starts serving the catalog and shopping carts over HTTP on the passed port, until the process is stopped.
+     */
+    private static void startServer(int port) {
+        try {
+            CatalogServer server = new CatalogServer(manager, port);
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1))); // Releases the items reserved for open carts
+            System.out.println("Catalog server listening on http://localhost:" + server.getPort() + "/products");
+        } catch (IOException e) {
+            System.out.println("Error starting the catalog server: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Exposes the metrics and the manager as JMX MBeans, and dumps the metrics to a file next to the data file every minute.
+     */
+    private static void startMetrics() {
+        Metrics metrics = Metrics.getInstance();
+        metrics.gauge("catalog.products", manager::getProductCount);
+        metrics.gauge("persistence.journalBytes", manager::getJournalSize);
+        metrics.gauge("persistence.snapshots", manager::getSnapshotCount);
+        try {
+            metrics.registerMBeans();
+            ManagementFactory.getPlatformMBeanServer().registerMBean(manager, new ObjectName(Metrics.JMX_DOMAIN + ":type=ShoppingManager"));
+        } catch (JMException e) {
+            System.out.println("Error registering the MBeans: " + e.getMessage());
+        }
+
+        MetricsReporter reporter = new MetricsReporter(metrics, manager.getDataFileName() + ".metrics", MetricsReporter.DEFAULT_INTERVAL_MILLIS);
+        reporter.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(reporter::close)); // Writes a last report on exit
     }
 
     /**
@@ -290,6 +338,23 @@ public class Main {
         manager.deleteProduct(productIDToDelete);
     }
 
+    /**
+     * Handles the import of products from a CSV or JSON-lines file entered by the manager.
+     */
+    private static void importProductsHandler(WestminsterShoppingManager manager, Scanner scanner) {
+        System.out.println("Enter the name of the CSV or JSON-lines file to import: ");
+        String fileName = scanner.nextLine().trim();
+        try {
+            CatalogImporter.ImportResult result = new CatalogImporter(manager).importFile(fileName);
+            System.out.println(result);
+            for (String error : result.getErrors()) {
+                System.out.println(error);
+            }
+        } catch (IOException e) {
+            System.out.println("Error importing products: " + e.getMessage());
+        }
+    }
+
     /**
      * Validates whether a product with the given product ID already exists in the manager's product list.
      */
@@ -0,0 +1,149 @@
+package WestminsterShoppingCenter;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A class representing the registry of the metrics of the Westminster Shopping Center system: counters, gauges and latency histograms.
+ * The classes that record a metric look it up once, when they are loaded, and keep it in a static field, so recording costs
+ * no more than the counter or histogram itself. Gauges are read only when the metrics are reported.
+ * The metrics are reported as text, such as in a periodic dump by the MetricsReporter, and through JMX MBeans.
+ */
+public class Metrics implements MetricsMXBean {
+    public static final String JMX_DOMAIN = "WestminsterShoppingCenter";
+
+    // Names of the metrics recorded by the system
+    public static final String ADD_PRODUCT = "manager.addProduct";
+    public static final String DELETE_PRODUCT = "manager.deleteProduct";
+    public static final String GET_PRODUCT = "manager.getProductById";
+    public static final String GET_PRODUCT_MISSES = "manager.getProductById.misses";
+    public static final String SAVE = "persistence.save";
+    public static final String SAVED_BYTES = "persistence.savedBytes";
+    public static final String LOAD = "persistence.load";
+    public static final String LOADED_BYTES = "persistence.loadedBytes";
+    public static final String REPLAY = "persistence.replay";
+    public static final String REPLAYED_BYTES = "persistence.replayedBytes";
+    public static final String CART_ADD = "cart.addItem";
+    public static final String DISCOUNTS = "cart.discounts";
+    public static final String PLACE_ORDER = "orders.placeOrder";
+    public static final String ORDER_COMMIT = "orders.commit";
+    public static final String TABLE_REFRESH = "gui.tableRefresh";
+    public static final String SERVER_REQUEST = "server.request";
+
+    private static final Metrics INSTANCE = new Metrics();
+
+    private final Map<String, LongAdder> counters = new ConcurrentSkipListMap<>(); // Sorted by name for the report
+    private final Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+    private MBeanServer mbeanServer; // Set once the MBeans are registered
+
+    /**
+     * Returns the registry shared by the whole system.
+     */
+    public static Metrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the counter with the passed name, creating it if needed.
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, counterName -> new LongAdder());
+    }
+
+    /**
+     * Returns the histogram with the passed name, creating it if needed, which times every call.
+     */
+    public LatencyHistogram histogram(String name) {
+        return histogram(name, 1);
+    }
+
+    /**
+     * Returns the histogram with the passed name, creating it if needed, which times about one call in the passed sample rate.
+     */
+    public synchronized LatencyHistogram histogram(String name, int sampleRate) {
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = new LatencyHistogram(name, sampleRate);
+            histograms.put(name, histogram);
+            if (mbeanServer != null) {
+                registerHistogram(histogram);
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Sets the gauge with the passed name, which reads a value such as the number of products when the metrics are reported.
+     * A gauge with the same name is replaced.
+     */
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Registers the registry, and every histogram created now or later, as MBeans of the platform MBean server.
+     */
+    public synchronized void registerMBeans() throws JMException {
+        if (mbeanServer != null) {
+            return;
+        }
+        mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        mbeanServer.registerMBean(this, new ObjectName(JMX_DOMAIN + ":type=Metrics"));
+        for (LatencyHistogram histogram : histograms.values()) {
+            registerHistogram(histogram);
+        }
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.sum()));
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getGauges() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        gauges.forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+        return values;
+    }
+
+    /**
+     * Returns a text report of every metric: the gauges and counters, then the count and latency percentiles of every histogram.
+     */
+    @Override
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        getGauges().forEach((name, value) -> report.append(String.format("%-34s %d%n", name, value)));
+        getCounters().forEach((name, value) -> report.append(String.format("%-34s %d%n", name, value)));
+        report.append(String.format("%-34s %12s %10s %10s %10s %10s %10s%n", "Latency (us)", "Count", "Mean", "p50", "p99", "p99.9", "Max"));
+        for (LatencyHistogram histogram : histograms.values()) {
+            report.append(String.format("%-34s %12d %10.1f %10.1f %10.1f %10.1f %10.1f%n", histogram.getName(), histogram.getCount(),
+                    histogram.getMeanMicros(), histogram.getP50Micros(), histogram.getP99Micros(), histogram.getP999Micros(),
+                    histogram.getMaxMicros()));
+        }
+        return report.toString();
+    }
+
+    private void registerHistogram(LatencyHistogram histogram) {
+        try {
+            mbeanServer.registerMBean(histogram, new ObjectName(JMX_DOMAIN + ":type=Latency,name=" + histogram.getName()));
+        }
+        catch (JMException exception) {
+            System.out.println("Error registering the MBean of " + histogram.getName() + ": " + exception.getMessage());
+        }
+    }
+}
+
+//REFERENCES
+
+/* Java Management Extensions
+ * MXBean - https://docs.oracle.com/javase/8/docs/api/javax/management/MXBean.html
+ * ManagementFactory.getPlatformMBeanServer - https://docs.oracle.com/javase/8/docs/api/java/lang/management/ManagementFactory.html#getPlatformMBeanServer--
+ */
@@ -0,0 +1,15 @@
+package WestminsterShoppingCenter;
+
+import java.util.Map;
+
+/**
+ * The management interface of the metrics registry, through which JMX clients such as JConsole read the counters and gauges.
+ * Each latency histogram is registered as an MBean of its own.
+ */
+public interface MetricsMXBean {
+    Map<String, Long> getCounters();
+
+    Map<String, Long> getGauges();
+
+    String getReport();
+}
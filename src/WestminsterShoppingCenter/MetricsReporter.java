@@ -0,0 +1,72 @@
+package WestminsterShoppingCenter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A class that dumps the text report of the metrics to a file periodically, on a daemon thread.
+ * The file always holds the latest report: each report is written to a temporary file that then replaces it,
+ * so a reader never sees a half-written report.
+ */
+public class MetricsReporter {
+    public static final long DEFAULT_INTERVAL_MILLIS = 60_000;
+
+    private final Metrics metrics;
+    private final Path reportPath;
+    private final long intervalMillis;
+    private final ScheduledExecutorService executor;
+
+    /**
+     * A constructor to initialize a reporter that writes the report of the passed metrics to the passed file at the passed interval.
+     */
+    public MetricsReporter(Metrics metrics, String reportFileName, long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Interval must be positive: " + intervalMillis);
+        }
+        this.metrics = metrics;
+        this.reportPath = Paths.get(reportFileName);
+        this.intervalMillis = intervalMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts writing the report periodically.
+     */
+    public void start() {
+        executor.scheduleAtFixedRate(this::report, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops writing the report, writing it one last time.
+     */
+    public void close() {
+        executor.shutdown();
+        report();
+    }
+
+    /**
+     * Writes the current report to the file.
+     */
+    public void report() {
+        Path tempPath = Paths.get(reportPath + ".tmp");
+        try {
+            Files.writeString(tempPath, "Metrics at " + LocalDateTime.now() + System.lineSeparator() + metrics.getReport(), StandardCharsets.UTF_8);
+            Files.move(tempPath, reportPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException exception) { // A failed report is not retried; the next one replaces it
+            System.out.println("Error writing the metrics report: " + exception.getMessage());
+        }
+    }
+}
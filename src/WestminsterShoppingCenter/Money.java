@@ -0,0 +1,78 @@
+package WestminsterShoppingCenter;
+
+/**
+ * A class with methods for amounts of money held as a whole number of pence in a long.
+ * Adding and subtracting pence is exact, unlike adding prices held as doubles, and a long is never boxed or allocated.
+ * Percentages are applied in basis points (hundredths of a percent) and rounded to the nearest penny.
+ */
+public final class Money {
+    public static final long PENCE_PER_POUND = 100;
+    public static final char POUND_SIGN = '£';
+
+    private static final long BASIS_POINTS_PER_WHOLE = 10_000; // 100% in basis points
+
+    private Money() {
+    }
+
+    /**
+     * Converts an amount in pounds to pence, rounded to the nearest penny.
+     */
+    public static long fromPounds(double pounds) {
+        return Math.round(pounds * PENCE_PER_POUND);
+    }
+
+    /**
+     * Converts an amount in pence to pounds.
+     */
+    public static double toPounds(long pence) {
+        return (double) pence / PENCE_PER_POUND;
+    }
+
+    /**
+     * Converts a percentage to basis points, rounded to the nearest basis point.
+     */
+    public static long toBasisPoints(double percent) {
+        return Math.round(percent * 100);
+    }
+
+    /**
+     * Returns the passed share, in basis points, of an amount in pence, rounded half away from zero to the nearest penny.
+     */
+    public static long applyRate(long pence, long basisPoints) {
+        long scaled = pence * basisPoints;
+        long half = BASIS_POINTS_PER_WHOLE / 2;
+        return scaled >= 0 ? (scaled + half) / BASIS_POINTS_PER_WHOLE : (scaled - half) / BASIS_POINTS_PER_WHOLE;
+    }
+
+    /**
+     * Formats an amount in pence with the pound sign, such as "£1234.50".
+     */
+    public static String format(long pence) {
+        return appendTo(new StringBuilder(12), pence, true).toString();
+    }
+
+    /**
+     * Formats an amount in pence without the pound sign, such as "1234.50".
+     */
+    public static String formatAmount(long pence) {
+        return appendTo(new StringBuilder(12), pence, false).toString();
+    }
+
+    /**
+     * Appends an amount in pence to a StringBuilder with two decimal places, optionally after a pound sign.
+     * The digits are appended directly, without the format string parsing of String.format.
+     */
+    public static StringBuilder appendTo(StringBuilder builder, long pence, boolean withPoundSign) {
+        if (pence < 0) {
+            builder.append('-');
+        }
+        if (withPoundSign) {
+            builder.append(POUND_SIGN);
+        }
+        long pounds = Math.abs(pence / PENCE_PER_POUND);
+        int remainder = (int) Math.abs(pence % PENCE_PER_POUND);
+        builder.append(pounds).append('.');
+        builder.append((char) ('0' + remainder / 10)).append((char) ('0' + remainder % 10));
+        return builder;
+    }
+}
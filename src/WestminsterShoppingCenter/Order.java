@@ -0,0 +1,107 @@
+package WestminsterShoppingCenter;
+
+import java.util.List;
+
+/**
+ * A class representing an order placed by checking out a shopping cart.
+ * An order is only handed back to the shopper once it has been written to the order log and the log has been forced to disk.
+ * Orders are numbered in the order they were written to the log, starting from 1.
+ */
+public class Order {
+    private final long orderID;
+    private final long placedAt; // Time the order was written, in milliseconds since the epoch
+    private final String username; // Shopper who placed the order, or an empty string if not known
+    private final List<OrderLine> lines;
+    private final long subtotalInPence;
+    private final long discountInPence;
+    private final List<String> unavailableProductIDs; // Products in the cart that could not be sold; not written to the log
+
+    /**
+     * A constructor to initialize an order with the passed ID, time, username, lines and amounts.
+     */
+    public Order(long orderID, long placedAt, String username, List<OrderLine> lines, long subtotalInPence, long discountInPence) {
+        this(orderID, placedAt, username, lines, subtotalInPence, discountInPence, List.of());
+    }
+
+    /**
+     * A constructor to initialize an order that also lists the products of the cart that could not be sold.
+     */
+    Order(long orderID, long placedAt, String username, List<OrderLine> lines, long subtotalInPence, long discountInPence,
+          List<String> unavailableProductIDs) {
+        this.orderID = orderID;
+        this.placedAt = placedAt;
+        this.username = username == null ? "" : username;
+        this.lines = List.copyOf(lines);
+        this.subtotalInPence = subtotalInPence;
+        this.discountInPence = discountInPence;
+        this.unavailableProductIDs = List.copyOf(unavailableProductIDs);
+    }
+
+    /**
+     * Returns the number of the order.
+     */
+    public long getOrderID() {
+        return orderID;
+    }
+
+    /**
+     * Returns the time the order was placed, in milliseconds since the epoch.
+     */
+    public long getPlacedAt() {
+        return placedAt;
+    }
+
+    /**
+     * Returns the username of the shopper who placed the order, or an empty string if not known.
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Returns the lines of the order.
+     */
+    public List<OrderLine> getLines() {
+        return lines;
+    }
+
+    /**
+     * Returns the number of items sold.
+     */
+    public int getItemCount() {
+        int itemCount = 0;
+        for (OrderLine line : lines) {
+            itemCount += line.getQuantity();
+        }
+        return itemCount;
+    }
+
+    /**
+     * Returns the total cost of the items in pence, before discounts.
+     */
+    public long getSubtotalInPence() {
+        return subtotalInPence;
+    }
+
+    /**
+     * Returns the total discount in pence.
+     */
+    public long getDiscountInPence() {
+        return discountInPence;
+    }
+
+    /**
+     * Returns the amount paid in pence, after discounts.
+     */
+    public long getTotalInPence() {
+        return Math.max(0, subtotalInPence - discountInPence);
+    }
+
+    /**
+     * Returns the IDs of the products in the cart that could not be sold, because they were deleted from the catalog or
+     * are no longer in stock. They are left out of the order.
+     */
+    public List<String> getUnavailableProductIDs() {
+        return unavailableProductIDs;
+    }
+}
@@ -0,0 +1,64 @@
+package WestminsterShoppingCenter;
+
+/**
+ * A class representing one line of a placed order: a product, the number of its items sold and the price of one item.
+ * The line keeps the product's ID and name rather than the product, so it stays the same if the product later changes or is deleted.
+ */
+public class OrderLine {
+    private final String productID;
+    private final String productName;
+    private final int quantity;
+    private final long unitPriceInPence;
+
+    /**
+     * A constructor to initialize an order line with the passed product ID, product name, quantity and unit price in pence.
+     */
+    public OrderLine(String productID, String productName, int quantity, long unitPriceInPence) {
+        this.productID = productID;
+        this.productName = productName;
+        this.quantity = quantity;
+        this.unitPriceInPence = unitPriceInPence;
+    }
+
+    /**
+     * A constructor to initialize an order line from the passed cart line, at the price the items were added to the cart at.
+     */
+    OrderLine(CartLine line) {
+        this(line.getProduct().getProductID(), line.getProduct().getProductName(), line.getQuantity(), line.getUnitPriceInPence());
+    }
+
+    /**
+     * Returns the ID of the product sold.
+     */
+    public String getProductID() {
+        return productID;
+    }
+
+    /**
+     * Returns the name of the product when it was sold.
+     */
+    public String getProductName() {
+        return productName;
+    }
+
+    /**
+     * Returns the number of items sold.
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Returns the price of one item in pence.
+     */
+    public long getUnitPriceInPence() {
+        return unitPriceInPence;
+    }
+
+    /**
+     * Returns the price of all the items of the line in pence.
+     */
+    public long getLineTotalInPence() {
+        return unitPriceInPence * quantity;
+    }
+}
@@ -0,0 +1,186 @@
+package WestminsterShoppingCenter;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A class representing the append-only log of the orders placed in the Westminster Shopping Center system.
+ * Unlike the catalog journal, the order log is never emptied by saving the catalog: it is the record of every sale.
+ * Records are framed by their length and a CRC32 checksum like the journal's, so a record torn by a crash is detected and discarded.
+ * Many orders are written with a single write and made durable with a single force, so the cost of forcing the log to disk
+ * is shared by every order in the batch.
+ */
+public class OrderLog {
+    public static final String FILE_SUFFIX = ".orders"; // The order log of "Product_Data.txt" is "Product_Data.txt.orders"
+
+    private static final int HEADER_SIZE = 8; // Length (int) and checksum (int) of a record
+
+    private final Path logPath;
+    private final CRC32 checksum = new CRC32();
+    private FileChannel channel; // Opened on the first append
+
+    /**
+     * A constructor to initialize the order log of the passed data file.
+     */
+    public OrderLog(String dataFileName) {
+        this.logPath = Paths.get(dataFileName + FILE_SUFFIX);
+    }
+
+    /**
+     * Appends a record of each of the passed orders with a single write and forces them to disk before returning.
+     */
+    public synchronized void append(List<Order> orders) throws IOException {
+        if (orders.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream batchBuffer = new ByteArrayOutputStream(orders.size() * 128);
+        DataOutputStream batchOutput = new DataOutputStream(batchBuffer);
+        ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream(128);
+        DataOutputStream recordOutput = new DataOutputStream(recordBuffer);
+        for (Order order : orders) {
+            recordBuffer.reset();
+            writeOrder(recordOutput, order);
+            checksum.reset();
+            checksum.update(recordBuffer.toByteArray());
+            batchOutput.writeInt(recordBuffer.size());
+            batchOutput.writeInt((int) checksum.getValue());
+            recordBuffer.writeTo(batchOutput);
+        }
+
+        if (channel == null) {
+            channel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(batchBuffer.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false); // The orders are durable once this returns
+    }
+
+    /**
+     * Reads every order in the log, in the order they were written.
+     * If the log ends with an incomplete or corrupted record, the log is cut back to the last valid record,
+     * so the next append does not follow a record that can never be read.
+     */
+    public synchronized List<Order> readOrders() throws IOException {
+        List<Order> orders = new ArrayList<>();
+        if (!Files.exists(logPath)) {
+            return orders;
+        }
+        closeChannel();
+
+        long validLength = 0;
+        long logLength = Files.size(logPath);
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(logPath)))) {
+            while (true) {
+                byte[] record = readRecord(input, logLength - validLength);
+                if (record == null) {
+                    break;
+                }
+                orders.add(readOrder(new DataInputStream(new ByteArrayInputStream(record))));
+                validLength += HEADER_SIZE + record.length;
+            }
+        }
+
+        if (validLength < logLength) {
+            try (FileChannel truncateChannel = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+                truncateChannel.truncate(validLength); // Discards the torn record at the end of the log
+            }
+            System.out.println("Discarded an incomplete record at the end of the order log: " + logPath);
+        }
+        return orders;
+    }
+
+    /**
+     * Returns the path of the order log file.
+     */
+    public Path getLogPath() {
+        return logPath;
+    }
+
+    /**
+     * Closes the order log file. It is reopened on the next append.
+     */
+    public synchronized void close() throws IOException {
+        closeChannel();
+    }
+
+    /**
+     * Writes the fields of an order to the output.
+     */
+    private static void writeOrder(DataOutputStream output, Order order) throws IOException {
+        output.writeLong(order.getOrderID());
+        output.writeLong(order.getPlacedAt());
+        output.writeUTF(order.getUsername());
+        output.writeInt(order.getLines().size());
+        for (OrderLine line : order.getLines()) {
+            output.writeUTF(line.getProductID());
+            output.writeUTF(line.getProductName());
+            output.writeInt(line.getQuantity());
+            output.writeLong(line.getUnitPriceInPence());
+        }
+        output.writeLong(order.getSubtotalInPence());
+        output.writeLong(order.getDiscountInPence());
+    }
+
+    /**
+     * Reads the fields of an order written by writeOrder from the input.
+     */
+    private static Order readOrder(DataInputStream input) throws IOException {
+        long orderID = input.readLong();
+        long placedAt = input.readLong();
+        String username = input.readUTF();
+        int lineCount = input.readInt();
+        List<OrderLine> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            lines.add(new OrderLine(input.readUTF(), input.readUTF(), input.readInt(), input.readLong()));
+        }
+        return new Order(orderID, placedAt, username, lines, input.readLong(), input.readLong());
+    }
+
+    /**
+     * Reads the payload of the next record, or returns null at the end of the log or at a torn or corrupted record.
+     * The remaining length is the number of bytes left in the log, which no valid record can be longer than.
+     */
+    private byte[] readRecord(DataInputStream input, long remainingLength) throws IOException {
+        try {
+            int length = input.readInt();
+            int expectedChecksum = input.readInt();
+            if (length < 0 || length > remainingLength - HEADER_SIZE) { // A longer length can only come from a corrupted header
+                return null;
+            }
+            byte[] payload = new byte[length];
+            input.readFully(payload);
+
+            checksum.reset();
+            checksum.update(payload);
+            return (int) checksum.getValue() == expectedChecksum ? payload : null;
+        } catch (EOFException exception) {
+            return null; // End of the log, or a record that was only partly written
+        }
+    }
+
+    /**
+     * Closes the open order log file, if any.
+     */
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
+
+//REFERENCES
+
+/* Java NIO
+ * FileChannel.force - https://docs.oracle.com/javase/8/docs/api/java/nio/channels/FileChannel.html#force-boolean-
+ */
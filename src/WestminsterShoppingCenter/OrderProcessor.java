@@ -0,0 +1,302 @@
+package WestminsterShoppingCenter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * A class that checks out shopping carts, turning them into orders.
+ * Checking out a cart validates its lines against the inventory, takes the items out of stock and writes an order to the order log.
+ * A checkout only returns once the new stock levels and the order are on disk.
+ *
+ * Forcing a file to disk takes far longer than the rest of a checkout, so orders are group-committed: a single writer thread
+ * takes every order queued while it was forcing the previous batch, and makes the whole batch durable with one journal record
+ * of the new stock levels, one write of the orders and one force of each file. The more shoppers check out at once, the more
+ * orders share each force, so throughput grows with contention while each checkout still waits for about two forces.
+ *
+ * The stock levels are forced before the orders, so a crash in between can leave items out of stock without an order for them,
+ * but never an order for items that are back in stock after a restart.
+ */
+public class OrderProcessor {
+    public static final int DEFAULT_MAX_BATCH_SIZE = 1024; // Most orders made durable by a single force
+    private static final PendingOrder CLOSE = new PendingOrder(null, List.of(), List.of(), 0, 0, List.of()); // Stops the writer thread
+    private static final LatencyHistogram PLACE_ORDER_LATENCY = Metrics.getInstance().histogram(Metrics.PLACE_ORDER);
+    private static final LatencyHistogram COMMIT_LATENCY = Metrics.getInstance().histogram(Metrics.ORDER_COMMIT); // One call per batch
+
+    private final WestminsterShoppingManager manager;
+    private final OrderLog orderLog;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingOrder> queue = new LinkedBlockingQueue<>(); // Orders waiting to be written
+    private final Thread writerThread;
+    private volatile boolean closed;
+
+    // Only changed by the writer thread
+    private long nextOrderID;
+    private volatile long placedOrderCount;
+    private volatile long commitCount; // Batches made durable, each with one force of the journal and one of the order log
+
+    /**
+     * A constructor to initialize an order processor that sells the products of the passed manager and writes the orders to the passed log.
+     * The passed maximum batch size is the most orders made durable by a single force; 1 forces the files for every order.
+     * The log is read to carry on numbering the orders from the last one written.
+     */
+    public OrderProcessor(WestminsterShoppingManager manager, OrderLog orderLog, int maxBatchSize) throws IOException {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + maxBatchSize);
+        }
+        this.manager = manager;
+        this.orderLog = orderLog;
+        this.maxBatchSize = maxBatchSize;
+
+        List<Order> orders = orderLog.readOrders();
+        this.nextOrderID = orders.isEmpty() ? 1 : orders.get(orders.size() - 1).getOrderID() + 1;
+
+        writerThread = new Thread(this::writeOrders, "order-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Checks out a shopping cart for the shopper with the passed username, which may be null.
+     * Every item in the cart must have been reserved in the inventory when it was added.
+     * The reserved items are taken out of stock; a line whose product was deleted from the catalog or no longer has enough
+     * items in stock is released, taken out of the cart and listed as unavailable in the order.
+     * Returns the order once it is on disk. The cart is left holding the lines that were sold.
+     * Throws an IllegalArgumentException if the cart is empty, an IllegalStateException if none of its lines could be sold
+     * or the processor is closed, and an IOException if the order could not be written, in which case the items are put back in stock.
+     */
+    public Order placeOrder(ShoppingCart cart, String username) throws IOException {
+        if (cart.getLineCount() == 0) {
+            throw new IllegalArgumentException("The cart is empty");
+        }
+        long start = PLACE_ORDER_LATENCY.start();
+
+        List<OrderLine> soldLines = new ArrayList<>(cart.getLineCount());
+        List<Product> soldProducts = new ArrayList<>(cart.getLineCount());
+        List<CartLine> unavailableLines = new ArrayList<>();
+        for (CartLine line : cart.getLines()) {
+            Product product = line.getProduct();
+            if (manager.getProductById(product.getProductID()) == product && product.commitReservation(line.getQuantity())) {
+                soldLines.add(new OrderLine(line));
+                soldProducts.add(product);
+            } else {
+                product.releaseReservation(line.getQuantity()); // Lets other shoppers have whatever is left
+                unavailableLines.add(line);
+            }
+        }
+        List<String> unavailableProductIDs = new ArrayList<>(unavailableLines.size());
+        for (CartLine line : unavailableLines) {
+            unavailableProductIDs.add(line.getProduct().getProductID());
+            cart.removeItem(line.getProduct(), line.getQuantity()); // The discounts are worked out again without the line
+        }
+        if (soldLines.isEmpty()) {
+            throw new IllegalStateException("None of the items in the cart are available");
+        }
+
+        PendingOrder pendingOrder = new PendingOrder(username, soldLines, soldProducts, cart.getSubtotalInPence(),
+                cart.getTotalDiscountInPence(), unavailableProductIDs);
+        queue.add(pendingOrder);
+        if (closed && queue.remove(pendingOrder)) { // Closed before the writer thread could take the order
+            restoreStock(List.of(pendingOrder));
+            throw new IllegalStateException("The order processor is closed");
+        }
+        try {
+            Order order = pendingOrder.result.join(); // Waits for the batch holding the order to be forced to disk
+            PLACE_ORDER_LATENCY.stop(start);
+            return order;
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof IOException ioException) {
+                throw new IOException("The order could not be written: " + ioException.getMessage(), ioException);
+            }
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (exception.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Returns the number of orders written to the order log since the processor was created.
+     */
+    public long getPlacedOrderCount() {
+        return placedOrderCount;
+    }
+
+    /**
+     * Returns the number of batches of orders made durable since the processor was created; each took one force of the journal
+     * and one of the order log. The number of orders placed divided by this number is the average batch size.
+     */
+    public long getCommitCount() {
+        return commitCount;
+    }
+
+    /**
+     * Returns the order log the orders are written to.
+     */
+    public OrderLog getOrderLog() {
+        return orderLog;
+    }
+
+    /**
+     * Writes the orders already queued, stops the writer thread and closes the order log.
+     * Orders placed after this are refused.
+     */
+    public void close() throws IOException {
+        closed = true;
+        queue.add(CLOSE);
+        try {
+            writerThread.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        List<PendingOrder> refusedOrders = new ArrayList<>();
+        queue.drainTo(refusedOrders);
+        refuse(refusedOrders);
+        orderLog.close();
+    }
+
+    /**
+     * Runs on the writer thread: takes the queued orders a batch at a time and commits each batch, until the processor is closed.
+     * If the thread is interrupted, the processor is closed and every queued order is refused, so no shopper is left waiting.
+     */
+    private void writeOrders() {
+        List<PendingOrder> batch = new ArrayList<>();
+        boolean closing = false;
+        while (!closing) {
+            batch.clear();
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException exception) {
+                closed = true; // Orders placed from now on are taken back by placeOrder
+                List<PendingOrder> refusedOrders = new ArrayList<>();
+                queue.drainTo(refusedOrders);
+                refuse(refusedOrders);
+                return;
+            }
+            queue.drainTo(batch, maxBatchSize - 1); // Every order that arrived while the previous batch was being forced
+
+            int closeIndex = batch.indexOf(CLOSE);
+            if (closeIndex >= 0) {
+                refuse(new ArrayList<>(batch.subList(closeIndex + 1, batch.size())));
+                batch.subList(closeIndex, batch.size()).clear();
+                closing = true;
+            }
+            commit(batch);
+        }
+    }
+
+    /**
+     * Makes a batch of orders durable: a single journal record of the new stock levels of every product sold, forced to disk,
+     * then a single write of the orders, forced to disk. The shoppers waiting for the orders are then told they are placed.
+     * If anything fails, the items of every order in the batch are put back in stock and the shoppers are told of the error,
+     * and the writer thread carries on with the next batch.
+     */
+    private void commit(List<PendingOrder> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Order> orders = new ArrayList<>(batch.size());
+        try {
+            Set<Product> soldProducts = new LinkedHashSet<>(); // A product sold by several orders needs only one stock record
+            long placedAt = System.currentTimeMillis();
+            for (PendingOrder pendingOrder : batch) {
+                soldProducts.addAll(pendingOrder.products);
+                orders.add(new Order(nextOrderID++, placedAt, pendingOrder.username, pendingOrder.lines,
+                        pendingOrder.subtotalInPence, pendingOrder.discountInPence, pendingOrder.unavailableProductIDs));
+            }
+
+            long start = System.nanoTime();
+            manager.stockSold(soldProducts);
+            orderLog.append(orders);
+            COMMIT_LATENCY.record(System.nanoTime() - start);
+        } catch (Throwable exception) { // Anything left uncaught would stop the writer thread, and every checkout would wait forever
+            System.out.println("Error writing to the order log: " + exception.getMessage());
+            fail(batch, exception); // The order IDs are not reused, as a record may have been partly written
+            return;
+        }
+
+        placedOrderCount += orders.size();
+        commitCount++;
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result.complete(orders.get(i));
+        }
+    }
+
+    /**
+     * Puts the items of orders that could not be placed back in stock, and records the new stock levels.
+     */
+    private void restoreStock(List<PendingOrder> pendingOrders) {
+        Set<Product> restoredProducts = new LinkedHashSet<>();
+        for (PendingOrder pendingOrder : pendingOrders) {
+            for (int i = 0; i < pendingOrder.lines.size(); i++) {
+                Product product = pendingOrder.products.get(i);
+                product.restoreStock(pendingOrder.lines.get(i).getQuantity());
+                restoredProducts.add(product);
+            }
+        }
+        if (!restoredProducts.isEmpty()) {
+            manager.stockChanged(restoredProducts);
+        }
+    }
+
+    /**
+     * Refuses orders queued after the processor was closed, putting their items back in stock.
+     */
+    private void refuse(List<PendingOrder> pendingOrders) {
+        pendingOrders.remove(CLOSE);
+        fail(pendingOrders, new IllegalStateException("The order processor is closed"));
+    }
+
+    /**
+     * Puts the items of orders that could not be placed back in stock and tells their shoppers of the passed error.
+     * The shoppers are told even if the restored stock levels cannot be recorded.
+     */
+    private void fail(List<PendingOrder> pendingOrders, Throwable error) {
+        try {
+            restoreStock(pendingOrders);
+        } catch (RuntimeException exception) {
+            System.out.println("Error putting the items of failed orders back in stock: " + exception.getMessage());
+        } finally {
+            for (PendingOrder pendingOrder : pendingOrders) {
+                pendingOrder.result.completeExceptionally(error);
+            }
+        }
+    }
+
+    /**
+     * An order waiting to be written by the writer thread, and the future the shopper waits on.
+     * The products are the products of the lines, in the same order.
+     */
+    private static final class PendingOrder {
+        private final String username;
+        private final List<OrderLine> lines;
+        private final List<Product> products;
+        private final long subtotalInPence;
+        private final long discountInPence;
+        private final List<String> unavailableProductIDs;
+        private final CompletableFuture<Order> result = new CompletableFuture<>();
+
+        private PendingOrder(String username, List<OrderLine> lines, List<Product> products, long subtotalInPence,
+                             long discountInPence, List<String> unavailableProductIDs) {
+            this.username = username;
+            this.lines = lines;
+            this.products = products;
+            this.subtotalInPence = subtotalInPence;
+            this.discountInPence = discountInPence;
+            this.unavailableProductIDs = unavailableProductIDs;
+        }
+    }
+}
+
+//REFERENCES
+
+/* Java Concurrency
+ * LinkedBlockingQueue.drainTo - https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/BlockingQueue.html#drainTo-java.util.Collection-int-
+ * CompletableFuture - https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/CompletableFuture.html
+ */
@@ -0,0 +1,9 @@
+package WestminsterShoppingCenter;
+
+/**
+ * An enum representing how the shopping manager persists changes to the product catalog.
+ */
+public enum PersistenceMode {
+    SNAPSHOT, // Every mutation re-writes the whole catalog to the data file
+    JOURNAL // Every mutation appends one record to the journal, and the data file is only re-written when products are saved
+}
@@ -0,0 +1,103 @@
+package WestminsterShoppingCenter;
+
+/**
+ * A class representing the discounts of a shopping cart under a pricing plan.
+ * The quote keeps, for every rule of the plan, the number and price of the items in the rule's scope and the rule's
+ * current discount. When a cart line changes, only the rules whose scope contains the line, and the rules on the
+ * whole cart, are evaluated again, so a quote update does not depend on the number of lines in the cart.
+ */
+public class PriceQuote {
+    private final PricingPlan plan;
+    private final int[] scopeQuantities;
+    private final long[] scopeAmounts; // Price of the items in the scope in pence
+    private final long[] lineDiscounts; // Sum of the line discounts in the scope, for rules that price each line on its own
+    private final long[] discounts; // Discount of each rule in pence
+    private long totalDiscount;
+
+    private static final LatencyHistogram DISCOUNTS_LATENCY = Metrics.getInstance().histogram(Metrics.DISCOUNTS, 16); // Only about one update in 16 is timed
+
+    /**
+     * A constructor to initialize an empty quote under the passed plan.
+     */
+    PriceQuote(PricingPlan plan) {
+        this.plan = plan;
+        int ruleCount = plan.getRuleCount();
+        this.scopeQuantities = new int[ruleCount];
+        this.scopeAmounts = new long[ruleCount];
+        this.lineDiscounts = new long[ruleCount];
+        this.discounts = new long[ruleCount];
+    }
+
+    /**
+     * Updates the quote after the quantity of a cart line has changed by the passed amount.
+     * The cart's own totals must already include the change.
+     */
+    void lineChanged(ShoppingCart cart, CartLine line, int quantityChange) {
+        long start = DISCOUNTS_LATENCY.start();
+        Product product = line.getProduct();
+        updateRules(plan.getCategoryRules(product), cart, line, quantityChange);
+        updateRules(plan.getBrandRules(product), cart, line, quantityChange);
+        updateRules(plan.getProductRules(product), cart, line, quantityChange);
+        updateRules(plan.getCartRules(), cart, line, quantityChange);
+        DISCOUNTS_LATENCY.stop(start);
+    }
+
+    /**
+     * Evaluates the rules on the whole cart again, after something other than a cart line has changed.
+     */
+    void cartChanged(ShoppingCart cart) {
+        long start = DISCOUNTS_LATENCY.start();
+        for (int rule : plan.getCartRules()) {
+            evaluate(rule, cart);
+        }
+        DISCOUNTS_LATENCY.stop(start);
+    }
+
+    /**
+     * Returns the pricing plan of the quote.
+     */
+    public PricingPlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * Returns the current discount of the rule with the specified index in pence.
+     */
+    public long getDiscountInPence(int rule) {
+        return discounts[rule];
+    }
+
+    /**
+     * Returns the sum of the discounts of every rule in pence.
+     */
+    public long getTotalDiscountInPence() {
+        return totalDiscount;
+    }
+
+    /**
+     * Adds the change of a cart line to the scope of each of the passed rules and evaluates them again.
+     */
+    private void updateRules(int[] rules, ShoppingCart cart, CartLine line, int quantityChange) {
+        for (int rule : rules) {
+            scopeQuantities[rule] += quantityChange;
+            scopeAmounts[rule] += line.getUnitPriceInPence() * quantityChange;
+            PromotionRule promotion = plan.getRule(rule);
+            if (promotion.hasLineDiscounts()) { // Replaces the line's old contribution with its new one
+                lineDiscounts[rule] += promotion.calculateLineDiscount(line.getUnitPriceInPence(), line.getQuantity())
+                        - promotion.calculateLineDiscount(line.getUnitPriceInPence(), line.getQuantity() - quantityChange);
+            }
+            evaluate(rule, cart);
+        }
+    }
+
+    /**
+     * Evaluates a rule and updates the total discount by the change in its discount.
+     */
+    private void evaluate(int rule, ShoppingCart cart) {
+        long discount = scopeQuantities[rule] > 0
+                ? plan.getRule(rule).calculateDiscount(scopeQuantities[rule], scopeAmounts[rule], lineDiscounts[rule], cart)
+                : 0;
+        totalDiscount += discount - discounts[rule];
+        discounts[rule] = discount;
+    }
+}
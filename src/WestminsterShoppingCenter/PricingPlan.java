@@ -0,0 +1,129 @@
+package WestminsterShoppingCenter;
+
+import java.util.*;
+
+/**
+ * A class representing a set of promotions compiled into an evaluation plan.
+ * Compiling indexes the rules by the category, brand and product ID of their scope, so when a cart line changes
+ * only the rules whose scope contains the line, and the rules on the whole cart, need to be evaluated again.
+ * A plan never changes once compiled and can be shared by every cart.
+ */
+public class PricingPlan {
+    /**
+     * The standard promotions of the Westminster Shopping Center.
+     * 1: First time users receive a 10% discount
+     * 2: If 3 products of the same category are selected a 20% discount is given
+     */
+    public static final PricingPlan STANDARD_PROMOTIONS = compile(List.of(
+            PromotionRule.firstPurchase("First Purchase Discount", 10),
+            PromotionRule.sameCategory("Three items in the same Category Discount", 3, 20, "Electronics", "Clothing")));
+
+    private static final int[] NO_RULES = {};
+
+    private final PromotionRule[] rules;
+    private final int[] cartRules; // Indexes of the rules on the whole cart
+    private final Map<String, int[]> rulesByCategory;
+    private final Map<String, int[]> rulesByBrand;
+    private final Map<String, int[]> rulesByProduct;
+
+    /**
+     * A constructor to initialize a plan from compiled rule indexes. Use compile to create a plan.
+     */
+    private PricingPlan(PromotionRule[] rules, int[] cartRules, Map<String, int[]> rulesByCategory,
+                        Map<String, int[]> rulesByBrand, Map<String, int[]> rulesByProduct) {
+        this.rules = rules;
+        this.cartRules = cartRules;
+        this.rulesByCategory = rulesByCategory;
+        this.rulesByBrand = rulesByBrand;
+        this.rulesByProduct = rulesByProduct;
+    }
+
+    /**
+     * Compiles the passed promotions into an evaluation plan.
+     */
+    public static PricingPlan compile(List<? extends PromotionRule> rules) {
+        PromotionRule[] ruleArray = rules.toArray(new PromotionRule[0]);
+        List<Integer> cartRules = new ArrayList<>();
+        Map<String, List<Integer>> byCategory = new HashMap<>();
+        Map<String, List<Integer>> byBrand = new HashMap<>();
+        Map<String, List<Integer>> byProduct = new HashMap<>();
+
+        for (int i = 0; i < ruleArray.length; i++) {
+            PromotionRule rule = ruleArray[i];
+            switch (rule.getScopeType()) {
+                case CART -> cartRules.add(i);
+                case CATEGORY -> byCategory.computeIfAbsent(rule.getScopeKey(), key -> new ArrayList<>()).add(i);
+                case BRAND -> byBrand.computeIfAbsent(rule.getScopeKey(), key -> new ArrayList<>()).add(i);
+                case PRODUCT -> byProduct.computeIfAbsent(rule.getScopeKey(), key -> new ArrayList<>()).add(i);
+            }
+        }
+        return new PricingPlan(ruleArray, toArray(cartRules), toIndex(byCategory), toIndex(byBrand), toIndex(byProduct));
+    }
+
+    /**
+     * Returns the number of rules in the plan.
+     */
+    public int getRuleCount() {
+        return rules.length;
+    }
+
+    /**
+     * Returns the rule with the specified index.
+     */
+    public PromotionRule getRule(int index) {
+        return rules[index];
+    }
+
+    /**
+     * Returns the indexes of the rules on the whole cart.
+     */
+    int[] getCartRules() {
+        return cartRules;
+    }
+
+    /**
+     * Returns the indexes of the rules whose scope is the category of the passed product.
+     */
+    int[] getCategoryRules(Product product) {
+        return rulesByCategory.getOrDefault(product.getCategory(), NO_RULES);
+    }
+
+    /**
+     * Returns the indexes of the rules whose scope is the brand of the passed product.
+     */
+    int[] getBrandRules(Product product) {
+        if (rulesByBrand.isEmpty() || !(product instanceof Electronics)) {
+            return NO_RULES;
+        }
+        return rulesByBrand.getOrDefault(((Electronics) product).getBrand(), NO_RULES);
+    }
+
+    /**
+     * Returns the indexes of the rules whose scope is the passed product.
+     */
+    int[] getProductRules(Product product) {
+        return rulesByProduct.getOrDefault(product.getProductID(), NO_RULES);
+    }
+
+    /**
+     * Converts lists of rule indexes into arrays, which are faster to walk.
+     */
+    private static Map<String, int[]> toIndex(Map<String, List<Integer>> rulesByKey) {
+        Map<String, int[]> index = new HashMap<>();
+        for (Map.Entry<String, List<Integer>> entry : rulesByKey.entrySet()) {
+            index.put(entry.getKey(), toArray(entry.getValue()));
+        }
+        return index;
+    }
+
+    /**
+     * Converts a list of rule indexes into an array.
+     */
+    private static int[] toArray(List<Integer> ruleIndexes) {
+        int[] array = new int[ruleIndexes.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = ruleIndexes.get(i);
+        }
+        return array;
+    }
+}
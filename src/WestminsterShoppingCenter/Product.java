@@ -1,6 +1,8 @@
 package WestminsterShoppingCenter;
 
-import java.io.Serializable;
+import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 
 /**
  * This class implements the Serializable interface.
@@ -8,12 +10,32 @@ import java.io.Serializable;
  */
 
 public abstract class Product implements Serializable {
+    private static final long serialVersionUID = 289394919816501333L; // Fixed so that saved catalogs stay readable as the class changes
 
     //Attributes of a product
     private String productID; //A product's unique identifier
     private String productName;
-    private int numOfItemsAvailable;
-    private double price;
+    private transient volatile long stockLevels; // Items in stock, including reserved items, in the high half; items reserved in shopping carts in the low half
+    private transient long priceInPence; // Exact price in pence, saved as the "price" field in pounds
+
+    // The fields of a product in a saved catalog, which keep the price in pounds so older catalogs stay readable
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("productID", String.class),
+            new ObjectStreamField("productName", String.class),
+            new ObjectStreamField("numOfItemsAvailable", int.class),
+            new ObjectStreamField("price", double.class)
+    };
+
+    // Handle used to update both stock counters together with one lock-free compare-and-set operation
+    private static final VarHandle STOCK_LEVELS;
+
+    static {
+        try {
+            STOCK_LEVELS = MethodHandles.lookup().findVarHandle(Product.class, "stockLevels", long.class);
+        } catch (ReflectiveOperationException exception) {
+            throw new ExceptionInInitializerError(exception);
+        }
+    }
 
     /**
      * Constructor to initialize a product object.
@@ -22,8 +44,8 @@ public abstract class Product implements Serializable {
     public Product(String productID, String productName, int numOfItemsAvailable,double price){
         this.productID = productID;
         this.productName = productName;
-        this.numOfItemsAvailable = numOfItemsAvailable;
-        this.price = price;
+        this.stockLevels = stockLevels(numOfItemsAvailable, 0);
+        this.priceInPence = Money.fromPounds(price);
     }
     // Getter and setter methods to access and modify the attributes of a product object.
     public String getProductID() {
@@ -43,19 +65,160 @@ public abstract class Product implements Serializable {
     }
 
     public int getNumOfItemsAvailable() {
-        return numOfItemsAvailable;
+        return stockOf(stockLevels);
     }
 
+    /**
+     * Sets the number of items in stock, keeping the items reserved in shopping carts.
+     */
     public void setNumOfItemsAvailable(int numOfItemsAvailable) {
-        this.numOfItemsAvailable = numOfItemsAvailable;
+        while (true) {
+            long levels = stockLevels;
+            if (STOCK_LEVELS.compareAndSet(this, levels, stockLevels(numOfItemsAvailable, reservedOf(levels)))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of items held in shopping carts that have not been sold yet.
+     */
+    public int getReservedItems() {
+        return reservedOf(stockLevels);
+    }
+
+    /**
+     * Returns the number of items that can still be reserved: the items in stock that are not held in a shopping cart.
+     */
+    public int getUnreservedItems() {
+        long levels = stockLevels;
+        return Math.max(0, stockOf(levels) - reservedOf(levels));
+    }
+
+    /**
+     * Reserves the passed number of items if that many are in stock and not already reserved.
+     * The stock and the reserved items are checked and updated by one lock-free compare-and-set, so concurrent shoppers
+     * can never reserve more items than are in stock, even while other items are being sold.
+     * Returns true if the items were reserved.
+     */
+    boolean tryReserve(int quantity) {
+        while (true) {
+            long levels = stockLevels;
+            int reserved = reservedOf(levels);
+            if (stockOf(levels) - reserved < quantity) {
+                return false;
+            }
+            if (STOCK_LEVELS.compareAndSet(this, levels, stockLevels(stockOf(levels), reserved + quantity))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases the passed number of reserved items, making them available to other shoppers again.
+     * Throws an IllegalStateException, changing nothing, if fewer items than that are reserved, as the items were then
+     * already released or sold, or never reserved.
+     */
+    void releaseReservation(int quantity) {
+        while (true) {
+            long levels = stockLevels;
+            int reserved = reservedOf(levels);
+            if (reserved < quantity) {
+                throw new IllegalStateException("Cannot release " + quantity + " item(s) of product " + productID + ": only " + reserved + " are reserved");
+            }
+            if (STOCK_LEVELS.compareAndSet(this, levels, stockLevels(stockOf(levels), reserved - quantity))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Turns the passed number of reserved items into sold items by taking them out of stock and releasing the reservation,
+     * both in the same compare-and-set.
+     * Returns false, changing nothing, if fewer items than that are reserved or in stock.
+     */
+    boolean commitReservation(int quantity) {
+        while (true) {
+            long levels = stockLevels;
+            int stock = stockOf(levels);
+            int reserved = reservedOf(levels);
+            if (reserved < quantity || stock < quantity) {
+                return false;
+            }
+            if (STOCK_LEVELS.compareAndSet(this, levels, stockLevels(stock - quantity, reserved - quantity))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Puts the passed number of sold items back in stock, undoing commitReservation when the sale could not be recorded.
+     * The items are not reserved again.
+     */
+    void restoreStock(int quantity) {
+        while (true) {
+            long levels = stockLevels;
+            if (STOCK_LEVELS.compareAndSet(this, levels, stockLevels(stockOf(levels) + quantity, reservedOf(levels)))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the items in stock and the items reserved packed into one value, so both can be updated together.
+     */
+    private static long stockLevels(int stock, int reserved) {
+        return ((long) stock << 32) | (reserved & 0xFFFFFFFFL);
+    }
+
+    private static int stockOf(long stockLevels) {
+        return (int) (stockLevels >> 32);
+    }
+
+    private static int reservedOf(long stockLevels) {
+        return (int) stockLevels;
     }
 
     public double getPrice() {
-        return price;
+        return Money.toPounds(priceInPence);
     }
 
     public void setPrice(double price) {
-        this.price = price;
+        this.priceInPence = Money.fromPounds(price);
+    }
+
+    /**
+     * Returns the price of the product in pence.
+     */
+    public long getPriceInPence() {
+        return priceInPence;
+    }
+
+    public void setPriceInPence(long priceInPence) {
+        this.priceInPence = priceInPence;
+    }
+
+    /**
+     * Writes the product to a saved catalog, with the price in pounds as in older catalogs.
+     */
+    private void writeObject(ObjectOutputStream output) throws IOException {
+        ObjectOutputStream.PutField fields = output.putFields();
+        fields.put("productID", productID);
+        fields.put("productName", productName);
+        fields.put("numOfItemsAvailable", getNumOfItemsAvailable());
+        fields.put("price", getPrice());
+        output.writeFields();
+    }
+
+    /**
+     * Reads the product from a saved catalog, converting the price in pounds to pence.
+     */
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = input.readFields();
+        productID = (String) fields.get("productID", null);
+        productName = (String) fields.get("productName", null);
+        stockLevels = stockLevels(fields.get("numOfItemsAvailable", 0), 0);
+        priceInPence = Money.fromPounds(fields.get("price", 0.0));
     }
 
     // A string representation of the product details
@@ -64,8 +227,8 @@ public abstract class Product implements Serializable {
         return "Product{" +
                 "productID='" + productID + '\'' +
                 ", productName='" + productName + '\'' +
-                ", numOfItemsAvailable=" + numOfItemsAvailable +
-                ", price=" + price +
+                ", numOfItemsAvailable=" + getNumOfItemsAvailable() +
+                ", price=" + getPrice() +
                 '}';
     }
     /**
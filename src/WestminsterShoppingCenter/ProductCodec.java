@@ -0,0 +1,66 @@
+package WestminsterShoppingCenter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A class that writes and reads single products in a compact binary form.
+ * It is used where products are persisted one at a time, such as the records of the catalog journal.
+ * Each product starts with a type byte (electronics or clothing) followed by its common and category-specific attributes.
+ */
+public final class ProductCodec {
+    // Type bytes of the product categories
+    static final byte ELECTRONICS = 1;
+    static final byte CLOTHING = 2;
+
+    private ProductCodec() {
+    }
+
+    /**
+     * Writes the passed product to the output.
+     */
+    public static void writeProduct(DataOutput output, Product product) throws IOException {
+        if (product instanceof Electronics electronics) {
+            output.writeByte(ELECTRONICS);
+            writeCommonAttributes(output, product);
+            output.writeUTF(electronics.getBrand());
+            output.writeInt(electronics.getWarrantyPeriod());
+        } else if (product instanceof Clothing clothing) {
+            output.writeByte(CLOTHING);
+            writeCommonAttributes(output, product);
+            output.writeUTF(clothing.getSize());
+            output.writeUTF(clothing.getColor());
+        } else {
+            throw new IOException("Unknown product type: " + product.getClass().getName());
+        }
+    }
+
+    /**
+     * Reads a product that was written by writeProduct from the input.
+     */
+    public static Product readProduct(DataInput input) throws IOException {
+        byte type = input.readByte();
+        String productID = input.readUTF();
+        String productName = input.readUTF();
+        int numOfItemsAvailable = input.readInt();
+        double price = input.readDouble();
+
+        if (type == ELECTRONICS) {
+            return new Electronics(productID, productName, numOfItemsAvailable, price, input.readUTF(), input.readInt());
+        } else if (type == CLOTHING) {
+            return new Clothing(productID, productName, numOfItemsAvailable, price, input.readUTF(), input.readUTF());
+        }
+        throw new IOException("Unknown product type byte: " + type);
+    }
+
+    /**
+     * Writes the attributes every product has.
+     */
+    private static void writeCommonAttributes(DataOutput output, Product product) throws IOException {
+        output.writeUTF(product.getProductID());
+        output.writeUTF(product.getProductName());
+        output.writeInt(product.getNumOfItemsAvailable());
+        output.writeDouble(product.getPrice());
+    }
+}
@@ -0,0 +1,244 @@
+package WestminsterShoppingCenter;
+
+/**
+ * An abstract class representing a promotion that discounts the items of a shopping cart.
+ * Each rule has a scope, which is the items it looks at: the whole cart, one category, one brand or one product.
+ * A PricingPlan indexes rules by their scope, so a change to a cart line only re-evaluates the rules whose scope contains that line.
+ * The static factory methods create the supported kinds of promotion.
+ */
+public abstract class PromotionRule {
+    /**
+     * The kinds of scope a promotion can have.
+     */
+    public enum ScopeType {
+        CART, CATEGORY, BRAND, PRODUCT
+    }
+
+    private final String name;
+    private final ScopeType scopeType;
+    private final String scopeKey; // The category, brand or product ID of the scope, or null for the whole cart
+
+    /**
+     * A constructor to initialize a promotion with a name, shown to the shopper, and a scope.
+     */
+    protected PromotionRule(String name, ScopeType scopeType, String scopeKey) {
+        if (scopeType != ScopeType.CART && scopeKey == null) {
+            throw new IllegalArgumentException("A " + scopeType + " promotion needs a scope key.");
+        }
+        this.name = name;
+        this.scopeType = scopeType;
+        this.scopeKey = scopeKey;
+    }
+
+    /**
+     * Returns the name of the promotion.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the kind of scope of the promotion.
+     */
+    public ScopeType getScopeType() {
+        return scopeType;
+    }
+
+    /**
+     * Returns the category, brand or product ID of the scope, or null if the scope is the whole cart.
+     */
+    public String getScopeKey() {
+        return scopeKey;
+    }
+
+    /**
+     * Calculates the discount of the promotion in pence.
+     * The quantity and amount are the number and price in pence of the items in the scope of the promotion, and the
+     * line discount is the sum of calculateLineDiscount over the cart lines in the scope.
+     */
+    protected abstract long calculateDiscount(int quantity, long amount, long lineDiscount, ShoppingCart cart);
+
+    /**
+     * Calculates the discount in pence of a single cart line, for promotions that price each line on its own.
+     * Only called if hasLineDiscounts returns true.
+     */
+    protected long calculateLineDiscount(long unitPrice, int quantity) {
+        return 0;
+    }
+
+    /**
+     * Returns true if the promotion prices each cart line on its own with calculateLineDiscount.
+     */
+    protected boolean hasLineDiscounts() {
+        return false;
+    }
+
+    /**
+     * Returns a promotion that gives a percentage off the items of a category once the cart holds at least the passed number of them.
+     */
+    public static PromotionRule categoryDiscount(String name, String category, int minItems, double percent) {
+        return new PercentageRule(name, ScopeType.CATEGORY, category, minItems, percent);
+    }
+
+    /**
+     * Returns a promotion that gives a percentage off every item of a brand.
+     */
+    public static PromotionRule brandDiscount(String name, String brand, double percent) {
+        return new PercentageRule(name, ScopeType.BRAND, brand, 1, percent);
+    }
+
+    /**
+     * Returns a promotion that gives the passed number of items free for every buyQuantity items of the same product bought.
+     * The scope can be a single product, or a category or brand in which case every product in it is priced on its own.
+     */
+    public static PromotionRule buyNGetFree(String name, ScopeType scopeType, String scopeKey, int buyQuantity, int freeQuantity) {
+        return new BuyNGetFreeRule(name, scopeType, scopeKey, buyQuantity, freeQuantity);
+    }
+
+    /**
+     * Returns a promotion that gives a percentage off the whole cart, which grows as the cart total passes each spending threshold.
+     * The thresholds are in pounds and must be in ascending order, with one percentage for each threshold.
+     */
+    public static PromotionRule tieredSpend(String name, double[] thresholds, double[] percents) {
+        return new TieredSpendRule(name, thresholds, percents);
+    }
+
+    /**
+     * Returns a promotion that gives a percentage off the whole cart once the cart holds the passed number of items in any one of the categories.
+     */
+    public static PromotionRule sameCategory(String name, int minItems, double percent, String... categories) {
+        return new SameCategoryRule(name, minItems, percent, categories);
+    }
+
+    /**
+     * Returns a promotion that gives a percentage off the whole cart on the first purchase of a shopper.
+     */
+    public static PromotionRule firstPurchase(String name, double percent) {
+        return new FirstPurchaseRule(name, percent);
+    }
+
+    /**
+     * A promotion that gives a percentage off the items in its scope once there are at least a minimum number of them.
+     */
+    private static class PercentageRule extends PromotionRule {
+        private final int minItems;
+        private final long rate; // In basis points
+
+        PercentageRule(String name, ScopeType scopeType, String scopeKey, int minItems, double percent) {
+            super(name, scopeType, scopeKey);
+            this.minItems = minItems;
+            this.rate = Money.toBasisPoints(percent);
+        }
+
+        @Override
+        protected long calculateDiscount(int quantity, long amount, long lineDiscount, ShoppingCart cart) {
+            return quantity >= minItems ? Money.applyRate(amount, rate) : 0;
+        }
+    }
+
+    /**
+     * A promotion that gives items of a product free for every number of items bought.
+     */
+    private static class BuyNGetFreeRule extends PromotionRule {
+        private final int buyQuantity;
+        private final int freeQuantity;
+
+        BuyNGetFreeRule(String name, ScopeType scopeType, String scopeKey, int buyQuantity, int freeQuantity) {
+            super(name, scopeType, scopeKey);
+            if (scopeType == ScopeType.CART || buyQuantity <= 0 || freeQuantity <= 0) {
+                throw new IllegalArgumentException("A buy-N promotion needs a product, category or brand and positive quantities.");
+            }
+            this.buyQuantity = buyQuantity;
+            this.freeQuantity = freeQuantity;
+        }
+
+        @Override
+        protected long calculateDiscount(int quantity, long amount, long lineDiscount, ShoppingCart cart) {
+            return lineDiscount;
+        }
+
+        @Override
+        protected long calculateLineDiscount(long unitPrice, int quantity) {
+            return (quantity / (buyQuantity + freeQuantity)) * freeQuantity * unitPrice; // Every full group of bought and free items
+        }
+
+        @Override
+        protected boolean hasLineDiscounts() {
+            return true;
+        }
+    }
+
+    /**
+     * A promotion that gives a percentage off the whole cart depending on how much is spent.
+     */
+    private static class TieredSpendRule extends PromotionRule {
+        private final long[] thresholds; // In pence
+        private final long[] rates; // In basis points
+
+        TieredSpendRule(String name, double[] thresholds, double[] percents) {
+            super(name, ScopeType.CART, null);
+            if (thresholds.length != percents.length) {
+                throw new IllegalArgumentException("Every spending threshold needs a percentage.");
+            }
+            this.thresholds = new long[thresholds.length];
+            this.rates = new long[percents.length];
+            for (int i = 0; i < percents.length; i++) {
+                this.thresholds[i] = Money.fromPounds(thresholds[i]);
+                this.rates[i] = Money.toBasisPoints(percents[i]);
+            }
+        }
+
+        @Override
+        protected long calculateDiscount(int quantity, long amount, long lineDiscount, ShoppingCart cart) {
+            for (int i = thresholds.length - 1; i >= 0; i--) { // The highest threshold reached wins
+                if (amount >= thresholds[i]) {
+                    return Money.applyRate(amount, rates[i]);
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * A promotion that gives a percentage off the whole cart once enough items of the same category are in the cart.
+     */
+    private static class SameCategoryRule extends PromotionRule {
+        private final int minItems;
+        private final long rate; // In basis points
+        private final String[] categories;
+
+        SameCategoryRule(String name, int minItems, double percent, String[] categories) {
+            super(name, ScopeType.CART, null);
+            this.minItems = minItems;
+            this.rate = Money.toBasisPoints(percent);
+            this.categories = categories.clone();
+        }
+
+        @Override
+        protected long calculateDiscount(int quantity, long amount, long lineDiscount, ShoppingCart cart) {
+            for (String category : categories) {
+                if (cart.getCategoryCount(category) >= minItems) {
+                    return Money.applyRate(amount, rate);
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * A promotion that gives a percentage off the whole cart on the first purchase of a shopper.
+     */
+    private static class FirstPurchaseRule extends PromotionRule {
+        private final long rate; // In basis points
+
+        FirstPurchaseRule(String name, double percent) {
+            super(name, ScopeType.CART, null);
+            this.rate = Money.toBasisPoints(percent);
+        }
+
+        @Override
+        protected long calculateDiscount(int quantity, long amount, long lineDiscount, ShoppingCart cart) {
+            return cart.isFirstPurchase() ? Money.applyRate(amount, rate) : 0;
+        }
+    }
+}
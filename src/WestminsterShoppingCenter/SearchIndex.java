@@ -0,0 +1,361 @@
+package WestminsterShoppingCenter;
+
+import java.util.*;
+
+/**
+ * A class that indexes the words of the products of the catalog for searching, as an inverted index.
+ * The words of a product's name, of an electronic product's brand and of a clothing product's size and color are
+ * indexed in lower case, and each word maps to the products that contain it.
+ * The words are kept sorted, so all the words that start with a prefix are next to each other and a query can be
+ * answered while it is still being typed.
+ * A query matches the products that have a word starting with every word of the query: "red sh" matches a red shirt.
+ *
+ * Each product is given a number in the order it is indexed, and each word keeps the sorted numbers of its products
+ * in an int array rather than a set of products, so a query walks and intersects plain arrays and only touches the
+ * products it returns.
+ * The numbers of deleted products are not reused, so the numbers stay in the order the products were added;
+ * once more than half of the numbers belong to deleted products, the products are numbered again.
+ * The index is not thread-safe; the catalog store holds its read lock while the index is searched, and its write lock
+ * while it is changed.
+ */
+public class SearchIndex {
+    private static final int MIN_COMPACTION_SIZE = 1024; // Deleted products below this number never cause the products to be numbered again
+    private static final int MAX_FOLLOWED_WORDS = 8; // Most indexed words a query word can start and still be checked against their numbers rather than the product's fields
+    private static final int MAX_COUNTED_WORDS = 4096; // Most indexed words counted for one query word
+
+    private final NavigableMap<String, Postings> postingsByWord = new TreeMap<>();
+    private final Map<String, Integer> numbersByProductID = new HashMap<>();
+    private final Map<String, BitSet> numbersByCategory = new HashMap<>();
+    private Product[] products = new Product[16]; // Indexed products by number, null once deleted
+    private int nextNumber;
+    private int deletedCount; // Numbers below nextNumber whose products were deleted
+
+    /**
+     * Adds the words of a product to the index. A product already indexed under the same product ID is replaced.
+     */
+    public void add(Product product) {
+        Integer previous = numbersByProductID.get(product.getProductID());
+        if (previous != null) {
+            remove(products[previous]);
+        }
+        if (nextNumber == products.length) {
+            products = Arrays.copyOf(products, products.length * 2);
+        }
+        int number = nextNumber++;
+        products[number] = product;
+        numbersByProductID.put(product.getProductID(), number);
+        numbersByCategory.computeIfAbsent(product.getCategory(), category -> new BitSet()).set(number);
+        for (String word : tokenize(product)) {
+            postingsByWord.computeIfAbsent(word, key -> new Postings()).append(number);
+        }
+    }
+
+    /**
+     * Removes the words of a product from the index.
+     * The words are read from the product again, so a product must not be renamed while it is indexed.
+     */
+    public void remove(Product product) {
+        Integer number = numbersByProductID.get(product.getProductID());
+        if (number == null || products[number] != product) {
+            return;
+        }
+        numbersByProductID.remove(product.getProductID());
+        products[number] = null;
+        numbersByCategory.get(product.getCategory()).clear(number);
+        for (String word : tokenize(product)) {
+            Postings postings = postingsByWord.get(word);
+            if (postings != null && postings.remove(number) && postings.size == 0) {
+                postingsByWord.remove(word);
+            }
+        }
+        deletedCount++;
+        if (deletedCount > MIN_COMPACTION_SIZE && deletedCount > nextNumber / 2) {
+            compact();
+        }
+    }
+
+    /**
+     * Removes every product from the index.
+     */
+    public void clear() {
+        postingsByWord.clear();
+        numbersByProductID.clear();
+        numbersByCategory.clear();
+        products = new Product[16];
+        nextNumber = 0;
+        deletedCount = 0;
+    }
+
+    /**
+     * Returns the number of distinct words in the index.
+     */
+    public int getWordCount() {
+        return postingsByWord.size();
+    }
+
+    /**
+     * Returns up to the passed number of products that match the query, in the order they were added.
+     * Only products of the specified category are returned, or of all categories if the category is null.
+     * A query with no words matches nothing.
+     *
+     * The matches are found by walking the products of the query word that matches the fewest products, and checking
+     * each for the other query words by stepping through their sorted numbers alongside, so no set is built per query.
+     * The walk stops as soon as enough products have matched, so a short prefix that matches most of the catalog is
+     * as quick to look up as a whole word.
+     */
+    public List<Product> search(String query, String category, int limit) {
+        List<String> queryWords = tokenize(query);
+        BitSet categoryNumbers = category == null ? null : numbersByCategory.get(category);
+        if (queryWords.isEmpty() || limit <= 0 || (category != null && categoryNumbers == null)) {
+            return new ArrayList<>();
+        }
+
+        queryWords.sort(Comparator.comparingInt(String::length).reversed()); // Longer words usually match fewer products, so they are counted first
+        int leadingIndex = 0;
+        long fewestProducts = Long.MAX_VALUE;
+        for (int i = 0; i < queryWords.size() && queryWords.size() > 1; i++) {
+            long productCount = countProducts(queryWords.get(i), fewestProducts);
+            if (productCount < fewestProducts) {
+                fewestProducts = productCount;
+                leadingIndex = i;
+            }
+        }
+
+        List<PostingsCursor> cursors = new ArrayList<>(); // Products of the other query words that start few indexed words
+        List<String> scannedWords = new ArrayList<>(); // Other query words, which start too many indexed words to follow
+        for (int i = 0; i < queryWords.size(); i++) {
+            if (i == leadingIndex) {
+                continue;
+            }
+            Collection<Postings> wordPostings = wordsStartingWith(queryWords.get(i)).values();
+            if (wordPostings.size() <= MAX_FOLLOWED_WORDS) {
+                cursors.add(new PostingsCursor(wordPostings));
+            } else {
+                scannedWords.add(queryWords.get(i));
+            }
+        }
+
+        Collection<Postings> leadingPostings = wordsStartingWith(queryWords.get(leadingIndex)).values();
+        Set<Integer> matched = leadingPostings.size() > 1 ? new HashSet<>() : null; // A product can have several words with the prefix
+        int[] matches = new int[Math.min(limit, 64)];
+        int matchCount = 0;
+        walk:
+        for (Postings postings : leadingPostings) {
+            for (PostingsCursor cursor : cursors) {
+                cursor.rewind(); // The numbers of each word of the leading prefix are walked in order from the lowest
+            }
+            for (int i = 0; i < postings.size; i++) {
+                int number = postings.numbers[i];
+                if ((categoryNumbers != null && !categoryNumbers.get(number)) || !allContain(cursors, number)
+                        || !hasWordsStartingWith(products[number], scannedWords) || (matched != null && !matched.add(number))) {
+                    continue;
+                }
+                if (matchCount == matches.length) {
+                    matches = Arrays.copyOf(matches, Math.min(limit, matchCount * 2));
+                }
+                matches[matchCount++] = number;
+                if (matchCount == limit) {
+                    break walk;
+                }
+            }
+        }
+
+        Arrays.sort(matches, 0, matchCount);
+        List<Product> results = new ArrayList<>(matchCount);
+        for (int i = 0; i < matchCount; i++) {
+            results.add(products[matches[i]]);
+        }
+        return results;
+    }
+
+    /**
+     * Splits a text into lower case words of letters and digits.
+     */
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordCharacter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordCharacter && start < 0) {
+                start = i;
+            } else if (!wordCharacter && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Returns the distinct words of the searchable fields of a product.
+     */
+    private static Set<String> tokenize(Product product) {
+        Set<String> words = new HashSet<>(tokenize(product.getProductName()));
+        if (product instanceof Electronics electronics) {
+            words.addAll(tokenize(electronics.getBrand()));
+        } else if (product instanceof Clothing clothing) {
+            words.addAll(tokenize(clothing.getSize()));
+            words.addAll(tokenize(clothing.getColor()));
+        }
+        return words;
+    }
+
+    private static boolean allContain(List<PostingsCursor> cursors, int number) {
+        for (PostingsCursor cursor : cursors) {
+            if (!cursor.contains(number)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if, for every passed query word, a field of the product has a word that starts with it.
+     * The fields are scanned without being split into words.
+     */
+    private static boolean hasWordsStartingWith(Product product, List<String> queryWords) {
+        for (String queryWord : queryWords) {
+            boolean found = hasWordStartingWith(product.getProductName(), queryWord);
+            if (!found && product instanceof Electronics electronics) {
+                found = hasWordStartingWith(electronics.getBrand(), queryWord);
+            } else if (!found && product instanceof Clothing clothing) {
+                found = hasWordStartingWith(clothing.getSize(), queryWord) || hasWordStartingWith(clothing.getColor(), queryWord);
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if a word of the text starts with the prefix, ignoring case. The prefix is a single word.
+     */
+    private static boolean hasWordStartingWith(String text, String prefix) {
+        if (text == null) {
+            return false;
+        }
+        for (int i = 0; i + prefix.length() <= text.length(); i++) {
+            boolean wordStart = i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1));
+            if (wordStart && text.regionMatches(true, i, prefix, 0, prefix.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of products with a word that starts with the prefix, counting a product once per word.
+     * Counting stops once the count exceeds the passed limit, since the caller has no use for a larger count,
+     * and a prefix of more words than can be counted quickly is taken to match too many products to count.
+     */
+    private long countProducts(String prefix, long limit) {
+        long count = 0;
+        int wordCount = 0;
+        for (Postings postings : wordsStartingWith(prefix).values()) {
+            count += postings.size;
+            if (count > limit) {
+                break;
+            }
+            if (++wordCount == MAX_COUNTED_WORDS) {
+                return Long.MAX_VALUE - 1;
+            }
+        }
+        return count;
+    }
+
+    // Words are letters and digits, so every word starting with the prefix sorts before the prefix followed by the highest character
+    private SortedMap<String, Postings> wordsStartingWith(String prefix) {
+        return postingsByWord.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+
+    /**
+     * Numbers the indexed products again from 0, in the same order, so the numbers of deleted products are freed.
+     */
+    private void compact() {
+        Product[] indexedProducts = Arrays.copyOf(products, nextNumber);
+        clear();
+        for (Product product : indexedProducts) {
+            if (product != null) {
+                add(product);
+            }
+        }
+    }
+
+    /**
+     * The sorted numbers of the products that have a word.
+     */
+    private static class Postings {
+        private int[] numbers = new int[2];
+        private int size;
+
+        // New products get the highest number yet, so appending keeps the numbers sorted
+        void append(int number) {
+            if (size == numbers.length) {
+                numbers = Arrays.copyOf(numbers, size * 2);
+            }
+            numbers[size++] = number;
+        }
+
+        // Returns false if the number is not in the list
+        boolean remove(int number) {
+            int index = Arrays.binarySearch(numbers, 0, size, number);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(numbers, index + 1, numbers, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+
+    /**
+     * A position in the sorted numbers of each indexed word a query word starts, for checking a rising sequence of
+     * numbers against them. Each check moves forward from the last one, galloping over the numbers in between.
+     */
+    private static class PostingsCursor {
+        private final Postings[] postings;
+        private final int[] positions;
+
+        PostingsCursor(Collection<Postings> postings) {
+            this.postings = postings.toArray(new Postings[0]);
+            this.positions = new int[this.postings.length];
+        }
+
+        void rewind() {
+            Arrays.fill(positions, 0);
+        }
+
+        // Numbers must be checked in rising order between rewinds
+        boolean contains(int number) {
+            boolean found = false;
+            for (int i = 0; i < postings.length; i++) {
+                int[] numbers = postings[i].numbers;
+                int size = postings[i].size;
+                int position = positions[i];
+                if (position < size && numbers[position] < number) {
+                    int bound = 1;
+                    while (position + bound < size && numbers[position + bound] < number) {
+                        bound *= 2;
+                    }
+                    int index = Arrays.binarySearch(numbers, position + bound / 2, Math.min(size, position + bound + 1), number);
+                    position = index >= 0 ? index : -index - 1;
+                }
+                positions[i] = position;
+                found |= position < size && numbers[position] == number;
+            }
+            return found;
+        }
+    }
+}
+
+//REFERENCES
+
+/* Inverted index
+ * https://en.wikipedia.org/wiki/Inverted_index
+ * TreeMap.subMap - https://docs.oracle.com/javase/8/docs/api/java/util/TreeMap.html
+ * BitSet - https://docs.oracle.com/javase/8/docs/api/java/util/BitSet.html
+ */
@@ -0,0 +1,30 @@
+package WestminsterShoppingCenter;
+
+import java.util.List;
+
+/**
+ * An enum representing how the products of a sharded catalog are partitioned into its shards (see CatalogShards).
+ */
+public enum ShardingScheme {
+    CATEGORY { // Each category has a shard of its own, so at most one shard per category is used
+        @Override
+        int shardOf(Product product, int shardCount) {
+            int categoryIndex = CATEGORIES.indexOf(product.getCategory());
+            return categoryIndex >= 0 ? categoryIndex % shardCount : Math.floorMod(product.getCategory().hashCode(), shardCount);
+        }
+    },
+    PRODUCT_ID { // Products are spread evenly over the shards by the hash of their product ID
+        @Override
+        int shardOf(Product product, int shardCount) {
+            return Math.floorMod(product.getProductID().hashCode(), shardCount); // String.hashCode is the same in every JVM
+        }
+    };
+
+    private static final List<String> CATEGORIES = List.of("Electronics", "Clothing");
+
+    /**
+     * Returns the shard, from 0 to the passed number of shards, that the passed product is saved to.
+     * A product is always saved to the same shard, as neither its category nor its product ID ever change.
+     */
+    abstract int shardOf(Product product, int shardCount);
+}
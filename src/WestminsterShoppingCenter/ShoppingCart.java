@@ -1,23 +1,232 @@
 package WestminsterShoppingCenter;
 
-import java.util.ArrayList;
+import java.util.*;
 
+/**
+ * A class representing a shopping cart in the Westminster Shopping Center system.
+ * The cart holds one line per product, keyed by product ID, and keeps its subtotal and the number of items in each
+ * category up to date as items are added and removed, so adding, removing and pricing the cart never re-scans its lines.
+ * If the cart has a pricing plan, its promotions are kept up to date in a PriceQuote in the same way.
+ */
 public class ShoppingCart {
-    private ArrayList<Product> shoppingList = new ArrayList<>();
+    private final Map<String, CartLine> linesByProductID = new HashMap<>();
+    private final ArrayList<CartLine> lines = new ArrayList<>(); // Lines in the order they were added
+    private final Map<String, Integer> categoryCounts = new HashMap<>(); // Number of items in the cart in each category
+    private int itemCount;
+    private long subtotalInPence;
+    private boolean firstPurchase; // True if this is the shopper's first purchase
+    private PriceQuote quote; // Discounts of the cart, or null if the cart has no pricing plan
 
+    private static final LatencyHistogram ADD_ITEM_LATENCY = Metrics.getInstance().histogram(Metrics.CART_ADD, 16); // Only about one add in 16 is timed
+
+    /**
+     * Adds one item of the passed product to the cart.
+     */
     public void addItem(Product product) {
+        addItem(product, 1);
+    }
 
-        shoppingList.add(product);
+    /**
+     * Adds the passed number of items of a product to the cart.
+     * Returns the cart line of the product.
+     */
+    public CartLine addItem(Product product, int quantity) {
+        checkQuantity(quantity);
+        long start = ADD_ITEM_LATENCY.start();
+        CartLine line = linesByProductID.get(product.getProductID());
+        if (line == null) { // The first items of this product get a line of their own
+            line = new CartLine(product, lines.size());
+            linesByProductID.put(product.getProductID(), line);
+            lines.add(line);
+        }
+        line.addQuantity(quantity);
+        updateTotals(line, quantity);
+        if (quote != null) {
+            quote.lineChanged(this, line, quantity);
+        }
+        ADD_ITEM_LATENCY.stop(start);
+        return line;
     }
+
+    /**
+     * Removes one item of the passed product from the cart.
+     */
     public void removeItem(Product product) {
+        removeItem(product, 1);
+    }
+
+    /**
+     * Removes up to the passed number of items of a product from the cart.
+     * When the last item of a product is removed, its line is removed and the last line of the cart takes its place.
+     * Returns the number of items removed.
+     */
+    public int removeItem(Product product, int quantity) {
+        checkQuantity(quantity);
+        CartLine line = linesByProductID.get(product.getProductID());
+        if (line == null) {
+            return 0;
+        }
+        int removedQuantity = Math.min(quantity, line.getQuantity());
+        line.addQuantity(-removedQuantity);
+        updateTotals(line, -removedQuantity);
+        if (quote != null) {
+            quote.lineChanged(this, line, -removedQuantity);
+        }
+
+        if (line.getQuantity() == 0) {
+            linesByProductID.remove(product.getProductID());
+            CartLine lastLine = lines.remove(lines.size() - 1);
+            if (lastLine != line) { // Moves the last line into the gap instead of shifting every later line
+                lines.set(line.index, lastLine);
+                lastLine.index = line.index;
+            }
+        }
+        return removedQuantity;
+    }
 
-        shoppingList.remove(product);
+    /**
+     * Removes every line from the cart.
+     */
+    public void clear() {
+        linesByProductID.clear();
+        lines.clear();
+        categoryCounts.clear();
+        itemCount = 0;
+        subtotalInPence = 0;
+        if (quote != null) {
+            quote = new PriceQuote(quote.getPlan());
+        }
     }
+
+    /**
+     * Returns the total cost of the items in the cart in pounds, before discounts.
+     */
     public double calculateTotalCost() {
-        double totalCost = 0;
-        for (Product product : shoppingList) {
-            totalCost += product.getPrice();
+        return Money.toPounds(subtotalInPence);
+    }
+
+    /**
+     * Returns the total cost of the items in the cart in pence, before discounts.
+     */
+    public long getSubtotalInPence() {
+        return subtotalInPence;
+    }
+
+    /**
+     * Returns the total discount of the promotions in the pricing plan in pence, or 0 if the cart has no pricing plan.
+     */
+    public long getTotalDiscountInPence() {
+        return quote == null ? 0 : quote.getTotalDiscountInPence();
+    }
+
+    /**
+     * Returns the total cost of the items in the cart in pence, after discounts. The discounts never make the cost negative.
+     */
+    public long calculateFinalCostInPence() {
+        return Math.max(0, subtotalInPence - getTotalDiscountInPence());
+    }
+
+    /**
+     * Prices the cart with the promotions of the passed plan, or without promotions if the plan is null.
+     * The discounts of the lines already in the cart are worked out straight away.
+     */
+    public void setPricingPlan(PricingPlan plan) {
+        if (plan == null) {
+            quote = null;
+            return;
+        }
+        quote = new PriceQuote(plan);
+        // Rebuilds the totals line by line, so the quote sees every line being added as it would have in the first place
+        itemCount = 0;
+        subtotalInPence = 0;
+        categoryCounts.clear();
+        for (CartLine line : lines) {
+            updateTotals(line, line.getQuantity());
+            quote.lineChanged(this, line, line.getQuantity());
+        }
+    }
+
+    /**
+     * Returns the discounts of the cart under its pricing plan, or null if the cart has no pricing plan.
+     */
+    public PriceQuote getQuote() {
+        return quote;
+    }
+
+    /**
+     * Sets whether this is the shopper's first purchase, which some promotions depend on.
+     */
+    public void setFirstPurchase(boolean firstPurchase) {
+        this.firstPurchase = firstPurchase;
+        if (quote != null) {
+            quote.cartChanged(this);
+        }
+    }
+
+    /**
+     * Returns true if this is the shopper's first purchase.
+     */
+    public boolean isFirstPurchase() {
+        return firstPurchase;
+    }
+
+    /**
+     * Returns the cart line of the product with the specified product ID, or null if the product is not in the cart.
+     */
+    public CartLine getLine(String productID) {
+        return linesByProductID.get(productID);
+    }
+
+    /**
+     * Returns the cart line at the specified position.
+     */
+    public CartLine getLine(int index) {
+        return lines.get(index);
+    }
+
+    /**
+     * Returns a read-only list of the lines of the cart.
+     */
+    public List<CartLine> getLines() {
+        return Collections.unmodifiableList(lines);
+    }
+
+    /**
+     * Returns the number of lines in the cart.
+     */
+    public int getLineCount() {
+        return lines.size();
+    }
+
+    /**
+     * Returns the number of items in the cart.
+     */
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Returns the number of items in the cart in the specified category.
+     */
+    public int getCategoryCount(String category) {
+        return categoryCounts.getOrDefault(category, 0);
+    }
+
+    /**
+     * Updates the subtotal and the item counts after the quantity of a cart line has changed by the passed amount.
+     */
+    private void updateTotals(CartLine line, int quantityChange) {
+        itemCount += quantityChange;
+        subtotalInPence += line.getUnitPriceInPence() * quantityChange;
+        categoryCounts.merge(line.getProduct().getCategory(), quantityChange, Integer::sum);
+    }
+
+    /**
+     * Checks that a quantity is positive.
+     */
+    private static void checkQuantity(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
         }
-        return totalCost;
     }
 }
@@ -1,13 +1,20 @@
 package WestminsterShoppingCenter;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * An interface that represents the shopping manager for the Westminster Shopping Center system.
  * It defines the methods for the operations a manager can perform.
  * Those operations are adding, deleting, printing, saving, and loading products as required.
+ * Products can also be added, deleted and restocked in batches, which are applied, persisted and shown as a single change.
  */
 public interface ShoppingManager {
     void addProduct(Product product); // Adds a product to the shopping manager.
     void deleteProduct(String productID); // Deletes a product from the shopping manager based on its product ID.
+    int addProducts(Collection<? extends Product> products); // Adds many products at once and returns the number added.
+    int deleteProducts(Collection<String> productIDs); // Deletes the products with the given IDs at once and returns the number deleted.
+    int updateStock(Map<String, Integer> stockLevels); // Sets the number of items available of many products at once and returns the number updated.
     void printProducts(); // Prints the list of products in the shopping manager.
     void saveProducts(String fileName); // Saves the list of products in the shopping manager to a specified file.
     void loadProducts(String fileName); // Loads products from a specified file into the shopping manager.
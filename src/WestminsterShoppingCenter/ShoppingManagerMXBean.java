@@ -0,0 +1,25 @@
+package WestminsterShoppingCenter;
+
+/**
+ * The management interface of a shopping manager, through which JMX clients such as JConsole read the state of the catalog
+ * and its persistence, and take a snapshot.
+ */
+public interface ShoppingManagerMXBean {
+    int getProductCount();
+
+    int getCapacity();
+
+    boolean isLoaded();
+
+    String getDataFileName();
+
+    long getJournalSize();
+
+    long getDataFileSize();
+
+    int getShardCount();
+
+    long getSnapshotCount();
+
+    boolean takeSnapshot();
+}
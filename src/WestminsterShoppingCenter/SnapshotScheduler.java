@@ -0,0 +1,99 @@
+package WestminsterShoppingCenter;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A class that takes snapshots of a shopping manager's catalog in the background, so the journal never grows without bound.
+ * The size of the journal is checked periodically, and a snapshot is taken once the journal is larger than a fraction of the
+ * data file (and than a minimum size, so a small catalog is not re-written for every few changes).
+ * The data file of a sharded catalog is all of its shards, which each have a journal of their own.
+ * Loading the catalog therefore reads the data file and at most that fraction of its size again in journal records,
+ * however many changes have been made since the manager was first started.
+ * Snapshots are taken on a single daemon thread and do not block changes to the catalog while they are written.
+ */
+public class SnapshotScheduler {
+    public static final long DEFAULT_CHECK_INTERVAL_MILLIS = 5_000;
+    public static final double DEFAULT_MAX_JOURNAL_RATIO = 0.25; // Journal size, as a fraction of the data file, that triggers a snapshot
+    public static final long DEFAULT_MIN_JOURNAL_BYTES = 1 << 20; // Journals smaller than 1 MB are replayed quickly anyway
+
+    private final WestminsterShoppingManager manager;
+    private final long checkIntervalMillis;
+    private final double maxJournalRatio;
+    private final long minJournalBytes;
+    private final ScheduledExecutorService executor;
+
+    /**
+     * A constructor to initialize a scheduler for the passed manager with the default check interval and journal limits.
+     */
+    public SnapshotScheduler(WestminsterShoppingManager manager) {
+        this(manager, DEFAULT_CHECK_INTERVAL_MILLIS, DEFAULT_MAX_JOURNAL_RATIO, DEFAULT_MIN_JOURNAL_BYTES);
+    }
+
+    /**
+     * A constructor to initialize a scheduler for the passed manager.
+     * The passed parameters are how often the journal is checked, the fraction of the size of the data file the journal may
+     * reach before a snapshot is taken, and the size below which the journal is never snapshotted.
+     */
+    public SnapshotScheduler(WestminsterShoppingManager manager, long checkIntervalMillis, double maxJournalRatio, long minJournalBytes) {
+        if (checkIntervalMillis <= 0 || maxJournalRatio < 0 || minJournalBytes < 0) {
+            throw new IllegalArgumentException("Invalid snapshot schedule: every " + checkIntervalMillis + " ms, ratio "
+                    + maxJournalRatio + ", minimum " + minJournalBytes + " bytes");
+        }
+        this.manager = manager;
+        this.checkIntervalMillis = checkIntervalMillis;
+        this.maxJournalRatio = maxJournalRatio;
+        this.minJournalBytes = minJournalBytes;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts checking the journal periodically in the background.
+     */
+    public void start() {
+        executor.scheduleWithFixedDelay(this::snapshotIfDue, checkIntervalMillis, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops checking the journal, waiting for a snapshot being written to finish.
+     */
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns true if the journal has grown large enough, compared with the data file, to be worth a snapshot.
+     */
+    public boolean isSnapshotDue() {
+        long journalSize = manager.getJournalSize();
+        return journalSize > minJournalBytes && journalSize > maxJournalRatio * manager.getDataFileSize();
+    }
+
+    /**
+     * Takes a snapshot if one is due. Returns true if a snapshot was taken.
+     */
+    public boolean snapshotIfDue() {
+        try {
+            return isSnapshotDue() && manager.takeSnapshot();
+        } catch (RuntimeException exception) { // A scheduled task that throws is never run again
+            System.out.println("Error taking a snapshot: " + exception);
+            return false;
+        }
+    }
+}
+
+//REFERENCES
+
+/* Java Concurrency
+ * ScheduledExecutorService.scheduleWithFixedDelay - https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/ScheduledExecutorService.html#scheduleWithFixedDelay-java.lang.Runnable-long-long-java.util.concurrent.TimeUnit-
+ */
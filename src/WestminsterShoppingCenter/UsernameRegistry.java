@@ -0,0 +1,138 @@
+package WestminsterShoppingCenter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A class representing the registry of the usernames of every shopper who has logged in to the Westminster Shopping Center.
+ * The usernames file is read once per run, into a hash index, so registering a username and
+ * checking whether it is new costs the same no matter how many shoppers have registered.
+ * New usernames are appended to the file, one per line, and flushed straight away, so the file is never re-written.
+ */
+public class UsernameRegistry {
+    public static final String DEFAULT_USERNAMES_FILE = "existing_usernames.txt"; // File to store usernames
+
+    private static final Map<Path, UsernameRegistry> REGISTRIES = new ConcurrentHashMap<>(); // One registry per usernames file
+
+    private final Path usernamesPath;
+    private Set<String> usernames; // Loaded on first use
+    private BufferedWriter writer; // Opened on the first registration
+
+    /**
+     * A constructor to initialize the registry of the passed usernames file.
+     * Use getInstance to share one registry among all the carts using the same file.
+     */
+    public UsernameRegistry(String usernamesFileName) {
+        this.usernamesPath = Paths.get(usernamesFileName);
+    }
+
+    /**
+     * Returns the shared registry of the default usernames file.
+     */
+    public static UsernameRegistry getInstance() {
+        return getInstance(DEFAULT_USERNAMES_FILE);
+    }
+
+    /**
+     * Returns the shared registry of the passed usernames file.
+     */
+    public static UsernameRegistry getInstance(String usernamesFileName) {
+        return REGISTRIES.computeIfAbsent(Paths.get(usernamesFileName).toAbsolutePath(), path -> new UsernameRegistry(path.toString()));
+    }
+
+    /**
+     * Registers a username.
+     * Returns true if the username is new, meaning this is the shopper's first visit, or false if it was already registered.
+     * Empty usernames are never registered.
+     */
+    public synchronized boolean register(String username) {
+        if (username == null || username.trim().isEmpty()) {
+            return false;
+        }
+        username = username.trim();
+        ensureLoaded();
+        if (!usernames.add(username)) {
+            return false;
+        }
+
+        try {
+            if (writer == null) {
+                writer = Files.newBufferedWriter(usernamesPath, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            writer.write(username);
+            writer.newLine();
+            writer.flush();
+        } catch (IOException exception) {
+            System.out.println("Error saving username: " + exception.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the username has been registered.
+     */
+    public synchronized boolean contains(String username) {
+        if (username == null) {
+            return false;
+        }
+        username = username.trim();
+        ensureLoaded();
+        return usernames.contains(username);
+    }
+
+    /**
+     * Returns the number of registered usernames.
+     */
+    public synchronized int size() {
+        ensureLoaded();
+        return usernames.size();
+    }
+
+    /**
+     * Closes the usernames file. It is reopened on the next registration.
+     */
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    /**
+     * Reads the usernames file into the hash index, if this has not been done yet.
+     * A missing file is treated as an empty registry.
+     */
+    private void ensureLoaded() {
+        if (usernames != null) {
+            return;
+        }
+        usernames = new HashSet<>();
+        if (Files.exists(usernamesPath)) {
+            try (BufferedReader reader = Files.newBufferedReader(usernamesPath, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) { // Read usernames from the file
+                    line = line.trim();
+                    if (!line.isEmpty()) {
+                        usernames.add(line);
+                    }
+                }
+            } catch (IOException exception) {
+                System.out.println("Error loading usernames: " + exception.getMessage());
+            }
+        }
+    }
+}
+
+//REFERENCES
+
+/* Java NIO
+ * Files.newBufferedWriter - https://docs.oracle.com/javase/8/docs/api/java/nio/file/Files.html#newBufferedWriter-java.nio.file.Path-java.nio.charset.Charset-java.nio.file.OpenOption...-
+ */
@@ -1,48 +1,175 @@
 package WestminsterShoppingCenter;
 
-import GUI.UserShoppingCenter;
-
-import javax.swing.table.DefaultTableModel;
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A class that represents the shopping manager for Westminster Shopping Center.
  * This class allows managers to manage the list of products and provides methods to add, delete, and display products.
  * It also handles saving and loading products to and from a file.
+ * Every change to the catalog is published on the catalog event bus, so the manager does not depend on the GUI,
+ * which is just one of the subscribers.
+ * The catalog can also be partitioned into shards (see CatalogShards), which are loaded and saved in parallel and each have
+ * a journal of their own, so a change only touches the shard holding the product.
  */
-public class WestminsterShoppingManager implements ShoppingManager {
+public class WestminsterShoppingManager implements ShoppingManager, ShoppingManagerMXBean {
     // Attributes of a shopping manager
-    private static final int MAX_PRODUCTS = 50; // The maximum number of items that can be in the system is 50
+    public static final String DEFAULT_DATA_FILE = "Product_Data.txt"; // The file the catalog is saved to and loaded from
+    private static final int LAZY_LOAD_CHUNK_SIZE = 4096; // Number of product headers published to the catalog at a time while loading lazily
+    private static final int LOOKUP_SAMPLE_RATE = 64; // Product lookups take nanoseconds, so only about one in 64 is timed
+
+    // Metrics of the operations of every manager
+    private static final LatencyHistogram ADD_PRODUCT_LATENCY = Metrics.getInstance().histogram(Metrics.ADD_PRODUCT);
+    private static final LatencyHistogram DELETE_PRODUCT_LATENCY = Metrics.getInstance().histogram(Metrics.DELETE_PRODUCT);
+    private static final LatencyHistogram GET_PRODUCT_LATENCY = Metrics.getInstance().histogram(Metrics.GET_PRODUCT, LOOKUP_SAMPLE_RATE);
+    private static final LongAdder GET_PRODUCT_MISSES = Metrics.getInstance().counter(Metrics.GET_PRODUCT_MISSES);
+    private static final LatencyHistogram SAVE_LATENCY = Metrics.getInstance().histogram(Metrics.SAVE);
+    private static final LongAdder SAVED_BYTES = Metrics.getInstance().counter(Metrics.SAVED_BYTES);
+    private static final LatencyHistogram LOAD_LATENCY = Metrics.getInstance().histogram(Metrics.LOAD);
+    private static final LongAdder LOADED_BYTES = Metrics.getInstance().counter(Metrics.LOADED_BYTES);
+    private static final LatencyHistogram REPLAY_LATENCY = Metrics.getInstance().histogram(Metrics.REPLAY);
+    private static final LongAdder REPLAYED_BYTES = Metrics.getInstance().counter(Metrics.REPLAYED_BYTES);
 
-    private ArrayList<Product> productList;
-    private UserShoppingCenter userShoppingCenter;
+    private final CatalogStore catalogStore; // Stores and indexes the products by product ID and by category
+    private final String dataFileName;
+    private final PersistenceMode persistenceMode;
+    private final CatalogJournal catalogJournal; // Records every mutation made since the data file was last saved
+    private final CatalogShards catalogShards; // The shards the catalog is saved to, or null if it is saved to the single data file
+    private final Object changeLock = new Object(); // Held while a product is added or deleted and the change persisted, so the journal records the changes in the order they were made
+    private volatile CatalogFileFormat fileFormat = CatalogFileFormat.SERIALIZED; // The format the data file is saved in
+    private final Inventory inventory; // Reserves and sells the items in stock
+    private OrderProcessor orderProcessor; // Turns carts into orders; created on the first checkout
+    private final ReentrantLock snapshotLock = new ReentrantLock(); // Held while a snapshot of the data file is written
+    private volatile long snapshotCount; // Snapshots of the data file taken since the manager was created
+    private final CompletableFuture<Void> loadFuture = new CompletableFuture<>(); // Completed once the data file is fully loaded
+    private final CatalogEventBus eventBus = new CatalogEventBus(); // Tells the subscribers, such as the GUI, about every change
 
     /**
      * A constructor to initialize WestminsterShoppingManager.
-     * The passed parameter is the associated UserShoppingCenter GUI.
+     * The catalog has no capacity limit and is stored in the default data file, with changes recorded in a journal.
+     */
+    public WestminsterShoppingManager() {
+        this(DEFAULT_DATA_FILE, CatalogStore.UNLIMITED_CAPACITY);
+    }
+
+    /**
+     * A constructor to initialize WestminsterShoppingManager with a data file and a catalog capacity.
+     * Changes to the catalog are recorded in a journal.
      */
-    public WestminsterShoppingManager(UserShoppingCenter userShoppingCenter) {
-        this.productList = new ArrayList<>();
-        this.userShoppingCenter = userShoppingCenter;
-        loadProducts("Product_Data.txt");
+    public WestminsterShoppingManager(String dataFileName, int capacity) {
+        this(dataFileName, capacity, PersistenceMode.JOURNAL);
+    }
+
+    /**
+     * A constructor to initialize WestminsterShoppingManager with a data file, a catalog capacity and a persistence mode.
+     * The passed parameters are the file the catalog is saved to and loaded from, the maximum number of products in the system,
+     * and how changes to the catalog are persisted.
+     */
+    public WestminsterShoppingManager(String dataFileName, int capacity, PersistenceMode persistenceMode) {
+        this(dataFileName, capacity, persistenceMode, false);
+    }
+
+    /**
+     * A constructor to initialize WestminsterShoppingManager with a data file, a catalog capacity, a persistence mode and a loading mode.
+     * With lazy loading, the data file is loaded on a background thread and the constructor returns straight away.
+     * Product headers are published to the catalog in chunks as they are read, so the catalog can be browsed while the rest streams in,
+     * and the category-specific details of each product are only decoded when they are first accessed.
+     * Only a file in the binary catalog format can be streamed; a serialized file is loaded in one piece on the background thread.
+     */
+    public WestminsterShoppingManager(String dataFileName, int capacity, PersistenceMode persistenceMode, boolean lazyLoading) {
+        this(dataFileName, capacity, persistenceMode, lazyLoading, null);
+    }
+
+    /**
+     * A constructor to initialize WestminsterShoppingManager with a data file, a catalog capacity, a persistence mode and
+     * the layout of the shards the catalog is saved to, such as PRODUCT_ID with CatalogShards.DEFAULT_SHARD_COUNT shards.
+     * The catalog is loaded from the shards in parallel. A catalog saved to a single data file, or in another layout,
+     * is loaded as it is and then saved in the passed layout, and its old files are deleted.
+     */
+    public WestminsterShoppingManager(String dataFileName, int capacity, PersistenceMode persistenceMode, ShardingScheme shardingScheme, int shardCount) {
+        this(dataFileName, capacity, persistenceMode, false, new CatalogShards(dataFileName, shardingScheme, shardCount));
+    }
+
+    /**
+     * A constructor to initialize WestminsterShoppingManager, which saves the catalog in the passed layout of shards.
+     * If the layout is null, the catalog keeps the layout it was saved in: the shards recorded in its manifest, or the single data file.
+     */
+    private WestminsterShoppingManager(String dataFileName, int capacity, PersistenceMode persistenceMode, boolean lazyLoading, CatalogShards shards) {
+        this.catalogStore = new CatalogStore(capacity);
+        this.dataFileName = dataFileName;
+        this.persistenceMode = persistenceMode;
+        this.catalogJournal = new CatalogJournal(dataFileName);
+        this.inventory = new Inventory(this);
+        CatalogShards savedShards = readShardManifest();
+
+        if (lazyLoading) {
+            this.catalogShards = savedShards;
+            Thread loaderThread = new Thread(this::loadProductsLazily, "catalog-loader");
+            loaderThread.setDaemon(true);
+            loaderThread.start();
+        } else {
+            if (savedShards != null) {
+                loadShards(savedShards);
+            } else {
+                loadSnapshot(dataFileName);
+                replayJournal(dataFileName);
+            }
+            this.catalogShards = shards == null || shards.hasSameLayout(savedShards) ? savedShards : moveToShards(savedShards, shards);
+            loadFuture.complete(null);
+        }
     }
 
     /**
      * This method adds a product to the shopping manager.
-     * If the number of products in the system is less than MAX_PRODUCTS, the new product is added.
-     * It adds the product details to the JTable of the Westminster Shopping Center system.
-     * It calls the saveProducts method to save them in a file.
+     * If the catalog has not reached its capacity and the product ID is not taken, the new product is added.
+     * An event is published so the product table of the Westminster Shopping Center system shows it.
+     * The addition is appended to the journal, or saved with the saveProducts method in snapshot mode.
      */
     public void addProduct(Product product) {
-        if (productList.size() < MAX_PRODUCTS) {
-            productList.add(product);
-            System.out.println(productList.size() + "/50 item(s) are in the system.");
-            userShoppingCenter.addProductToTable(product.getProductID(), product.getProductName(), product.getCategory(), product.getPrice(), product.getProductInfo());
-            refreshProductTable();
-            saveProducts("Product_Data.txt");
-        } else {
-            System.out.println("Product List exceeded limit.");
+        awaitLoaded();
+        long start = ADD_PRODUCT_LATENCY.start();
+        synchronized (changeLock) {
+            if (catalogStore.isFull()) {
+                System.out.println("Product List exceeded limit.");
+            } else if (!catalogStore.add(product)) {
+                System.out.println("Product with ID " + product.getProductID() + " already exists.");
+            } else {
+                printProductCount();
+                persistAddition(product);
+                publish(CatalogEvent.Type.PRODUCTS_ADDED, List.of(product));
+            }
+        }
+        ADD_PRODUCT_LATENCY.stop(start);
+    }
+
+    /**
+     * This method adds many products to the shopping manager in one batch.
+     * Products whose ID is already taken, or that do not fit in the catalog, are skipped.
+     * The batch is applied as a single change: a single event is published and the added products are
+     * persisted with a single journal record, or a single save in snapshot mode.
+     * Returns the number of products added.
+     */
+    public int addProducts(Collection<? extends Product> products) {
+        awaitLoaded();
+        synchronized (changeLock) {
+            List<Product> addedProducts = catalogStore.addAll(products);
+            int skippedCount = products.size() - addedProducts.size();
+            System.out.println(addedProducts.size() + " product(s) added." + (skippedCount > 0 ? " " + skippedCount + " product(s) skipped because the ID already exists or the catalog is full." : ""));
+            if (!addedProducts.isEmpty()) {
+                printProductCount();
+                persistAdditions(addedProducts);
+                publish(CatalogEvent.Type.PRODUCTS_ADDED, addedProducts);
+            }
+            return addedProducts.size();
         }
     }
 
@@ -50,8 +177,10 @@ public class WestminsterShoppingManager implements ShoppingManager {
      * This method deletes a product from the shopping manager based on its product ID.
      * The product ID of the product to be deleted, is passed and if it exists it is deleted.
      * Its product details are shown and gets re-confirmation from manager to delete the product.
+     * If the product is deleted by someone else while the manager is confirming, nothing more is deleted or recorded.
      */
     public void deleteProduct(String productID) {
+        awaitLoaded();
         Product productToRemove = getProductById(productID);
 
         if (productToRemove != null) { // Makes sure the product list is not empty.
@@ -77,17 +206,27 @@ public class WestminsterShoppingManager implements ShoppingManager {
             String confirmation = scanner.nextLine().toLowerCase();
 
             if (confirmation.equals("yes")) {
-                productList.remove(productToRemove);
-                userShoppingCenter.removeProductFromTable(productID);
+                long start = DELETE_PRODUCT_LATENCY.start(); // Timed from the confirmation, so the time the manager takes to answer is left out
+                Product removedProduct;
+                synchronized (changeLock) {
+                    removedProduct = catalogStore.remove(productID);
+                    if (removedProduct != null) { // Null if it was deleted while the manager was confirming
+                        persistDeletion(removedProduct);
+                        publish(CatalogEvent.Type.PRODUCTS_DELETED, List.of(removedProduct));
+                    }
+                }
+                if (removedProduct == null) {
+                    System.out.println("Product with ID " + productID + " was already deleted.");
+                    return;
+                }
 
                 /* Displays the details of the product deleted */
                 System.out.println("Product with ID " + productID + " deleted.");
                 System.out.println("Deleted Product Details:");
-                System.out.println(productToRemove.toString());
+                System.out.println(removedProduct.toString());
                 System.out.println("Category: " + category);
-                System.out.println("Total number of products left in the system: " + productList.size());
-                refreshProductTable();
-                saveProducts("Product_Data.txt");
+                System.out.println("Total number of products left in the system: " + catalogStore.size());
+                DELETE_PRODUCT_LATENCY.stop(start);
             } else {
                 System.out.println("Deletion cancelled.");
             }
@@ -96,18 +235,65 @@ public class WestminsterShoppingManager implements ShoppingManager {
         }
     }
 
+    /**
+     * This method deletes many products from the shopping manager in one batch, based on their product IDs.
+     * Unlike deleteProduct it does not ask for confirmation, and product IDs that are not found are skipped.
+     * The batch is applied as a single change: a single event is published and the deletions are
+     * persisted with a single journal record, or a single save in snapshot mode.
+     * Returns the number of products deleted.
+     */
+    public int deleteProducts(Collection<String> productIDs) {
+        awaitLoaded();
+        long start = DELETE_PRODUCT_LATENCY.start();
+        List<Product> deletedProducts;
+        synchronized (changeLock) {
+            deletedProducts = catalogStore.removeAll(productIDs);
+            int skippedCount = productIDs.size() - deletedProducts.size();
+            System.out.println(deletedProducts.size() + " product(s) deleted." + (skippedCount > 0 ? " " + skippedCount + " product(s) not found." : ""));
+            if (!deletedProducts.isEmpty()) {
+                System.out.println("Total number of products left in the system: " + catalogStore.size());
+                persistDeletions(deletedProducts);
+                publish(CatalogEvent.Type.PRODUCTS_DELETED, deletedProducts);
+            }
+        }
+        DELETE_PRODUCT_LATENCY.stop(start);
+        return deletedProducts.size();
+    }
+
+    /**
+     * This method sets the number of items available of many products in one batch.
+     * The map holds the new number of items available of each product ID; product IDs that are not found are skipped.
+     * Every number is checked before any product is changed, so an invalid number leaves the catalog as it was.
+     * The batch is persisted with a single journal record, or a single save in snapshot mode, and a single event is published.
+     * Returns the number of products updated.
+     */
+    public int updateStock(Map<String, Integer> stockLevels) {
+        for (Map.Entry<String, Integer> stockLevel : stockLevels.entrySet()) {
+            if (stockLevel.getValue() == null || stockLevel.getValue() < 0) {
+                throw new IllegalArgumentException("Invalid number of items available for product " + stockLevel.getKey() + ": " + stockLevel.getValue());
+            }
+        }
+        awaitLoaded();
+        List<Product> updatedProducts = catalogStore.updateStock(stockLevels);
+        int skippedCount = stockLevels.size() - updatedProducts.size();
+        System.out.println(updatedProducts.size() + " product(s) restocked." + (skippedCount > 0 ? " " + skippedCount + " product(s) not found." : ""));
+        if (!updatedProducts.isEmpty()) {
+            persistStockChanges(updatedProducts);
+            publish(CatalogEvent.Type.STOCK_CHANGED, updatedProducts);
+        }
+        return updatedProducts.size();
+    }
+
     /**
      * This method prints the list of products in the shopping manager.
      * The printed list is sorted by the alphabetical order of product ID.
+     * The products are read in order from the sorted view of the catalog, which is only sorted again after a batch of changes.
      */
     public void printProducts() {
-        ArrayList<Product> tempProductList = new ArrayList<>(); // Creating a list to temporarily store the list data
-        for (int i = 0; i < productList.size(); i++) {
-            tempProductList.add(productList.get(i));
-        }
-        if (tempProductList.size() > 0) { // Iterates through the products in the temporarily created list
-            Collections.sort(tempProductList, Comparator.comparing(Product::getProductID)); // Sorts the list
-            for (Product product : tempProductList) {
+        awaitLoaded();
+        List<Product> sortedProducts = catalogStore.sortedView(null);
+        if (sortedProducts.size() > 0) { // Iterates through the products in ID order
+            for (Product product : sortedProducts) {
                 if (product instanceof Electronics) {
                     System.out.println("Product type: Electronics");
                 } else if (product instanceof Clothing) {
@@ -115,22 +301,30 @@ public class WestminsterShoppingManager implements ShoppingManager {
                 }
                 System.out.println(product.toString());
             }
-            saveProducts("Product_Data.txt"); // Updates the file
         } else {
             System.out.println("No products added");
         }
     }
 
     /**
-     * This method saves the list of products to a specified file using object serialization.
+     * This method saves the list of products to a specified file, using object serialization or the binary catalog format.
      * The name of the file the products are saved to, is passed through the parameter.
+     * The file is saved in the format the data file was loaded in, unless another format was set with setFileFormat.
+     * The products are written to a temporary file that then replaces the specified file, so a failed save never leaves a half-written file.
+     * The manager's own data file is saved by taking a snapshot, which also retires the journal records the file now contains.
      */
     public void saveProducts(String fileName) {
-
-        try (ObjectOutputStream outputStream = new ObjectOutputStream(new FileOutputStream(fileName, false))) {
-
-            // Creates an ObjectOutputStream to serialize the objects and write to the specified file
-            outputStream.writeObject(productList);
+        awaitLoaded();
+        if (fileName.equals(dataFileName)) {
+            if (takeSnapshot()) {
+                System.out.println("Products saved to file: " + fileName);
+            }
+            return;
+        }
+        long start = SAVE_LATENCY.start();
+        try {
+            writeCatalogFile(fileName, catalogStore.values());
+            SAVE_LATENCY.stop(start);
             System.out.println("Products saved to file: " + fileName);
         }
         catch (IOException exception) { // Handles the IOException if an issue occurs during the serialization or file writing process
@@ -139,65 +333,775 @@ public class WestminsterShoppingManager implements ShoppingManager {
     }
 
     /**
-     * This method loads products from a specified file into the shopping manager using object deserialization.
+     * This method saves a snapshot of the catalog to the data file and retires the journal records it supersedes, so loading the
+     * catalog only has to replay the records written after the snapshot.
+     * Writers are not blocked while the snapshot is written: the journal is rotated first, so every change made while the
+     * products are being written is also in the fresh journal and is replayed on top of the snapshot.
+     * The snapshot is forced to disk before the rotated records are deleted. Only one snapshot is taken at a time.
+     * A sharded catalog is saved with every shard written in parallel.
+     * Returns true if the snapshot was saved.
+     */
+    public boolean takeSnapshot() {
+        try {
+            writeSnapshot();
+            return true;
+        }
+        catch (IOException exception) { // The rotated records are kept, and replayed before the fresh journal on the next load
+            System.out.println("Error saving products to file: " + exception.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Saves a snapshot of the catalog as takeSnapshot does, but throws the error if the snapshot could not be saved.
+     */
+    private void writeSnapshot() throws IOException {
+        awaitLoaded();
+        snapshotLock.lock();
+        try {
+            long start = SAVE_LATENCY.start();
+            if (catalogShards != null) {
+                writeShards(catalogShards);
+            } else {
+                catalogJournal.rotate(); // Changes made from now on are replayed on top of the snapshot
+                writeCatalogFile(dataFileName, catalogStore.values());
+                catalogJournal.retireRotated();
+            }
+            SAVE_LATENCY.stop(start);
+            snapshotCount++;
+        }
+        finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * This method loads products from a specified file into the shopping manager.
      * The name of the file the products are loaded from, is passed through the parameter.
+     * A file in the binary catalog format is read into memory with one sequential read, any other file using object deserialization.
+     * Any changes recorded in the journal of the file since it was saved are then replayed on top of the loaded products.
+     * The data file of a sharded catalog is loaded from its shards.
      */
     public void loadProducts(String fileName) {
-        try (ObjectInputStream inputStream = new ObjectInputStream(new FileInputStream(fileName))) {
+        awaitLoaded();
+        if (catalogShards != null && fileName.equals(dataFileName)) {
+            loadShards(catalogShards);
+        } else {
+            loadSnapshot(fileName);
+            replayJournal(fileName);
+        }
+        publish(CatalogEvent.Type.CATALOG_RELOADED, List.of());
+    }
 
-            // Creates an ObjectInputStream to deserialize objects from the specified file
-            List<Product> savedProducts = (List<Product>) inputStream.readObject();
+    /**
+     * Loads the data file on the background loader thread.
+     * The headers of a binary catalog file are published to the catalog in chunks, then the journal is replayed.
+     * The file is read into memory rather than mapped, so it can be replaced by a save while details are still decoded from it.
+     */
+    private void loadProductsLazily() {
+        try {
+            Path filePath = Paths.get(dataFileName);
+            if (catalogShards != null) { // The shards are loaded in parallel rather than streamed
+                loadShards(catalogShards);
+                return;
+            }
+            if (!BinaryCatalogFile.isBinaryCatalog(filePath)) {
+                loadSnapshot(dataFileName);
+                replayJournal(dataFileName);
+                return;
+            }
 
-            // Clears the existing product list and add all products from the loaded list
-            productList.clear();
-            productList.addAll(savedProducts);
+            long startTime = LOAD_LATENCY.start();
+            // Read into memory rather than mapped, as the lazy details outlive the load and the file is replaced by the next save
+            BinaryCatalogFile catalogFile = BinaryCatalogFile.load(filePath);
+            fileFormat = CatalogFileFormat.BINARY;
+            int productCount = catalogFile.getProductCount();
+            List<Product> chunk = new ArrayList<>(LAZY_LOAD_CHUNK_SIZE);
+            for (int i = 0; i < productCount; i++) {
+                chunk.add(catalogFile.readProductHeader(i));
+                if (chunk.size() == LAZY_LOAD_CHUNK_SIZE || i == productCount - 1) {
+                    catalogStore.putAll(chunk);
+                    publish(CatalogEvent.Type.PRODUCTS_ADDED, chunk); // Shows each chunk as it streams in
+                    chunk.clear();
+                }
+            }
+            System.out.printf("Products loaded from file: %s (%d product(s) streamed in %.1f ms)%n", dataFileName, productCount, (System.nanoTime() - startTime) / 1_000_000.0);
+            LOAD_LATENCY.stop(startTime);
+            LOADED_BYTES.add(Files.size(filePath));
+            replayJournal(dataFileName);
+        }
+        catch (IOException exception) {
+            System.out.println("Error loading products from file: " + exception.getMessage());
+        }
+        finally {
+            loadFuture.complete(null);
+            publish(CatalogEvent.Type.CATALOG_RELOADED, List.of());
+        }
+    }
+
+    /**
+     * Replays the changes recorded in the journal of the specified file on top of the products in the catalog.
+     */
+    private void replayJournal(String fileName) {
+        CatalogJournal journal = fileName.equals(dataFileName) ? catalogJournal : new CatalogJournal(fileName);
+        try {
+            long start = REPLAY_LATENCY.start();
+            REPLAYED_BYTES.add(journal.size());
+            int replayedCount = journal.replay(catalogStore);
+            REPLAY_LATENCY.stop(start);
+            if (replayedCount > 0) {
+                System.out.println(replayedCount + " change(s) replayed from journal: " + journal.getJournalPath());
+            }
+        }
+        catch (IOException exception) {
+            System.out.println("Error replaying the journal: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Loads the products saved in the specified file, replacing the products in the catalog.
+     */
+    private void loadSnapshot(String fileName) {
+        Path filePath = Paths.get(fileName);
+        boolean isBinary = BinaryCatalogFile.isBinaryCatalog(filePath);
+
+        try {
+            long start = LOAD_LATENCY.start();
+            List<Product> savedProducts = readCatalogFile(filePath);
+            if (fileName.equals(dataFileName)) {
+                fileFormat = isBinary ? CatalogFileFormat.BINARY : CatalogFileFormat.SERIALIZED; // Keeps saving the data file in the format it was found in
+            }
+
+            // Replaces the existing products with all products from the loaded list
+            int loadedCount = catalogStore.replaceAll(savedProducts);
+            LOAD_LATENCY.stop(start);
+            LOADED_BYTES.add(Files.size(filePath));
             System.out.println("Products loaded from file: " + fileName);
+            if (loadedCount < savedProducts.size()) {
+                System.out.println((savedProducts.size() - loadedCount) + " product(s) were not loaded because the catalog is full.");
+            }
+        }
+        catch (IOException exception) { // Handles the IOException in case of any issues during deserialization or file reading
+            System.out.println("Error loading products from file: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Loads the products saved in the shards of a sharded catalog, replacing the products in the catalog, then replays the journal of every shard.
+     * The shards are read, and their journals replayed, in parallel. Each product is only ever saved to one shard,
+     * so the order the journals of different shards are replayed in does not matter.
+     */
+    private void loadShards(CatalogShards shards) {
+        try {
+            long start = LOAD_LATENCY.start();
+            List<List<Product>> shardProducts = shards.forEachShard(shard -> {
+                Path shardPath = Paths.get(shards.getShardFileName(shard));
+                return Files.exists(shardPath) ? readCatalogFile(shardPath) : List.of();
+            });
+            List<Product> savedProducts = new ArrayList<>();
+            for (List<Product> products : shardProducts) {
+                savedProducts.addAll(products);
+            }
+            Path firstShardPath = Paths.get(shards.getShardFileName(0));
+            if (Files.exists(firstShardPath)) { // Keeps saving the shards in the format they were found in
+                fileFormat = BinaryCatalogFile.isBinaryCatalog(firstShardPath) ? CatalogFileFormat.BINARY : CatalogFileFormat.SERIALIZED;
+            }
+
+            int loadedCount = catalogStore.replaceAll(savedProducts);
+            LOAD_LATENCY.stop(start);
+            LOADED_BYTES.add(shards.dataSize());
+            System.out.println("Products loaded from " + shards.getShardCount() + " shard(s) of file: " + dataFileName);
+            if (loadedCount < savedProducts.size()) {
+                System.out.println((savedProducts.size() - loadedCount) + " product(s) were not loaded because the catalog is full.");
+            }
+
+            long replayStart = REPLAY_LATENCY.start();
+            REPLAYED_BYTES.add(shards.journalSize());
+            int replayedCount = 0;
+            for (int shardReplayedCount : shards.forEachShard(shard -> shards.getJournal(shard).replay(catalogStore))) {
+                replayedCount += shardReplayedCount;
+            }
+            REPLAY_LATENCY.stop(replayStart);
+            if (replayedCount > 0) {
+                System.out.println(replayedCount + " change(s) replayed from the journals of the shards of: " + dataFileName);
+            }
         }
-        catch (IOException | ClassNotFoundException exception) {
-            // Handles the IOException or ClassNotFoundException in case of any issues during deserialization or file reading
+        catch (IOException exception) {
             System.out.println("Error loading products from file: " + exception.getMessage());
         }
     }
 
+    /**
+     * Returns the products saved in the specified file.
+     * A file in the binary catalog format is read into memory with one sequential read, any other file using object deserialization.
+     */
+    private static List<Product> readCatalogFile(Path filePath) throws IOException {
+        if (BinaryCatalogFile.isBinaryCatalog(filePath)) {
+            return BinaryCatalogFile.readAll(filePath);
+        }
+        try (ObjectInputStream inputStream = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(filePath)))) {
+            // Creates an ObjectInputStream to deserialize objects from the specified file
+            return (List<Product>) inputStream.readObject();
+        }
+        catch (ClassNotFoundException exception) {
+            throw new IOException("Unknown product class in " + filePath + ": " + exception.getMessage(), exception);
+        }
+    }
+
+    /**
+     * Returns the layout of shards recorded in the manifest of the data file, or null if the catalog is saved to the single data file.
+     */
+    private CatalogShards readShardManifest() {
+        try {
+            return CatalogShards.readManifest(dataFileName);
+        }
+        catch (IOException exception) {
+            System.out.println("Error reading the shard manifest: " + exception.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Saves the loaded catalog in a new layout of shards, then deletes the files of the layout it was loaded from, which is
+     * null for the single data file. The manifest of the new layout is only written once every shard is on disk, so if saving
+     * fails, the old files are kept and the old layout, which is returned, is used instead.
+     */
+    private CatalogShards moveToShards(CatalogShards savedShards, CatalogShards shards) {
+        try {
+            writeShards(shards);
+            shards.writeManifest();
+        }
+        catch (IOException exception) {
+            System.out.println("Error saving products to shards: " + exception.getMessage());
+            return savedShards;
+        }
+
+        try {
+            if (savedShards != null) {
+                savedShards.deleteFiles();
+            } else {
+                catalogJournal.close();
+                Files.deleteIfExists(Paths.get(dataFileName));
+                Files.deleteIfExists(catalogJournal.getJournalPath());
+                Files.deleteIfExists(catalogJournal.getRotatedPath());
+            }
+        }
+        catch (IOException exception) { // The old files are no longer read, so they are only left behind
+            System.out.println("Error deleting the files of the old layout: " + exception.getMessage());
+        }
+        System.out.println("Products saved to " + shards.getShardCount() + " shard(s) of file: " + dataFileName);
+        return shards;
+    }
+
     /**
      * A method to return the list of products managed by the shopping manager.
+     * The returned list is a copy, so changing it does not change the catalog.
      */
     public List<Product> getProductList() {
-        return productList;
+        return catalogStore.values();
+    }
+
+    /**
+     * A method to return the inventory that reserves and sells the items of the products.
+     */
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    /**
+     * A method to return the order processor that checks out shopping carts, writing the orders to the order log of the data file.
+     * The order processor is created, and the order log read, when this method is first called.
+     */
+    public synchronized OrderProcessor getOrderProcessor() {
+        if (orderProcessor == null) {
+            try {
+                orderProcessor = new OrderProcessor(this, new OrderLog(dataFileName), OrderProcessor.DEFAULT_MAX_BATCH_SIZE);
+            }
+            catch (IOException exception) {
+                throw new UncheckedIOException("Error reading the order log: " + exception.getMessage(), exception);
+            }
+        }
+        return orderProcessor;
+    }
+
+    /**
+     * A method to return the event bus on which every change to the catalog is published.
+     */
+    public CatalogEventBus getEventBus() {
+        return eventBus;
+    }
+
+    /**
+     * A method to return a future that completes once the data file is fully loaded.
+     * It is already complete unless the manager was created with lazy loading.
+     */
+    public CompletableFuture<Void> getLoadFuture() {
+        return loadFuture;
+    }
+
+    /**
+     * A method to return true if the data file is fully loaded.
+     */
+    public boolean isLoaded() {
+        return loadFuture.isDone();
+    }
+
+    /**
+     * A method to return the number of products managed by the shopping manager.
+     */
+    public int getProductCount() {
+        return catalogStore.size();
+    }
+
+    /**
+     * A method to return the maximum number of products the shopping manager accepts.
+     */
+    public int getCapacity() {
+        return catalogStore.getCapacity();
+    }
+
+    /**
+     * A method to return the format the catalog is saved in.
+     */
+    public CatalogFileFormat getFileFormat() {
+        return fileFormat;
+    }
+
+    /**
+     * A method to set the format the catalog is saved in from the next save onwards.
+     */
+    public void setFileFormat(CatalogFileFormat fileFormat) {
+        this.fileFormat = fileFormat;
+    }
+
+    /**
+     * A method to return the number of bytes of journal records that would be replayed on top of the data file if it were loaded now.
+     */
+    public long getJournalSize() {
+        try {
+            return catalogShards != null ? catalogShards.journalSize() : catalogJournal.size();
+        }
+        catch (IOException exception) {
+            return 0;
+        }
+    }
+
+    /**
+     * A method to return the size in bytes of the data file, or of all the shards of a sharded catalog, or 0 if it has not been saved yet.
+     */
+    public long getDataFileSize() {
+        try {
+            Path filePath = Paths.get(dataFileName);
+            return catalogShards != null ? catalogShards.dataSize() : Files.exists(filePath) ? Files.size(filePath) : 0;
+        }
+        catch (IOException exception) {
+            return 0;
+        }
+    }
+
+    /**
+     * A method to return the number of shards the catalog is saved to, which is 1 if it is saved to the single data file.
+     */
+    public int getShardCount() {
+        return catalogShards != null ? catalogShards.getShardCount() : 1;
+    }
+
+    /**
+     * A method to return the number of snapshots of the data file taken since the manager was created.
+     */
+    public long getSnapshotCount() {
+        return snapshotCount;
+    }
+
+    /**
+     * A method to return the name of the file the catalog is saved to and loaded from.
+     */
+    public String getDataFileName() {
+        return dataFileName;
     }
 
     /**
      * A method to return a product by its product ID, or null if not found.
+     * The product is looked up in the catalog index instead of scanning the product list.
      */
     public Product getProductById(String productId) {
-        for (Product product : productList) {
-            if (product.getProductID().equals(productId)) {
-                return product; // Return the product if its ID matches the specified ID
+        long start = GET_PRODUCT_LATENCY.start();
+        Product product = catalogStore.get(productId);
+        if (product == null && !loadFuture.isDone()) { // The product may not have been streamed in yet
+            awaitLoaded();
+            product = catalogStore.get(productId);
+        }
+        GET_PRODUCT_LATENCY.stop(start);
+        if (product == null) {
+            GET_PRODUCT_MISSES.increment();
+        }
+        return product;
+    }
+
+    /**
+     * A method to return a copy of the products in the specified category (Electronics or Clothing).
+     */
+    public Collection<Product> getProductsByCategory(String category) {
+        return catalogStore.getByCategory(category);
+    }
+
+    /**
+     * A method to return a read-only view of the products in the specified category, or of all products if the category is null.
+     * Unlike getProductList, the view is only built again after the catalog changes, so the GUI can show it without copying it.
+     */
+    public List<Product> getProductView(String category) {
+        return catalogStore.view(category);
+    }
+
+    /**
+     * A method to return a read-only view of the products in the specified category, or of all products if the category is null,
+     * in the alphabetical order of their IDs. Like getProductView, the view is only built again after the catalog changes,
+     * and after a change to a single product it is copied from the view before the change rather than sorted.
+     */
+    public List<Product> getSortedProductView(String category) {
+        return catalogStore.sortedView(category);
+    }
+
+    /**
+     * A method to return the immutable snapshot of the current version of the catalog, so a reader can list, look up and page
+     * through the same catalog however it changes meanwhile, without waiting for the manager's changes.
+     */
+    public CatalogSnapshot getCatalogSnapshot() {
+        return catalogStore.snapshot();
+    }
+
+    /**
+     * A method to return up to the passed number of products whose IDs are from fromID to toID inclusive, in ID order,
+     * such as all the products from "phone1" to "phone9". A null fromID or toID leaves that end of the range open.
+     * Only products of the specified category are returned, or of all categories if the category is null.
+     */
+    public List<Product> getProductsInRange(String fromID, String toID, String category, int limit) {
+        return catalogStore.getRange(fromID, true, toID, category, limit);
+    }
+
+    /**
+     * A method to return the next page of the products in ID order: up to the passed number of products whose IDs come after afterID,
+     * or the first page if afterID is null, and up to toID inclusive, or to the end if toID is null.
+     * Passing the ID of the last product of a page returns the page after it, without counting through the products before it.
+     */
+    public List<Product> getProductsAfter(String afterID, String toID, String category, int limit) {
+        return catalogStore.getRange(afterID, false, toID, category, limit);
+    }
+
+    /**
+     * A method to search the products of the specified category, or of all products if the category is null, as the user types.
+     * A product matches if its name, brand, size or color has a word starting with every word of the query, so "red sh"
+     * finds a red shirt. Up to the passed number of matches are returned, in the order they were added.
+     * The first search indexes the whole catalog, which decodes the details of lazily loaded products; later changes
+     * to the catalog update the index as they happen.
+     */
+    public List<Product> searchProducts(String query, String category, int limit) {
+        return catalogStore.search(query, category, limit);
+    }
+
+    /**
+     * Writes the passed products to the specified file in the current file format.
+     * They are written to a temporary file, which is forced to disk and then moved over the specified file.
+     */
+    private void writeCatalogFile(String fileName, List<Product> products) throws IOException {
+        Path filePath = Paths.get(fileName);
+        Path tempPath = Paths.get(fileName + ".tmp");
+        if (fileFormat == CatalogFileFormat.BINARY) {
+            BinaryCatalogFile.write(products, tempPath);
+        } else {
+            try (ObjectOutputStream outputStream = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+                // Creates an ObjectOutputStream to serialize the objects and write to the temporary file
+                outputStream.writeObject(new ArrayList<>(products)); // An ArrayList, as in files saved before
             }
         }
-        return null; // Return null if no product with the specified ID is found
+        try (FileChannel tempChannel = FileChannel.open(tempPath, StandardOpenOption.WRITE)) {
+            tempChannel.force(true); // The file must be on disk before the journal records it replaces are deleted
+        }
+        SAVED_BYTES.add(Files.size(tempPath));
+        Files.move(tempPath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
     }
 
     /**
-     * Refreshes the product table in the associated GUI.
+     * Writes every shard of the catalog to its data file, in parallel, as a snapshot that retires the journals of the shards.
      */
-    private void refreshProductTable() {
-        if (userShoppingCenter != null) { // Check if the associated UserShoppingCenter GUI is not null
-            DefaultTableModel model = userShoppingCenter.getProductTableModel(); // Retrieve the DefaultTableModel from the GUI
-            if (model != null) {
-                model.fireTableDataChanged(); // Notifies all listeners in the table that all cell values in the table's rows may have changed and triggers a refresh
+    private void writeShards(CatalogShards shards) throws IOException {
+        boolean[] allShards = new boolean[shards.getShardCount()];
+        Arrays.fill(allShards, true);
+        writeShards(shards, allShards);
+    }
+
+    /**
+     * Writes the shards of the catalog marked in the passed array to their data files, in parallel.
+     * As with a snapshot of the single data file, the journals of the shards are rotated before the products are copied,
+     * and retired once the shards are on disk. The shards are locked, always in the same order, from before the products are
+     * copied until they are written, so a shard is never overwritten by an older copy of its products.
+     */
+    private void writeShards(CatalogShards shards, boolean[] shardsToWrite) throws IOException {
+        for (int shard = 0; shard < shards.getShardCount(); shard++) {
+            if (shardsToWrite[shard]) {
+                shards.getLock(shard).lock();
+            }
+        }
+        try {
+            for (int shard = 0; shard < shards.getShardCount(); shard++) {
+                if (shardsToWrite[shard]) {
+                    shards.getJournal(shard).rotate(); // Changes made from now on are replayed on top of the shard
+                }
+            }
+            List<List<Product>> shardProducts = shards.partition(catalogStore.values());
+            shards.forEachShard(shard -> {
+                if (!shardsToWrite[shard]) {
+                    return 0L;
+                }
+                writeCatalogFile(shards.getShardFileName(shard), shardProducts.get(shard));
+                return shards.getJournal(shard).retireRotated();
+            });
+        }
+        finally {
+            for (int shard = 0; shard < shards.getShardCount(); shard++) {
+                if (shardsToWrite[shard]) {
+                    shards.getLock(shard).unlock();
+                }
             }
         }
     }
+
+    /**
+     * Saves the catalog in snapshot mode after the passed products have changed.
+     * The single data file is saved whole, but of a sharded catalog only the shards holding the products are written again.
+     */
+    private void saveChanges(Collection<? extends Product> products) {
+        if (catalogShards == null) {
+            saveProducts(dataFileName);
+            return;
+        }
+        try {
+            writeChanges(products);
+        }
+        catch (IOException exception) {
+            System.out.println("Error saving products to file: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Saves the catalog in snapshot mode after the passed products have changed, as saveChanges does, but throws the error
+     * if the catalog could not be saved.
+     */
+    private void writeChanges(Collection<? extends Product> products) throws IOException {
+        if (catalogShards == null) {
+            writeSnapshot();
+            return;
+        }
+        boolean[] changedShards = new boolean[catalogShards.getShardCount()];
+        for (Product product : products) {
+            changedShards[catalogShards.shardOf(product)] = true;
+        }
+        writeShards(catalogShards, changedShards);
+    }
+
+    /**
+     * Returns the journal the changes to the passed product are recorded in: the journal of its shard, or of the single data file.
+     */
+    private CatalogJournal journalOf(Product product) {
+        return catalogShards == null ? catalogJournal : catalogShards.getJournal(catalogShards.shardOf(product));
+    }
+
+    /**
+     * Returns the passed products grouped by the journal their changes are recorded in, so a batch appends one record to each journal.
+     * A batch spanning several shards is therefore replayed shard by shard after a crash, rather than as a whole.
+     */
+    private Map<CatalogJournal, List<Product>> groupByJournal(Collection<? extends Product> products) {
+        if (catalogShards == null) {
+            return Map.of(catalogJournal, List.copyOf(products));
+        }
+        Map<CatalogJournal, List<Product>> productsByJournal = new LinkedHashMap<>();
+        List<List<Product>> shardProducts = catalogShards.partition(products);
+        for (int shard = 0; shard < shardProducts.size(); shard++) {
+            if (!shardProducts.get(shard).isEmpty()) {
+                productsByJournal.put(catalogShards.getJournal(shard), shardProducts.get(shard));
+            }
+        }
+        return productsByJournal;
+    }
+
+    /**
+     * Waits until the data file is fully loaded.
+     * Changes to the catalog wait for lazy loading to finish, so they are never overwritten by products still streaming in.
+     */
+    private void awaitLoaded() {
+        loadFuture.join();
+    }
+
+    /**
+     * Persists the addition of a product according to the persistence mode.
+     */
+    private void persistAddition(Product product) {
+        if (persistenceMode == PersistenceMode.SNAPSHOT) {
+            saveChanges(List.of(product));
+            return;
+        }
+        try {
+            journalOf(product).appendAdd(product);
+        }
+        catch (IOException exception) {
+            System.out.println("Error writing to the journal: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Persists the addition of a batch of products according to the persistence mode.
+     */
+    private void persistAdditions(Collection<Product> products) {
+        if (persistenceMode == PersistenceMode.SNAPSHOT) {
+            saveChanges(products);
+            return;
+        }
+        try {
+            for (Map.Entry<CatalogJournal, List<Product>> batch : groupByJournal(products).entrySet()) {
+                batch.getKey().appendAdds(batch.getValue());
+            }
+        }
+        catch (IOException exception) {
+            System.out.println("Error writing to the journal: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Persists the deletion of a product according to the persistence mode.
+     */
+    private void persistDeletion(Product product) {
+        if (persistenceMode == PersistenceMode.SNAPSHOT) {
+            saveChanges(List.of(product));
+            return;
+        }
+        try {
+            journalOf(product).appendDelete(product.getProductID());
+        }
+        catch (IOException exception) {
+            System.out.println("Error writing to the journal: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Persists the deletion of a batch of products according to the persistence mode.
+     */
+    private void persistDeletions(Collection<Product> products) {
+        if (persistenceMode == PersistenceMode.SNAPSHOT) {
+            saveChanges(products);
+            return;
+        }
+        try {
+            for (Map.Entry<CatalogJournal, List<Product>> batch : groupByJournal(products).entrySet()) {
+                List<String> productIDs = new ArrayList<>(batch.getValue().size());
+                for (Product product : batch.getValue()) {
+                    productIDs.add(product.getProductID());
+                }
+                batch.getKey().appendDeletes(productIDs);
+            }
+        }
+        catch (IOException exception) {
+            System.out.println("Error writing to the journal: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Records a change to the number of items available of a product.
+     * The change is persisted and published, so the GUI can update its low stock highlighting.
+     */
+    void stockChanged(Product product) {
+        persistStockChange(product);
+        publish(CatalogEvent.Type.STOCK_CHANGED, List.of(product));
+    }
+
+    /**
+     * Records a change to the number of items available of a batch of products.
+     * The changes are persisted with a single journal record and published as a single event.
+     */
+    void stockChanged(Collection<Product> products) {
+        persistStockChanges(products);
+        publish(CatalogEvent.Type.STOCK_CHANGED, List.copyOf(products));
+    }
+
+    /**
+     * Records the items of a batch of orders being sold.
+     * Unlike stockChanged, the new numbers of items available are on disk when this method returns, and an error is thrown rather than printed,
+     * so the order processor never reports an order as placed while the stock it sold could still be lost.
+     */
+    void stockSold(Collection<Product> products) throws IOException {
+        awaitLoaded();
+        if (persistenceMode == PersistenceMode.SNAPSHOT) {
+            writeChanges(products);
+        } else {
+            for (Map.Entry<CatalogJournal, List<Product>> batch : groupByJournal(products).entrySet()) {
+                batch.getKey().appendStockUpdates(batch.getValue());
+                batch.getKey().sync();
+            }
+        }
+        publish(CatalogEvent.Type.STOCK_CHANGED, List.copyOf(products));
+    }
+
+    /**
+     * Persists a change to the number of items available of a product according to the persistence mode.
+     */
+    private void persistStockChange(Product product) {
+        if (persistenceMode == PersistenceMode.SNAPSHOT) {
+            saveChanges(List.of(product));
+            return;
+        }
+        try {
+            journalOf(product).appendStockUpdate(product);
+        }
+        catch (IOException exception) {
+            System.out.println("Error writing to the journal: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Persists a change to the number of items available of a batch of products according to the persistence mode.
+     */
+    private void persistStockChanges(Collection<Product> products) {
+        if (persistenceMode == PersistenceMode.SNAPSHOT) {
+            saveChanges(products);
+            return;
+        }
+        try {
+            for (Map.Entry<CatalogJournal, List<Product>> batch : groupByJournal(products).entrySet()) {
+                batch.getKey().appendStockUpdates(batch.getValue());
+            }
+        }
+        catch (IOException exception) {
+            System.out.println("Error writing to the journal: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Prints the number of products in the system, against the capacity if the catalog has one.
+     */
+    private void printProductCount() {
+        if (catalogStore.isUnlimited()) {
+            System.out.println(catalogStore.size() + " item(s) are in the system.");
+        } else {
+            System.out.println(catalogStore.size() + "/" + catalogStore.getCapacity() + " item(s) are in the system.");
+        }
+    }
+
+    /**
+     * Publishes a change to the catalog on the event bus, unless nobody is subscribed.
+     */
+    private void publish(CatalogEvent.Type type, List<Product> products) {
+        if (eventBus.hasSubscribers()) {
+            eventBus.publish(new CatalogEvent(type, products));
+        }
+    }
 }
 
 //REFERENCES
 
+/* Java NIO
+ * Files.move - https://docs.oracle.com/javase/8/docs/api/java/nio/file/Files.html#move-java.nio.file.Path-java.nio.file.Path-java.nio.file.CopyOption...-
+ */
+
 /* Java ExceptionHandling
  * IOException - https://docs.oracle.com/javase/8/docs/api/java/io/IOException.html
  * ClassNotFoundException - https://docs.oracle.com/javase/7/docs/api/java/lang/ClassNotFoundException.html
- */
-
-/* GUI
- * fireTableDataChanged() - https://docs.oracle.com/javase%2F7%2Fdocs%2Fapi%2F%2F/javax/swing/table/AbstractTableModel.html#fireTableDataChanged()
  */
\ No newline at end of file